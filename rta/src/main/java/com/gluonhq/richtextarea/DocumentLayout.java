@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.emoji.EmojiSkinTone;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.PieceTable;
+import com.gluonhq.richtextarea.model.TextBuffer;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.image.Image;
+import javafx.scene.text.Font;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Computes the layout of a {@link Document} for a given wrap width, like a {@link RichTextArea} does
+ * for its paragraphs: where the lines of each paragraph break, the height of each paragraph, and the
+ * geometry of the caret at each position, without a {@link RichTextArea}, a scene or a stage.
+ *
+ * The paragraphs are measured with the same fonts, indentation and paragraph decorations that the
+ * control uses, with text flows that are never added to a scene, so a document layout can be computed
+ * from any thread, and many documents can be laid out in parallel with
+ * {@link #layoutAll(List, double, Executor)}. The text flows still need the JavaFX toolkit, that must
+ * be started before, for instance with {@link javafx.application.Platform#startup(Runnable)} when
+ * there is no JavaFX application, like in a server.
+ *
+ * Only the geometry of the lines is kept, not the nodes that were measured, so the layouts of many
+ * documents can be held at once. The caret bounds are computed again from new nodes when needed.
+ *
+ * Tables are measured as a grid of cells, like the control lays them out, and each table is a single
+ * line that is never split.
+ */
+public final class DocumentLayout {
+
+    private static final Map<Integer, Font> FONT_CACHE = new ConcurrentHashMap<>();
+
+    private final double wrapWidth;
+    private final List<ParagraphLayout> paragraphs;
+    private final double[] paragraphTops;
+    private final double height;
+
+    /**
+     * Computes the layout of a document
+     * @param document the document
+     * @param wrapWidth the width of the text, in pixels
+     * @throws IllegalArgumentException if the wrap width is not positive
+     */
+    public DocumentLayout(Document document, double wrapWidth) {
+        this(new PieceTable(Objects.requireNonNull(document)), wrapWidth, createFragmentFactory(new ConcurrentHashMap<>(), wrapWidth));
+    }
+
+    DocumentLayout(TextBuffer textBuffer, double wrapWidth, FragmentFactory fragmentFactory) {
+        if (wrapWidth <= 0) {
+            throw new IllegalArgumentException("Wrap width " + wrapWidth + " is not positive");
+        }
+        this.wrapWidth = wrapWidth;
+        List<ParagraphLayout> list = new ArrayList<>();
+        int start = 0;
+        for (int lineFeed : textBuffer.getLineFeeds()) {
+            list.add(ParagraphLayout.create(textBuffer, start, lineFeed + 1, wrapWidth, fragmentFactory));
+            start = lineFeed + 1;
+        }
+        list.add(ParagraphLayout.create(textBuffer, start, textBuffer.getTextLength(), wrapWidth, fragmentFactory));
+        this.paragraphs = Collections.unmodifiableList(list);
+        this.paragraphTops = new double[list.size()];
+        double y = 0;
+        for (int i = 0; i < list.size(); i++) {
+            paragraphTops[i] = y;
+            y += list.get(i).getHeight();
+        }
+        this.height = y;
+    }
+
+    /**
+     * Computes the layouts of a list of documents in parallel
+     * @param documents the documents
+     * @param wrapWidth the width of the text, in pixels
+     * @param executor the executor that runs the layout of each document
+     * @return a future with the layouts, in the same order as the documents
+     * @throws IllegalArgumentException if the wrap width is not positive
+     */
+    public static CompletableFuture<List<DocumentLayout>> layoutAll(List<Document> documents, double wrapWidth, Executor executor) {
+        Objects.requireNonNull(documents);
+        Objects.requireNonNull(executor);
+        if (wrapWidth <= 0) {
+            throw new IllegalArgumentException("Wrap width " + wrapWidth + " is not positive");
+        }
+        // the images are shared by all the documents of the batch
+        FragmentFactory fragmentFactory = createFragmentFactory(new ConcurrentHashMap<>(), wrapWidth);
+        List<CompletableFuture<DocumentLayout>> futures = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Objects.requireNonNull(document);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> new DocumentLayout(new PieceTable(document), wrapWidth, fragmentFactory), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    public double getWrapWidth() {
+        return wrapWidth;
+    }
+
+    /**
+     * Gets the height of the document, as the sum of the heights of its paragraphs
+     * @return the height, in pixels
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the layouts of the paragraphs of the document
+     * @return an unmodifiable list with the paragraph layouts, in order
+     */
+    public List<ParagraphLayout> getParagraphs() {
+        return paragraphs;
+    }
+
+    /**
+     * Gets the top of a paragraph within the document
+     * @param paragraph the index of the paragraph
+     * @return the vertical coordinate of the top of the paragraph
+     * @throws IndexOutOfBoundsException if the paragraph is not valid
+     */
+    public double getParagraphTop(int paragraph) {
+        return paragraphTops[paragraph];
+    }
+
+    /**
+     * Gets the index of the paragraph that contains a position
+     * @param position the internal position within the document
+     * @return the index of the paragraph
+     * @throws IllegalArgumentException if the position is outside of the document
+     */
+    public int getParagraphIndex(int position) {
+        ParagraphLayout last = paragraphs.get(paragraphs.size() - 1);
+        if (position < 0 || position > last.getEnd()) {
+            throw new IllegalArgumentException("Position " + position + " is outside of the document");
+        }
+        int low = 0, high = paragraphs.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (paragraphs.get(mid).getStart() <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the bounds of the caret at a given position, within the document
+     * @param position the internal position within the document
+     * @return the bounds of the caret, with zero width
+     * @throws IllegalArgumentException if the position is outside of the document
+     */
+    public Bounds getCaretBounds(int position) {
+        int index = getParagraphIndex(position);
+        Bounds bounds = paragraphs.get(index).getCaretBounds(position);
+        return new BoundingBox(bounds.getMinX(), paragraphTops[index] + bounds.getMinY(), 0, bounds.getHeight());
+    }
+
+    static FragmentFactory createFragmentFactory(Map<String, Image> imageCache, double wrapWidth) {
+        return new FragmentFactory(FONT_CACHE, imageCache, () -> EmojiSkinTone.NO_SKIN_TONE, () -> null,
+                () -> wrapWidth - 10);
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.PieceTable;
+import com.gluonhq.richtextarea.model.TextBuffer;
+import javafx.print.PrinterJob;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Splits the paragraphs of a document into pages of a given size, so the document can be printed
+ * with a {@link PrinterJob}, or previewed as images, one page at a time.
+ *
+ * Paragraphs are measured like a {@link DocumentLayout} does, with their indentation and the insets of
+ * their decorations. A paragraph that doesn't fit in the rest of a page is split at the end of one of
+ * its lines, and continues on the next page, except tables, that are moved to the next page as a whole.
+ * Lines, including those with images, are never split, and a table or a line that is taller than a page
+ * is clipped.
+ *
+ * Paragraphs are laid out and pages are computed only as they are needed, and both are cached. When a
+ * paginator is created for a {@link RichTextArea}, see {@link RichTextArea#createPaginator(double, double)},
+ * an edit discards only the paragraphs from the first modified one onwards, and the pages that contain
+ * them, that are computed again when they are needed. Pages are rendered without the graphics of lists
+ * and the background colors of the text, and tables are rendered as a grid of cells, like the control
+ * does, without its borders.
+ *
+ * The paginator must be used from the JavaFX Application thread.
+ */
+public final class DocumentPaginator {
+
+    private final TextBuffer textBuffer;
+    private final double pageWidth, pageHeight;
+    private final FragmentFactory fragmentFactory;
+    private final Consumer<TextBuffer.Event> textChangeListener = this::textChanged;
+
+    private final List<ParagraphLayout> paragraphs = new ArrayList<>();
+    private final List<Page> pages = new ArrayList<>();
+    private final Map<Integer, Image> pageImages = new HashMap<>();
+    private boolean allParagraphsLaidOut;
+
+    /**
+     * Creates a paginator of a document
+     * @param document the document
+     * @param pageWidth the width of the printable area of a page, in pixels
+     * @param pageHeight the height of the printable area of a page, in pixels
+     * @throws IllegalArgumentException if the page width or height is not positive
+     */
+    public DocumentPaginator(Document document, double pageWidth, double pageHeight) {
+        this(new PieceTable(Objects.requireNonNull(document)), pageWidth, pageHeight,
+                DocumentLayout.createFragmentFactory(new ConcurrentHashMap<>(), pageWidth));
+    }
+
+    DocumentPaginator(TextBuffer textBuffer, double pageWidth, double pageHeight, FragmentFactory fragmentFactory) {
+        if (pageWidth <= 0 || pageHeight <= 0) {
+            throw new IllegalArgumentException("Page size " + pageWidth + "x" + pageHeight + " is not positive");
+        }
+        this.textBuffer = Objects.requireNonNull(textBuffer);
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.fragmentFactory = Objects.requireNonNull(fragmentFactory);
+        textBuffer.addChangeListener(textChangeListener);
+    }
+
+    public double getPageWidth() {
+        return pageWidth;
+    }
+
+    public double getPageHeight() {
+        return pageHeight;
+    }
+
+    /**
+     * Gets the number of pages, computing all the pages that were not computed yet
+     * @return the number of pages, at least one
+     */
+    public int getPageCount() {
+        while (addPage()) {
+            // computes the next page
+        }
+        return pages.size();
+    }
+
+    /**
+     * Gets the internal position of the text where a page starts, computing the pages up to it
+     * if needed
+     * @param index the index of the page
+     * @return the position of the start of the first line of the page
+     * @throws IndexOutOfBoundsException if there is no such page
+     */
+    public int getPageStart(int index) {
+        Page page = getPage(index);
+        ParagraphLayout layout = paragraphs.get(page.firstParagraph);
+        return layout.getLineStart(getLineAt(layout, page.firstOffset));
+    }
+
+    /**
+     * Renders a page into a new node, that can be printed or added to a scene. Each call creates
+     * new nodes for the text, so several pages can be rendered at once.
+     * @param index the index of the page
+     * @return the node with the content of the page
+     * @throws IndexOutOfBoundsException if there is no such page
+     */
+    public Node renderPage(int index) {
+        Page page = getPage(index);
+        Pane pane = new Pane();
+        double y = -page.firstOffset;
+        for (int p = page.firstParagraph; p <= page.getLastParagraph(); p++) {
+            ParagraphLayout layout = paragraphs.get(p);
+            // only the nodes are built, the paragraph was already measured
+            Node node = layout.createNode();
+            node.relocate(layout.getContentX(), y + layout.getContentY());
+            pane.getChildren().add(node);
+            y += layout.getHeight();
+        }
+        pane.setPrefSize(pageWidth, pageHeight);
+        pane.setClip(new Rectangle(pageWidth, page.height));
+        return pane;
+    }
+
+    /**
+     * Gets a snapshot image of a page, on a white background, for a preview. The image is taken
+     * only once, as long as the page doesn't change.
+     * @param index the index of the page
+     * @return the image of the page
+     * @throws IndexOutOfBoundsException if there is no such page
+     */
+    public Image snapshotPage(int index) {
+        Image image = pageImages.get(index);
+        if (image == null) {
+            Node node = renderPage(index);
+            // a temporary scene applies the css and the layout to the page
+            new Scene(new Group(node));
+            SnapshotParameters parameters = new SnapshotParameters();
+            parameters.setFill(Color.WHITE);
+            image = node.snapshot(parameters, null);
+            pageImages.put(index, image);
+        }
+        return image;
+    }
+
+    /**
+     * Prints all the pages with a printer job, rendering each page only when it is printed.
+     * The job is not ended, so the caller can end or cancel it.
+     * @param job the printer job, with a printable area of the size of the pages of this paginator
+     * @return true if all the pages were printed, false if any page failed
+     */
+    public boolean print(PrinterJob job) {
+        Objects.requireNonNull(job);
+        for (int i = 0; hasPage(i); i++) {
+            Node node = renderPage(i);
+            new Scene(new Group(node));
+            if (!job.printPage(node)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops listening to the changes of the text, when the paginator is no longer needed
+     */
+    public void dispose() {
+        textBuffer.removeChangeListener(textChangeListener);
+    }
+
+    private void textChanged(TextBuffer.Event event) {
+        if (event instanceof TextBuffer.InsertEvent insertEvent) {
+            invalidate(insertEvent.getPosition());
+        } else if (event instanceof TextBuffer.DeleteEvent deleteEvent) {
+            invalidate(deleteEvent.getPosition());
+        } else if (event instanceof TextBuffer.DecorateEvent decorateEvent) {
+            invalidate(decorateEvent.getStart());
+        } else if (event instanceof TextBuffer.TransactionEvent transactionEvent &&
+                (transactionEvent.getRemovedLength() > 0 || transactionEvent.getInsertedLength() > 0)) {
+            invalidate(transactionEvent.getPosition());
+        }
+    }
+
+    // discards the paragraphs that could be affected by a change at a given position, and their pages
+    private void invalidate(int position) {
+        int low = 0, high = paragraphs.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (paragraphs.get(mid).getEnd() < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int validParagraphs = low;
+        if (validParagraphs < paragraphs.size()) {
+            paragraphs.subList(validParagraphs, paragraphs.size()).clear();
+            allParagraphsLaidOut = false;
+        }
+        // the end of a page depends on the paragraph that comes next
+        int validPages = pages.size();
+        while (validPages > 0 && pages.get(validPages - 1).nextParagraph >= validParagraphs) {
+            validPages--;
+        }
+        if (validPages < pages.size()) {
+            pages.subList(validPages, pages.size()).clear();
+            final int count = validPages;
+            pageImages.keySet().removeIf(i -> i >= count);
+        }
+    }
+
+    private Page getPage(int index) {
+        if (index < 0 || !hasPage(index)) {
+            throw new IndexOutOfBoundsException("Page " + index + " doesn't exist");
+        }
+        return pages.get(index);
+    }
+
+    private boolean hasPage(int index) {
+        while (pages.size() <= index) {
+            if (!addPage()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // computes the next page, returns false if there are no more pages
+    private boolean addPage() {
+        int p = 0;
+        double offset = 0;
+        if (!pages.isEmpty()) {
+            Page last = pages.get(pages.size() - 1);
+            p = last.nextParagraph;
+            offset = last.nextOffset;
+        }
+        if (!hasParagraph(p)) {
+            return false;
+        }
+        int firstParagraph = p;
+        double firstOffset = offset;
+        double used = 0;
+        while (hasParagraph(p)) {
+            ParagraphLayout layout = paragraphs.get(p);
+            double remaining = layout.getHeight() - offset;
+            if (used + remaining <= pageHeight) {
+                used += remaining;
+                p++;
+                offset = 0;
+                continue;
+            }
+            int line = getLineAt(layout, offset);
+            int next = layout.isSplittable() ? getSplitLine(layout, line, offset, pageHeight - used) : line;
+            if (next > line) {
+                used += getLineBottom(layout, next - 1) - offset;
+                offset = layout.getLineTop(next);
+            } else if (used == 0) {
+                // nothing fits in an empty page: the line or the table is clipped
+                if (layout.isSplittable() && line + 1 < layout.getLineCount()) {
+                    used = getLineBottom(layout, line) - offset;
+                    offset = layout.getLineTop(line + 1);
+                } else {
+                    used = remaining;
+                    p++;
+                    offset = 0;
+                }
+            }
+            break;
+        }
+        pages.add(new Page(firstParagraph, firstOffset, p, offset, Math.min(used, pageHeight)));
+        return true;
+    }
+
+    // lays out the paragraphs up to a given one, returns false if there is no such paragraph
+    private boolean hasParagraph(int index) {
+        while (paragraphs.size() <= index) {
+            if (allParagraphsLaidOut) {
+                return false;
+            }
+            int start = paragraphs.isEmpty() ? 0 : paragraphs.get(paragraphs.size() - 1).getEnd();
+            List<Integer> lineFeeds = textBuffer.getLineFeeds();
+            int i = Collections.binarySearch(lineFeeds, start);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            int end;
+            if (i < lineFeeds.size()) {
+                end = lineFeeds.get(i) + 1;
+            } else {
+                end = textBuffer.getTextLength();
+                allParagraphsLaidOut = true;
+            }
+            paragraphs.add(ParagraphLayout.create(textBuffer, start, end, pageWidth, fragmentFactory));
+        }
+        return true;
+    }
+
+    // the first line after the given one that doesn't fit in the available height
+    private static int getSplitLine(ParagraphLayout layout, int line, double offset, double available) {
+        int next = line;
+        while (next < layout.getLineCount() && getLineBottom(layout, next) - offset <= available) {
+            next++;
+        }
+        // the bottom inset didn't fit: the last line goes to the next page
+        return Math.min(next, layout.getLineCount() - 1);
+    }
+
+    private static int getLineAt(ParagraphLayout layout, double offset) {
+        int line = 0;
+        while (line < layout.getLineCount() - 1 && layout.getLineTop(line) < offset) {
+            line++;
+        }
+        return line;
+    }
+
+    private static double getLineBottom(ParagraphLayout layout, int line) {
+        return layout.getLineTop(line) + layout.getLineHeight(line);
+    }
+
+    private static final class Page {
+
+        private final int firstParagraph;
+        private final double firstOffset;
+        // where the next page starts
+        private final int nextParagraph;
+        private final double nextOffset;
+        private final double height;
+
+        Page(int firstParagraph, double firstOffset, int nextParagraph, double nextOffset, double height) {
+            this.firstParagraph = firstParagraph;
+            this.firstOffset = firstOffset;
+            this.nextParagraph = nextParagraph;
+            this.nextOffset = nextOffset;
+            this.height = height;
+        }
+
+        int getLastParagraph() {
+            return nextOffset > 0 ? nextParagraph : nextParagraph - 1;
+        }
+    }
+}
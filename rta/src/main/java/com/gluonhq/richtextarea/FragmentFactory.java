@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.emoji.Emoji;
+import com.gluonhq.emoji.EmojiData;
+import com.gluonhq.emoji.EmojiSkinTone;
+import com.gluonhq.emoji.util.TextUtils;
+import com.gluonhq.richtextarea.model.Block;
+import com.gluonhq.richtextarea.model.BlockUnit;
+import com.gluonhq.richtextarea.model.EmojiUnit;
+import com.gluonhq.richtextarea.model.ImageDecoration;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import com.gluonhq.richtextarea.model.TextUnit;
+import com.gluonhq.richtextarea.model.Unit;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Builds the nodes that render the units of a text buffer, with their decorations, using
+ * caches of fonts, images and colors, so they can be shared by all the nodes that are built.
+ * Nodes can be built from any thread, as long as the caches are thread-safe, but text with
+ * a single line feed is rendered with a shared node that can only be used from the JavaFX
+ * Application thread.
+ */
+final class FragmentFactory {
+
+    private static final Map<String, Color> COLOR_MAP = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Font> fontCache;
+    private final Map<String, Image> imageCache;
+    private final Supplier<EmojiSkinTone> skinToneSupplier;
+    private final Supplier<Function<Node, Consumer<String>>> linkCallbackFactorySupplier;
+    private final DoubleSupplier maxImageWidthSupplier;
+
+    /**
+     * Creates a fragment factory
+     * @param fontCache the cache of fonts
+     * @param imageCache the cache of images, by their url
+     * @param skinToneSupplier supplies the skin tone of emojis, if any
+     * @param linkCallbackFactorySupplier supplies the factory of callbacks of links, if any
+     * @param maxImageWidthSupplier supplies the maximum width of images without a given size
+     */
+    FragmentFactory(Map<Integer, Font> fontCache, Map<String, Image> imageCache,
+                    Supplier<EmojiSkinTone> skinToneSupplier,
+                    Supplier<Function<Node, Consumer<String>>> linkCallbackFactorySupplier,
+                    DoubleSupplier maxImageWidthSupplier) {
+        this.fontCache = Objects.requireNonNull(fontCache);
+        this.imageCache = Objects.requireNonNull(imageCache);
+        this.skinToneSupplier = Objects.requireNonNull(skinToneSupplier);
+        this.linkCallbackFactorySupplier = Objects.requireNonNull(linkCallbackFactorySupplier);
+        this.maxImageWidthSupplier = Objects.requireNonNull(maxImageWidthSupplier);
+    }
+
+    Node buildNode(Unit unit, TextDecoration decoration) {
+        if (unit instanceof TextUnit) {
+            return buildText(unit.getText(), decoration);
+        } else if (unit instanceof BlockUnit) {
+            Block block = ((BlockUnit) unit).getBlock();
+            Text text = buildText(block.getContent(), decoration);
+            text.setTextOrigin(VPos.TOP);
+            return new Group(text);
+        } else if (unit instanceof EmojiUnit) {
+            Emoji emoji = ((EmojiUnit) unit).getEmoji();
+            EmojiSkinTone tone = skinToneSupplier.get();
+            double emojiSize = Math.ceil(decoration.getFontSize() * TextUtils.EMOJI_SIZE_FONT_FACTOR);
+            return TextUtils.convertUnifiedToImageNode(tone != null ?
+                    EmojiData.emojiWithTone(emoji, tone).getUnified() :
+                    emoji.getUnified(), emojiSize);
+        } else {
+            throw new RuntimeException("Error: Unit " + unit + " not supported yet");
+        }
+    }
+
+    Text buildText(String content, TextDecoration decoration) {
+        if ("\n".equals(content)) {
+            return Tools.noWidthText();
+        }
+        Objects.requireNonNull(decoration);
+        Text text = new Text(Objects.requireNonNull(content).replace("\n", ""));
+        String foreground = decoration.getForeground();
+        text.setFill(getColor(foreground, Color.BLACK));
+        text.setStrikethrough(decoration.isStrikethrough());
+        text.setUnderline(decoration.isUnderline());
+        text.setFont(getFont(decoration));
+        String url = decoration.getURL();
+        if (url != null) {
+            text.setUnderline(true);
+            text.setFill(Color.BLUE);
+            text.setCursor(Cursor.HAND);
+            text.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+                if (e.getButton() == MouseButton.PRIMARY) {
+                    acceptLink(text, url);
+                }
+            });
+        }
+        return text;
+    }
+
+    ImageView buildImage(ImageDecoration imageDecoration) {
+        Image image = imageCache.computeIfAbsent(imageDecoration.getUrl(), Image::new);
+        final ImageView imageView = new ImageView(image);
+        // TODO Create resizable ImageView
+        if (imageDecoration.getWidth() > -1 && imageDecoration.getHeight() > -1) {
+            imageView.setFitWidth(imageDecoration.getWidth());
+            imageView.setFitHeight(imageDecoration.getHeight());
+        } else {
+            // for now, limit the image within the content area
+            double width = Math.min(image.getWidth(), maxImageWidthSupplier.getAsDouble());
+            imageView.setFitWidth(width);
+            imageView.setPreserveRatio(true);
+        }
+        if (imageDecoration.getLink() != null) {
+            imageView.setCursor(Cursor.HAND);
+            imageView.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> acceptLink(imageView, imageDecoration.getLink()));
+        }
+        return imageView;
+    }
+
+    Font getFont(TextDecoration decoration) {
+        // Caching fonts, assuming their reuse, especially for default one
+        int hash = Objects.hash(
+                decoration.getFontFamily(),
+                decoration.getFontWeight(),
+                decoration.getFontPosture(),
+                decoration.getFontSize());
+
+        return fontCache.computeIfAbsent(hash,
+                h -> Font.font(
+                        decoration.getFontFamily(),
+                        decoration.getFontWeight(),
+                        decoration.getFontPosture(),
+                        decoration.getFontSize()));
+    }
+
+    static Color getColor(String color, Color defaultColor) {
+        if (color == null) {
+            return defaultColor;
+        }
+        return COLOR_MAP.computeIfAbsent(color, s -> parseColorOrDefault(color, defaultColor));
+    }
+
+    private void acceptLink(Node node, String link) {
+        Function<Node, Consumer<String>> linkCallbackFactory = linkCallbackFactorySupplier.get();
+        if (linkCallbackFactory != null) {
+            Consumer<String> consumer = linkCallbackFactory.apply(node);
+            if (consumer != null) {
+                consumer.accept(link);
+            }
+        }
+    }
+
+    private static Color parseColorOrDefault(String color, Color defaultColor) {
+        try {
+            return Color.web(color);
+        } catch (Exception e) {
+            return defaultColor;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import java.util.Objects;
+
+/**
+ * A range of text of a {@link RichTextArea} that is highlighted with a style class, like a
+ * search result or a spelling mark.
+ * Highlights are not part of the document: they are rendered over the text, but don't modify
+ * it, can't be undone, and don't mark the document as modified.
+ * Their positions refer to the text of the document, and are not adjusted when it changes.
+ */
+public final class Highlight {
+
+    private final int start;
+    private final int end;
+    private final String styleClass;
+    private final boolean underline;
+
+    /**
+     * Creates a highlight that fills the range of text
+     * @param start the start position within the text, inclusive
+     * @param end the end position within the text, exclusive
+     * @param styleClass the style class of the highlight path, added to the "highlight" one
+     * @throws IllegalArgumentException if the range is not valid
+     */
+    public Highlight(int start, int end, String styleClass) {
+        this(start, end, styleClass, false);
+    }
+
+    /**
+     * Creates a highlight
+     * @param start the start position within the text, inclusive
+     * @param end the end position within the text, exclusive
+     * @param styleClass the style class of the highlight path, added to the "highlight" one
+     * @param underline true to underline the range of text, like a spelling mark, adding
+     *                  the "underline" style class to the path, or false to fill it
+     * @throws IllegalArgumentException if the range is not valid
+     */
+    public Highlight(int start, int end, String styleClass, boolean underline) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid highlight range [" + start + ", " + end + ")");
+        }
+        this.start = start;
+        this.end = end;
+        this.styleClass = Objects.requireNonNull(styleClass);
+        this.underline = underline;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public String getStyleClass() {
+        return styleClass;
+    }
+
+    public boolean isUnderline() {
+        return underline;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Highlight highlight = (Highlight) o;
+        return start == highlight.start && end == highlight.end && underline == highlight.underline &&
+                styleClass.equals(highlight.styleClass);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end, styleClass, underline);
+    }
+
+    @Override
+    public String toString() {
+        return "Highlight {" +
+                "start=" + start +
+                ", end=" + end +
+                ", styleClass=" + styleClass +
+                ", underline=" + underline +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable index of highlights sorted by their start position, to find those that overlap
+ * a paragraph without walking all of them
+ */
+class HighlightIndex {
+
+    static final HighlightIndex EMPTY = new HighlightIndex(List.of());
+
+    private final Highlight[] highlights;
+    // maximum end position of the highlights up to each index
+    private final int[] maxEnds;
+
+    HighlightIndex(Collection<Highlight> highlights) {
+        this.highlights = highlights.toArray(new Highlight[0]);
+        Arrays.sort(this.highlights, Comparator.comparingInt(Highlight::getStart));
+        maxEnds = new int[this.highlights.length];
+        int maxEnd = 0;
+        for (int i = 0; i < maxEnds.length; i++) {
+            maxEnd = Math.max(maxEnd, this.highlights[i].getEnd());
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    /**
+     * Finds the non-empty highlights that overlap a range of text
+     * @param start the start position, inclusive
+     * @param end the end position, exclusive
+     * @return the list of highlights, sorted by their start position
+     */
+    List<Highlight> find(int start, int end) {
+        // first highlight that starts at or after the end of the range
+        int low = 0, high = highlights.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (highlights[mid].getStart() < end) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<Highlight> result = new ArrayList<>();
+        for (int i = low - 1; i >= 0 && maxEnds[i] > start; i--) {
+            Highlight highlight = highlights[i];
+            if (highlight.getEnd() > start && highlight.getEnd() > highlight.getStart()) {
+                result.add(highlight);
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.richtextarea.model.ImageDecoration;
+import com.gluonhq.richtextarea.model.ParagraphDecoration;
+import com.gluonhq.richtextarea.model.TableDecoration;
+import com.gluonhq.richtextarea.model.TextBuffer;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import com.gluonhq.richtextarea.model.TextUnit;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.PathElement;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import javafx.scene.text.TextFlow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.gluonhq.richtextarea.RichTextAreaSkin.DEFAULT_FONT_SIZE;
+
+/**
+ * The layout of a single paragraph of a text buffer: its height, the positions where its lines
+ * start, and the geometry of the caret, as computed by a {@link DocumentLayout}.
+ *
+ * Only the geometry of the lines is kept: the nodes of the paragraph are built again when they
+ * are needed, to render the paragraph or to find the caret at a given position.
+ *
+ * All the coordinates are relative to the top left corner of the paragraph, that includes its
+ * indentation and the insets of its {@link ParagraphDecoration}.
+ */
+public final class ParagraphLayout {
+
+    // the geometry of a paragraph tile, so both have the same size
+    static final double INDENT_PADDING = 20.0;
+    // padding of the content pane of a paragraph tile
+    static final double TILE_PADDING = 1.0;
+    // extra height of each layer of a paragraph tile, below its text flow
+    static final double LAYER_EXTRA_HEIGHT = 1.0;
+    // preferred width of the text flow of a table cell, including its insets
+    static final double TABLE_CELL_WIDTH = 100.0;
+
+    private final TextBuffer textBuffer;
+    private final double wrapWidth;
+    private final FragmentFactory fragmentFactory;
+    private final int start, end;
+    private final ParagraphDecoration decoration;
+    private final double indent, contentX, contentY, height;
+    private final int[] lineStarts;
+    private final double[] lineTops, lineBottoms;
+
+    private ParagraphLayout(TextBuffer textBuffer, double wrapWidth, FragmentFactory fragmentFactory,
+                            int start, int end, ParagraphDecoration decoration, double indent, double height,
+                            int[] lineStarts, double[] lineTops, double[] lineBottoms) {
+        this.textBuffer = textBuffer;
+        this.wrapWidth = wrapWidth;
+        this.fragmentFactory = fragmentFactory;
+        this.start = start;
+        this.end = end;
+        this.decoration = decoration;
+        this.indent = indent;
+        // the insets of a table are applied to each of its cells
+        boolean table = decoration.hasTableDecoration();
+        this.contentX = indent + TILE_PADDING + (table ? 0 : decoration.getLeftInset());
+        this.contentY = TILE_PADDING + (table ? 0 : decoration.getTopInset());
+        this.height = height;
+        this.lineStarts = lineStarts;
+        this.lineTops = lineTops;
+        this.lineBottoms = lineBottoms;
+    }
+
+    /**
+     * Lays out the paragraph of a text buffer between two positions, with nodes that are never
+     * added to a scene, so it can be called from any thread, as long as the text buffer is not
+     * modified meanwhile
+     * @param textBuffer the text buffer
+     * @param start the internal position where the paragraph starts, inclusive
+     * @param end the internal position where the paragraph ends, exclusive
+     * @param wrapWidth the width available for the paragraph, in pixels
+     * @param fragmentFactory the factory of the nodes of the text
+     * @return the layout of the paragraph
+     */
+    static ParagraphLayout create(TextBuffer textBuffer, int start, int end, double wrapWidth, FragmentFactory fragmentFactory) {
+        ParagraphDecoration decoration = textBuffer.getParagraphDecorationAtCaret(start);
+        if (decoration == null) {
+            decoration = ParagraphDecoration.builder().presets().build();
+        }
+        Content content = Content.build(textBuffer, start, end, wrapWidth, fragmentFactory, decoration);
+        if (decoration.hasTableDecoration()) {
+            // a table is a single line, that can't be split: same height as the grid of a paragraph tile
+            return new ParagraphLayout(textBuffer, wrapWidth, fragmentFactory, start, end, decoration, 0,
+                    content.height + 2 * TILE_PADDING, new int[] {start}, new double[] {0}, new double[] {content.height});
+        }
+
+        // the caret of a position is in the line of its character, whatever the alignment, so
+        // a line ends where the top of the caret moves down, which is found by a binary search
+        List<Integer> starts = new ArrayList<>();
+        List<double[]> bounds = new ArrayList<>();
+        int last = Math.max(end - start - 1, 0);
+        double[] lastCaret = content.getCaretBounds(last);
+        int index = 0;
+        double[] caret = content.getCaretBounds(0);
+        while (true) {
+            starts.add(index);
+            bounds.add(caret);
+            if (caret == null || !isBelow(lastCaret, caret)) {
+                break;
+            }
+            int low = index + 1, high = last;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (isBelow(content.getCaretBounds(mid), caret)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            index = low;
+            caret = content.getCaretBounds(index);
+        }
+        int[] lineStarts = new int[starts.size()];
+        double[] lineTops = new double[starts.size()];
+        double[] lineBottoms = new double[starts.size()];
+        for (int i = 0; i < lineStarts.length; i++) {
+            lineStarts[i] = start + starts.get(i);
+            double[] bound = bounds.get(i);
+            lineTops[i] = bound == null ? 0 : bound[1];
+            lineBottoms[i] = bound == null ? content.height : bound[3];
+        }
+        // same height as a paragraph tile: the text flow with the insets, the extra height
+        // of its layer, and the padding of its content pane
+        double height = content.height + decoration.getTopInset() + decoration.getBottomInset() +
+                LAYER_EXTRA_HEIGHT + 2 * TILE_PADDING;
+        return new ParagraphLayout(textBuffer, wrapWidth, fragmentFactory, start, end, decoration,
+                getIndent(decoration), height, lineStarts, lineTops, lineBottoms);
+    }
+
+    /**
+     * Gets the internal position where the paragraph starts
+     * @return the start position, inclusive
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the internal position where the paragraph ends, including its line feed, if any
+     * @return the end position, exclusive
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    public ParagraphDecoration getDecoration() {
+        return decoration;
+    }
+
+    /**
+     * Gets the height of the paragraph, including the insets of its decoration
+     * @return the height, in pixels
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the horizontal space taken by the indentation level and the list graphic of the paragraph
+     * @return the indentation, in pixels
+     */
+    public double getIndent() {
+        return indent;
+    }
+
+    /**
+     * Checks if the paragraph can be split between pages at the end of any of its lines.
+     * Tables can't be split.
+     * @return true if the paragraph can be split
+     */
+    public boolean isSplittable() {
+        return !decoration.hasTableDecoration() && lineStarts.length > 1;
+    }
+
+    public int getLineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * Gets the internal position where a line of the paragraph starts
+     * @param line the index of the line
+     * @return the start position of the line
+     * @throws IndexOutOfBoundsException if the line is not valid
+     */
+    public int getLineStart(int line) {
+        return lineStarts[line];
+    }
+
+    /**
+     * Gets the top of a line of the paragraph
+     * @param line the index of the line
+     * @return the vertical coordinate of the top of the line
+     * @throws IndexOutOfBoundsException if the line is not valid
+     */
+    public double getLineTop(int line) {
+        return contentY + lineTops[line];
+    }
+
+    /**
+     * Gets the height of a line of the paragraph
+     * @param line the index of the line
+     * @return the height of the line, in pixels
+     * @throws IndexOutOfBoundsException if the line is not valid
+     */
+    public double getLineHeight(int line) {
+        return lineBottoms[line] - lineTops[line];
+    }
+
+    /**
+     * Gets the index of the line of the paragraph that contains a position
+     * @param position the internal position, within the paragraph
+     * @return the index of the line
+     * @throws IllegalArgumentException if the position is not within the paragraph
+     */
+    public int getLineIndex(int position) {
+        checkPosition(position);
+        int index = Arrays.binarySearch(lineStarts, position);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Gets the bounds of the caret at a given position of the paragraph. The nodes of the paragraph
+     * are built again to find it, so the text buffer must not have been modified since the paragraph
+     * was laid out.
+     * @param position the internal position, within the paragraph
+     * @return the bounds of the caret, with zero width
+     * @throws IllegalArgumentException if the position is not within the paragraph
+     */
+    public Bounds getCaretBounds(int position) {
+        checkPosition(position);
+        Content content = Content.build(textBuffer, start, end, wrapWidth, fragmentFactory, decoration);
+        double[] caret = content.getCaretBounds(position - start);
+        if (caret == null) {
+            return new BoundingBox(contentX, contentY, 0, getLineHeight(0));
+        }
+        return new BoundingBox(contentX + caret[0], contentY + caret[1], 0, caret[3] - caret[1]);
+    }
+
+    /*
+     * Builds new nodes with the content of the paragraph, laid out, but not in a scene, so they can be
+     * rendered or printed: a text flow, or a pane with the text flows of the cells of a table. The nodes
+     * are meant to be located at the content position. The text buffer must not have been modified
+     * since the paragraph was laid out.
+     */
+    Node createNode() {
+        return Content.build(textBuffer, start, end, wrapWidth, fragmentFactory, decoration).node;
+    }
+
+    // the location of the content nodes, relative to the top left corner of the paragraph
+    double getContentX() {
+        return contentX;
+    }
+
+    double getContentY() {
+        return contentY;
+    }
+
+    static double getIndent(ParagraphDecoration decoration) {
+        int indentationLevel = decoration.getIndentationLevel();
+        ParagraphDecoration.GraphicType graphicType = decoration.getGraphicType();
+        boolean hasGraphic = graphicType == ParagraphDecoration.GraphicType.NUMBERED_LIST ||
+                (graphicType == ParagraphDecoration.GraphicType.BULLETED_LIST && indentationLevel > 0);
+        return (hasGraphic ? Math.max(indentationLevel, 1) : indentationLevel) * INDENT_PADDING;
+    }
+
+    private void checkPosition(int position) {
+        if (position < start || position > Math.max(start, end)) {
+            throw new IllegalArgumentException("Position " + position + " is not within paragraph [" + start + ", " + end + "]");
+        }
+    }
+
+    // checks if a caret is in a line below the one of another caret
+    private static boolean isBelow(double[] caret, double[] lineCaret) {
+        return caret != null && caret[1] > lineCaret[1] + 0.5;
+    }
+
+    /*
+     * The nodes of a paragraph, laid out: a single text flow, or, for a table, a text flow for each cell,
+     * in a grid of columns of the same width, like the grid of a paragraph tile
+     */
+    private static final class Content {
+
+        private final Node node;
+        private final double height;
+        private final TextFlow[] flows;
+        // index of the first character of each text flow, within the paragraph, and its location
+        private final int[] flowStarts;
+        private final double[] flowXs, flowYs;
+
+        private Content(Node node, double height, TextFlow[] flows, int[] flowStarts, double[] flowXs, double[] flowYs) {
+            this.node = node;
+            this.height = height;
+            this.flows = flows;
+            this.flowStarts = flowStarts;
+            this.flowXs = flowXs;
+            this.flowYs = flowYs;
+        }
+
+        static Content build(TextBuffer textBuffer, int start, int end, double wrapWidth,
+                             FragmentFactory fragmentFactory, ParagraphDecoration decoration) {
+            boolean table = decoration.hasTableDecoration();
+            // the fragments of each table cell, or of the whole paragraph
+            List<List<Node>> cells = new ArrayList<>();
+            List<Integer> cellStarts = new ArrayList<>();
+            cells.add(new ArrayList<>());
+            cellStarts.add(0);
+            int[] length = new int[1];
+            textBuffer.walkFragments((unit, d) -> {
+                List<Node> cell = cells.get(cells.size() - 1);
+                if (d instanceof TextDecoration textDecoration && !unit.isEmpty()) {
+                    if (table && unit instanceof TextUnit) {
+                        // each table separator ends a cell
+                        String text = unit.getText();
+                        int from = 0;
+                        for (int i = text.indexOf(TextBuffer.ZERO_WIDTH_TABLE_SEPARATOR); i >= 0;
+                             i = text.indexOf(TextBuffer.ZERO_WIDTH_TABLE_SEPARATOR, i + 1)) {
+                            cell.add(fragmentFactory.buildText(text.substring(from, i + 1), textDecoration));
+                            length[0] += i + 1 - from;
+                            from = i + 1;
+                            cell = new ArrayList<>();
+                            cells.add(cell);
+                            cellStarts.add(length[0]);
+                        }
+                        if (from < text.length()) {
+                            String cellText = text.substring(from).replace("\n", TextBuffer.ZERO_WIDTH_TEXT);
+                            cell.add(fragmentFactory.buildText(cellText, textDecoration));
+                            length[0] += text.length() - from;
+                        }
+                        return;
+                    }
+                    if (unit instanceof TextUnit && "\n".equals(unit.getText())) {
+                        // the shared zero width text of the control can't be used from other threads
+                        Text text = new Text(TextBuffer.ZERO_WIDTH_TEXT);
+                        text.setFont(Font.font(DEFAULT_FONT_SIZE));
+                        cell.add(text);
+                    } else {
+                        cell.add(fragmentFactory.buildNode(unit, textDecoration));
+                    }
+                    length[0] += unit.length();
+                } else if (d instanceof ImageDecoration imageDecoration) {
+                    cell.add(fragmentFactory.buildImage(imageDecoration));
+                    length[0]++;
+                }
+            }, start, end);
+
+            if (!table) {
+                // the insets are not set as padding of the text flow, but added around it, as the caret
+                // shape of a text flow doesn't include its padding
+                double width = Math.max(wrapWidth - getIndent(decoration) - decoration.getLeftInset() - decoration.getRightInset(), 0d);
+                TextFlow textFlow = createTextFlow(cells.get(0), decoration.getAlignment(), decoration.getSpacing(), width);
+                return new Content(textFlow, textFlow.getHeight(), new TextFlow[] {textFlow}, new int[] {0},
+                        new double[] {0}, new double[] {0});
+            }
+
+            TableDecoration tableDecoration = decoration.getTableDecoration();
+            int rows = tableDecoration.getRows();
+            int columns = tableDecoration.getColumns();
+            TextAlignment[][] cellAlignment = tableDecoration.getCellAlignment();
+            double columnWidth = columns > 0 ? wrapWidth / columns : 0;
+            double cellWidth = Math.max(TABLE_CELL_WIDTH - decoration.getLeftInset() - decoration.getRightInset(), 0d);
+            int count = Math.max(Math.min(rows * columns, cells.size()), 1);
+            TextFlow[] flows = new TextFlow[count];
+            int[] flowStarts = new int[count];
+            double[] flowXs = new double[count];
+            double[] flowYs = new double[count];
+            Pane pane = new Pane();
+            double y = 0;
+            int index = 0;
+            for (int i = 0; i < rows && index < count; i++) {
+                double rowHeight = 0;
+                for (int j = 0; j < columns && index < count; j++, index++) {
+                    TextFlow flow = createTextFlow(cells.get(index), cellAlignment[i][j], decoration.getSpacing(), cellWidth);
+                    flowStarts[index] = cellStarts.get(index);
+                    flowXs[index] = j * columnWidth + decoration.getLeftInset();
+                    flowYs[index] = y + decoration.getTopInset();
+                    flow.relocate(flowXs[index], flowYs[index]);
+                    pane.getChildren().add(flow);
+                    flows[index] = flow;
+                    rowHeight = Math.max(rowHeight, flow.getHeight() + decoration.getTopInset() +
+                            decoration.getBottomInset() + LAYER_EXTRA_HEIGHT);
+                }
+                y += rowHeight;
+            }
+            if (index == 0) {
+                // a table without cells
+                TextFlow flow = createTextFlow(cells.get(0), decoration.getAlignment(), decoration.getSpacing(), cellWidth);
+                pane.getChildren().add(flow);
+                flows[0] = flow;
+            }
+            // the grid box of a paragraph tile is one pixel taller than its grid
+            double height = y + 1;
+            pane.resize(wrapWidth, height);
+            return new Content(pane, height, flows, flowStarts, flowXs, flowYs);
+        }
+
+        // minX, minY, maxX, maxY of the caret shape, relative to the content, or null if there is no text
+        double[] getCaretBounds(int index) {
+            int flow = 0;
+            while (flow + 1 < flows.length && flowStarts[flow + 1] <= index) {
+                flow++;
+            }
+            double[] bounds = getCaretBounds(flows[flow], index - flowStarts[flow]);
+            if (bounds != null) {
+                bounds[0] += flowXs[flow];
+                bounds[1] += flowYs[flow];
+                bounds[2] += flowXs[flow];
+                bounds[3] += flowYs[flow];
+            }
+            return bounds;
+        }
+
+        private static TextFlow createTextFlow(List<Node> fragments, TextAlignment alignment, double spacing, double width) {
+            TextFlow textFlow = new TextFlow();
+            textFlow.getChildren().setAll(fragments);
+            textFlow.setTextAlignment(alignment);
+            textFlow.setLineSpacing(spacing);
+            textFlow.setPrefWidth(width);
+            double height = textFlow.prefHeight(width);
+            // there is no layout pass without a scene: the size sets the wrapping width of the text
+            textFlow.resize(width, height);
+            textFlow.layout();
+            return textFlow;
+        }
+
+        // minX, minY, maxX, maxY of the caret shape, relative to the text flow, or null if there is no text
+        private static double[] getCaretBounds(TextFlow textFlow, int index) {
+            PathElement[] elements = textFlow.caretShape(index, true);
+            double[] bounds = null;
+            for (PathElement element : elements) {
+                double x, y;
+                if (element instanceof MoveTo moveTo) {
+                    x = moveTo.getX();
+                    y = moveTo.getY();
+                } else if (element instanceof LineTo lineTo) {
+                    x = lineTo.getX();
+                    y = lineTo.getY();
+                } else {
+                    continue;
+                }
+                if (bounds == null) {
+                    bounds = new double[] {x, y, x, y};
+                } else {
+                    bounds[0] = Math.min(bounds[0], x);
+                    bounds[1] = Math.min(bounds[1], y);
+                    bounds[2] = Math.max(bounds[2], x);
+                    bounds[3] = Math.max(bounds[3], y);
+                }
+            }
+            return bounds;
+        }
+    }
+}
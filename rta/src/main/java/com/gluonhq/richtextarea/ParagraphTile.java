@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2025, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -42,6 +42,7 @@ import javafx.geometry.Bounds;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
+import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
@@ -68,11 +69,11 @@ import javafx.scene.text.TextFlow;
 import javafx.util.Duration;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -83,7 +84,10 @@ import static com.gluonhq.richtextarea.model.TableDecoration.TABLE_SEPARATOR;
 
 class ParagraphTile extends HBox {
 
-    private static final double INDENT_PADDING = 20.0;
+    private static final double INDENT_PADDING = ParagraphLayout.INDENT_PADDING;
+    private static final double TILE_PADDING = ParagraphLayout.TILE_PADDING;
+    private static final double LAYER_EXTRA_HEIGHT = ParagraphLayout.LAYER_EXTRA_HEIGHT;
+    private static final double TABLE_CELL_WIDTH = ParagraphLayout.TABLE_CELL_WIDTH;
 
     // ParagraphTile is HBox
     // | graphicBox | contentPane |
@@ -110,7 +114,7 @@ class ParagraphTile extends HBox {
         getStyleClass().setAll("paragraph-tile");
 
         contentPane = new Pane();
-        contentPane.setPadding(new Insets(1));
+        contentPane.setPadding(new Insets(TILE_PADDING));
         contentPane.getStyleClass().setAll("content-area");
         layers = new ArrayList<>();
 
@@ -134,7 +138,10 @@ class ParagraphTile extends HBox {
             return;
         }
         ParagraphDecoration decoration = paragraph.getDecoration();
-        viewModel.caretPositionProperty().addListener(caretPositionListener);
+        if (control.isEditable()) {
+            // the caret is only shown if the control is editable
+            viewModel.caretPositionProperty().addListener(caretPositionListener);
+        }
         viewModel.selectionProperty().addListener(selectionListener);
         if (decoration.hasTableDecoration()) {
             if (!fragments.isEmpty()) {
@@ -182,10 +189,10 @@ class ParagraphTile extends HBox {
                             return (positions.get(tableIndex) <= p && p < positions.get(tableIndex + 1));
                         })
                         .collect(Collectors.toList()), background, pd);
-                layer.updatePrefWidth(100);
+                layer.updatePrefWidth(TABLE_CELL_WIDTH);
                 layers.add(layer);
                 grid.add(layer, j, i);
-                prefHeight = Math.max(prefHeight, layer.prefHeight(100));
+                prefHeight = Math.max(prefHeight, layer.prefHeight(TABLE_CELL_WIDTH));
                 index++;
             }
             RowConstraints rc = new RowConstraints();
@@ -254,23 +261,12 @@ class ParagraphTile extends HBox {
 
     private String formatNumber(String text, int indentationLevel) {
         if (text.contains("#")) {
-            // numbered list
-            AtomicInteger ordinal = new AtomicInteger();
-            return viewModel.getParagraphList().stream()
-                    .peek(p -> {
-                        if (p.getDecoration().getGraphicType() != ParagraphDecoration.GraphicType.NUMBERED_LIST ||
-                                p.getDecoration().getIndentationLevel() != indentationLevel) {
-                            // restart ordinal if previous paragraph has different indentation,
-                            // or if it is not a numbered list
-                            ordinal.set(0);
-                        } else {
-                            ordinal.incrementAndGet();
-                        }
-                    })
-                    .filter(p -> paragraph.equals(p))
-                    .findFirst()
-                    .map(p -> text.replace("#", "" + ordinal.get()))
-                    .orElse(text);
+            // numbered list: the ordinal restarts after a paragraph with a different
+            // indentation, or that is not part of a numbered list
+            int ordinal = viewModel.getListOrdinal(paragraph);
+            if (ordinal >= 0) {
+                return text.replace("#", "" + ordinal);
+            }
         }
         return text;
     }
@@ -315,10 +311,17 @@ class ParagraphTile extends HBox {
         }
         layers.forEach(l -> {
             l.updateSelection(viewModel.getSelection());
+            l.updateHighlights();
             l.updateCaretPosition(viewModel.getCaretPosition());
         });
     }
 
+    void updateHighlights(int start, int end) {
+        if (paragraph != null && paragraph.getStart() < end && start < paragraph.getEnd()) {
+            layers.forEach(Layer::updateHighlights);
+        }
+    }
+
     boolean hasCaret() {
         return layers.stream().anyMatch(Layer::hasCaret);
     }
@@ -374,15 +377,14 @@ class ParagraphTile extends HBox {
 
     private class Layer extends Pane {
 
-        private final Timeline caretTimeline = new Timeline(
-                new KeyFrame(Duration.ZERO        , e -> setCaretVisibility(true)),
-                new KeyFrame(Duration.seconds(0.5), e -> setCaretVisibility(false)),
-                new KeyFrame(Duration.seconds(1.0))
-        );
+        // created when the layer shows the caret for the first time, which never happens if
+        // the control is not editable
+        private Timeline caretTimeline;
 
         private final ObservableSet<Path> textBackgroundColorPaths = FXCollections.observableSet();
         private final Path caretShape = new Path();
         private final Path selectionShape = new Path();
+        private final Group highlightGroup = new Group();
         private final TextFlow textFlow = new TextFlow();
         private double textFlowLayoutX, textFlowLayoutY;
 
@@ -393,7 +395,6 @@ class ParagraphTile extends HBox {
             this.start = start;
             this.end = end;
             this.isTableCell = isTableCell;
-            caretTimeline.setCycleCount(Timeline.INDEFINITE);
             textFlow.setFocusTraversable(false);
             textFlow.getStyleClass().setAll("text-flow");
             textFlow.setOnMousePressed(this::mousePressedListener);
@@ -402,23 +403,25 @@ class ParagraphTile extends HBox {
             caretShape.setManaged(false);
             caretShape.getStyleClass().add("caret");
             selectionShape.getStyleClass().setAll("selection");
+            highlightGroup.setManaged(false);
+            highlightGroup.setMouseTransparent(true);
             textBackgroundColorPaths.addListener(this::updateLayer);
 
             getChildren().addAll(textBackgroundColorPaths);
-            getChildren().addAll(selectionShape, caretShape, textFlow);
+            getChildren().addAll(highlightGroup, selectionShape, caretShape, textFlow);
             getStyleClass().add("layer");
             sceneProperty().addListener((obs, oldScene, newScene) -> {
                 if (newScene == null) {
-                    caretTimeline.stop();
+                    stopCaretTimeline();
                 } else {
-                    if (hasCaret()) caretTimeline.play();
+                    if (hasCaret()) playCaretTimeline();
                 }
             });
         }
 
         @Override
         protected double computePrefHeight(double width) {
-            return textFlow.prefHeight(textFlow.getPrefWidth()) + 1;
+            return textFlow.prefHeight(textFlow.getPrefWidth()) + LAYER_EXTRA_HEIGHT;
         }
 
         @Override
@@ -441,7 +444,7 @@ class ParagraphTile extends HBox {
         }
 
         void reset() {
-            caretTimeline.stop();
+            stopCaretTimeline();
         }
 
         private void addBackgroundPathsToLayers(List<IndexRangeColor> backgroundIndexRanges) {
@@ -572,11 +575,11 @@ class ParagraphTile extends HBox {
             caretShape.getElements().clear();
             if ((!control.isFocused() && richTextAreaSkin.dragAndDropStart == -1) ||
                     paragraph == null || caretPosition < start || getParagraphLimit() <= caretPosition) {
-                caretTimeline.stop();
+                stopCaretTimeline();
                 return;
             }
             if (caretPosition < 0 || !control.isEditable()) {
-                caretTimeline.stop();
+                stopCaretTimeline();
             } else {
                 var pathElements = textFlow.caretShape(caretPosition - start, true);
                 if (pathElements.length > 0) {
@@ -598,7 +601,7 @@ class ParagraphTile extends HBox {
                         caretShape.getElements().add(new LineTo(originX, caretSize));
                     }
                     richTextAreaSkin.lastValidCaretPosition = caretPosition;
-                    caretTimeline.play();
+                    playCaretTimeline();
                     updateCaretOrigin();
                 }
             }
@@ -616,6 +619,24 @@ class ParagraphTile extends HBox {
             return limit;
         }
 
+        private void playCaretTimeline() {
+            if (caretTimeline == null) {
+                caretTimeline = new Timeline(
+                        new KeyFrame(Duration.ZERO        , e -> setCaretVisibility(true)),
+                        new KeyFrame(Duration.seconds(0.5), e -> setCaretVisibility(false)),
+                        new KeyFrame(Duration.seconds(1.0))
+                );
+                caretTimeline.setCycleCount(Timeline.INDEFINITE);
+            }
+            caretTimeline.play();
+        }
+
+        private void stopCaretTimeline() {
+            if (caretTimeline != null) {
+                caretTimeline.stop();
+            }
+        }
+
         private void setCaretVisibility(boolean on) {
             if (!caretShape.getElements().isEmpty()) {
                 // Opacity is used since we don't want the changing caret bounds to affect the layout
@@ -638,6 +659,33 @@ class ParagraphTile extends HBox {
             selectionShape.setLayoutY(textFlowLayoutY);
         }
 
+        private void updateHighlights() {
+            // a single path for all the highlights with the same style class and shape
+            Map<String, Path> paths = new LinkedHashMap<>();
+            for (Highlight highlight : richTextAreaSkin.getHighlights(start, end)) {
+                int highlightStart = Math.max(start, highlight.getStart()) - start;
+                int highlightEnd = Math.min(end, highlight.getEnd()) - start;
+                PathElement[] pathElements = highlight.isUnderline() ?
+                        textFlow.underlineShape(highlightStart, highlightEnd) :
+                        textFlow.rangeShape(highlightStart, highlightEnd);
+                if (pathElements.length > 0) {
+                    String key = highlight.isUnderline() ? "underline " + highlight.getStyleClass() : highlight.getStyleClass();
+                    paths.computeIfAbsent(key, k -> {
+                        Path path = new Path();
+                        if (highlight.isUnderline()) {
+                            path.getStyleClass().setAll("highlight", "underline", highlight.getStyleClass());
+                        } else {
+                            path.getStyleClass().setAll("highlight", highlight.getStyleClass());
+                        }
+                        return path;
+                    }).getElements().addAll(pathElements);
+                }
+            }
+            highlightGroup.getChildren().setAll(paths.values());
+            highlightGroup.setLayoutX(textFlowLayoutX);
+            highlightGroup.setLayoutY(textFlowLayoutY);
+        }
+
         private void updateLayer(SetChangeListener.Change<? extends Path> change) {
             if (change.wasAdded()) {
                 getChildren().add(0, change.getElementAdded());
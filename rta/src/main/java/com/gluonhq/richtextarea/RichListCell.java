@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2025, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -27,26 +27,15 @@
  */
 package com.gluonhq.richtextarea;
 
-import com.gluonhq.emoji.Emoji;
-import com.gluonhq.emoji.EmojiData;
-import com.gluonhq.emoji.EmojiSkinTone;
-import com.gluonhq.emoji.util.TextUtils;
-import com.gluonhq.richtextarea.model.Block;
-import com.gluonhq.richtextarea.model.BlockUnit;
 import com.gluonhq.richtextarea.model.EmojiUnit;
 import com.gluonhq.richtextarea.model.ImageDecoration;
 import com.gluonhq.richtextarea.model.Paragraph;
 import com.gluonhq.richtextarea.model.TextBuffer;
 import com.gluonhq.richtextarea.model.TextDecoration;
 import com.gluonhq.richtextarea.model.TextUnit;
-import com.gluonhq.richtextarea.model.Unit;
-import javafx.geometry.VPos;
-import javafx.scene.Cursor;
-import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.control.ListCell;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.input.DragEvent;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseDragEvent;
@@ -56,14 +45,9 @@ import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
-import java.util.function.Function;
 import java.util.stream.IntStream;
 
 import static com.gluonhq.richtextarea.RichTextAreaSkin.DEFAULT_FONT_SIZE;
@@ -73,13 +57,14 @@ class RichListCell extends ListCell<Paragraph> {
 
     private static final Font MIN_LF_FONT = Font.font(DEFAULT_FONT_SIZE);
 
-    private final static Map<String, Color> COLOR_MAP = new HashMap<>();
-
     private final RichTextAreaSkin richTextAreaSkin;
     private final ParagraphTile paragraphTile;
+    private final FragmentFactory fragmentFactory;
+    private int nonTextNodes;
 
     RichListCell(RichTextAreaSkin richTextAreaSkin) {
         this.richTextAreaSkin = richTextAreaSkin;
+        this.fragmentFactory = richTextAreaSkin.getFragmentFactory();
         // controls spacing between paragraphs
         // (it is also needed to avoid Font 13 for text, even if it is graphic only)
         setFont(MIN_LF_FONT);
@@ -153,6 +138,7 @@ class RichListCell extends ListCell<Paragraph> {
     @Override
     protected void updateItem(Paragraph item, boolean empty) {
         super.updateItem(item, empty);
+        nonTextNodes = 0;
         if (item != null && !empty) {
             var fragments = new ArrayList<Node>();
             var backgroundIndexRanges = new ArrayList<IndexRangeColor>();
@@ -172,14 +158,14 @@ class RichListCell extends ListCell<Paragraph> {
                                     .boxed()
                                     .forEach(i -> {
                                         String tableText = text.substring(s.getAndSet(i + 1), i + 1);
-                                        final Text textNode = buildText(tableText, (TextDecoration) decoration);
+                                        final Text textNode = fragmentFactory.buildText(tableText, (TextDecoration) decoration);
                                         textNode.getProperties().put(TABLE_SEPARATOR, tp.get());
                                         fragments.add(textNode);
                                         positions.add(tp.addAndGet(tableText.length()));
                                     });
                             if (s.get() < text.length()) {
                                 String tableText = text.substring(s.get()).replace("\n", TextBuffer.ZERO_WIDTH_TEXT);
-                                final Text textNode = buildText(tableText, (TextDecoration) decoration);
+                                final Text textNode = fragmentFactory.buildText(tableText, (TextDecoration) decoration);
                                 textNode.getProperties().put(TABLE_SEPARATOR, tp.getAndAdd(tableText.length()));
                                 fragments.add(textNode);
                                 if (text.substring(s.get()).contains("\n")) {
@@ -187,19 +173,19 @@ class RichListCell extends ListCell<Paragraph> {
                                 }
                             }
                         } else {
-                            final Node node = buildNode(unit, (TextDecoration) decoration);
+                            final Node node = fragmentFactory.buildNode(unit, (TextDecoration) decoration);
                             node.getProperties().put(TABLE_SEPARATOR, tp.getAndIncrement());
                             fragments.add(node);
                             length.addAndGet(unit.length());
                             if (unit instanceof EmojiUnit) {
-                                richTextAreaSkin.nonTextNodes.incrementAndGet();
+                                addNonTextNode();
                             }
                         }
                     } else {
-                        final Node node = buildNode(unit, (TextDecoration) decoration);
+                        final Node node = fragmentFactory.buildNode(unit, (TextDecoration) decoration);
                         fragments.add(node);
                         String background = ((TextDecoration) decoration).getBackground();
-                        Color backgroundColor = COLOR_MAP.computeIfAbsent(background, s -> parseColorOrDefault(background, Color.TRANSPARENT));
+                        Color backgroundColor = FragmentFactory.getColor(background, Color.TRANSPARENT);
                         if (!Color.TRANSPARENT.equals(backgroundColor)) {
                             backgroundIndexRanges.add(new IndexRangeColor(
                                     length.get(), length.get() + unit.length(), backgroundColor));
@@ -207,12 +193,12 @@ class RichListCell extends ListCell<Paragraph> {
                     }
                     length.addAndGet(unit.length());
                     if (unit instanceof EmojiUnit) {
-                        richTextAreaSkin.nonTextNodes.incrementAndGet();
+                        addNonTextNode();
                     }
                 } else if (decoration instanceof ImageDecoration) {
-                    fragments.add(buildImage((ImageDecoration) decoration));
+                    fragments.add(fragmentFactory.buildImage((ImageDecoration) decoration));
                     length.incrementAndGet();
-                    richTextAreaSkin.nonTextNodes.incrementAndGet();
+                    addNonTextNode();
                 }
             }, item.getStart(), item.getEnd());
             paragraphTile.setParagraph(item, fragments, positions, backgroundIndexRanges);
@@ -226,104 +212,31 @@ class RichListCell extends ListCell<Paragraph> {
         }
     }
 
-    private Node buildNode(Unit unit, TextDecoration decoration) {
-        if (unit instanceof TextUnit) {
-            return buildText(unit.getText(), decoration);
-        } else if (unit instanceof BlockUnit) {
-            Block block = ((BlockUnit) unit).getBlock();
-            Text text = buildText(block.getContent(), decoration);
-            text.setTextOrigin(VPos.TOP);
-            return new Group(text);
-        } else if (unit instanceof EmojiUnit) {
-            Emoji emoji = ((EmojiUnit) unit).getEmoji();
-            EmojiSkinTone tone = richTextAreaSkin.getSkinnable().getSkinTone();
-            double emojiSize = Math.ceil(decoration.getFontSize() * TextUtils.EMOJI_SIZE_FONT_FACTOR);
-            return TextUtils.convertUnifiedToImageNode(tone != null ?
-                    EmojiData.emojiWithTone(emoji, tone).getUnified() :
-                    emoji.getUnified(), emojiSize);
-        } else {
-            throw new RuntimeException("Error: Unit " + unit + " not supported yet");
-        }
+    private void addNonTextNode() {
+        richTextAreaSkin.nonTextNodes.incrementAndGet();
+        nonTextNodes++;
     }
 
-    private Text buildText(String content, TextDecoration decoration) {
-        if ("\n".equals(content)) {
-            return Tools.noWidthText();
-        }
-        Objects.requireNonNull(decoration);
-        Text text = new Text(Objects.requireNonNull(content).replace("\n", ""));
-        String foreground = decoration.getForeground();
-        text.setFill(COLOR_MAP.computeIfAbsent(foreground, s -> parseColorOrDefault(foreground, Color.BLACK)));
-        text.setStrikethrough(decoration.isStrikethrough());
-        text.setUnderline(decoration.isUnderline());
-
-        // Caching fonts, assuming their reuse, especially for default one
-        int hash = Objects.hash(
-                decoration.getFontFamily(),
-                decoration.getFontWeight(),
-                decoration.getFontPosture(),
-                decoration.getFontSize());
-
-        Font font = richTextAreaSkin.getFontCache().computeIfAbsent(hash,
-                h -> Font.font(
-                        decoration.getFontFamily(),
-                        decoration.getFontWeight(),
-                        decoration.getFontPosture(),
-                        decoration.getFontSize()));
-
-        text.setFont(font);
-        String url = decoration.getURL();
-        if (url != null) {
-            text.setUnderline(true);
-            text.setFill(Color.BLUE);
-            text.setCursor(Cursor.HAND);
-            text.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
-                if (e.getButton() == MouseButton.PRIMARY) {
-                    Function<Node, Consumer<String>> linkCallbackFactory = richTextAreaSkin.getSkinnable().getLinkCallbackFactory();
-                    if (linkCallbackFactory != null) {
-                        Consumer<String> consumer = linkCallbackFactory.apply(text);
-                        if (consumer != null) {
-                            consumer.accept(url);
-                        }
-                    }
-                }
-            });
-        }
-        return text;
+    /**
+     * Rebuilds the paragraph tile of this cell, even if its paragraph didn't change,
+     * to apply the changes done to its text or decorations
+     */
+    void refreshParagraph() {
+        updateItem(getItem(), isEmpty());
     }
 
-    private ImageView buildImage(ImageDecoration imageDecoration) {
-        Image image = richTextAreaSkin.getImageCache().computeIfAbsent(imageDecoration.getUrl(), Image::new);
-        final ImageView imageView = new ImageView(image);
-        // TODO Create resizable ImageView
-        if (imageDecoration.getWidth() > -1 && imageDecoration.getHeight() > -1) {
-            imageView.setFitWidth(imageDecoration.getWidth());
-            imageView.setFitHeight(imageDecoration.getHeight());
-        } else {
-            // for now, limit the image within the content area
-            double width = Math.min(image.getWidth(), richTextAreaSkin.textFlowPrefWidthProperty.get() - 10);
-            imageView.setFitWidth(width);
-            imageView.setPreserveRatio(true);
-        }
-        if (imageDecoration.getLink() != null) {
-            imageView.setCursor(Cursor.HAND);
-            imageView.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
-                Function<Node, Consumer<String>> linkCallbackFactory = richTextAreaSkin.getSkinnable().getLinkCallbackFactory();
-                if (linkCallbackFactory != null) {
-                    Consumer<String> consumer = linkCallbackFactory.apply(imageView);
-                    if (consumer != null) {
-                        consumer.accept(imageDecoration.getLink());
-                    }
-                }
-            });
-        }
-        return imageView;
+    int getNonTextNodes() {
+        return nonTextNodes;
     }
 
     void evictUnusedObjects(Set<Font> usedFonts, Set<Image> usedImages) {
         getParagraphTile().ifPresent(tile -> tile.evictUnusedObjects(usedFonts, usedImages));
     }
 
+    void updateHighlights(int start, int end) {
+        getParagraphTile().ifPresent(tile -> tile.updateHighlights(start, end));
+    }
+
     public void forwardDragEvent(MouseEvent e) {
         getParagraphTile().ifPresent(tile -> tile.mouseDraggedListener(e));
     }
@@ -356,12 +269,4 @@ class RichListCell extends ListCell<Paragraph> {
         }
         return Optional.empty();
     }
-
-    private static Color parseColorOrDefault(String color, Color defaultColor) {
-        try {
-            return Color.web(color);
-        } catch (Exception e) {
-            return defaultColor;
-        }
-    }
 }
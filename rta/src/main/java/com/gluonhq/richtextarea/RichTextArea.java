@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -32,8 +32,11 @@ import com.gluonhq.richtextarea.action.ActionFactory;
 import com.gluonhq.richtextarea.model.Decoration;
 import com.gluonhq.richtextarea.model.Document;
 import com.gluonhq.richtextarea.model.ParagraphDecoration;
+import com.gluonhq.richtextarea.model.SearchQuery;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanWrapper;
@@ -45,9 +48,13 @@ import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.css.PseudoClass;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
@@ -57,6 +64,8 @@ import javafx.scene.control.Control;
 import javafx.scene.control.SkinBase;
 import javafx.scene.input.DataFormat;
 
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -112,6 +121,23 @@ public class RichTextArea extends Control {
        return documentProperty.get();
     }
 
+    // documentProgressProperty
+    /**
+     * The progress of the last asynchronous operation on the {@link Document document}, started with
+     * {@link #openAsync(Document)}, {@link #openAsync(Path)} or {@link #saveAsync()}. It is a value between 0 and 1,
+     * and it is set to 1 when the operation finishes, successfully or not. The work done in the background thread
+     * takes the first half: converting the text of the decorations into units when opening a document, and exporting
+     * the text when saving, which is estimated from the length of the text buffer. Mapping a file is a single step.
+     * The second half is the update of the control, on the JavaFX Application thread.
+     */
+    final ReadOnlyDoubleWrapper documentProgressProperty = new ReadOnlyDoubleWrapper(this, "documentProgress", 1);
+    public final ReadOnlyDoubleProperty documentProgressProperty() {
+       return documentProgressProperty.getReadOnlyProperty();
+    }
+    public final double getDocumentProgress() {
+       return documentProgressProperty.get();
+    }
+
     // fullHeightProperty
     /**
      * Returns the total height of the RichTextArea that allows showing all the content, without vertical scrollbars.
@@ -143,6 +169,44 @@ public class RichTextArea extends Control {
     }
     private final BooleanProperty autoSaveProperty = new SimpleBooleanProperty(this, "autoSave");
 
+    // undoLimitProperty
+    /**
+     * Property that limits the number of changes that can be undone. When the limit is exceeded,
+     * the oldest changes are discarded.
+     * By default, it is 0, which means that there is no limit.
+     *
+     * @return the maximum number of changes that can be undone
+     */
+    public final IntegerProperty undoLimitProperty() {
+       return undoLimitProperty;
+    }
+    public final int getUndoLimit() {
+       return undoLimitProperty.get();
+    }
+    public final void setUndoLimit(int value) {
+        undoLimitProperty.set(value);
+    }
+    private final IntegerProperty undoLimitProperty = new SimpleIntegerProperty(this, "undoLimit");
+
+    // undoMemoryLimitProperty
+    /**
+     * Property that limits the estimated memory, in bytes, retained by the changes that can be undone.
+     * When the limit is exceeded, the oldest changes are discarded, but the last change can always be undone.
+     * By default, it is 0, which means that there is no limit.
+     *
+     * @return the maximum number of bytes retained by the undo history
+     */
+    public final LongProperty undoMemoryLimitProperty() {
+       return undoMemoryLimitProperty;
+    }
+    public final long getUndoMemoryLimit() {
+       return undoMemoryLimitProperty.get();
+    }
+    public final void setUndoMemoryLimit(long value) {
+        undoMemoryLimitProperty.set(value);
+    }
+    private final LongProperty undoMemoryLimitProperty = new SimpleLongProperty(this, "undoMemoryLimit");
+
     // modifiedProperty
     /**
      * Indicates if the current {@link Document document} has unsaved changes or not.
@@ -164,6 +228,10 @@ public class RichTextArea extends Control {
     /**
      * Indicates if the {@link Document document} is editable or not.
      *
+     * A control that is not editable works as a lightweight viewer: it doesn't show a caret, and its
+     * key bindings and context menu are only created if the user interacts with it, so it is suitable
+     * to display many rich text notes at once.
+     *
      * By default, it is set to true.
      *
      * @return if the document is editable or not
@@ -420,6 +488,56 @@ public class RichTextArea extends Control {
     public final String getPromptText() { return promptText.get(); }
     public final void setPromptText(String value) { promptText.set(value); }
 
+    /**
+     * The {@link Highlight highlights} rendered over the text, like search results or spelling
+     * marks, each one as a path with the "highlight" style class and its own style class.
+     *
+     * Highlights are not part of the {@link Document document}: changing them doesn't modify
+     * the text buffer, can't be undone, doesn't mark the document as modified, and only updates
+     * the visible paragraphs that overlap the changed highlights. Their positions are not
+     * adjusted when the text changes, so they are expected to be replaced at once, with
+     * {@link ObservableList#setAll(java.util.Collection)}, after each change.
+     */
+    private final ObservableList<Highlight> highlights = FXCollections.observableArrayList();
+    public final ObservableList<Highlight> getHighlights() {
+        return highlights;
+    }
+
+    /**
+     * The {@link TextAnalyzer analyzers}, like spelling or grammar checkers, that run in the
+     * background over the paragraphs of the text, and whose results are added to the
+     * {@link #getHighlights() highlights}.
+     *
+     * Only the paragraphs that changed since the last analysis are analyzed again, and the
+     * results are cached by the text of each paragraph, so checking a long document only
+     * costs the edited paragraphs. Changing the analyzers analyzes the whole text again.
+     */
+    private final ObservableList<TextAnalyzer> textAnalyzers = FXCollections.observableArrayList();
+    public final ObservableList<TextAnalyzer> getTextAnalyzers() {
+        return textAnalyzers;
+    }
+
+    // searchQueryProperty
+    /**
+     * Property with the query that is found incrementally in the text, like a query typed in a
+     * search box. Its matches are added to the {@link #getHighlights() highlights}, with the
+     * "search-match" style class, and are kept up to date as the query is extended or the text
+     * changes, without searching the whole text again.
+     * By default, it is null, which means that there are no matches.
+     *
+     * @return the query to find
+     */
+    public final ObjectProperty<SearchQuery> searchQueryProperty() {
+       return searchQueryProperty;
+    }
+    public final SearchQuery getSearchQuery() {
+       return searchQueryProperty.get();
+    }
+    public final void setSearchQuery(SearchQuery value) {
+        searchQueryProperty.set(value);
+    }
+    private final ObjectProperty<SearchQuery> searchQueryProperty = new SimpleObjectProperty<>(this, "searchQuery");
+
     // public methods
 
     /**
@@ -433,6 +551,92 @@ public class RichTextArea extends Control {
         return actionFactory;
     }
 
+    /**
+     * Opens a {@link Document document} without blocking the JavaFX Application thread: the
+     * text buffer for the document is built in a background thread, and only the final swap
+     * is done on the JavaFX Application thread. The progress can be followed with
+     * {@link #documentProgressProperty()}.
+     *
+     * @param document the document to open
+     * @return a future that is completed with the document, once it is opened
+     */
+    public final CompletableFuture<Document> openAsync(Document document) {
+        CompletableFuture<Document> result = new CompletableFuture<>();
+        actionFactory.openAsync(document, result).execute(new ActionEvent());
+        return result;
+    }
+
+    /**
+     * Opens a UTF-8 text file, like a large log or export, without loading its text into the heap:
+     * the file is memory-mapped in a background thread, and its text is decoded on demand, in chunks,
+     * while edits are kept apart, so the file is never modified. The {@link #documentProperty()} is set
+     * to an empty document, as the text of the file is not loaded; {@link #saveAsync()} can be used
+     * to create a document with the full text.
+     * The progress can be followed with {@link #documentProgressProperty()}.
+     *
+     * @param path the path of the text file to open
+     * @return a future that is completed with the empty document, once the file is opened
+     */
+    public final CompletableFuture<Document> openAsync(Path path) {
+        CompletableFuture<Document> result = new CompletableFuture<>();
+        actionFactory.openAsync(path, result).execute(new ActionEvent());
+        return result;
+    }
+
+    /**
+     * Shows the text of another rich text area in this control, sharing its text buffer instead of
+     * copying it, so the changes done in any of them are displayed by both, as they happen, and only
+     * the affected paragraphs are refreshed. Each control keeps its own caret, selection and undo
+     * history, but the undo history of a control is discarded when the text is changed from another one.
+     * The {@link #documentProperty()} is set to an empty document, as the text is not copied;
+     * {@link ActionFactory#save()} can be used to create a document with the full text.
+     *
+     * @param other the rich text area with the text to share, that already has a skin
+     * @throws IllegalArgumentException if the other rich text area has no skin yet
+     */
+    public final void share(RichTextArea other) {
+        actionFactory.share(other).execute(new ActionEvent());
+    }
+
+    /**
+     * Creates a {@link DocumentPaginator} that splits the text of this control into pages, for printing or
+     * previewing it. The paginator follows the edits done to the text, and computes again only the pages
+     * from the first modified paragraph onwards. It should be disposed when it is no longer needed, and
+     * a new one should be created after a new document is opened in this control.
+     *
+     * @param pageWidth the width of the printable area of a page, in pixels
+     * @param pageHeight the height of the printable area of a page, in pixels
+     * @return a paginator of the text of this control
+     * @throws IllegalStateException if this control has no skin yet
+     * @throws IllegalArgumentException if the page width or height is not positive
+     */
+    public final DocumentPaginator createPaginator(double pageWidth, double pageHeight) {
+        if (!(getSkin() instanceof RichTextAreaSkin skin)) {
+            throw new IllegalStateException("The rich text area has no skin");
+        }
+        // the images are scaled to the width of the page, not to the width of the control
+        return new DocumentPaginator(skin.getViewModel().getTextBuffer(), pageWidth, pageHeight,
+                skin.createFragmentFactory(pageWidth));
+    }
+
+    /**
+     * Saves the {@link Document document} without blocking the JavaFX Application thread: a
+     * snapshot of the text buffer is taken on the JavaFX Application thread, and the document
+     * is built from it in a background thread. The {@link #documentProperty()} is updated only
+     * if there were no further changes while saving. The progress can be followed with
+     * {@link #documentProgressProperty()}.
+     *
+     * Serialization of the document can be chained to the returned future, to keep it
+     * off the JavaFX Application thread as well.
+     *
+     * @return a future that is completed with the saved document
+     */
+    public final CompletableFuture<Document> saveAsync() {
+        CompletableFuture<Document> result = new CompletableFuture<>();
+        actionFactory.saveAsync(result).execute(new ActionEvent());
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2025, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -33,7 +33,8 @@ import com.gluonhq.richtextarea.model.Document;
 import com.gluonhq.richtextarea.model.ImageDecoration;
 import com.gluonhq.richtextarea.model.Paragraph;
 import com.gluonhq.richtextarea.model.ParagraphDecoration;
-import com.gluonhq.richtextarea.model.PieceTable;
+import com.gluonhq.richtextarea.model.SearchQuery;
+import com.gluonhq.richtextarea.model.SearchSession;
 import com.gluonhq.richtextarea.model.Table;
 import com.gluonhq.richtextarea.model.TableDecoration;
 import com.gluonhq.richtextarea.model.TextBuffer;
@@ -59,6 +60,7 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.SortedList;
 import javafx.css.CssMetaData;
@@ -162,121 +164,99 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
 
     private static final ActionCmdFactory ACTION_CMD_FACTORY = new ActionCmdFactory();
 
-    private final Map<KeyCombination, ActionBuilder> INPUT_MAP = Map.ofEntries(
-        entry( new KeyCodeCombination(RIGHT, SHIFT_ANY, ALT_ANY, CONTROL_ANY, SHORTCUT_ANY), e -> ACTION_CMD_FACTORY.caretMove(Direction.FORWARD, e)),
-        entry( new KeyCodeCombination(LEFT,  SHIFT_ANY, ALT_ANY, CONTROL_ANY, SHORTCUT_ANY), e -> ACTION_CMD_FACTORY.caretMove(Direction.BACK, e)),
-        entry( new KeyCodeCombination(DOWN,  SHIFT_ANY, ALT_ANY, SHORTCUT_ANY),              e -> ACTION_CMD_FACTORY.caretMove(Direction.DOWN, e)),
-        entry( new KeyCodeCombination(UP,    SHIFT_ANY, ALT_ANY, SHORTCUT_ANY),              e -> ACTION_CMD_FACTORY.caretMove(Direction.UP, e)),
-        entry( new KeyCodeCombination(HOME,  SHIFT_ANY),                                     e -> ACTION_CMD_FACTORY.caretMove(Direction.BACK, e.isShiftDown(), false, true)),
-        entry( new KeyCodeCombination(END,   SHIFT_ANY),                                     e -> ACTION_CMD_FACTORY.caretMove(Direction.FORWARD, e.isShiftDown(), false, true)),
-        entry( new KeyCodeCombination(A, SHORTCUT_DOWN),                                     e -> ACTION_CMD_FACTORY.selectAll()),
-        entry( new KeyCodeCombination(C, SHORTCUT_DOWN),                                     e -> ACTION_CMD_FACTORY.copy()),
-        entry( new KeyCodeCombination(X, SHORTCUT_DOWN),                                     e -> ACTION_CMD_FACTORY.cut()),
-        entry( new KeyCodeCombination(V, SHORTCUT_DOWN),                                     e -> ACTION_CMD_FACTORY.paste()),
-        entry( new KeyCodeCombination(Z, SHORTCUT_DOWN, SHIFT_ANY),                          e -> e.isShiftDown() ? ACTION_CMD_FACTORY.redo() : ACTION_CMD_FACTORY.undo()),
-        entry( new KeyCodeCombination(ENTER, SHIFT_ANY),                                     e -> {
-            ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
-            Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
-            if (decoration != null && decoration.getGraphicType() != ParagraphDecoration.GraphicType.NONE) {
-                int level = decoration.getIndentationLevel();
-                if (level > 0 && paragraph != null && viewModel.isEmptyParagraph(paragraph)) {
-                    // on empty paragraphs, Enter is the same as shift+tab
-                    return ACTION_CMD_FACTORY.decorate(ParagraphDecoration.builder().fromDecoration(decoration).indentationLevel(level - 1).build());
-                }
-            } else if (paragraph != null && paragraph.getStart() < paragraph.getEnd() &&
-                    decoration != null && decoration.hasTableDecoration()) {
-                int caretPosition = viewModel.getCaretPosition();
-                UnitBuffer buffer = new UnitBuffer();
-                viewModel.walkFragments((u, d) -> buffer.append(u), paragraph.getStart(), paragraph.getEnd());
-                Table table = new Table(buffer,
-                        paragraph.getStart(), decoration.getTableDecoration().getRows(), decoration.getTableDecoration().getColumns());
-                // move up/down rows
-                int nextCaretAt = table.getCaretAtNextRow(caretPosition, e.isShiftDown() ? Direction.UP : Direction.DOWN);
-                viewModel.setCaretPosition(nextCaretAt);
-                if (nextCaretAt == 0 || nextCaretAt == viewModel.getTextLength()) {
-                    // insert new line before/after the table and reset decoration
-                    return ACTION_CMD_FACTORY.insertAndDecorate("\n", ParagraphDecoration.builder().presets().build());
-                }
-                return null;
-            }
-            if (getSkinnable().getOnAction() != null && !e.isShiftDown()) {
-                getSkinnable().getOnAction().handle(new ActionEvent());
-                return null;
-            }
-            return ACTION_CMD_FACTORY.insertText("\n");
-        }),
-        entry( new KeyCodeCombination(BACK_SPACE, SHIFT_ANY),                                e -> {
-            int caret = viewModel.getCaretPosition();
-            Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
-            ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
-            if (decoration != null && paragraph != null) {
-                if (decoration.hasTableDecoration()) {
+    // key bindings, created on the first key press, as read-only controls might never need them
+    private Map<KeyCombination, ActionBuilder> inputMap;
+
+    private Map<KeyCombination, ActionBuilder> createInputMap() {
+        return Map.ofEntries(
+            entry( new KeyCodeCombination(RIGHT, SHIFT_ANY, ALT_ANY, CONTROL_ANY, SHORTCUT_ANY), e -> ACTION_CMD_FACTORY.caretMove(Direction.FORWARD, e)),
+            entry( new KeyCodeCombination(LEFT,  SHIFT_ANY, ALT_ANY, CONTROL_ANY, SHORTCUT_ANY), e -> ACTION_CMD_FACTORY.caretMove(Direction.BACK, e)),
+            entry( new KeyCodeCombination(DOWN,  SHIFT_ANY, ALT_ANY, SHORTCUT_ANY),              e -> ACTION_CMD_FACTORY.caretMove(Direction.DOWN, e)),
+            entry( new KeyCodeCombination(UP,    SHIFT_ANY, ALT_ANY, SHORTCUT_ANY),              e -> ACTION_CMD_FACTORY.caretMove(Direction.UP, e)),
+            entry( new KeyCodeCombination(HOME,  SHIFT_ANY),                                     e -> ACTION_CMD_FACTORY.caretMove(Direction.BACK, e.isShiftDown(), false, true)),
+            entry( new KeyCodeCombination(END,   SHIFT_ANY),                                     e -> ACTION_CMD_FACTORY.caretMove(Direction.FORWARD, e.isShiftDown(), false, true)),
+            entry( new KeyCodeCombination(A, SHORTCUT_DOWN),                                     e -> ACTION_CMD_FACTORY.selectAll()),
+            entry( new KeyCodeCombination(C, SHORTCUT_DOWN),                                     e -> ACTION_CMD_FACTORY.copy()),
+            entry( new KeyCodeCombination(X, SHORTCUT_DOWN),                                     e -> ACTION_CMD_FACTORY.cut()),
+            entry( new KeyCodeCombination(V, SHORTCUT_DOWN),                                     e -> ACTION_CMD_FACTORY.paste()),
+            entry( new KeyCodeCombination(Z, SHORTCUT_DOWN, SHIFT_ANY),                          e -> e.isShiftDown() ? ACTION_CMD_FACTORY.redo() : ACTION_CMD_FACTORY.undo()),
+            entry( new KeyCodeCombination(ENTER, SHIFT_ANY),                                     e -> {
+                ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
+                Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
+                if (decoration != null && decoration.getGraphicType() != ParagraphDecoration.GraphicType.NONE) {
+                    int level = decoration.getIndentationLevel();
+                    if (level > 0 && paragraph != null && viewModel.isEmptyParagraph(paragraph)) {
+                        // on empty paragraphs, Enter is the same as shift+tab
+                        return ACTION_CMD_FACTORY.decorate(ParagraphDecoration.builder().fromDecoration(decoration).indentationLevel(level - 1).build());
+                    }
+                } else if (paragraph != null && paragraph.getStart() < paragraph.getEnd() &&
+                        decoration != null && decoration.hasTableDecoration()) {
+                    int caretPosition = viewModel.getCaretPosition();
                     UnitBuffer buffer = new UnitBuffer();
                     viewModel.walkFragments((u, d) -> buffer.append(u), paragraph.getStart(), paragraph.getEnd());
                     Table table = new Table(buffer,
                             paragraph.getStart(), decoration.getTableDecoration().getRows(), decoration.getTableDecoration().getColumns());
-                    if (table.isCaretAtStartOfCell(caret)) {
-                        // check backspace at beginning of each cell to prevent moving text from one cell to the other.
-                        // and just move caret if cell was empty:
-                        if (table.isCaretAtEmptyCell(caret)) {
-                            return ACTION_CMD_FACTORY.caretMove(Direction.BACK, false, false, false);
-                        }
-                        return null;
+                    // move up/down rows
+                    int nextCaretAt = table.getCaretAtNextRow(caretPosition, e.isShiftDown() ? Direction.UP : Direction.DOWN);
+                    viewModel.setCaretPosition(nextCaretAt);
+                    if (nextCaretAt == 0 || nextCaretAt == viewModel.getTextLength()) {
+                        // insert new line before/after the table and reset decoration
+                        return ACTION_CMD_FACTORY.insertAndDecorate("\n", ParagraphDecoration.builder().presets().build());
                     }
-                } else if (paragraph.getStart() == caret) {
-                    // check backspace at beginning of paragraph:
-                    if (decoration.getGraphicType() != ParagraphDecoration.GraphicType.NONE) {
-                        // remove graphic type decoration
-                        return ACTION_CMD_FACTORY.decorate(ParagraphDecoration.builder().fromDecoration(decoration).graphicType(ParagraphDecoration.GraphicType.NONE).build());
-                    } else if (decoration.getIndentationLevel() > 0) {
-                        // decrease indentation level
-                        return ACTION_CMD_FACTORY.decorate(ParagraphDecoration.builder().fromDecoration(decoration).indentationLevel(decoration.getIndentationLevel() - 1).build());
-                    } else {
-                        // if previous paragraph is a table:
-                        int index = viewModel.getParagraphList().indexOf(paragraph);
-                        if (index > 0) {
-                            if (viewModel.getParagraphList().get(index - 1).getDecoration().hasTableDecoration()) {
-                                // just move to last cell
+                    return null;
+                }
+                if (getSkinnable().getOnAction() != null && !e.isShiftDown()) {
+                    getSkinnable().getOnAction().handle(new ActionEvent());
+                    return null;
+                }
+                return ACTION_CMD_FACTORY.insertText("\n");
+            }),
+            entry( new KeyCodeCombination(BACK_SPACE, SHIFT_ANY),                                e -> {
+                int caret = viewModel.getCaretPosition();
+                Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
+                ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
+                if (decoration != null && paragraph != null) {
+                    if (decoration.hasTableDecoration()) {
+                        UnitBuffer buffer = new UnitBuffer();
+                        viewModel.walkFragments((u, d) -> buffer.append(u), paragraph.getStart(), paragraph.getEnd());
+                        Table table = new Table(buffer,
+                                paragraph.getStart(), decoration.getTableDecoration().getRows(), decoration.getTableDecoration().getColumns());
+                        if (table.isCaretAtStartOfCell(caret)) {
+                            // check backspace at beginning of each cell to prevent moving text from one cell to the other.
+                            // and just move caret if cell was empty:
+                            if (table.isCaretAtEmptyCell(caret)) {
                                 return ACTION_CMD_FACTORY.caretMove(Direction.BACK, false, false, false);
                             }
+                            return null;
+                        }
+                    } else if (paragraph.getStart() == caret) {
+                        // check backspace at beginning of paragraph:
+                        if (decoration.getGraphicType() != ParagraphDecoration.GraphicType.NONE) {
+                            // remove graphic type decoration
+                            return ACTION_CMD_FACTORY.decorate(ParagraphDecoration.builder().fromDecoration(decoration).graphicType(ParagraphDecoration.GraphicType.NONE).build());
+                        } else if (decoration.getIndentationLevel() > 0) {
+                            // decrease indentation level
+                            return ACTION_CMD_FACTORY.decorate(ParagraphDecoration.builder().fromDecoration(decoration).indentationLevel(decoration.getIndentationLevel() - 1).build());
+                        } else {
+                            // if previous paragraph is a table:
+                            int index = viewModel.getParagraphList().indexOf(paragraph);
+                            if (index > 0) {
+                                if (viewModel.getParagraphList().get(index - 1).getDecoration().hasTableDecoration()) {
+                                    // just move to last cell
+                                    return ACTION_CMD_FACTORY.caretMove(Direction.BACK, false, false, false);
+                                }
+                            }
                         }
                     }
                 }
-            }
-            return ACTION_CMD_FACTORY.removeText(-1);
-        }),
-        entry( new KeyCodeCombination(BACK_SPACE, SHORTCUT_DOWN, SHIFT_ANY),                 e -> {
-            int caret = viewModel.getCaretPosition();
-            Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
-            ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
-            if (paragraph != null && decoration != null && decoration.hasTableDecoration()) {
-                // TODO: remove cell content, else if empty move to prev cell
-                return null;
-            } else if (paragraph != null && paragraph.getStart() == caret) {
-                // if previous paragraph is a table:
-                int index = viewModel.getParagraphList().indexOf(paragraph);
-                if (index > 0) {
-                    if (viewModel.getParagraphList().get(index - 1).getDecoration().hasTableDecoration()) {
-                        // just move to last cell
-                        return ACTION_CMD_FACTORY.caretMove(Direction.BACK, false, false, false);
-                    }
-                }
-            }
-            if (Tools.MAC) {
-                // CMD + BACKSPACE or CMD + SHIFT + BACKSPACE removes line in Mac
-                return ACTION_CMD_FACTORY.removeText(0, RichTextAreaViewModel.Remove.LINE);
-            }
-            // CTRL + BACKSPACE removes word in Windows and Linux
-            // SHIFT + CTRL + BACKSPACE removes line in Windows and Linux
-            return ACTION_CMD_FACTORY.removeText(0, e.isShiftDown() ? RichTextAreaViewModel.Remove.LINE : RichTextAreaViewModel.Remove.WORD);
-        }),
-        entry( new KeyCodeCombination(BACK_SPACE, ALT_DOWN),                                 e -> {
-            if (Tools.MAC) {
+                return ACTION_CMD_FACTORY.removeText(-1);
+            }),
+            entry( new KeyCodeCombination(BACK_SPACE, SHORTCUT_DOWN, SHIFT_ANY),                 e -> {
                 int caret = viewModel.getCaretPosition();
                 Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
                 ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
                 if (paragraph != null && decoration != null && decoration.hasTableDecoration()) {
-                    // TODO: remove prev word from cell if any, else if empty move to prev cell, else nothing
+                    // TODO: remove cell content, else if empty move to prev cell
                     return null;
                 } else if (paragraph != null && paragraph.getStart() == caret) {
                     // if previous paragraph is a table:
@@ -288,50 +268,77 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
                         }
                     }
                 }
-                return ACTION_CMD_FACTORY.removeText(0, RichTextAreaViewModel.Remove.WORD);
-            }
-            return null;
-        }),
-        entry( new KeyCodeCombination(DELETE),                                               e -> ACTION_CMD_FACTORY.removeText(0)),
-        entry( new KeyCodeCombination(B, SHORTCUT_DOWN),                                     e -> {
-            TextDecoration decoration = (TextDecoration) viewModel.getDecorationAtCaret();
-            FontWeight fontWeight = decoration.getFontWeight() == BOLD ? NORMAL : BOLD;
-            return ACTION_CMD_FACTORY.decorate(TextDecoration.builder().fromDecoration(decoration).fontWeight(fontWeight).build());
-        }),
-        entry(new KeyCodeCombination(I, SHORTCUT_DOWN),                                      e -> {
-            TextDecoration decoration = (TextDecoration) viewModel.getDecorationAtCaret();
-            FontPosture fontPosture = decoration.getFontPosture() == ITALIC ? REGULAR : ITALIC;
-            return ACTION_CMD_FACTORY.decorate(TextDecoration.builder().fromDecoration(decoration).fontPosture(fontPosture).build());
-        }),
-        entry(new KeyCodeCombination(TAB, SHIFT_ANY),                                        e -> {
-            ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
-            Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
-            if (decoration != null && decoration.getGraphicType() != ParagraphDecoration.GraphicType.NONE) {
-                int level = Math.max(decoration.getIndentationLevel() + (e.isShiftDown() ? -1 : 1), 0);
-                return ACTION_CMD_FACTORY.decorate(ParagraphDecoration.builder().fromDecoration(decoration).indentationLevel(level).build());
-            } else if (decoration != null && decoration.hasTableDecoration() &&
-                    paragraph != null && paragraph.getStart() < paragraph.getEnd()) {
-                int caretPosition = viewModel.getCaretPosition();
-                UnitBuffer buffer = new UnitBuffer();
-                viewModel.walkFragments((u, d) -> buffer.append(u), paragraph.getStart(), paragraph.getEnd());
-                Table table = new Table(buffer,
-                        paragraph.getStart(), decoration.getTableDecoration().getRows(), decoration.getTableDecoration().getColumns());
-                // select content of prev/next cell if non-empty, or move to prev/next cell
-                List<Integer> selectionAtNextCell = table.selectNextCell(caretPosition, e.isShiftDown() ? Direction.BACK : Direction.FORWARD);
-                int start = selectionAtNextCell.get(0);
-                viewModel.clearSelection();
-                viewModel.setCaretPosition(start);
-                if (selectionAtNextCell.size() == 2) {
-                    int end = selectionAtNextCell.get(1);
-                    if (start < end) {
-                        // select content
-                        return ACTION_CMD_FACTORY.selectCell(new Selection(start, end));
+                if (Tools.MAC) {
+                    // CMD + BACKSPACE or CMD + SHIFT + BACKSPACE removes line in Mac
+                    return ACTION_CMD_FACTORY.removeText(0, RichTextAreaViewModel.Remove.LINE);
+                }
+                // CTRL + BACKSPACE removes word in Windows and Linux
+                // SHIFT + CTRL + BACKSPACE removes line in Windows and Linux
+                return ACTION_CMD_FACTORY.removeText(0, e.isShiftDown() ? RichTextAreaViewModel.Remove.LINE : RichTextAreaViewModel.Remove.WORD);
+            }),
+            entry( new KeyCodeCombination(BACK_SPACE, ALT_DOWN),                                 e -> {
+                if (Tools.MAC) {
+                    int caret = viewModel.getCaretPosition();
+                    Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
+                    ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
+                    if (paragraph != null && decoration != null && decoration.hasTableDecoration()) {
+                        // TODO: remove prev word from cell if any, else if empty move to prev cell, else nothing
+                        return null;
+                    } else if (paragraph != null && paragraph.getStart() == caret) {
+                        // if previous paragraph is a table:
+                        int index = viewModel.getParagraphList().indexOf(paragraph);
+                        if (index > 0) {
+                            if (viewModel.getParagraphList().get(index - 1).getDecoration().hasTableDecoration()) {
+                                // just move to last cell
+                                return ACTION_CMD_FACTORY.caretMove(Direction.BACK, false, false, false);
+                            }
+                        }
                     }
+                    return ACTION_CMD_FACTORY.removeText(0, RichTextAreaViewModel.Remove.WORD);
                 }
-            }
-            return null;
-        })
-    );
+                return null;
+            }),
+            entry( new KeyCodeCombination(DELETE),                                               e -> ACTION_CMD_FACTORY.removeText(0)),
+            entry( new KeyCodeCombination(B, SHORTCUT_DOWN),                                     e -> {
+                TextDecoration decoration = (TextDecoration) viewModel.getDecorationAtCaret();
+                FontWeight fontWeight = decoration.getFontWeight() == BOLD ? NORMAL : BOLD;
+                return ACTION_CMD_FACTORY.decorate(TextDecoration.builder().fromDecoration(decoration).fontWeight(fontWeight).build());
+            }),
+            entry(new KeyCodeCombination(I, SHORTCUT_DOWN),                                      e -> {
+                TextDecoration decoration = (TextDecoration) viewModel.getDecorationAtCaret();
+                FontPosture fontPosture = decoration.getFontPosture() == ITALIC ? REGULAR : ITALIC;
+                return ACTION_CMD_FACTORY.decorate(TextDecoration.builder().fromDecoration(decoration).fontPosture(fontPosture).build());
+            }),
+            entry(new KeyCodeCombination(TAB, SHIFT_ANY),                                        e -> {
+                ParagraphDecoration decoration = viewModel.getDecorationAtParagraph();
+                Paragraph paragraph = viewModel.getParagraphWithCaret().orElse(null);
+                if (decoration != null && decoration.getGraphicType() != ParagraphDecoration.GraphicType.NONE) {
+                    int level = Math.max(decoration.getIndentationLevel() + (e.isShiftDown() ? -1 : 1), 0);
+                    return ACTION_CMD_FACTORY.decorate(ParagraphDecoration.builder().fromDecoration(decoration).indentationLevel(level).build());
+                } else if (decoration != null && decoration.hasTableDecoration() &&
+                        paragraph != null && paragraph.getStart() < paragraph.getEnd()) {
+                    int caretPosition = viewModel.getCaretPosition();
+                    UnitBuffer buffer = new UnitBuffer();
+                    viewModel.walkFragments((u, d) -> buffer.append(u), paragraph.getStart(), paragraph.getEnd());
+                    Table table = new Table(buffer,
+                            paragraph.getStart(), decoration.getTableDecoration().getRows(), decoration.getTableDecoration().getColumns());
+                    // select content of prev/next cell if non-empty, or move to prev/next cell
+                    List<Integer> selectionAtNextCell = table.selectNextCell(caretPosition, e.isShiftDown() ? Direction.BACK : Direction.FORWARD);
+                    int start = selectionAtNextCell.get(0);
+                    viewModel.clearSelection();
+                    viewModel.setCaretPosition(start);
+                    if (selectionAtNextCell.size() == 2) {
+                        int end = selectionAtNextCell.get(1);
+                        if (start < end) {
+                            // select content
+                            return ACTION_CMD_FACTORY.selectCell(new Selection(start, end));
+                        }
+                    }
+                }
+                return null;
+            })
+        );
+    }
 
     private static final Point2D DEFAULT_POINT_2D = new Point2D(-1, -1);
 
@@ -344,15 +351,28 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
     private ObservableList<MenuItem> editableContextMenuItems;
     private ObservableList<MenuItem> nonEditableContextMenuItems;
     private final EventHandler<ContextMenuEvent> contextMenuEventEventHandler = e -> {
+        // menu items are created on demand, as read-only controls might never show them
+        populateContextMenu(getSkinnable().isEditable());
         contextMenu.show((Node) e.getSource(), e.getScreenX(), e.getScreenY());
         e.consume();
     };
 
     private final Map<Integer, Font> fontCache = new ConcurrentHashMap<>();
     private final Map<String, Image> imageCache = new ConcurrentHashMap<>();
+    private final FragmentFactory fragmentFactory = new FragmentFactory(fontCache, imageCache,
+            () -> getSkinnable().getSkinTone(), () -> getSkinnable().getLinkCallbackFactory(),
+            () -> this.textFlowPrefWidthProperty.get() - 10);
     private final SmartTimer objectsCacheEvictionTimer;
 
-    private final Consumer<TextBuffer.Event> textChangeListener = e -> refreshTextFlow();
+    private final Consumer<TextBuffer.Event> textChangeListener = this::textChanged;
+    private HighlightIndex highlightIndex = HighlightIndex.EMPTY;
+    private final ListChangeListener<Highlight> highlightsListener = this::highlightsChanged;
+    private SearchSession searchSession;
+    private List<Highlight> searchHighlights = List.of();
+    private final ChangeListener<SearchQuery> searchQueryListener = (obs, ov, nv) -> updateSearchQuery(nv);
+    private TextAnalysisPipeline analysisPipeline;
+    private List<Highlight> analysisHighlights = List.of();
+    private final ListChangeListener<TextAnalyzer> textAnalyzersListener = c -> updateTextAnalyzers();
     int lastValidCaretPosition = -1;
     int mouseDragStart = -1;
     int dragAndDropStart = -1;
@@ -460,6 +480,10 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
                 externalCaret = text.length();
             }
             getSkinnable().caretPosition.set(externalCaret);
+            if (viewModel.isSharedChangeInProgress()) {
+                // the caret follows a change done from another control: don't scroll
+                return;
+            }
             viewModel.getParagraphWithCaret()
                     .ifPresent(paragraph -> Platform.runLater(paragraphListView::scrollIfNeeded));
         }
@@ -630,6 +654,35 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
             virtualFlow.rebuildCells();
         }
 
+        /**
+         * Refreshes the cells with paragraphs that overlap the given range of text. The cells with
+         * paragraphs that were moved, added or removed are already updated by the list view,
+         * when the paragraph list changes.
+         */
+        void refreshCells(int start, int end) {
+            getSheet().getChildren().stream()
+                    .filter(RichListCell.class::isInstance)
+                    .map(RichListCell.class::cast)
+                    .filter(cell -> !cell.isEmpty() && cell.getItem() != null &&
+                            cell.getItem().getStart() <= end && cell.getItem().getEnd() >= start)
+                    .forEach(RichListCell::refreshParagraph);
+        }
+
+        int getNonTextNodes() {
+            return getSheet().getChildren().stream()
+                    .filter(RichListCell.class::isInstance)
+                    .map(RichListCell.class::cast)
+                    .mapToInt(RichListCell::getNonTextNodes)
+                    .sum();
+        }
+
+        void updateHighlights(int start, int end) {
+            getSheet().getChildren().stream()
+                    .filter(RichListCell.class::isInstance)
+                    .map(RichListCell.class::cast)
+                    .forEach(cell -> cell.updateHighlights(start, end));
+        }
+
         void scrollIfNeeded() {
             final Bounds vfBounds = virtualFlow.localToScene(virtualFlow.getBoundsInLocal());
             double viewportMinY = vfBounds.getMinY();
@@ -710,6 +763,7 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
         setupPromptNode();
 
         viewModel.attachedProperty().subscribe((b0, b) -> attachedProperty.set(b));
+        control.documentProgressProperty.bind(viewModel.documentProgressProperty());
         setup(control.getDocument());
     }
 
@@ -724,6 +778,8 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
         viewModel.removeChangeListener(textChangeListener);
         viewModel.documentProperty().removeListener(documentChangeListener);
         viewModel.autoSaveProperty().unbind();
+        viewModel.undoLimitProperty().unbind();
+        viewModel.undoMemoryLimitProperty().unbind();
         lastValidCaretPosition = -1;
         promptNode.textProperty().unbind();
         promptNode.fillProperty().unbind();
@@ -735,6 +791,20 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
         getSkinnable().focusedProperty().removeListener(focusListener);
         getSkinnable().removeEventHandler(DragEvent.ANY, dndHandler);
         getSkinnable().skinToneProperty().removeListener(skinToneChangeListener);
+        getSkinnable().searchQueryProperty().removeListener(searchQueryListener);
+        getSkinnable().getTextAnalyzers().removeListener(textAnalyzersListener);
+        if (searchSession != null) {
+            searchSession.dispose();
+            searchSession = null;
+            searchHighlights = replaceHighlights(searchHighlights, List.of());
+        }
+        if (analysisPipeline != null) {
+            analysisPipeline.dispose();
+            analysisPipeline = null;
+            analysisHighlights = replaceHighlights(analysisHighlights, List.of());
+        }
+        getSkinnable().getHighlights().removeListener(highlightsListener);
+        highlightIndex = HighlightIndex.EMPTY;
         contextMenu.getItems().clear();
         tableCellContextMenuItems = null;
         tableContextMenuItems = null;
@@ -757,6 +827,23 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
         return imageCache;
     }
 
+    FragmentFactory getFragmentFactory() {
+        return fragmentFactory;
+    }
+
+    /*
+     * Creates a factory that shares the fonts, the images and the skin tone of this skin, for text
+     * that is laid out with a different width than the control, without links
+     */
+    FragmentFactory createFragmentFactory(double wrapWidth) {
+        return new FragmentFactory(fontCache, imageCache, () -> getSkinnable().getSkinTone(), () -> null,
+                () -> wrapWidth - 10);
+    }
+
+    List<Highlight> getHighlights(int start, int end) {
+        return highlightIndex.find(start, end);
+    }
+
     /// PRIVATE METHODS /////////////////////////////////////////////////////////
 
     private void setup(Document document) {
@@ -764,7 +851,7 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
             return;
         }
         attachedProperty.set(false);
-        viewModel.setTextBuffer(new PieceTable(document));
+        viewModel.setTextBuffer(viewModel.createTextBuffer(document));
         lastValidCaretPosition = viewModel.getTextBuffer().getInternalPosition(document.getCaretPosition());
         viewModel.setCaretPosition(lastValidCaretPosition);
         viewModel.setDecorationAtParagraph(viewModel.getTextBuffer().getParagraphDecorationAtCaret(lastValidCaretPosition));
@@ -772,6 +859,8 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
         viewModel.setDocument(document);
         viewModel.documentProperty().addListener(documentChangeListener);
         viewModel.autoSaveProperty().bind(getSkinnable().autoSaveProperty());
+        viewModel.undoLimitProperty().bind(getSkinnable().undoLimitProperty());
+        viewModel.undoMemoryLimitProperty().bind(getSkinnable().undoMemoryLimitProperty());
         promptNode.textProperty().bind(getSkinnable().promptTextProperty());
         promptNode.fillProperty().bind(promptTextFillProperty());
         getSkinnable().setOnContextMenuRequested(contextMenuEventEventHandler);
@@ -784,12 +873,89 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
         getSkinnable().focusedProperty().addListener(focusListener);
         getSkinnable().addEventHandler(DragEvent.ANY, dndHandler);
         getSkinnable().skinToneProperty().addListener(skinToneChangeListener);
+        getSkinnable().getHighlights().addListener(highlightsListener);
+        highlightIndex = new HighlightIndex(getSkinnable().getHighlights());
+        updateSearchQuery(getSkinnable().getSearchQuery());
+        getSkinnable().searchQueryProperty().addListener(searchQueryListener);
+        updateTextAnalyzers();
+        getSkinnable().getTextAnalyzers().addListener(textAnalyzersListener);
         refreshTextFlow();
         requestLayout();
         editableChangeListener(null); // sets up all related listeners
         attachedProperty.set(true);
     }
 
+    private void highlightsChanged(ListChangeListener.Change<? extends Highlight> change) {
+        // range of text that overlaps the removed and added highlights
+        int start = Integer.MAX_VALUE, end = -1;
+        while (change.next()) {
+            for (Highlight highlight : change.getRemoved()) {
+                start = Math.min(start, highlight.getStart());
+                end = Math.max(end, highlight.getEnd());
+            }
+            for (Highlight highlight : change.getAddedSubList()) {
+                start = Math.min(start, highlight.getStart());
+                end = Math.max(end, highlight.getEnd());
+            }
+        }
+        highlightIndex = new HighlightIndex(getSkinnable().getHighlights());
+        if (end >= start) {
+            paragraphListView.updateHighlights(start, end);
+        }
+    }
+
+    /*
+     * The search session and the analysis pipeline follow every change of the text buffer, so they
+     * are created only when there is a query or an analyzer, not for controls that are only viewed
+     */
+    private void updateSearchQuery(SearchQuery query) {
+        if (searchSession == null) {
+            if (query == null) {
+                return;
+            }
+            searchSession = new SearchSession(viewModel.getTextBuffer());
+            searchSession.addMatchesListener(this::searchMatchesChanged);
+        }
+        searchSession.setQuery(query);
+    }
+
+    private void updateTextAnalyzers() {
+        List<TextAnalyzer> analyzers = getSkinnable().getTextAnalyzers();
+        if (analysisPipeline == null) {
+            if (analyzers.isEmpty()) {
+                return;
+            }
+            analysisPipeline = new TextAnalysisPipeline(viewModel.getTextBuffer(), viewModel.getParagraphList(), Platform::runLater,
+                    highlights -> analysisHighlights = replaceHighlights(analysisHighlights, highlights));
+        }
+        analysisPipeline.setAnalyzers(analyzers);
+    }
+
+    private void searchMatchesChanged(SearchSession session) {
+        List<Highlight> matches = new ArrayList<>(session.getMatchCount());
+        for (int i = 0; i < session.getMatchCount(); i++) {
+            matches.add(new Highlight(session.getMatchStart(i), session.getMatchEnd(i), "search-match"));
+        }
+        searchHighlights = replaceHighlights(searchHighlights, matches);
+    }
+
+    // replaces the highlights added by the skin with new ones in a single change, and returns them
+    private List<Highlight> replaceHighlights(List<Highlight> previous, List<Highlight> current) {
+        if (previous.isEmpty() && current.isEmpty()) {
+            return current;
+        }
+        Set<Highlight> previousSet = new HashSet<>(previous);
+        List<Highlight> highlights = new ArrayList<>();
+        for (Highlight highlight : getSkinnable().getHighlights()) {
+            if (!previousSet.remove(highlight)) {
+                highlights.add(highlight);
+            }
+        }
+        highlights.addAll(current);
+        getSkinnable().getHighlights().setAll(highlights);
+        return current;
+    }
+
     private void setupPromptNode() {
         promptNode.setMouseTransparent(true);
         promptNode.setManaged(false);
@@ -838,11 +1004,63 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
 
     // TODO Need more optimal way of rendering text fragments.
     //  For now rebuilding the whole text flow
+    private void textChanged(TextBuffer.Event event) {
+        // changes done from other controls that share the text buffer are only rendered
+        boolean ownChange = viewModel.isChangingText();
+        // range of the text after the change that has to be rendered again
+        int start, end;
+        if (event instanceof TextBuffer.InsertEvent insertEvent) {
+            start = insertEvent.getPosition();
+            end = start + insertEvent.getText().length();
+        } else if (event instanceof TextBuffer.DeleteEvent deleteEvent) {
+            start = end = deleteEvent.getPosition();
+        } else if (event instanceof TextBuffer.DecorateEvent decorateEvent) {
+            start = decorateEvent.getStart();
+            end = decorateEvent.getEnd();
+        } else if (event instanceof TextBuffer.TransactionEvent transactionEvent) {
+            if (transactionEvent.getRemovedLength() == 0 && transactionEvent.getInsertedLength() == 0) {
+                return;
+            }
+            start = transactionEvent.getPosition();
+            end = start + transactionEvent.getInsertedLength();
+        } else {
+            refreshTextFlow(ownChange);
+            return;
+        }
+        objectsCacheEvictionTimer.pause();
+        try {
+            int nonTextNodes = paragraphListView.getNonTextNodes();
+            viewModel.resetCharacterIterator();
+            paragraphListView.refreshCells(start, end);
+            // paragraphs that joined or left a numbered list change the ordinals of the following ones
+            int[] listRange = viewModel.pollChangedListOrdinals();
+            if (listRange != null) {
+                paragraphListView.refreshCells(listRange[0], listRange[1]);
+            }
+            computeFullHeight();
+            if (nonTextNodes != paragraphListView.getNonTextNodes()) {
+                // when number of images changes, caret
+                requestLayout();
+            }
+            if (ownChange) {
+                getSkinnable().requestFocus();
+            }
+        } finally {
+            objectsCacheEvictionTimer.start();
+        }
+    }
+
     private void refreshTextFlow() {
+        refreshTextFlow(true);
+    }
+
+    private void refreshTextFlow(boolean requestFocus) {
         objectsCacheEvictionTimer.pause();
         try {
             nonTextNodes.set(0);
             viewModel.resetCharacterIterator();
+            // all the cells are rendered again
+            viewModel.pollChangedListOrdinals();
             // this ensures changes in decoration are applied:
             paragraphListView.updateLayout();
             computeFullHeight();
@@ -852,7 +1070,9 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
                 requestLayout();
                 nonTextNodesCount = nonTextNodes.get();
             }
-            getSkinnable().requestFocus();
+            if (requestFocus) {
+                getSkinnable().requestFocus();
+            }
         } finally {
             objectsCacheEvictionTimer.start();
         }
@@ -867,7 +1087,11 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
         viewModel.setEditable(editable);
         viewModel.setCaretPosition(editable ? lastValidCaretPosition : -1);
         paragraphListView.setCursor(editable ? Cursor.TEXT : Cursor.DEFAULT);
-        populateContextMenu(editable);
+        contextMenu.hide();
+        if (o != null) {
+            // paragraph tiles listen to the caret only if the control is editable
+            paragraphListView.refresh();
+        }
         Platform.runLater(paragraphListView::scrollIfNeeded);
     }
 
@@ -944,9 +1168,12 @@ public class RichTextAreaSkin extends SkinBase<RichTextArea> {
     private void keyPressedListener(KeyEvent e) {
         long a0 = System.nanoTime();
         // Find an applicable action and execute it if found
-        for (KeyCombination kc : INPUT_MAP.keySet()) {
+        if (inputMap == null) {
+            inputMap = createInputMap();
+        }
+        for (KeyCombination kc : inputMap.keySet()) {
             if (kc.match(e)) {
-                ActionBuilder actionBuilder = INPUT_MAP.get(kc);
+                ActionBuilder actionBuilder = inputMap.get(kc);
                 ActionCmd actionCmd = actionBuilder.apply(e);
                 if (actionCmd != null) {
                     execute(actionCmd);
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.emoji.EmojiSkinTone;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.ImageDecoration;
+import com.gluonhq.richtextarea.model.ParagraphDecoration;
+import com.gluonhq.richtextarea.model.PieceTable;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import com.gluonhq.richtextarea.model.TextUnit;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Renders short rich text {@link Document documents}, like snippets displayed in the cells of a
+ * {@link javafx.scene.control.ListView} or a {@link javafx.scene.control.TableView}, without the cost
+ * of a {@link RichTextArea} per cell.
+ *
+ * A document is rendered into a single {@link TextFlow}, with the same nodes that a {@link RichTextArea}
+ * builds for its text, emojis and images, that can be reused as cells are recycled, or into a snapshot
+ * image, that is cached. The renderer keeps the caches of fonts and images, that are shared by all the
+ * documents it renders, so a single instance should be used by all the cells of a control.
+ *
+ * Only the alignment and the spacing of the first paragraph are applied, tables are rendered as plain
+ * text, and the background colors of the text are not rendered.
+ *
+ * The renderer must be used from the JavaFX Application thread.
+ */
+public final class RichTextRenderer {
+
+    private static final int MAX_SNAPSHOTS = 256;
+    private static final int MAX_PIECE_TABLES = 256;
+
+    private final Map<Integer, Font> fontCache = new ConcurrentHashMap<>();
+    private final Map<String, Image> imageCache = new ConcurrentHashMap<>();
+    private final FragmentFactory fragmentFactory;
+
+    // snapshots of the last rendered documents, by identity, least recently used first
+    private final Map<SnapshotKey, Image> snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SnapshotKey, Image> eldest) {
+            return size() > MAX_SNAPSHOTS;
+        }
+    };
+
+    // piece tables of the last rendered documents, by identity, least recently used first
+    private final Map<DocumentKey, PieceTable> pieceTables = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DocumentKey, PieceTable> eldest) {
+            return size() > MAX_PIECE_TABLES;
+        }
+    };
+
+    private EmojiSkinTone skinTone = EmojiSkinTone.NO_SKIN_TONE;
+    private Function<Node, Consumer<String>> linkCallbackFactory = DefaultLinkCallbackFactory.getFactory();
+    private double width;
+
+    public RichTextRenderer() {
+        fragmentFactory = new FragmentFactory(fontCache, imageCache, () -> skinTone, () -> linkCallbackFactory,
+                () -> width - 10);
+    }
+
+    /**
+     * Gets the skin tone of the emojis
+     * @return the skin tone, {@link EmojiSkinTone#NO_SKIN_TONE} by default
+     */
+    public EmojiSkinTone getSkinTone() {
+        return skinTone;
+    }
+
+    /**
+     * Sets the skin tone of the emojis, discarding the cached snapshots
+     * @param skinTone the skin tone
+     */
+    public void setSkinTone(EmojiSkinTone skinTone) {
+        this.skinTone = skinTone;
+        snapshots.clear();
+    }
+
+    /**
+     * Gets the factory of the callbacks that are called when a link is clicked
+     * @return the factory of callbacks, {@link DefaultLinkCallbackFactory#getFactory()} by default
+     */
+    public Function<Node, Consumer<String>> getLinkCallbackFactory() {
+        return linkCallbackFactory;
+    }
+
+    /**
+     * Sets the factory of the callbacks that are called when a link of a rendered text flow is clicked
+     * @param linkCallbackFactory the factory of callbacks, or null to ignore clicks on links
+     */
+    public void setLinkCallbackFactory(Function<Node, Consumer<String>> linkCallbackFactory) {
+        this.linkCallbackFactory = linkCallbackFactory;
+    }
+
+    /**
+     * Renders a document into a new text flow
+     * @param document the document to render
+     * @param width the width of the text flow, in pixels
+     * @return the text flow with the rendered document
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public TextFlow render(Document document, double width) {
+        TextFlow textFlow = new TextFlow();
+        render(document, width, textFlow);
+        return textFlow;
+    }
+
+    /**
+     * Renders a document into an existing text flow, replacing its content, so the text flow
+     * of a cell can be reused when the cell is recycled. The piece table of the document is cached
+     * by identity, like its snapshots, so the document shouldn't be modified.
+     * @param document the document to render
+     * @param width the width of the text flow, in pixels
+     * @param textFlow the text flow
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public void render(Document document, double width, TextFlow textFlow) {
+        Objects.requireNonNull(document);
+        Objects.requireNonNull(textFlow);
+        if (width <= 0) {
+            throw new IllegalArgumentException("Width " + width + " is not positive");
+        }
+        this.width = width;
+        // a recycled cell renders the same document again, without splitting its text into pieces again
+        PieceTable pieceTable = pieceTables.computeIfAbsent(new DocumentKey(document), key -> new PieceTable(document));
+        List<Node> fragments = new ArrayList<>();
+        pieceTable.walkFragments((unit, decoration) -> {
+            if (decoration instanceof TextDecoration textDecoration && !unit.isEmpty()) {
+                if (unit instanceof TextUnit) {
+                    addText(fragments, unit.getText(), textDecoration);
+                } else {
+                    fragments.add(fragmentFactory.buildNode(unit, textDecoration));
+                }
+            } else if (decoration instanceof ImageDecoration imageDecoration) {
+                fragments.add(fragmentFactory.buildImage(imageDecoration));
+            }
+        }, 0, pieceTable.getTextLength());
+        textFlow.getChildren().setAll(fragments);
+        textFlow.setPrefWidth(width);
+        ParagraphDecoration decoration = pieceTable.getParagraphDecorationAtCaret(0);
+        if (decoration != null) {
+            textFlow.setTextAlignment(decoration.getAlignment());
+            textFlow.setLineSpacing(decoration.getSpacing());
+        }
+    }
+
+    /**
+     * Gets a snapshot image of a document, that is taken only once for the same document instance
+     * and width, as long as it is kept in the cache of the most recently used snapshots.
+     * Documents are cached by identity, so looking up a snapshot doesn't hash their text and
+     * decorations: cells should keep the same document instances, and these shouldn't be modified.
+     * @param document the document to render
+     * @param width the width of the image, in pixels
+     * @return the snapshot of the rendered document
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public Image snapshot(Document document, double width) {
+        SnapshotKey key = new SnapshotKey(Objects.requireNonNull(document), width);
+        Image image = snapshots.get(key);
+        if (image == null) {
+            TextFlow textFlow = render(document, width);
+            // a temporary scene applies the css and the layout to the text flow
+            new Scene(new Group(textFlow));
+            SnapshotParameters parameters = new SnapshotParameters();
+            parameters.setFill(Color.TRANSPARENT);
+            image = textFlow.snapshot(parameters, null);
+            snapshots.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Discards the cached snapshots, piece tables, fonts and images
+     */
+    public void clearCaches() {
+        snapshots.clear();
+        pieceTables.clear();
+        fontCache.clear();
+        imageCache.clear();
+    }
+
+    // splits the text of a unit at its line feeds, as all the paragraphs go into the same text flow
+    private void addText(List<Node> fragments, String text, TextDecoration decoration) {
+        int start = 0;
+        int lineFeed;
+        while ((lineFeed = text.indexOf('\n', start)) >= 0) {
+            if (lineFeed > start) {
+                fragments.add(fragmentFactory.buildText(text.substring(start, lineFeed), decoration));
+            }
+            Text lineBreak = new Text("\n");
+            lineBreak.setFont(fragmentFactory.getFont(decoration));
+            fragments.add(lineBreak);
+            start = lineFeed + 1;
+        }
+        if (start < text.length()) {
+            fragments.add(fragmentFactory.buildText(text.substring(start), decoration));
+        }
+    }
+
+    private static final class DocumentKey {
+
+        private final Document document;
+
+        DocumentKey(Document document) {
+            this.document = document;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return document == ((DocumentKey) o).document;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(document);
+        }
+    }
+
+    private static final class SnapshotKey {
+
+        private final Document document;
+        private final double width;
+
+        SnapshotKey(Document document, double width) {
+            this.document = document;
+            this.width = width;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SnapshotKey that = (SnapshotKey) o;
+            return Double.compare(that.width, width) == 0 && document == that.document;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(document) + Double.hashCode(width);
+        }
+    }
+}
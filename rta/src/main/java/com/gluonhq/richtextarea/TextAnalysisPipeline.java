@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.richtextarea.model.Paragraph;
+import com.gluonhq.richtextarea.model.TextBuffer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a list of {@link TextAnalyzer analyzers} in the background over the paragraphs of a
+ * text buffer, and posts their results as highlights.
+ *
+ * The ranges of text changed by the events of the text buffer are tracked as dirty, and
+ * when the changes of a pulse are done, only the paragraphs that overlap them are read
+ * again. The results of the analysis are cached by the text of each paragraph, so unchanged
+ * paragraphs, or paragraphs that go back to a previous text, are never analyzed again, and
+ * only the rest are submitted to a pool of worker threads, that is shared by all the pipelines
+ * unless another executor is given.
+ * The highlights of the other paragraphs are shifted as the text changes, and the results
+ * of a paragraph that changed while it was being analyzed are discarded.
+ *
+ * All the methods, and the consumer of the highlights, are called from the application thread.
+ */
+final class TextAnalysisPipeline {
+
+    private static final Logger LOG = Logger.getLogger(TextAnalysisPipeline.class.getName());
+
+    private static final int MIN_CACHE_SIZE = 1024;
+
+    // the worker threads shared by all the pipelines, that never keep the application alive
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), r -> {
+                Thread t = new Thread(r, "TextAnalysis");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private final TextBuffer textBuffer;
+    private final List<Paragraph> paragraphs;
+    private final Executor fxExecutor;
+    private final Consumer<List<Highlight>> highlightsConsumer;
+    private final Executor workers;
+    private final Consumer<TextBuffer.Event> textChangeListener = this::textChanged;
+
+    private List<TextAnalyzer> analyzers = List.of();
+
+    // paragraph text -> highlights relative to the paragraph, least recently used first
+    private final Map<String, List<Highlight>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Highlight>> eldest) {
+            return size() > Math.max(MIN_CACHE_SIZE, 2 * paragraphs.size());
+        }
+    };
+
+    private final List<Highlight> highlights = new ArrayList<>();
+    private List<Highlight> publishedHighlights = List.of();
+    private final List<int[]> dirtyRanges = new ArrayList<>();
+    private boolean allDirty;
+    private final List<PendingParagraph> pendingParagraphs = new ArrayList<>();
+    private boolean runScheduled;
+    private boolean disposed;
+
+    /**
+     * Creates a pipeline, without analyzers, bound to a text buffer
+     * @param textBuffer the text buffer
+     * @param paragraphs the list of paragraphs of the text buffer, that is up to date once
+     *                   the events of a change are processed
+     * @param fxExecutor the executor of the application thread
+     * @param highlightsConsumer the consumer of all the highlights, every time they change
+     */
+    TextAnalysisPipeline(TextBuffer textBuffer, List<Paragraph> paragraphs, Executor fxExecutor,
+                         Consumer<List<Highlight>> highlightsConsumer) {
+        this(textBuffer, paragraphs, fxExecutor, WORKERS, highlightsConsumer);
+    }
+
+    /**
+     * Creates a pipeline, without analyzers, bound to a text buffer, that analyzes the
+     * paragraphs with the given executor
+     * @param textBuffer the text buffer
+     * @param paragraphs the list of paragraphs of the text buffer, that is up to date once
+     *                   the events of a change are processed
+     * @param fxExecutor the executor of the application thread
+     * @param workers the executor that analyzes the paragraphs, that is not shut down by the pipeline
+     * @param highlightsConsumer the consumer of all the highlights, every time they change
+     */
+    TextAnalysisPipeline(TextBuffer textBuffer, List<Paragraph> paragraphs, Executor fxExecutor, Executor workers,
+                         Consumer<List<Highlight>> highlightsConsumer) {
+        this.textBuffer = Objects.requireNonNull(textBuffer);
+        this.paragraphs = Objects.requireNonNull(paragraphs);
+        this.fxExecutor = Objects.requireNonNull(fxExecutor);
+        this.workers = Objects.requireNonNull(workers);
+        this.highlightsConsumer = Objects.requireNonNull(highlightsConsumer);
+        textBuffer.addChangeListener(textChangeListener);
+    }
+
+    /**
+     * Sets the analyzers, discarding the cached results, and analyzes all the paragraphs
+     * @param analyzers the analyzers
+     */
+    void setAnalyzers(List<TextAnalyzer> analyzers) {
+        this.analyzers = List.copyOf(analyzers);
+        cache.clear();
+        highlights.clear();
+        markAllDirty();
+        publish();
+    }
+
+    /**
+     * Stops listening to the text buffer and cancels the pending analysis of its paragraphs
+     */
+    void dispose() {
+        disposed = true;
+        textBuffer.removeChangeListener(textChangeListener);
+        // the workers are shared, only the paragraphs that didn't start yet are cancelled
+        pendingParagraphs.forEach(pending -> pending.future.cancel(false));
+        cache.clear();
+        highlights.clear();
+        publishedHighlights = List.of();
+        pendingParagraphs.clear();
+    }
+
+    private void textChanged(TextBuffer.Event event) {
+        if (event instanceof TextBuffer.InsertEvent) {
+            TextBuffer.InsertEvent insertEvent = (TextBuffer.InsertEvent) event;
+            update(insertEvent.getPosition(), 0, insertEvent.getText().length());
+        } else if (event instanceof TextBuffer.DeleteEvent) {
+            TextBuffer.DeleteEvent deleteEvent = (TextBuffer.DeleteEvent) event;
+            update(deleteEvent.getPosition(), deleteEvent.getLength(), 0);
+        } else if (event instanceof TextBuffer.TransactionEvent) {
+            TextBuffer.TransactionEvent transactionEvent = (TextBuffer.TransactionEvent) event;
+            if (transactionEvent.getRemovedLength() > 0 || transactionEvent.getInsertedLength() > 0) {
+                update(transactionEvent.getPosition(), transactionEvent.getRemovedLength(), transactionEvent.getInsertedLength());
+            }
+        }
+        // decorations don't change the text
+    }
+
+    /**
+     * Shifts the highlights and the tracked ranges after text was replaced, and marks the
+     * range of the change as dirty
+     * @param position the position of the change
+     * @param removed the length of the removed text
+     * @param inserted the length of the inserted text
+     */
+    private void update(int position, int removed, int inserted) {
+        int delta = inserted - removed;
+        int removedEnd = position + removed;
+        if (!highlights.isEmpty()) {
+            List<Highlight> shifted = new ArrayList<>(highlights.size());
+            for (Highlight highlight : highlights) {
+                if (highlight.getEnd() <= position) {
+                    shifted.add(highlight);
+                } else if (highlight.getStart() >= removedEnd) {
+                    shifted.add(new Highlight(highlight.getStart() + delta, highlight.getEnd() + delta,
+                            highlight.getStyleClass(), highlight.isUnderline()));
+                }
+                // highlights that overlap the change are dropped
+            }
+            highlights.clear();
+            highlights.addAll(shifted);
+        }
+        for (int[] range : dirtyRanges) {
+            range[0] = shift(range[0], position, removedEnd, delta);
+            range[1] = shift(range[1], position, removedEnd, delta);
+        }
+        for (PendingParagraph pending : pendingParagraphs) {
+            if (pending.valid && position <= pending.end && removedEnd >= pending.start) {
+                // the paragraph changed while it was being analyzed
+                pending.valid = false;
+                dirtyRanges.add(new int[] {Math.min(pending.start, position), Math.max(position, pending.end + delta)});
+            }
+            pending.start = shift(pending.start, position, removedEnd, delta);
+            pending.end = shift(pending.end, position, removedEnd, delta);
+        }
+        dirtyRanges.add(new int[] {position, position + inserted});
+        scheduleRun();
+    }
+
+    private static int shift(int value, int position, int removedEnd, int delta) {
+        if (value >= removedEnd) {
+            return value + delta;
+        }
+        return Math.min(value, position);
+    }
+
+    private void markAllDirty() {
+        allDirty = true;
+        pendingParagraphs.forEach(pending -> pending.valid = false);
+        scheduleRun();
+    }
+
+    private void scheduleRun() {
+        if (!runScheduled && !analyzers.isEmpty()) {
+            runScheduled = true;
+            fxExecutor.execute(this::run);
+        }
+    }
+
+    // reads the dirty paragraphs, once the paragraph list is up to date
+    private void run() {
+        runScheduled = false;
+        if (disposed || analyzers.isEmpty()) {
+            return;
+        }
+        if (allDirty) {
+            highlights.clear();
+            paragraphs.forEach(paragraph -> readParagraph(paragraph.getStart(), paragraph.getEnd()));
+        } else if (!paragraphs.isEmpty()) {
+            // only the paragraphs that overlap the dirty ranges are read
+            BitSet dirtyParagraphs = new BitSet(paragraphs.size());
+            for (int[] range : dirtyRanges) {
+                for (int i = paragraphIndex(range[0]); i < paragraphs.size() && paragraphs.get(i).getStart() <= range[1]; i++) {
+                    dirtyParagraphs.set(i);
+                }
+            }
+            for (int i = dirtyParagraphs.nextSetBit(0); i >= 0; i = dirtyParagraphs.nextSetBit(i + 1)) {
+                int start = paragraphs.get(i).getStart();
+                int end = paragraphs.get(i).getEnd();
+                highlights.removeIf(h -> h.getStart() >= start && h.getStart() < end);
+                readParagraph(start, end);
+            }
+        }
+        dirtyRanges.clear();
+        allDirty = false;
+        publish();
+    }
+
+    // finds the first paragraph that ends after a position, or the last one, that also holds the end of the text
+    private int paragraphIndex(int position) {
+        int low = 0, high = paragraphs.size() - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (paragraphs.get(mid).getEnd() > position) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // takes the highlights of a paragraph from the cache, or submits it to be analyzed
+    private void readParagraph(int start, int end) {
+        String text = textBuffer.getCharSequence(start, end).toString();
+        List<Highlight> cached = cache.get(text);
+        if (cached != null) {
+            addHighlights(start, cached);
+        } else {
+            submit(new PendingParagraph(start, end, text));
+        }
+    }
+
+    private void submit(PendingParagraph pending) {
+        pendingParagraphs.add(pending);
+        List<TextAnalyzer> analyzers = this.analyzers;
+        pending.future = CompletableFuture.supplyAsync(() -> analyze(analyzers, pending.text), workers);
+        pending.future.whenCompleteAsync((result, throwable) -> {
+            pendingParagraphs.remove(pending);
+            if (disposed || analyzers != this.analyzers) {
+                return;
+            }
+            if (throwable != null) {
+                LOG.log(Level.WARNING, "Error analyzing paragraph", throwable);
+                return;
+            }
+            cache.put(pending.text, result);
+            if (pending.valid) {
+                addHighlights(pending.start, result);
+                publish();
+            }
+        }, fxExecutor);
+    }
+
+    private static List<Highlight> analyze(List<TextAnalyzer> analyzers, String text) {
+        List<Highlight> result = new ArrayList<>();
+        for (TextAnalyzer analyzer : analyzers) {
+            for (Highlight highlight : analyzer.analyze(text)) {
+                if (highlight.getEnd() <= text.length()) {
+                    result.add(highlight);
+                }
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    private void addHighlights(int offset, List<Highlight> relativeHighlights) {
+        for (Highlight highlight : relativeHighlights) {
+            highlights.add(new Highlight(offset + highlight.getStart(), offset + highlight.getEnd(),
+                    highlight.getStyleClass(), highlight.isUnderline()));
+        }
+    }
+
+    private void publish() {
+        List<Highlight> current = List.copyOf(highlights);
+        if (!current.equals(publishedHighlights)) {
+            publishedHighlights = current;
+            highlightsConsumer.accept(current);
+        }
+    }
+
+    private static final class PendingParagraph {
+
+        private int start;
+        private int end;
+        private final String text;
+        private boolean valid = true;
+        private CompletableFuture<List<Highlight>> future;
+
+        PendingParagraph(int start, int end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import java.util.List;
+
+/**
+ * Analyzes the text of a paragraph, like a spelling or grammar checker, to mark ranges of it
+ * as {@link Highlight highlights}, usually underlined.
+ *
+ * The analyzers of a {@link RichTextArea} run on a pool of background threads, only for the
+ * paragraphs that changed since the last analysis. Their results are cached by the text of
+ * each paragraph, so an analyzer is expected to return the same highlights for the same text.
+ */
+@FunctionalInterface
+public interface TextAnalyzer {
+
+    /**
+     * Analyzes the text of a paragraph.
+     * It is called from a background thread, and can be called concurrently for different
+     * paragraphs, so it must not access the control or its document.
+     * @param text the internal text of the paragraph, ending with a line feed unless it is the
+     *             last paragraph, where each emoji or image is a single anchor character
+     * @return the highlights, with positions relative to the start of the paragraph
+     */
+    List<Highlight> analyze(String text);
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -29,12 +29,21 @@ package com.gluonhq.richtextarea.action;
 
 import com.gluonhq.emoji.Emoji;
 import com.gluonhq.richtextarea.RichTextArea;
+import com.gluonhq.richtextarea.RichTextAreaSkin;
 import com.gluonhq.richtextarea.Selection;
 import com.gluonhq.richtextarea.model.Block;
 import com.gluonhq.richtextarea.model.Decoration;
+import com.gluonhq.richtextarea.model.DecorationModel;
 import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.SearchQuery;
 import com.gluonhq.richtextarea.model.TableDecoration;
 import com.gluonhq.richtextarea.viewmodel.ActionCmdFactory;
+import com.gluonhq.richtextarea.viewmodel.RichTextAreaViewModel;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class ActionFactory {
 
@@ -63,6 +72,19 @@ public class ActionFactory {
         return redo;
     }
 
+    /**
+     * Moves to a given point of the undo history at once, like undoing or redoing several
+     * times, but restoring the nearest checkpoint of the document instead of undoing every
+     * change, and updating the control only once.
+     *
+     * @param historyIndex the number of changes that can be undone after the jump, from 0 to
+     *                     the sum of the sizes of the undo and redo stacks
+     * @return an action that moves to the given point of the undo history
+     */
+    public Action jumpTo(int historyIndex) {
+        return new BasicAction(control, action -> ACTION_CMD_FACTORY.jumpTo(historyIndex));
+    }
+
     private Action copy;
 
     public Action copy() {
@@ -103,6 +125,48 @@ public class ActionFactory {
         return new BasicAction(control, action -> ACTION_CMD_FACTORY.open(document));
     }
 
+    /**
+     * Opens a document asynchronously: its text buffer is built in a background thread, and only
+     * the final swap is done on the JavaFX Application thread.
+     * See also {@link RichTextArea#openAsync(Document)}.
+     *
+     * @param document the document to open
+     * @param result a future that is completed with the document, once it is opened
+     * @return an action that opens the document asynchronously
+     */
+    public Action openAsync(Document document, CompletableFuture<Document> result) {
+        return new BasicAction(control, action -> ACTION_CMD_FACTORY.openAsync(document, result));
+    }
+
+    /**
+     * Opens a UTF-8 text file asynchronously, without loading its text into the heap: the file is
+     * memory-mapped in a background thread, and only the final swap is done on the JavaFX Application thread.
+     * See also {@link RichTextArea#openAsync(Path)}.
+     *
+     * @param path the path of the text file to open
+     * @param result a future that is completed with an empty document, once the file is opened
+     * @return an action that opens the text file asynchronously
+     */
+    public Action openAsync(Path path, CompletableFuture<Document> result) {
+        return new BasicAction(control, action -> ACTION_CMD_FACTORY.openAsync(path, result));
+    }
+
+    /**
+     * Shows the text of another rich text area, sharing its text buffer instead of copying it.
+     * See also {@link RichTextArea#share(RichTextArea)}.
+     *
+     * @param other the rich text area with the text buffer to share
+     * @return an action that shares the text buffer of the other rich text area
+     * @throws IllegalArgumentException if the other rich text area has no {@link RichTextAreaSkin} yet
+     */
+    public Action share(RichTextArea other) {
+        if (!(Objects.requireNonNull(other).getSkin() instanceof RichTextAreaSkin skin)) {
+            throw new IllegalArgumentException("The rich text area to share has no skin");
+        }
+        RichTextAreaViewModel source = skin.getViewModel();
+        return new BasicAction(control, action -> ACTION_CMD_FACTORY.share(source));
+    }
+
     private Action save;
 
     public Action save() {
@@ -112,6 +176,18 @@ public class ActionFactory {
         return save;
     }
 
+    /**
+     * Saves the document asynchronously: a snapshot of the text buffer is taken on the JavaFX
+     * Application thread, and the document is built from it in a background thread.
+     * See also {@link RichTextArea#saveAsync()}.
+     *
+     * @param result a future that is completed with the saved document
+     * @return an action that saves the document asynchronously
+     */
+    public Action saveAsync(CompletableFuture<Document> result) {
+        return new BasicAction(control, action -> ACTION_CMD_FACTORY.saveAsync(result));
+    }
+
     private Action selectAll;
     public Action selectAll() {
         if (selectAll == null) {
@@ -168,7 +244,33 @@ public class ActionFactory {
         return new BasicAction(control, action -> ACTION_CMD_FACTORY.insertTable(tableDecoration));
     }
 
+    /**
+     * Replaces all the matches of a query in the document at once, as a single change that is
+     * undone at once. For regular expressions, the replacement can refer to captured groups.
+     * See also {@link com.gluonhq.richtextarea.model.TextBuffer#replaceAll(SearchQuery, String)}.
+     *
+     * @param query the query to find
+     * @param replacement the text that replaces each match
+     * @return an action that replaces all the matches
+     */
+    public Action replaceAll(SearchQuery query, String replacement) {
+        return new BasicAction(control, action -> ACTION_CMD_FACTORY.replaceAll(query, replacement));
+    }
+
     public Action decorate(Decoration... decorations) {
         return new BasicAction(control, action -> ACTION_CMD_FACTORY.decorate(decorations));
     }
+
+    /**
+     * Applies the text decorations of a list of decoration models, like the ranges of keywords
+     * found by a syntax highlighter, to the document at once, as a single change that is undone
+     * at once. Where ranges overlap, the decoration of the model that comes last wins.
+     * See also {@link com.gluonhq.richtextarea.model.TextBuffer#decorateAll(List)}.
+     *
+     * @param decorationModels the decoration models with the ranges and the text decorations to apply
+     * @return an action that applies all the decorations
+     */
+    public Action decorateAll(List<DecorationModel> decorationModels) {
+        return new BasicAction(control, action -> ACTION_CMD_FACTORY.decorateAll(decorationModels));
+    }
 }
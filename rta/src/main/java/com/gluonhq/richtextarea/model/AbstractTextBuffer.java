@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -38,6 +38,10 @@ import java.util.function.Consumer;
 public abstract class AbstractTextBuffer implements TextBuffer {
 
     private final Set<Consumer<Event>> listeners = new HashSet<>();
+    // depth of nested batches of changes
+    private int batch;
+    // range of the changes of the batch in progress, within the current text, and its length delta
+    private int changeStart = -1, changeEnd, changeDelta;
 
     // textLengthProperty
     final ReadOnlyIntegerWrapper textLengthProperty = new ReadOnlyIntegerWrapper(this, "textLength");
@@ -57,7 +61,62 @@ public abstract class AbstractTextBuffer implements TextBuffer {
     }
 
     protected void fire( TextBuffer.Event event ) {
-        listeners.forEach(l -> l.accept(event));
+        if (batch == 0) {
+            listeners.forEach(l -> l.accept(event));
+        } else if (event instanceof InsertEvent insertEvent) {
+            recordChange(insertEvent.getPosition(), 0, insertEvent.getText().length());
+        } else if (event instanceof DeleteEvent deleteEvent) {
+            recordChange(deleteEvent.getPosition(), deleteEvent.getLength(), 0);
+        } else if (event instanceof DecorateEvent decorateEvent) {
+            int length = decorateEvent.getEnd() - decorateEvent.getStart();
+            recordChange(decorateEvent.getStart(), length, length);
+        } else if (event instanceof TransactionEvent transactionEvent) {
+            recordChange(transactionEvent.getPosition(), transactionEvent.getRemovedLength(), transactionEvent.getInsertedLength());
+        }
+    }
+
+    /**
+     * Applies a batch of changes, firing a single {@link TransactionEvent}, once all of them are done,
+     * with the range of the text that contains all the changes
+     * @param changes the changes to apply
+     * @param undo whether the changes undo previous changes
+     */
+    protected void fireOnce(Runnable changes, boolean undo) {
+        int outerStart = changeStart, outerEnd = changeEnd, outerDelta = changeDelta;
+        changeStart = -1;
+        int start, end, delta;
+        batch++;
+        try {
+            changes.run();
+        } finally {
+            batch--;
+            start = changeStart;
+            end = changeEnd;
+            delta = changeDelta;
+            changeStart = outerStart;
+            changeEnd = outerEnd;
+            changeDelta = outerDelta;
+        }
+        fire(start < 0 ? new TransactionEvent(undo, 0, 0, 0) :
+                new TransactionEvent(undo, start, end - start - delta, end - start));
+    }
+
+    // merges a change into the range of the batch in progress
+    private void recordChange(int position, int removedLength, int insertedLength) {
+        if (removedLength == 0 && insertedLength == 0) {
+            return;
+        }
+        int delta = insertedLength - removedLength;
+        if (changeStart < 0) {
+            changeStart = position;
+            changeEnd = position + insertedLength;
+            changeDelta = delta;
+        } else {
+            // the text after both ranges didn't change, and it is shifted by the new change
+            changeEnd = Math.max(changeEnd, position + removedLength) + delta;
+            changeStart = Math.min(changeStart, position);
+            changeDelta += delta;
+        }
     }
 
 }
\ No newline at end of file
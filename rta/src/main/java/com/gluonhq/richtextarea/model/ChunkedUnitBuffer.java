@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only buffer used as the PieceTable Addition Buffer, that keeps its internal text
+ * off the heap.
+ * The internal text of the units is stored in fixed-size chunks of chars, allocated as direct
+ * buffers, and only the end position of each unit is kept, in an array. Text units are not kept
+ * as objects: they are created from the chunks when requested. Non-text units, like emojis or
+ * images, are kept in a side table, while their anchor char is stored in the chunks as well.
+ * Slices of the internal text are read straight from the chunks, without creating the full
+ * internal text.
+ * Chunks are never modified once they are full, so a copy of the buffer shares them with its
+ * source.
+ */
+public final class ChunkedUnitBuffer extends UnitBuffer {
+
+    static final int CHUNK_SHIFT = 14;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;   // chars per chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // arrays start small, as many buffers, like those of read-only text areas, are never appended to
+    private CharBuffer[] chunks = new CharBuffer[4];
+    private int chunkCount;
+    private int length;
+
+    private int[] unitEnds = new int[16];             // end position of each unit
+    private int unitCount;
+
+    private int[] objectUnitIndices = new int[4];     // index of each non-text unit, in ascending order
+    private Unit[] objectUnits = new Unit[4];
+    private int objectUnitCount;
+
+    public ChunkedUnitBuffer() {
+        super();
+    }
+
+    /**
+     * Creates a copy of a buffer, that shares its full chunks, and has a copy of the last one
+     * @param source the buffer to copy
+     */
+    ChunkedUnitBuffer(ChunkedUnitBuffer source) {
+        super();
+        chunks = Arrays.copyOf(source.chunks, source.chunks.length);
+        chunkCount = source.chunkCount;
+        length = source.length;
+        if (chunkCount > 0 && (length & CHUNK_MASK) != 0) {
+            CharBuffer last = allocateChunk();
+            last.put(source.chunks[chunkCount - 1].duplicate().flip());
+            chunks[chunkCount - 1] = last;
+        }
+        unitEnds = Arrays.copyOf(source.unitEnds, source.unitEnds.length);
+        unitCount = source.unitCount;
+        objectUnitIndices = Arrays.copyOf(source.objectUnitIndices, source.objectUnitIndices.length);
+        objectUnits = Arrays.copyOf(source.objectUnits, source.objectUnits.length);
+        objectUnitCount = source.objectUnitCount;
+    }
+
+    /**
+     * Gets the exportable text of the buffer. This is a costly operation, that creates
+     * the exportable text of all the units
+     * @return a string with the exportable text content
+     */
+    @Override
+    public String getText() {
+        StringBuilder sb = new StringBuilder(length);
+        int start = 0;
+        for (int o = 0; o < objectUnitCount; o++) {
+            int index = objectUnitIndices[o];
+            sb.append(getInternalText(start, unitStart(index)));
+            sb.append(objectUnits[o].getText());
+            start = unitEnds[index];
+        }
+        return sb.append(getInternalText(start, length)).toString();
+    }
+
+    /**
+     * Gets the full internal text of the buffer. This is a costly operation, and the result
+     * is not cached, so the text remains off the heap
+     * @return a string with the internal text representation
+     */
+    @Override
+    public String getInternalText() {
+        return getInternalText(0, length);
+    }
+
+    @Override
+    public String getInternalText(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is not in range [0, " + length + ")");
+        }
+        char[] chars = new char[end - start];
+        int position = start;
+        while (position < end) {
+            int offset = position & CHUNK_MASK;
+            int count = Math.min(end - position, CHUNK_SIZE - offset);
+            chunks[position >> CHUNK_SHIFT].get(offset, chars, position - start, count);
+            position += count;
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public CharSequence getInternalCharSequence() {
+        return new ChunkedCharSequence(0, length);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public void append(Unit unit) {
+        if (unitCount == unitEnds.length) {
+            unitEnds = Arrays.copyOf(unitEnds, unitEnds.length * 2);
+        }
+        if (!(unit instanceof TextUnit)) {
+            if (objectUnitCount == objectUnits.length) {
+                objectUnitIndices = Arrays.copyOf(objectUnitIndices, objectUnitIndices.length * 2);
+                objectUnits = Arrays.copyOf(objectUnits, objectUnits.length * 2);
+            }
+            objectUnitIndices[objectUnitCount] = unitCount;
+            objectUnits[objectUnitCount++] = unit;
+        }
+        if (unit.length() > 0) {
+            write(unit.getInternalText());
+        }
+        unitEnds[unitCount++] = length;
+    }
+
+    @Override
+    public void append(List<Unit> units) {
+        units.forEach(this::append);
+    }
+
+    @Override
+    public void insert(Unit unit, int position) {
+        throw new UnsupportedOperationException("Do not insert in an append-only buffer");
+    }
+
+    @Override
+    public void remove(int start, int end) {
+        throw new UnsupportedOperationException("Do not remove from an append-only buffer");
+    }
+
+    /**
+     * Gives the list of units of this buffer. As text units are not kept, this is
+     * a costly operation, that creates a new list
+     * @return a new list with the units
+     */
+    @Override
+    public List<Unit> getUnitList() {
+        List<Unit> units = new ArrayList<>(unitCount);
+        for (int i = 0; i < unitCount; i++) {
+            units.add(getUnit(i));
+        }
+        return units;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return unitCount == 0;
+    }
+
+    @Override
+    public Unit getUnitWithRange(int start, int end) {
+        if (start < 0 || unitCount == 0) return new TextUnit("");
+        int index = Arrays.binarySearch(unitEnds, 0, unitCount, start);
+        if (index >= 0) { // exact start at index
+            index = index + 1;
+        } else { // no exact item found
+            index = -(index) - 1;
+        }
+        return index < unitCount ? getUnit(index) : new TextUnit("");
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkedUnitBuffer{" + getUnitList() + "}";
+    }
+
+    private Unit getUnit(int index) {
+        int o = Arrays.binarySearch(objectUnitIndices, 0, objectUnitCount, index);
+        return o >= 0 ? objectUnits[o] : new TextUnit(getInternalText(unitStart(index), unitEnds[index]));
+    }
+
+    private int unitStart(int index) {
+        return index == 0 ? 0 : unitEnds[index - 1];
+    }
+
+    private void write(String text) {
+        int written = 0;
+        while (written < text.length()) {
+            int offset = length & CHUNK_MASK;
+            if (offset == 0) {
+                if (chunkCount == chunks.length) {
+                    chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                }
+                chunks[chunkCount++] = allocateChunk();
+            }
+            int count = Math.min(text.length() - written, CHUNK_SIZE - offset);
+            chunks[chunkCount - 1].put(text, written, written + count);
+            written += count;
+            length += count;
+        }
+    }
+
+    private static CharBuffer allocateChunk() {
+        return ByteBuffer.allocateDirect(CHUNK_SIZE * Character.BYTES).order(ByteOrder.nativeOrder()).asCharBuffer();
+    }
+
+    /*
+     * A read-only view over the chars of the chunks
+     */
+    private final class ChunkedCharSequence implements CharSequence {
+
+        private final int start;
+        private final int end;
+
+        ChunkedCharSequence(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Index " + index + " is not in range [0, " + length() + ")");
+            }
+            int position = start + index;
+            return chunks[position >> CHUNK_SHIFT].get(position & CHUNK_MASK);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length() || start > end) {
+                throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is not in range [0, " + length() + ")");
+            }
+            return new ChunkedCharSequence(this.start + start, this.start + end);
+        }
+
+        @Override
+        public String toString() {
+            return getInternalText(start, end);
+        }
+    }
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import javafx.scene.text.TextAlignment;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A compact, versioned binary format for a {@link Document}, as an alternative to its
+ * Java serialized form.
+ *
+ * The format (version 1) contains:
+ * <ul>
+ *     <li>A header, with the magic number {@code RTAD} and the version of the format</li>
+ *     <li>The caret position</li>
+ *     <li>The text, as its length, followed by chunks of UTF-8 bytes</li>
+ *     <li>The decoration runs: for each {@link DecorationModel}, its start (relative to the end of the previous run),
+ *     its length, and references to its decoration and paragraph decoration</li>
+ * </ul>
+ * Decorations are interned in a dictionary: the first time a decoration is found it is written in full,
+ * and any other run with an equal decoration just refers to it by its index. Integers are written as varints.
+ *
+ * Both writing and reading are streamed: the text is never fully encoded in memory, and runs are written
+ * and read one by one.
+ */
+public final class DocumentCodec {
+
+    /**
+     * The current version of the format
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x52544144; // RTAD
+    private static final int CHUNK_SIZE = 8192;
+    // counts read from the input are not trusted: collections grow as their elements are read
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    // decoration references
+    private static final int NULL_REFERENCE = 0;
+    private static final int NEW_REFERENCE = 1;
+    private static final int FIRST_INDEX = 2;
+
+    // decoration types
+    private static final int TEXT_DECORATION = 0;
+    private static final int IMAGE_DECORATION = 1;
+    private static final int PARAGRAPH_DECORATION = 2;
+
+    private DocumentCodec() {}
+
+    /**
+     * Writes the document to the output stream. The stream is flushed, but not closed.
+     *
+     * @param document the document to write
+     * @param outputStream the output stream
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the document contains an unknown type of decoration
+     */
+    public static void write(Document document, OutputStream outputStream) throws IOException {
+        String text = Objects.requireNonNull(Objects.requireNonNull(document).getText());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Objects.requireNonNull(outputStream), 4 * CHUNK_SIZE));
+        out.writeInt(MAGIC);
+        writeVarInt(out, VERSION);
+        writeSignedVarInt(out, document.getCaretPosition());
+        writeText(out, text);
+
+        List<DecorationModel> decorations = document.getDecorations();
+        // 0 stands for a null list
+        writeVarInt(out, decorations == null ? 0 : decorations.size() + 1);
+        if (decorations != null) {
+            Map<Decoration, Integer> dictionary = new HashMap<>();
+            int previousEnd = 0;
+            for (DecorationModel dm : decorations) {
+                writeSignedVarInt(out, dm.getStart() - previousEnd);
+                writeVarInt(out, dm.getLength());
+                writeDecoration(out, dm.getDecoration(), dictionary);
+                writeDecoration(out, dm.getParagraphDecoration(), dictionary);
+                previousEnd = dm.getStart() + dm.getLength();
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a document from the input stream. Only the bytes of the document are consumed from the stream,
+     * which is not closed. The stream is not buffered, so a buffered stream should be used, if possible.
+     *
+     * @param inputStream the input stream
+     * @return the document
+     * @throws IOException if an I/O error occurs, or if the stream doesn't contain a valid document
+     */
+    public static Document read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(Objects.requireNonNull(inputStream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Invalid document format");
+        }
+        int version = readVarInt(in);
+        if (version != VERSION) {
+            throw new IOException("Unsupported document format version " + version);
+        }
+        int caretPosition = readSignedVarInt(in);
+        String text = readText(in);
+
+        int size = readCount(in, "decoration runs");
+        List<DecorationModel> decorations = null;
+        if (size > 0) {
+            decorations = new ArrayList<>(Math.min(size - 1, MAX_INITIAL_CAPACITY));
+            List<Decoration> dictionary = new ArrayList<>();
+            int previousEnd = 0;
+            for (int i = 0; i < size - 1; i++) {
+                int start = previousEnd + readSignedVarInt(in);
+                int length = readVarInt(in);
+                Decoration decoration = readDecoration(in, dictionary);
+                Decoration paragraphDecoration = readDecoration(in, dictionary);
+                if (decoration instanceof ParagraphDecoration ||
+                        (paragraphDecoration != null && !(paragraphDecoration instanceof ParagraphDecoration))) {
+                    throw new IOException("Invalid decoration for run " + i);
+                }
+                decorations.add(new DecorationModel(start, length, decoration, (ParagraphDecoration) paragraphDecoration));
+                previousEnd = start + length;
+            }
+        }
+        return new Document(text, decorations, caretPosition);
+    }
+
+    private static void writeText(DataOutput out, String text) throws IOException {
+        writeVarInt(out, text.length());
+        byte[] buffer = new byte[3 * CHUNK_SIZE];
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + CHUNK_SIZE);
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                // keep surrogate pairs in the same chunk
+                end--;
+            }
+            int count = encode(text, start, end, buffer);
+            writeVarInt(out, count);
+            out.write(buffer, 0, count);
+            start = end;
+        }
+    }
+
+    private static String readText(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0) {
+            throw new IOException("Invalid text length");
+        }
+        StringBuilder sb = new StringBuilder(Math.min(length, 1 << 20));
+        byte[] buffer = new byte[3 * CHUNK_SIZE];
+        while (sb.length() < length) {
+            int count = readVarInt(in);
+            if (count <= 0 || count > buffer.length) {
+                throw new IOException("Invalid text chunk");
+            }
+            in.readFully(buffer, 0, count);
+            decode(buffer, count, sb);
+        }
+        if (sb.length() != length) {
+            throw new IOException("Invalid text length");
+        }
+        return sb.toString();
+    }
+
+    private static void writeDecoration(DataOutput out, Decoration decoration, Map<Decoration, Integer> dictionary) throws IOException {
+        if (decoration == null) {
+            writeVarInt(out, NULL_REFERENCE);
+            return;
+        }
+        Integer index = dictionary.get(decoration);
+        if (index != null) {
+            writeVarInt(out, FIRST_INDEX + index);
+            return;
+        }
+        if (decoration instanceof TextDecoration) {
+            writeVarInt(out, NEW_REFERENCE);
+            writeVarInt(out, TEXT_DECORATION);
+            ((TextDecoration) decoration).writeTo(out);
+        } else if (decoration instanceof ImageDecoration) {
+            writeVarInt(out, NEW_REFERENCE);
+            writeVarInt(out, IMAGE_DECORATION);
+            writeImageDecoration(out, (ImageDecoration) decoration);
+        } else if (decoration instanceof ParagraphDecoration) {
+            writeVarInt(out, NEW_REFERENCE);
+            writeVarInt(out, PARAGRAPH_DECORATION);
+            ((ParagraphDecoration) decoration).writeTo(out);
+        } else {
+            throw new IllegalArgumentException("Unsupported decoration: " + decoration);
+        }
+        dictionary.put(decoration, dictionary.size());
+    }
+
+    private static Decoration readDecoration(DataInput in, List<Decoration> dictionary) throws IOException {
+        int reference = readVarInt(in);
+        if (reference == NULL_REFERENCE) {
+            return null;
+        }
+        if (reference != NEW_REFERENCE) {
+            int index = reference - FIRST_INDEX;
+            if (index < 0 || index >= dictionary.size()) {
+                throw new IOException("Invalid decoration reference " + reference);
+            }
+            return dictionary.get(index);
+        }
+        int type = readVarInt(in);
+        Decoration decoration;
+        switch (type) {
+            case TEXT_DECORATION:
+                decoration = TextDecoration.readFrom(in);
+                break;
+            case IMAGE_DECORATION:
+                decoration = readImageDecoration(in);
+                break;
+            case PARAGRAPH_DECORATION:
+                decoration = ParagraphDecoration.readFrom(in);
+                break;
+            default:
+                throw new IOException("Invalid decoration type " + type);
+        }
+        dictionary.add(decoration);
+        return decoration;
+    }
+
+    private static void writeImageDecoration(DataOutput out, ImageDecoration decoration) throws IOException {
+        writeNullableString(out, decoration.getUrl());
+        writeSignedVarInt(out, decoration.getWidth());
+        writeSignedVarInt(out, decoration.getHeight());
+        writeNullableString(out, decoration.getLink());
+    }
+
+    private static ImageDecoration readImageDecoration(DataInput in) throws IOException {
+        String url = readNullableString(in);
+        int width = readSignedVarInt(in);
+        int height = readSignedVarInt(in);
+        String link = readNullableString(in);
+        return new ImageDecoration(url, width, height, link);
+    }
+
+    static void writeTableDecoration(DataOutput out, TableDecoration decoration) throws IOException {
+        writeVarInt(out, decoration.getRows());
+        writeVarInt(out, decoration.getColumns());
+        TextAlignment[][] cellAlignment = decoration.getCellAlignment();
+        writeVarInt(out, cellAlignment.length);
+        for (TextAlignment[] row : cellAlignment) {
+            writeVarInt(out, row.length);
+            for (TextAlignment alignment : row) {
+                writeEnum(out, alignment);
+            }
+        }
+    }
+
+    static TableDecoration readTableDecoration(DataInput in) throws IOException {
+        int rows = readCount(in, "table rows");
+        int columns = readCount(in, "table columns");
+        int rowCount = readCount(in, "table rows");
+        List<TextAlignment[]> cellAlignment = new ArrayList<>(Math.min(rowCount, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < rowCount; i++) {
+            int columnCount = readCount(in, "table columns");
+            List<TextAlignment> row = new ArrayList<>(Math.min(columnCount, MAX_INITIAL_CAPACITY));
+            for (int j = 0; j < columnCount; j++) {
+                row.add(readEnum(in, TextAlignment.values()));
+            }
+            cellAlignment.add(row.toArray(TextAlignment[]::new));
+        }
+        return new TableDecoration(rows, columns, cellAlignment.toArray(TextAlignment[][]::new));
+    }
+
+    // primitives
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+
+    static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readSignedVarInt(DataInput in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] buffer = new byte[3 * value.length()];
+        int count = encode(value, 0, value.length(), buffer);
+        writeVarInt(out, count);
+        out.write(buffer, 0, count);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int count = readCount(in, "string bytes");
+        // the buffer grows as the bytes are read, so a corrupted length fails at the end of the input
+        byte[] buffer = new byte[Math.min(count, CHUNK_SIZE)];
+        int read = 0;
+        while (read < count) {
+            if (read == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(count, 2L * buffer.length));
+            }
+            int length = buffer.length - read;
+            in.readFully(buffer, read, length);
+            read += length;
+        }
+        StringBuilder sb = new StringBuilder(count);
+        decode(buffer, count, sb);
+        return sb.toString();
+    }
+
+    // a varint that is used as the number of elements that follow
+    private static int readCount(DataInput in, String name) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0) {
+            throw new IOException("Invalid number of " + name + ": " + count);
+        }
+        return count;
+    }
+
+    private static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    // enums are written as ordinal + 1, with 0 for null
+    static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        writeVarInt(out, value == null ? 0 : value.ordinal() + 1);
+    }
+
+    static <E extends Enum<E>> E readEnum(DataInput in, E[] values) throws IOException {
+        int value = readVarInt(in);
+        if (value < 0 || value > values.length) {
+            throw new IOException("Invalid value " + value + " for " + values.getClass().getComponentType().getSimpleName());
+        }
+        return value == 0 ? null : values[value - 1];
+    }
+
+    /*
+     * Encodes chars as UTF-8. Surrogate pairs take four bytes, while unpaired surrogates, that
+     * have no valid UTF-8 encoding, are encoded as any other char in their range (three bytes),
+     * so any string can be restored with the same length.
+     */
+    private static int encode(String text, int start, int end, byte[] buffer) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return count;
+    }
+
+    private static void decode(byte[] buffer, int count, StringBuilder sb) throws IOException {
+        int i = 0;
+        while (i < count) {
+            int b = buffer[i] & 0xFF;
+            int size = b < 0x80 ? 1 : b < 0xC0 ? 0 : b < 0xE0 ? 2 : b < 0xF0 ? 3 : b < 0xF8 ? 4 : 0;
+            if (size == 0 || i + size > count) {
+                throw new IOException("Malformed text");
+            }
+            switch (size) {
+                case 1:
+                    sb.append((char) b);
+                    break;
+                case 2:
+                    sb.append((char) (((b & 0x1F) << 6) | (buffer[i + 1] & 0x3F)));
+                    break;
+                case 3:
+                    sb.append((char) (((b & 0x0F) << 12) | ((buffer[i + 1] & 0x3F) << 6) | (buffer[i + 2] & 0x3F)));
+                    break;
+                default:
+                    int codePoint = ((b & 0x07) << 18) | ((buffer[i + 1] & 0x3F) << 12) |
+                            ((buffer[i + 2] & 0x3F) << 6) | (buffer[i + 3] & 0x3F);
+                    if (!Character.isValidCodePoint(codePoint)) {
+                        throw new IOException("Malformed text");
+                    }
+                    sb.appendCodePoint(codePoint);
+                    break;
+            }
+            i += size;
+        }
+    }
+}
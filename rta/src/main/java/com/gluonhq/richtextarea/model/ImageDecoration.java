@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -110,7 +110,7 @@ public class ImageDecoration implements Decoration {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ImageDecoration that = (ImageDecoration) o;
-        return width == that.width && height == that.height && url.equals(that.url) && link.equals(that.link);
+        return width == that.width && height == that.height && Objects.equals(url, that.url) && Objects.equals(link, that.link);
     }
 
     @Override
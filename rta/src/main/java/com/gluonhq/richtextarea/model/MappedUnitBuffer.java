@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * A read-only UnitBuffer backed by a memory-mapped UTF-8 text file, that can be used as the
+ * original buffer of a {@link PieceTable}, to view large files, like logs or exports, without
+ * loading their text into the heap.
+ * When the file is mapped, it is scanned once, in chunks of bytes that are aligned to
+ * character boundaries, to find the length in chars and the number of line feeds of each
+ * chunk. The text of a chunk is only decoded when it is accessed, and a few decoded chunks
+ * are cached.
+ * Each chunk is represented by a text unit, and the text is not parsed for emojis or blocks.
+ * The buffer can't be modified: edits of the piece table go to its addition buffer.
+ */
+public final class MappedUnitBuffer extends UnitBuffer {
+
+    static final int CHUNK_SIZE = 1 << 16;
+    private static final int CACHE_SIZE = 8;
+    private static final char LF = 0x0a;
+
+    private final Chunks chunks;
+
+    private MappedUnitBuffer(Chunks chunks) {
+        super(chunks.createUnits());
+        this.chunks = chunks;
+    }
+
+    /**
+     * Maps a UTF-8 text file into a new unit buffer. A byte order mark at the start of the file
+     * is skipped, and malformed input is replaced with the replacement character.
+     * @param path the path of the file
+     * @return a unit buffer with the text of the file
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the file is too large to be mapped
+     */
+    public static MappedUnitBuffer map(Path path) throws IOException {
+        Objects.requireNonNull(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File " + path + " is too large: " + size + " bytes");
+            }
+            // the mapping remains valid after the channel is closed
+            return new MappedUnitBuffer(new Chunks(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)));
+        }
+    }
+
+    /**
+     * Gets the full internal text of the buffer. This is a costly operation, that decodes
+     * the whole file, and the result is not cached
+     * @return a string with the internal text
+     */
+    @Override
+    public String getInternalText() {
+        return getInternalText(0, length());
+    }
+
+    @Override
+    public String getInternalText(int start, int end) {
+        return chunks.substring(start, end);
+    }
+
+    @Override
+    public CharSequence getInternalCharSequence() {
+        return new MappedCharSequence(chunks, 0, length());
+    }
+
+    /**
+     * Finds all the indices of a given character within a range of the internal text.
+     * Chunks without line feeds are skipped when looking for them, without decoding them.
+     * @param c the character to find
+     * @param start start position within the internal text, inclusive
+     * @param end end position within the internal text, exclusive
+     * @param consumer the consumer of each index found
+     */
+    @Override
+    public void indicesOf(char c, int start, int end, IntConsumer consumer) {
+        for (int i = chunks.findChunk(start); i < chunks.count() && chunks.charOffsets[i] < end; i++) {
+            if (c == LF && chunks.lineFeeds[i] == 0) {
+                continue;
+            }
+            String text = chunks.getText(i);
+            int offset = chunks.charOffsets[i];
+            for (int j = Math.max(start, offset); j < Math.min(end, offset + text.length()); j++) {
+                if (text.charAt(j - offset) == c) {
+                    consumer.accept(j);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int length() {
+        return chunks.length();
+    }
+
+    /**
+     * Gets the number of line feeds of the buffer, that were found when the file was mapped
+     * @return the number of line feeds
+     */
+    public int getLineFeedCount() {
+        return Arrays.stream(chunks.lineFeeds).sum();
+    }
+
+    @Override
+    public void append(Unit unit) {
+        throw new UnsupportedOperationException("Do not append to a mapped buffer");
+    }
+
+    @Override
+    public void append(List<Unit> units) {
+        throw new UnsupportedOperationException("Do not append to a mapped buffer");
+    }
+
+    @Override
+    public void insert(Unit unit, int position) {
+        throw new UnsupportedOperationException("Do not insert in a mapped buffer");
+    }
+
+    @Override
+    public void remove(int start, int end) {
+        throw new UnsupportedOperationException("Do not remove from a mapped buffer");
+    }
+
+    @Override
+    public Unit getUnitWithRange(int start, int end) {
+        if (start < 0 || unitList.isEmpty()) return new TextUnit("");
+        return unitList.get(chunks.findChunk(start));
+    }
+
+    @Override
+    public String toString() {
+        return "MappedUnitBuffer{chunks=" + chunks.count() + ", length=" + length() + "}";
+    }
+
+    /*
+     * The chunk table of the mapped file, and the cache of decoded chunks
+     */
+    private static final class Chunks {
+
+        private final ByteBuffer bytes;
+        private final int[] byteOffsets;  // byte offset of each chunk, plus the end of the file
+        private final int[] charOffsets;  // char offset of each chunk, plus the total length
+        private final int[] lineFeeds;    // number of line feeds of each chunk
+        private final Map<Integer, String> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+
+        Chunks(MappedByteBuffer bytes) {
+            this.bytes = bytes;
+            int size = bytes.limit();
+            List<Integer> offsets = new ArrayList<>();
+            int offset = hasByteOrderMark(bytes) ? 3 : 0;
+            while (offset < size) {
+                offsets.add(offset);
+                offset = nextBoundary(bytes, offset);
+            }
+            int count = offsets.size();
+            byteOffsets = new int[count + 1];
+            charOffsets = new int[count + 1];
+            lineFeeds = new int[count];
+            for (int i = 0; i < count; i++) {
+                byteOffsets[i] = offsets.get(i);
+            }
+            byteOffsets[count] = size;
+            // chunked scan: decode each chunk into the same char buffer to count its chars and line feeds
+            CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+            CharsetDecoder decoder = createDecoder();
+            int accum = 0;
+            for (int i = 0; i < count; i++) {
+                chars.clear();
+                decoder.reset();
+                CoderResult result = decoder.decode(slice(i), chars, true);
+                if (result.isOverflow() || decoder.flush(chars).isOverflow()) {
+                    // can't happen, as a UTF-8 chunk doesn't have more chars than bytes
+                    throw new IllegalStateException("Chunk " + i + " overflows its buffer");
+                }
+                chars.flip();
+                int lf = 0;
+                for (int j = 0; j < chars.limit(); j++) {
+                    if (chars.get(j) == LF) {
+                        lf++;
+                    }
+                }
+                charOffsets[i] = accum;
+                lineFeeds[i] = lf;
+                accum += chars.limit();
+            }
+            charOffsets[count] = accum;
+        }
+
+        int count() {
+            return lineFeeds.length;
+        }
+
+        int length() {
+            return charOffsets[count()];
+        }
+
+        List<Unit> createUnits() {
+            List<Unit> units = new ArrayList<>(count());
+            for (int i = 0; i < count(); i++) {
+                units.add(new ChunkUnit(this, i));
+            }
+            return units;
+        }
+
+        // binary search of the chunk that contains a char position, or the last chunk
+        int findChunk(int position) {
+            int index = Arrays.binarySearch(charOffsets, 0, count(), position);
+            return Math.max(0, index >= 0 ? index : -index - 2);
+        }
+
+        String getText(int index) {
+            synchronized (cache) {
+                String text = cache.get(index);
+                if (text == null) {
+                    try {
+                        text = createDecoder().decode(slice(index)).toString();
+                    } catch (CharacterCodingException e) {
+                        // can't happen, as malformed input is replaced
+                        throw new IllegalStateException(e);
+                    }
+                    cache.put(index, text);
+                }
+                return text;
+            }
+        }
+
+        String substring(int start, int end) {
+            if (start < 0 || end > length() || start > end) {
+                throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is not in range [0, " + length() + ")");
+            }
+            StringBuilder sb = new StringBuilder(end - start);
+            for (int i = findChunk(start); i < count() && charOffsets[i] < end; i++) {
+                int offset = charOffsets[i];
+                sb.append(getText(i), Math.max(start, offset) - offset, Math.min(end, charOffsets[i + 1]) - offset);
+            }
+            return sb.toString();
+        }
+
+        private ByteBuffer slice(int index) {
+            // each slice has its own position and limit, so it can be read from any thread
+            return bytes.duplicate().position(byteOffsets[index]).limit(byteOffsets[index + 1]);
+        }
+
+        private static CharsetDecoder createDecoder() {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        private static boolean hasByteOrderMark(ByteBuffer bytes) {
+            return bytes.limit() >= 3 && (bytes.get(0) & 0xff) == 0xef &&
+                    (bytes.get(1) & 0xff) == 0xbb && (bytes.get(2) & 0xff) == 0xbf;
+        }
+
+        // the end of a chunk is moved back, if needed, so it doesn't split a UTF-8 sequence
+        private static int nextBoundary(ByteBuffer bytes, int offset) {
+            int end = offset + CHUNK_SIZE;
+            if (end >= bytes.limit()) {
+                return bytes.limit();
+            }
+            int boundary = end;
+            while (boundary > end - 3 && (bytes.get(boundary) & 0xc0) == 0x80) {
+                boundary--;
+            }
+            return boundary > offset ? boundary : end;
+        }
+    }
+
+    /*
+     * A text unit that spans a chunk, and decodes its text on demand
+     */
+    private static final class ChunkUnit extends TextUnit {
+
+        private final Chunks chunks;
+        private final int index;
+
+        ChunkUnit(Chunks chunks, int index) {
+            super(null);
+            this.chunks = chunks;
+            this.index = index;
+        }
+
+        @Override
+        public String getText() {
+            return chunks.getText(index);
+        }
+
+        @Override
+        public String getInternalText() {
+            return getText();
+        }
+
+        @Override
+        public int length() {
+            return chunks.charOffsets[index + 1] - chunks.charOffsets[index];
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return length() == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "CU{" + index + ", " + length() + "}";
+        }
+    }
+
+    /*
+     * A read-only view over the chars of the mapped file, that keeps the chunk of the
+     * last access
+     */
+    private static final class MappedCharSequence implements CharSequence {
+
+        private final Chunks chunks;
+        private final int start;
+        private final int end;
+
+        private int chunkIndex = -1;
+        private String chunkText;
+
+        MappedCharSequence(Chunks chunks, int start, int end) {
+            this.chunks = chunks;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Index " + index + " is not in range [0, " + length() + ")");
+            }
+            int position = start + index;
+            if (chunkIndex < 0 || position < chunks.charOffsets[chunkIndex] || position >= chunks.charOffsets[chunkIndex + 1]) {
+                chunkIndex = chunks.findChunk(position);
+                chunkText = chunks.getText(chunkIndex);
+            }
+            return chunkText.charAt(position - chunks.charOffsets[chunkIndex]);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length() || start > end) {
+                throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is not in range [0, " + length() + ")");
+            }
+            return new MappedCharSequence(chunks, this.start + start, this.start + end);
+        }
+
+        @Override
+        public String toString() {
+            return chunks.substring(start, end);
+        }
+    }
+}
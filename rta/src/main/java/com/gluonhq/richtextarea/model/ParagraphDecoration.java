@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -30,8 +30,20 @@ package com.gluonhq.richtextarea.model;
 import javafx.geometry.Insets;
 import javafx.scene.text.TextAlignment;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Objects;
 
+import static com.gluonhq.richtextarea.model.DocumentCodec.readEnum;
+import static com.gluonhq.richtextarea.model.DocumentCodec.readSignedVarInt;
+import static com.gluonhq.richtextarea.model.DocumentCodec.readTableDecoration;
+import static com.gluonhq.richtextarea.model.DocumentCodec.readVarInt;
+import static com.gluonhq.richtextarea.model.DocumentCodec.writeEnum;
+import static com.gluonhq.richtextarea.model.DocumentCodec.writeSignedVarInt;
+import static com.gluonhq.richtextarea.model.DocumentCodec.writeTableDecoration;
+import static com.gluonhq.richtextarea.model.DocumentCodec.writeVarInt;
+
 /**
  * ParagraphDecoration is a {@link Decoration} that can be applied to a fragment of text in order to style
  * the paragraph that contains such fragment.
@@ -59,6 +71,9 @@ public class ParagraphDecoration implements Decoration {
         BULLETED_LIST
     }
 
+    // the serialized form of previous versions, that didn't declare it
+    private static final long serialVersionUID = -3796480801793144203L;
+
     private Double spacing;
     private TextAlignment alignment;
     private Double topInset, rightInset, bottomInset, leftInset;
@@ -209,16 +224,52 @@ public class ParagraphDecoration implements Decoration {
         return pd;
     }
 
+    /*
+     * Writes the decoration for the binary format of the document, with a bit mask
+     * of the non-null attributes followed by their values
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int mask = (spacing != null ? 1 : 0) | (alignment != null ? 1 << 1 : 0) |
+                (topInset != null ? 1 << 2 : 0) | (rightInset != null ? 1 << 3 : 0) |
+                (bottomInset != null ? 1 << 4 : 0) | (leftInset != null ? 1 << 5 : 0) |
+                (graphicType != null ? 1 << 6 : 0) | (tableDecoration != null ? 1 << 7 : 0);
+        writeVarInt(out, mask);
+        if (spacing != null) out.writeDouble(spacing);
+        if (alignment != null) writeEnum(out, alignment);
+        if (topInset != null) out.writeDouble(topInset);
+        if (rightInset != null) out.writeDouble(rightInset);
+        if (bottomInset != null) out.writeDouble(bottomInset);
+        if (leftInset != null) out.writeDouble(leftInset);
+        writeSignedVarInt(out, indentationLevel);
+        if (graphicType != null) writeEnum(out, graphicType);
+        if (tableDecoration != null) writeTableDecoration(out, tableDecoration);
+    }
+
+    static ParagraphDecoration readFrom(DataInput in) throws IOException {
+        int mask = readVarInt(in);
+        ParagraphDecoration pd = new ParagraphDecoration();
+        if ((mask & 1) != 0) pd.spacing = in.readDouble();
+        if ((mask & 1 << 1) != 0) pd.alignment = readEnum(in, TextAlignment.values());
+        if ((mask & 1 << 2) != 0) pd.topInset = in.readDouble();
+        if ((mask & 1 << 3) != 0) pd.rightInset = in.readDouble();
+        if ((mask & 1 << 4) != 0) pd.bottomInset = in.readDouble();
+        if ((mask & 1 << 5) != 0) pd.leftInset = in.readDouble();
+        pd.indentationLevel = readSignedVarInt(in);
+        if ((mask & 1 << 6) != 0) pd.graphicType = readEnum(in, GraphicType.values());
+        if ((mask & 1 << 7) != 0) pd.tableDecoration = readTableDecoration(in);
+        return pd;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ParagraphDecoration that = (ParagraphDecoration) o;
-        return Double.compare(that.spacing, spacing) == 0 &&
-                Double.compare(that.topInset, topInset) == 0 &&
-                Double.compare(that.rightInset, rightInset) == 0 &&
-                Double.compare(that.bottomInset, bottomInset) == 0 &&
-                Double.compare(that.leftInset, leftInset) == 0 &&
+        return Objects.equals(that.spacing, spacing) &&
+                Objects.equals(that.topInset, topInset) &&
+                Objects.equals(that.rightInset, rightInset) &&
+                Objects.equals(that.bottomInset, bottomInset) &&
+                Objects.equals(that.leftInset, leftInset) &&
                 that.indentationLevel == indentationLevel &&
                 that.graphicType == graphicType &&
                 that.alignment == alignment &&
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2023, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -75,13 +75,16 @@ public final class Piece {
     }
 
     public String getInternalText() {
-        UnitBuffer buffer = BufferType.ORIGINAL == bufferType ? source.originalText : source.additionBuffer;
-        return length == 0 ? "" : buffer.getInternalText().substring(start, start + length);
+        return length == 0 ? "" : getBuffer().getInternalText(start, start + length);
     }
 
     public Unit getUnit() {
-        UnitBuffer buffer = BufferType.ORIGINAL == bufferType ? source.originalText : source.additionBuffer;
-        return length == 0 ? new TextUnit("") : buffer.getUnitWithRange(start, start + length);
+        return length == 0 ? new TextUnit("") : getBuffer().getUnitWithRange(start, start + length);
+    }
+
+    // the buffer this piece refers to
+    UnitBuffer getBuffer() {
+        return BufferType.ORIGINAL == bufferType ? source.originalText : source.additionBuffer;
     }
 
     public Decoration getDecoration() {
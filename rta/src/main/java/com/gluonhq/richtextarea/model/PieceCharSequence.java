@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A read-only {@link CharSequence} view over the internal text of a sequence of pieces.
+ *
+ * The view takes a snapshot of the pieces when it is created. Since pieces are immutable
+ * and the buffers they refer to are never modified in the ranges that the pieces span,
+ * the view remains valid after the piece table is edited, though it won't reflect such
+ * changes.
+ *
+ * The view keeps a cursor with the piece that holds the last position that was accessed,
+ * so sequential access in both directions is O(1) amortised, while random access is
+ * resolved with a binary search over the start positions of the pieces. No text is copied,
+ * unless {@link #toString()} is called.
+ */
+final class PieceCharSequence implements CharSequence {
+
+    // number of pieces that the cursor walks before falling back to a binary search
+    private static final int MAX_CURSOR_STEPS = 4;
+
+    private final Piece[] pieces;
+    private final int[] positions;  // text position of each piece, plus the total length at the end
+    private final int start;
+    private final int end;
+
+    // cursor
+    private int pieceIndex = -1;
+    private CharSequence bufferText;
+    private int bufferOffset;       // offset from text position to buffer position for the current piece
+
+    PieceCharSequence(List<Piece> pieces) {
+        this.pieces = Objects.requireNonNull(pieces).toArray(new Piece[0]);
+        this.positions = new int[this.pieces.length + 1];
+        int accum = 0;
+        for (int i = 0; i < this.pieces.length; i++) {
+            positions[i] = accum;
+            accum += this.pieces[i].length;
+        }
+        positions[this.pieces.length] = accum;
+        this.start = 0;
+        this.end = accum;
+    }
+
+    private PieceCharSequence(PieceCharSequence source, int start, int end) {
+        this.pieces = source.pieces;
+        this.positions = source.positions;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not in range [0, " + length() + ")");
+        }
+        int position = start + index;
+        moveTo(position);
+        return bufferText.charAt(bufferOffset + position);
+    }
+
+    @Override
+    public PieceCharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is not in range [0, " + length() + ")");
+        }
+        return new PieceCharSequence(this, this.start + start, this.start + end);
+    }
+
+    /**
+     * Finds all the indices of a given character within this view, walking each piece once
+     * @param c the character to find
+     * @return a list of indices, relative to the start of this view
+     */
+    List<Integer> indicesOf(char c) {
+        List<Integer> indices = new ArrayList<>();
+        walk((buffer, from, to, position) ->
+                buffer.indicesOf(c, from, to, i -> indices.add(position + i - from - start)));
+        return indices;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length());
+        walk((buffer, from, to, position) -> sb.append(buffer.getInternalCharSequence(), from, to));
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    private interface SliceStep {
+        // process the buffer internal text in [from, to), which starts at the given text position
+        void process(UnitBuffer buffer, int from, int to, int position);
+    }
+
+    private void walk(SliceStep step) {
+        if (length() == 0) {
+            return;
+        }
+        for (int i = findPiece(start); i < pieces.length && positions[i] < end; i++) {
+            Piece piece = pieces[i];
+            if (piece.isEmpty()) {
+                continue;
+            }
+            int from = Math.max(start, positions[i]);
+            int to = Math.min(end, positions[i + 1]);
+            int offset = piece.start - positions[i];
+            step.process(piece.getBuffer(), from + offset, to + offset, from);
+        }
+    }
+
+    private void moveTo(int position) {
+        if (pieceIndex >= 0) {
+            if (positions[pieceIndex] <= position && position < positions[pieceIndex + 1]) {
+                return;
+            }
+            // try the neighbour pieces first, skipping empty pieces
+            if (position >= positions[pieceIndex + 1]) {
+                for (int i = pieceIndex + 1, steps = 0; i < pieces.length && steps < MAX_CURSOR_STEPS; i++, steps++) {
+                    if (position < positions[i + 1]) {
+                        setPiece(i);
+                        return;
+                    }
+                }
+            } else {
+                for (int i = pieceIndex - 1, steps = 0; i >= 0 && steps < MAX_CURSOR_STEPS; i--, steps++) {
+                    if (positions[i] <= position) {
+                        setPiece(i);
+                        return;
+                    }
+                }
+            }
+        }
+        setPiece(findPiece(position));
+    }
+
+    private void setPiece(int index) {
+        Piece piece = pieces[index];
+        pieceIndex = index;
+        bufferText = piece.getBuffer().getInternalCharSequence();
+        bufferOffset = piece.start - positions[index];
+    }
+
+    // binary search of the last piece that starts at or before the given position,
+    // which is the only non-empty piece that contains it
+    private int findPiece(int position) {
+        int low = 0;
+        int high = pieces.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (positions[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact undo record of the replacement of a contiguous range of pieces of a piece table.
+ * Instead of the pieces, it keeps the index of the range, the number of pieces that were
+ * inserted, and the pieces that were removed, encoded in a primitive array, with the ids
+ * of their decorations from the {@link DecorationDictionary} of the piece table.
+ * As the piece table replaces its dictionary when it is compacted, the record keeps the
+ * dictionary it was encoded with.
+ */
+final class PieceSplice {
+
+    // start, length, decoration id with the buffer type in its lowest bit, paragraph decoration id
+    private static final int STRIDE = 4;
+
+    private final int index;
+    private final int insertedCount;
+    private final int[] removed;
+    private final DecorationDictionary dictionary;
+
+    private PieceSplice(int index, int insertedCount, int[] removed, DecorationDictionary dictionary) {
+        this.index = index;
+        this.insertedCount = insertedCount;
+        this.removed = removed;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Replaces a range of pieces of the piece table with new pieces
+     * @param pt the piece table
+     * @param index the index of the first piece to replace
+     * @param removedCount the number of pieces to remove
+     * @param inserted the pieces to insert
+     * @return the record to undo the replacement
+     */
+    static PieceSplice apply(PieceTable pt, int index, int removedCount, Collection<Piece> inserted) {
+        List<Piece> range = pt.pieces.subList(index, index + removedCount);
+        int[] removed = encode(pt.decorationDictionary, range);
+        range.clear();
+        range.addAll(inserted);
+        return new PieceSplice(index, inserted.size(), removed, pt.decorationDictionary);
+    }
+
+    /**
+     * Records all the pieces of the piece table, without modifying them, so they can be
+     * restored with {@link #restoreAll(PieceTable)}
+     * @param pt the piece table
+     * @return the record of the pieces
+     */
+    static PieceSplice capture(PieceTable pt) {
+        return new PieceSplice(0, 0, encode(pt.decorationDictionary, pt.pieces), pt.decorationDictionary);
+    }
+
+    /**
+     * Restores the pieces that were replaced
+     * @param pt the piece table
+     * @return the restored pieces
+     */
+    List<Piece> undo(PieceTable pt) {
+        List<Piece> restored = decode(pt);
+        List<Piece> range = pt.pieces.subList(index, index + insertedCount);
+        range.clear();
+        range.addAll(restored);
+        return restored;
+    }
+
+    /**
+     * Replaces all the pieces of the piece table with the pieces that were captured
+     * @param pt the piece table
+     */
+    void restoreAll(PieceTable pt) {
+        List<Piece> restored = decode(pt);
+        pt.pieces.clear();
+        pt.pieces.addAll(restored);
+    }
+
+    private static int[] encode(DecorationDictionary dictionary, List<Piece> pieces) {
+        int[] encoded = new int[pieces.size() * STRIDE];
+        for (int i = 0; i < pieces.size(); i++) {
+            Piece piece = pieces.get(i);
+            encoded[i * STRIDE] = piece.start;
+            encoded[i * STRIDE + 1] = piece.length;
+            encoded[i * STRIDE + 2] = dictionary.idOf(piece.decoration) << 1 |
+                    (piece.bufferType == Piece.BufferType.ADDITION ? 1 : 0);
+            encoded[i * STRIDE + 3] = dictionary.idOf(piece.paragraphDecoration);
+        }
+        return encoded;
+    }
+
+    private List<Piece> decode(PieceTable pt) {
+        List<Piece> decoded = new ArrayList<>(getRemovedCount());
+        for (int i = 0; i < removed.length; i += STRIDE) {
+            int decorationId = removed[i + 2];
+            decoded.add(new Piece(pt,
+                    (decorationId & 1) == 1 ? Piece.BufferType.ADDITION : Piece.BufferType.ORIGINAL,
+                    removed[i], removed[i + 1],
+                    dictionary.get(decorationId >> 1),
+                    dictionary.get(removed[i + 3])));
+        }
+        return decoded;
+    }
+
+    int getRemovedCount() {
+        return removed.length / STRIDE;
+    }
+
+    // object header and fields, and the array of removed pieces
+    long getRetainedSize() {
+        return 40 + 16 + 4L * removed.length;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -30,17 +30,28 @@ package com.gluonhq.richtextarea.model;
 import com.gluonhq.richtextarea.Selection;
 import com.gluonhq.richtextarea.Tools;
 import com.gluonhq.richtextarea.undo.AbstractCommand;
+import com.gluonhq.richtextarea.undo.Checkpoint;
 import com.gluonhq.richtextarea.undo.CommandManager;
+import com.gluonhq.richtextarea.undo.CompositeCommand;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.text.CharacterIterator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.gluonhq.richtextarea.model.TextBuffer.ZERO_WIDTH_TABLE_SEPARATOR;
 import static com.gluonhq.richtextarea.model.TextBuffer.ZERO_WIDTH_TEXT;
@@ -51,15 +62,24 @@ import static com.gluonhq.richtextarea.model.TextBuffer.ZERO_WIDTH_TEXT;
  */
 public final class PieceTable extends AbstractTextBuffer {
 
+    private static final int PARALLEL_MIN_DECORATIONS = 256;
+    private static final int PARALLEL_MIN_LENGTH = 1 << 16;
+    private static final int COMPACTION_MIN_DECORATIONS = 64;
+    private static final char EMOJI_ANCHOR = EMOJI_ANCHOR_TEXT.charAt(0);
+    private static final char OBJECT_REPLACEMENT = OBJECT_REPLACEMENT_CHARACTER_TEXT.charAt(0);
+
     final UnitBuffer originalText;
-    final AppendOnlyUnitBuffer additionBuffer = new AppendOnlyUnitBuffer();
+    final ChunkedUnitBuffer additionBuffer;
 
     final List<Piece> pieces = new ArrayList<>();
+    // replaced, instead of cleared, when compacted, as the undo records keep the one they used
+    DecorationDictionary decorationDictionary = new DecorationDictionary();
+    // size of the dictionary right after it was compacted
+    private int compactedDecorations;
     private final CommandManager<PieceTable> commander = new CommandManager<>(this);
 
     private final PieceCharacterIterator pieceCharacterIterator;
     TextDecoration decorationAtCaret;
-    private DecorationModel dm = null;
 
     /**
      * Creates a piece table using the original text of a document, and
@@ -67,35 +87,130 @@ public final class PieceTable extends AbstractTextBuffer {
      * A document contains 0, 1 or more decorations.
      * If there is no decoration present, for each unit a piece is defined, that
      * spans over the length of the unit.
-     * If there are decorations, for each one, units are defined, pieces are defined, that spans over its length
+     * If there are decorations, for each one, units are defined, pieces are defined, that spans over its length.
+     * For large documents, the text of the decorations is converted into units in parallel, and then
+     * the original buffer and the pieces are assembled in one pass.
+     * The piece table is not bound to the JavaFX Application thread: it can be created from a background
+     * thread, as long as it is handed over to the control (the final swap) from the JavaFX Application thread.
      * @param document model with decorated text to start with
      */
     public PieceTable(Document document) {
+        this(document, null);
+    }
+
+    /**
+     * Creates a piece table using the original text of a document, as {@link #PieceTable(Document)},
+     * and reports the progress of the conversion of its text into units, as the fraction of decorations
+     * that are already converted, between 0 and 1. As the decorations can be converted in parallel, the
+     * progress consumer can be called from different threads, and its values might not come in order.
+     * @param document model with decorated text to start with
+     * @param progress the consumer of the progress, or null if not needed
+     */
+    public PieceTable(Document document, DoubleConsumer progress) {
         String text = Objects.requireNonNull(Objects.requireNonNull(document).getText());
         List<DecorationModel> decorations = document.getDecorations();
         if (decorations == null || decorations.isEmpty()) {
             decorations = List.of(new DecorationModel(0, text.length(), null, null));
         }
-        this.originalText = new UnitBuffer(List.of());
+        // parse external text that spans each decoration into units
+        List<UnitBuffer> unitBuffers = convertDecorations(text, decorations, progress);
+        int size = unitBuffers.stream().mapToInt(units -> Math.max(1, units.getUnitList().size())).sum();
+        List<Unit> units = new ArrayList<>(size);
+        Piece[] originalPieces = new Piece[size];
+        int accum = 0;
+        int index = 0;
         // For each decoration in the document:
-        AtomicInteger accum = new AtomicInteger(0);
-        decorations.forEach(d -> {
-            // parse external text that spans the decoration into units
-            UnitBuffer units = UnitBuffer.convertTextToUnits(text.substring(d.getStart(), d.getStart() + d.getLength()));
-            if (units.isEmpty()) {
-                units.append(new TextUnit(""));
+        for (int i = 0; i < decorations.size(); i++) {
+            DecorationModel d = decorations.get(i);
+            List<Unit> unitList = unitBuffers.get(i).getUnitList();
+            if (unitList.isEmpty()) {
+                unitList = List.of(new TextUnit(""));
             }
             // For each unit present:
-            units.getUnitList().forEach(unit -> {
-                originalText.append(unit);
+            for (Unit unit : unitList) {
+                units.add(unit);
                 // create a new piece that spans the unit
-                pieces.add(new Piece(PieceTable.this, Piece.BufferType.ORIGINAL, accum.getAndAdd(unit.length()), unit.length(), d.getDecoration(), d.getParagraphDecoration()));
-            });
-        });
-        textLengthProperty.set(originalText.length());
+                originalPieces[index++] = new Piece(this, Piece.BufferType.ORIGINAL, accum, unit.length(), d.getDecoration(), d.getParagraphDecoration());
+                accum += unit.length();
+            }
+        }
+        this.originalText = new UnitBuffer(units);
+        this.additionBuffer = new ChunkedUnitBuffer();
+        pieces.addAll(Arrays.asList(originalPieces));
+        textLengthProperty.set(accum);
+        pieceCharacterIterator = new PieceCharacterIterator(this);
+    }
+
+    /*
+     * Creates a copy of the source piece table, that shares its original buffer, as it is
+     * never modified, and has its own copy of the addition buffer, which shares its full
+     * chunks, and of the pieces
+     */
+    private PieceTable(PieceTable source) {
+        this.originalText = source.originalText;
+        this.additionBuffer = new ChunkedUnitBuffer(source.additionBuffer);
+        source.pieces.forEach(p -> pieces.add(new Piece(this, p.bufferType, p.start, p.length, p.decoration, p.paragraphDecoration)));
+        textLengthProperty.set(source.getTextLength());
+        pieceCharacterIterator = new PieceCharacterIterator(this);
+    }
+
+    /*
+     * Creates a piece table with a given original buffer, and a piece with default decorations
+     * for each of its units
+     */
+    private PieceTable(UnitBuffer originalText) {
+        this.originalText = originalText;
+        this.additionBuffer = new ChunkedUnitBuffer();
+        DecorationModel d = DecorationModel.createDefaultDecorationModel(originalText.length());
+        int accum = 0;
+        for (Unit unit : originalText.getUnitList()) {
+            pieces.add(new Piece(this, Piece.BufferType.ORIGINAL, accum, unit.length(), d.getDecoration(), d.getParagraphDecoration()));
+            accum += unit.length();
+        }
+        if (pieces.isEmpty()) {
+            pieces.add(new Piece(this, Piece.BufferType.ORIGINAL, 0, 0, d.getDecoration(), d.getParagraphDecoration()));
+        }
+        textLengthProperty.set(accum);
         pieceCharacterIterator = new PieceCharacterIterator(this);
     }
 
+    /**
+     * Creates a piece table for a UTF-8 text file, without loading its text into the heap: the
+     * file is memory-mapped as the original buffer, see {@link MappedUnitBuffer}, and its text
+     * is decoded on demand, in chunks. The text is not parsed for emojis or blocks, and has
+     * default decorations. As with any other piece table, edits go to the addition buffer, and
+     * the file is never modified.
+     * This is suitable to view large files, like logs or exports. The file is mapped when this
+     * method is called, and should not be modified or truncated while the piece table is in use.
+     * @param path the path of the text file
+     * @return a piece table with the text of the file
+     * @throws IOException if the file can't be read
+     */
+    public static PieceTable map(Path path) throws IOException {
+        return new PieceTable(MappedUnitBuffer.map(path));
+    }
+
+    /*
+     * Converts the text of each decoration into a buffer of units, keeping the order
+     * of the decorations. Documents with many decorations or long text are converted
+     * in parallel, using the common fork/join pool. The progress, if any, is reported after
+     * each decoration is converted.
+     */
+    private static List<UnitBuffer> convertDecorations(String text, List<DecorationModel> decorations, DoubleConsumer progress) {
+        Stream<DecorationModel> stream = decorations.size() >= PARALLEL_MIN_DECORATIONS || text.length() >= PARALLEL_MIN_LENGTH ?
+                decorations.parallelStream() : decorations.stream();
+        AtomicInteger converted = new AtomicInteger();
+        return stream
+                .map(d -> {
+                    UnitBuffer units = UnitBuffer.convertTextToUnits(text.substring(d.getStart(), d.getStart() + d.getLength()));
+                    if (progress != null) {
+                        progress.accept((double) converted.incrementAndGet() / decorations.size());
+                    }
+                    return units;
+                })
+                .collect(Collectors.toList());
+    }
+
     /**
      * Returns full text.
      * This is a costly operation as it walks through all the pieces
@@ -115,26 +230,107 @@ public final class PieceTable extends AbstractTextBuffer {
      */
     @Override
     public String getText(final int start, final int end) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeTo(sb, start, end, null);
+        } catch (IOException e) {
+            // not thrown by StringBuilder
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the exportable text between a starting point and an ending position to an {@link Appendable},
+     * and passes the decorations of that text, merged into runs, to a consumer.
+     * The pieces are walked only once: text slices are appended straight from the buffers, and each run is
+     * passed as soon as it is complete, so neither the full text nor the full list of decorations are
+     * created in memory. The text and runs are the same as those from {@link #getText(int, int)} and
+     * {@link #getDecorationModelList(int, int)}.
+     *
+     * @param appendable the appendable that gets the text, or null if not needed
+     * @param start start position within text, inclusive
+     * @param end end position within text, exclusive
+     * @param decorationSink the consumer of the decoration runs, or null if not needed
+     * @throws IOException if the appendable fails
+     * @throws IllegalArgumentException if start or end are not in index range of the text
+     */
+    @Override
+    public void writeTo(Appendable appendable, int start, int end, Consumer<DecorationModel> decorationSink) throws IOException {
         if (getTextLength() > 0 && !inRange(start, 0, getTextLength())) {
-             throw new IllegalArgumentException("Start index " + start + " is not in range [0, " + getTextLength() + ")");
+            throw new IllegalArgumentException("Start index " + start + " is not in range [0, " + getTextLength() + ")");
         }
         if (end < 0) {
             throw new IllegalArgumentException("End index is not in range");
         }
-        StringBuilder textSB = new StringBuilder();
-        StringBuilder sb = new StringBuilder();
-        walkPieces((p, i, tp) -> {
-            Unit unit = p.getUnit();
-            sb.append(p.getInternalText());
-            if (start <= tp + p.length && end > tp && !unit.isEmpty()) {
-                String text = sb.substring(Math.max(start, tp), Math.min(end, tp + p.length));
-                if (!text.isEmpty()) {
-                    textSB.append(unit instanceof TextUnit ? text : unit.getText());
+        boolean hasRun = false;
+        int runStart = 0;
+        int runLength = 0;
+        Decoration runDecoration = null;
+        ParagraphDecoration runParagraphDecoration = null;
+        int textPosition = 0;
+        for (int i = 0; i < pieces.size() && textPosition < end; i++) {
+            Piece p = pieces.get(i);
+            int tp = textPosition;
+            textPosition += p.length;
+            if (start > tp + p.length) {
+                continue;
+            }
+            UnitBuffer buffer = p.getBuffer();
+            Unit unit = isTextPiece(p, buffer) ? null : p.getUnit();
+            if (unit != null && unit.isEmpty()) {
+                continue;
+            }
+            int from = Math.max(start, tp);
+            int to = Math.min(end, tp + p.length);
+            int length = 0;
+            if (to > from) {
+                if (unit == null || unit instanceof TextUnit) {
+                    if (appendable != null) {
+                        appendable.append(buffer.getInternalCharSequence(), p.start + from - tp, p.start + to - tp);
+                    }
+                    length = to - from;
+                } else {
+                    String text = unit.getText();
+                    if (appendable != null) {
+                        appendable.append(text);
+                    }
+                    length = text.length();
                 }
             }
-            return (end <= tp);
-        });
-        return textSB.toString();
+            if (decorationSink == null) {
+                continue;
+            }
+            if (hasRun && Objects.equals(p.getDecoration(), runDecoration) && Objects.equals(p.getParagraphDecoration(), runParagraphDecoration)) {
+                runLength += length;
+            } else {
+                if (hasRun) {
+                    decorationSink.accept(new DecorationModel(runStart, runLength, runDecoration, runParagraphDecoration));
+                }
+                hasRun = true;
+                runStart += runLength;
+                runLength = length;
+                runDecoration = p.getDecoration();
+                runParagraphDecoration = p.getParagraphDecoration();
+            }
+        }
+        if (decorationSink != null) {
+            // provide a default decoration if there are no runs
+            decorationSink.accept(hasRun ? new DecorationModel(runStart, runLength, runDecoration, runParagraphDecoration) :
+                    DecorationModel.createDefaultDecorationModel(0));
+        }
+    }
+
+    /*
+     * A piece spans a single unit. Non-text units take one position, and their internal text is
+     * an anchor char, so only such pieces need to find their unit.
+     */
+    private static boolean isTextPiece(Piece piece, UnitBuffer buffer) {
+        if (piece.length != 1) {
+            return piece.length > 1;
+        }
+        char c = buffer.getInternalCharSequence().charAt(piece.start);
+        return c != EMOJI_ANCHOR && c != OBJECT_REPLACEMENT && c != ZERO_WIDTH_TABLE_SEPARATOR;
     }
 
     private int s0, s1;
@@ -220,41 +416,12 @@ public final class PieceTable extends AbstractTextBuffer {
      */
     @Override
     public List<DecorationModel> getDecorationModelList(int start, int end) {
-        if (getTextLength() > 0 && !inRange(start, 0, getTextLength())) {
-            throw new IllegalArgumentException("Start index " + start + " is not in range [0, " + getTextLength() + ")");
-        }
-        if (end < 0) {
-            throw new IllegalArgumentException("End index is not in range");
-        }
         List<DecorationModel> mergedList = new ArrayList<>();
-        if (!pieces.isEmpty()) {
-            AtomicInteger accum = new AtomicInteger();
-            StringBuilder sb = new StringBuilder();
-            walkPieces((p, i, tp) -> {
-                Unit unit = p.getUnit();
-                sb.append(p.getInternalText());
-                if (start <= tp + p.length && end > tp && !unit.isEmpty()) {
-                    String text = sb.substring(Math.max(start, tp), Math.min(end, tp + p.length));
-                    int length = 0;
-                    if (!text.isEmpty()) {
-                        length = (unit instanceof TextUnit ? text : unit.getText()).length();
-                    }
-                    if (mergedList.isEmpty()) {
-                        dm = new DecorationModel(0, length, p.getDecoration(), p.getParagraphDecoration());
-                    } else if (p.getDecoration().equals(dm.getDecoration()) && p.getParagraphDecoration().equals(dm.getParagraphDecoration())) {
-                        mergedList.remove(mergedList.size() - 1);
-                        dm = new DecorationModel(dm.getStart(), dm.getLength() + length, dm.getDecoration(), dm.getParagraphDecoration());
-                    } else {
-                        dm = new DecorationModel(accum.addAndGet(dm.getLength()), length, p.getDecoration(), p.getParagraphDecoration());
-                    }
-                    mergedList.add(dm);
-                }
-                return (end <= tp);
-            });
-        }
-        if (mergedList.isEmpty()) {
-            // provide a default decoration
-            mergedList.add(DecorationModel.createDefaultDecorationModel(0));
+        try {
+            writeTo(null, start, end, mergedList::add);
+        } catch (IOException e) {
+            // no appendable
+            throw new UncheckedIOException(e);
         }
         return mergedList;
     }
@@ -269,6 +436,37 @@ public final class PieceTable extends AbstractTextBuffer {
         return pieceCharacterIterator.charAt(pos);
     }
 
+    /**
+     * Returns a read-only view of the internal text between a starting point and an ending position.
+     * The view is a snapshot of the current pieces, that doesn't copy their text, and
+     * that is not affected by further changes.
+     *
+     * @param start start position within text, inclusive
+     * @param end end position within text, exclusive
+     * @return a {@link CharSequence} with the internal text of the given range
+     * @throws IllegalArgumentException if start or end are not in index range of the text
+     */
+    @Override
+    public CharSequence getCharSequence(int start, int end) {
+        if (start < 0 || end > getTextLength() || start > end) {
+            throw new IllegalArgumentException("Range [" + start + ", " + end + ") is not in range [0, " + getTextLength() + "]");
+        }
+        return new PieceCharSequence(pieces).subSequence(start, end);
+    }
+
+    /**
+     * Returns a copy of the piece table, that is not affected by further changes.
+     * Only the pieces and the units of the addition buffer are copied, so this is a cheap operation,
+     * and the copy can be read from a background thread, for instance to export its text and decorations,
+     * while the piece table keeps being edited from the JavaFX Application thread.
+     *
+     * @return a copy of the piece table
+     */
+    @Override
+    public PieceTable snapshot() {
+        return new PieceTable(this);
+    }
+
     @Override
     public List<Integer> getLineFeeds() {
         return pieceCharacterIterator.getLineFeedList();
@@ -281,8 +479,13 @@ public final class PieceTable extends AbstractTextBuffer {
 
     // internal append
     List<Piece> appendInternal(UnitBuffer unitBuffer, Decoration decoration, ParagraphDecoration paragraphDecoration) {
-        int pos = additionBuffer.length();
         textLengthProperty.set(getTextLength() + unitBuffer.length());
+        return appendUnits(unitBuffer, decoration, paragraphDecoration);
+    }
+
+    // appends the units to the addition buffer, without updating the text length
+    List<Piece> appendUnits(UnitBuffer unitBuffer, Decoration decoration, ParagraphDecoration paragraphDecoration) {
+        int pos = additionBuffer.length();
         AtomicInteger accum = new AtomicInteger(pos);
         return unitBuffer.getUnitList().stream()
                 .peek(unit -> additionBuffer.append(unit))
@@ -312,6 +515,57 @@ public final class PieceTable extends AbstractTextBuffer {
         }
     }
 
+    /**
+     * Applies the text decorations of a list of decoration models in a single pass over the
+     * pieces, recording a single undo command and firing a single {@link DecorateEvent}.
+     * @param decorationModels the decoration models to apply
+     * @throws IllegalArgumentException if a model has a decoration that is not a {@link TextDecoration},
+     * or starts outside of the text bounds
+     */
+    @Override
+    public void decorateAll(List<DecorationModel> decorationModels) {
+        commander.execute(new TextDecorateAllCmd(decorationModels));
+    }
+
+    @Override
+    public Optional<SearchMatch> find(SearchQuery query, int from) {
+        TextSearch search = new TextSearch(this, Objects.requireNonNull(query), from);
+        return search.find() ? Optional.of(search.getMatch()) : Optional.empty();
+    }
+
+    @Override
+    public List<SearchMatch> findAll(SearchQuery query) {
+        TextSearch search = new TextSearch(this, Objects.requireNonNull(query), 0);
+        List<SearchMatch> matches = new ArrayList<>();
+        while (search.find()) {
+            matches.add(search.getMatch());
+        }
+        return matches;
+    }
+
+    /**
+     * Replaces all the matches of a query, rebuilding the pieces that hold them in a single
+     * pass, as a single undo command that fires a single {@link TransactionEvent}
+     * @param query the query to find
+     * @param replacement the text that replaces each match
+     * @return the number of replaced matches
+     */
+    @Override
+    public int replaceAll(SearchQuery query, String replacement) {
+        Objects.requireNonNull(replacement);
+        TextSearch search = new TextSearch(this, Objects.requireNonNull(query), 0);
+        List<int[]> ranges = new ArrayList<>();
+        List<String> replacements = new ArrayList<>();
+        while (search.find()) {
+            ranges.add(new int[] {search.start(), search.end()});
+            replacements.add(search.getReplacement(replacement));
+        }
+        if (!ranges.isEmpty()) {
+            commander.execute(new ReplaceMatchesCmd(ranges, replacements));
+        }
+        return ranges.size();
+    }
+
     /**
      * Walks through unit fragments. Each fragment is represented by related text and decoration
      * @param onFragment callback to get fragment info
@@ -320,14 +574,16 @@ public final class PieceTable extends AbstractTextBuffer {
      */
     @Override
     public void walkFragments(BiConsumer<Unit, Decoration> onFragment, int start, int end) {
-        StringBuilder sb = new StringBuilder();
         walkPieces((p, i, tp) -> {
-            Unit unit = p.getUnit();
-            sb.append(p.getInternalText());
-            if (start <= tp + p.length && end > tp && !unit.isEmpty()) {
-                String text = sb.substring(Math.max(start, tp), Math.min(end, tp + p.length));
-                if (!text.isEmpty()) {
-                    onFragment.accept(unit instanceof TextUnit ? new TextUnit(text) : unit, p.getDecoration());
+            int from = Math.max(start, tp);
+            int to = Math.min(end, tp + p.length);
+            if (to > from) {
+                Unit unit = p.getUnit();
+                if (!unit.isEmpty()) {
+                    // only the slice of the piece within the range is taken from its buffer
+                    onFragment.accept(unit instanceof TextUnit ?
+                            new TextUnit(p.getBuffer().getInternalText(p.start + from - tp, p.start + to - tp)) : unit,
+                            p.getDecoration());
                 }
             }
             return (end <= tp);
@@ -407,6 +663,98 @@ public final class PieceTable extends AbstractTextBuffer {
         commander.redo();
     }
 
+    @Override
+    public void beginTransaction() {
+        commander.beginTransaction();
+    }
+
+    @Override
+    public Transaction endTransaction() {
+        return new PieceTableTransaction(commander.endTransaction());
+    }
+
+    @Override
+    public Checkpoint createCheckpoint() {
+        PieceSplice pieceSplice = PieceSplice.capture(this);
+        int textLength = getTextLength();
+        return new Checkpoint() {
+            @Override
+            public void restore() {
+                fireOnce(() -> {
+                    int previousLength = getTextLength();
+                    pieceSplice.restoreAll(PieceTable.this);
+                    textLengthProperty.set(textLength);
+                    // the pieces are replaced at once: the whole text is the changed range
+                    fire(new TransactionEvent(true, 0, previousLength, textLength));
+                }, true);
+            }
+
+            @Override
+            public long getRetainedSize() {
+                return PieceTable.retainedSize(pieceSplice);
+            }
+        };
+    }
+
+    /**
+     * Replaces the dictionary of decorations used by the undo records with a new one that only has
+     * the decorations of the current pieces, once the dictionary has doubled its size since it was
+     * last compacted. The undo records that are still kept use the dictionary they were encoded
+     * with, so the previous one is released when the last of them is evicted.
+     */
+    @Override
+    public void compactDecorations() {
+        if (decorationDictionary.size() <= Math.max(COMPACTION_MIN_DECORATIONS, 2 * compactedDecorations)) {
+            return;
+        }
+        DecorationDictionary dictionary = new DecorationDictionary();
+        for (Piece piece : pieces) {
+            dictionary.idOf(piece.decoration);
+            dictionary.idOf(piece.paragraphDecoration);
+        }
+        decorationDictionary = dictionary;
+        compactedDecorations = dictionary.size();
+    }
+
+    @Override
+    public void runAsBatch(Runnable changes) {
+        fireOnce(changes, false);
+    }
+
+    private final class PieceTableTransaction implements Transaction {
+
+        private final CompositeCommand<PieceTable> commands;
+
+        PieceTableTransaction(CompositeCommand<PieceTable> commands) {
+            this.commands = commands;
+        }
+
+        @Override
+        public void undo() {
+            fireOnce(() -> commands.undo(PieceTable.this), true);
+        }
+
+        @Override
+        public void redo() {
+            fireOnce(() -> commands.redo(PieceTable.this), false);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return commands.isEmpty();
+        }
+
+        @Override
+        public void merge(Transaction next) {
+            commands.append(((PieceTableTransaction) next).commands);
+        }
+
+        @Override
+        public long getRetainedSize() {
+            return commands.getRetainedSize();
+        }
+    }
+
     /**
      *        Piece Table
      *  Piece A  Piece B   Piece C
@@ -447,6 +795,15 @@ public final class PieceTable extends AbstractTextBuffer {
 
     }
 
+    // Estimation of the bytes retained by the undo history of a command
+    static long retainedSize(PieceSplice splice) {
+        return splice == null ? 0 : splice.getRetainedSize();
+    }
+
+    static long retainedSize(UnitBuffer unitBuffer) {
+        return 2L * unitBuffer.length();
+    }
+
     // TODO is there standard APIs?
     static boolean inRange( int index, int start, int length ) {
         return index >= start && index < start+length;
@@ -482,7 +839,7 @@ class PieceCharacterIterator implements CharacterIterator {
     private int begin;
     private int end;
     private int pos;
-    private int[] posArray;
+    private PieceCharSequence sequence;
     private List<Integer> lineFeedList;
 
     public PieceCharacterIterator(PieceTable pt) {
@@ -495,37 +852,26 @@ class PieceCharacterIterator implements CharacterIterator {
         this.end = pt.getTextLength();
         this.pos = 0;
 
-        posArray = new int[pt.pieces.size() + 1];
-        lineFeedList = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        pt.walkPieces((p, i, tp) -> {
-            sb.append(p.getInternalText());
-            String text = sb.substring(tp);
-            IntStream.iterate(text.indexOf(LF),
-                            index -> index >= 0,
-                            index -> text.indexOf(LF, index + 1))
-                    .boxed()
-                    .forEach(index -> lineFeedList.add(tp + index));
-            posArray[i] = tp;
-            return false;
-        });
-        posArray[pt.pieces.size()] = end;
+        sequence = new PieceCharSequence(pt.pieces);
+        // line feeds are found on demand, from the pieces at the time of the reset
+        lineFeedList = null;
     }
 
     public char charAt(int pos) {
         if (pos < 0 || pos >= pt.getTextLength()) {
             throw new IllegalArgumentException("Invalid pos value");
         }
-        for (int i = 0; i < posArray.length; i++) {
-            if (posArray[i] <= pos && pos < posArray[i + 1]) {
-                char c = pt.pieces.get(i).getInternalText().charAt(pos - posArray[i]);
-                return c == ZERO_WIDTH_TABLE_SEPARATOR ? ' ' : c;
-            }
+        if (pos >= sequence.length()) {
+            return 0;
         }
-        return 0;
+        char c = sequence.charAt(pos);
+        return c == ZERO_WIDTH_TABLE_SEPARATOR ? ' ' : c;
     }
 
     public List<Integer> getLineFeedList() {
+        if (lineFeedList == null) {
+            lineFeedList = sequence.indicesOf(LF);
+        }
         return lineFeedList;
     }
 
@@ -615,7 +961,10 @@ class PieceCharacterIterator implements CharacterIterator {
     @Override
     public Object clone() {
         try {
-            return super.clone();
+            PieceCharacterIterator iterator = (PieceCharacterIterator) super.clone();
+            // the clone gets its own cursor
+            iterator.sequence = sequence.subSequence(0, sequence.length());
+            return iterator;
         } catch (CloneNotSupportedException e) {
             throw new IllegalArgumentException("Clone exception");
         }
@@ -627,7 +976,7 @@ abstract class AbstractPTCmd extends AbstractCommand<PieceTable> {}
 class AppendCmd extends AbstractPTCmd {
 
     private final UnitBuffer unitBuffer;
-    private List<Piece> newPieces;
+    private PieceSplice splice;
     private boolean execSuccess = false;
 
     AppendCmd(String text) {
@@ -637,9 +986,9 @@ class AppendCmd extends AbstractPTCmd {
     @Override
     protected void doUndo(PieceTable pt) {
         if (execSuccess) {
-            pt.pieces.removeAll(newPieces);
-            pt.fire(new TextBuffer.DeleteEvent(pt.getTextLength() - unitBuffer.length(), unitBuffer.length()));
+            splice.undo(pt);
             pt.textLengthProperty.set(pt.getTextLength() - unitBuffer.length());
+            pt.fire(new TextBuffer.DeleteEvent(pt.getTextLength(), unitBuffer.length()));
         }
     }
 
@@ -647,17 +996,22 @@ class AppendCmd extends AbstractPTCmd {
     protected void doRedo(PieceTable pt) {
         if (!unitBuffer.isEmpty()) {
             int pos = pt.getTextLength();
-            newPieces = pt.appendInternal(unitBuffer,
+            List<Piece> newPieces = pt.appendInternal(unitBuffer,
                     pt.decorationAtCaret != null ?
                     pt.decorationAtCaret : pt.previousPieceDecoration(pt.pieces.size()),
                     pt.getParagraphDecorationAtCaret(pos) != null ?
                     pt.getParagraphDecorationAtCaret(pos) : pt.previousPieceParagraphDecoration(pt.pieces.size()));
-            pt.pieces.addAll(newPieces);
+            splice = PieceSplice.apply(pt, pt.pieces.size(), 0, newPieces);
             pt.fire(new TextBuffer.InsertEvent(unitBuffer.getInternalText(), pos));
             execSuccess = true;
         }
     }
 
+    @Override
+    protected long getRetainedSize() {
+        return PieceTable.retainedSize(unitBuffer) + PieceTable.retainedSize(splice);
+    }
+
     @Override
     public String toString() {
         return "AppendCmd[\"" + unitBuffer + "\"]";
@@ -669,9 +1023,7 @@ class InsertCmd extends AbstractCommand<PieceTable> {
     private final UnitBuffer unitBuffer;
     private final int insertPosition;
 
-    private Collection<Piece> newPieces;
-    private Piece oldPiece;
-    private int opPieceIndex;
+    private PieceSplice splice;
     private boolean execSuccess = false;
 
     InsertCmd(String text, int insertPosition) {
@@ -682,10 +1034,9 @@ class InsertCmd extends AbstractCommand<PieceTable> {
     @Override
     protected void doUndo(PieceTable pt) {
         if (execSuccess) {
-            pt.pieces.add(opPieceIndex, oldPiece);
-            pt.pieces.removeAll(newPieces);
-            pt.fire(new TextBuffer.DeleteEvent(insertPosition, unitBuffer.length()));
+            splice.undo(pt);
             pt.textLengthProperty.set(pt.getTextLength() - unitBuffer.length());
+            pt.fire(new TextBuffer.DeleteEvent(insertPosition, unitBuffer.length()));
         }
     }
 
@@ -712,11 +1063,7 @@ class InsertCmd extends AbstractCommand<PieceTable> {
                     List<Piece> allPieces = new ArrayList<>(List.of(piece.pieceBefore(pieceOffset)));
                     allPieces.addAll(pieces);
                     allPieces.add(piece.pieceFrom(pieceOffset));
-                    newPieces = PieceTable.normalize(allPieces);
-                    oldPiece = piece;
-                    pt.pieces.addAll(pieceIndex, newPieces);
-                    pt.pieces.remove(oldPiece);
-                    opPieceIndex = pieceIndex;
+                    splice = PieceSplice.apply(pt, pieceIndex, 1, PieceTable.normalize(allPieces));
 
                     pt.fire(new TextBuffer.InsertEvent(unitBuffer.getInternalText(), insertPosition));
                     execSuccess = true;
@@ -727,6 +1074,11 @@ class InsertCmd extends AbstractCommand<PieceTable> {
         }
     }
 
+    @Override
+    protected long getRetainedSize() {
+        return PieceTable.retainedSize(unitBuffer) + PieceTable.retainedSize(splice);
+    }
+
     @Override
     public String toString() {
         return "InsertCmd[\"" + unitBuffer + "\" at " + insertPosition + "]";
@@ -739,9 +1091,7 @@ class DeleteCmd extends AbstractCommand<PieceTable> {
     private int length;
 
     private boolean execSuccess = false;
-    private int pieceIndex = -1;
-    private Collection<Piece> newPieces;
-    private Collection<Piece> oldPieces;
+    private PieceSplice splice;
 
     /**
      * Command to delete units starting from an index position to a given length.
@@ -756,13 +1106,10 @@ class DeleteCmd extends AbstractCommand<PieceTable> {
     @Override
     protected void doUndo(PieceTable pt) {
         if (execSuccess) {
-            pt.pieces.addAll(pieceIndex, oldPieces);
-            pt.pieces.removeAll(newPieces);
-
-            String text = oldPieces.stream()
-              .map(Piece::getInternalText)
-              .reduce( "", (id, s) -> id + s );
+            splice.undo(pt);
             pt.textLengthProperty.set(pt.getTextLength() + length);
+            // the restored pieces can span more text than the deleted range
+            String text = pt.getCharSequence(deletePosition, deletePosition + length).toString();
             pt.fire(new TextBuffer.InsertEvent(text, deletePosition));
         }
     }
@@ -810,18 +1157,20 @@ class DeleteCmd extends AbstractCommand<PieceTable> {
             return false;
         });
 
-        newPieces = PieceTable.normalize(additions);
-        oldPieces = removals;
-        if (newPieces.size() > 0 || oldPieces.size() > 0) { // split actually happened
-            pieceIndex = startPieceIndex[0];
-            pt.pieces.addAll(pieceIndex, newPieces);
-            pt.pieces.removeAll(oldPieces);
+        Collection<Piece> newPieces = PieceTable.normalize(additions);
+        if (newPieces.size() > 0 || removals.size() > 0) { // split actually happened
+            splice = PieceSplice.apply(pt, startPieceIndex[0], removals.size(), newPieces);
             pt.textLengthProperty.set(pt.getTextLength() - length);
             pt.fire(new TextBuffer.DeleteEvent(deletePosition, length));
             execSuccess = true;
         }
     }
 
+    @Override
+    protected long getRetainedSize() {
+        return PieceTable.retainedSize(splice);
+    }
+
     @Override
     public String toString() {
         return "DeleteCmd[" + deletePosition + " x " + length + "]";
@@ -836,10 +1185,8 @@ class ImageDecorateCmd extends AbstractCommand<PieceTable> {
     private final int insertPosition;
 
     private boolean execSuccess = false;
-    private List<Piece> newPiece;
-    private Piece oldPiece;
-    private int opPieceIndex;
-    private Collection<Piece> newPieces = new ArrayList<>();
+    private boolean appended;
+    private PieceSplice splice;
 
     /**
      * Inserts an image at the given insertion point
@@ -855,15 +1202,13 @@ class ImageDecorateCmd extends AbstractCommand<PieceTable> {
     @Override
     protected void doUndo(PieceTable pt) {
         if (execSuccess) {
-            if (newPiece != null) {
-                pt.pieces.removeAll(newPiece);
-                pt.fire(new TextBuffer.DeleteEvent(pt.getTextLength() - 1, unitBuffer.length()));
+            splice.undo(pt);
+            pt.textLengthProperty.set(pt.getTextLength() - 1);
+            if (appended) {
+                pt.fire(new TextBuffer.DeleteEvent(pt.getTextLength(), unitBuffer.length()));
             } else {
-                pt.pieces.add(opPieceIndex, oldPiece);
-                pt.pieces.removeAll(newPieces);
                 pt.fire(new TextBuffer.DeleteEvent(insertPosition, unitBuffer.length()));
             }
-            pt.textLengthProperty.set(pt.getTextLength() - 1);
         }
     }
 
@@ -878,8 +1223,8 @@ class ImageDecorateCmd extends AbstractCommand<PieceTable> {
 
         if (insertPosition == pt.getTextLength()) {
             int pos = pt.getTextLength();
-            newPiece = pt.appendInternal(unitBuffer, decoration, paragraphDecoration);
-            pt.pieces.addAll(newPiece);
+            splice = PieceSplice.apply(pt, pt.pieces.size(), 0, pt.appendInternal(unitBuffer, decoration, paragraphDecoration));
+            appended = true;
             pt.fire(new TextBuffer.InsertEvent(ZERO_WIDTH_TEXT, pos));
             execSuccess = true;
         } else {
@@ -890,11 +1235,8 @@ class ImageDecorateCmd extends AbstractCommand<PieceTable> {
                     List<Piece> allPieces = new ArrayList<>(List.of(piece.pieceBefore(pieceOffset)));
                     allPieces.addAll(pieces);
                     allPieces.add(piece.pieceFrom(pieceOffset));
-                    newPieces = PieceTable.normalize(allPieces);
-                    oldPiece = piece;
-                    pt.pieces.addAll(pieceIndex, newPieces);
-                    pt.pieces.remove(oldPiece);
-                    opPieceIndex = pieceIndex;
+                    splice = PieceSplice.apply(pt, pieceIndex, 1, PieceTable.normalize(allPieces));
+                    appended = false;
 
                     pt.fire(new TextBuffer.InsertEvent(unitBuffer.getInternalText(), insertPosition));
                     execSuccess = true;
@@ -906,6 +1248,11 @@ class ImageDecorateCmd extends AbstractCommand<PieceTable> {
 
     }
 
+    @Override
+    protected long getRetainedSize() {
+        return PieceTable.retainedSize(splice);
+    }
+
     @Override
     public String toString() {
         return "ImageDecorateCmd[" + decoration + " at " + insertPosition + "]";
@@ -919,9 +1266,7 @@ class TextDecorateCmd extends AbstractCommand<PieceTable> {
     private final Decoration decoration;
 
     private boolean execSuccess = false;
-    private int pieceIndex = -1;
-    private Collection<Piece> newPieces = new ArrayList<>();
-    private Collection<Piece> oldPieces = new ArrayList<>();
+    private PieceSplice splice;
 
     /**
      * Decorates the text within the given range with the supplied decoration.
@@ -938,12 +1283,9 @@ class TextDecorateCmd extends AbstractCommand<PieceTable> {
     @Override
     protected void doUndo(PieceTable pt) {
         if (execSuccess) {
-            pt.pieces.addAll(pieceIndex, oldPieces);
-            pt.pieces.removeAll(newPieces);
-
-            oldPieces.forEach(piece -> {
-                pt.fire(new TextBuffer.DecorateEvent(piece.start, piece.start + piece.length, piece.decoration));
-            });
+            splice.undo(pt);
+            // the restored pieces can have different decorations
+            pt.fire(new TextBuffer.DecorateEvent(start, end, null));
         }
     }
 
@@ -964,7 +1306,9 @@ class TextDecorateCmd extends AbstractCommand<PieceTable> {
 
         pt.walkPieces((piece, pieceIndex, textPosition) -> {
             if (isPieceInSelection(piece, textPosition)) {
-                startPieceIndex[0] = pieceIndex;
+                if (removals.isEmpty()) {
+                    startPieceIndex[0] = pieceIndex;
+                }
                 if (textPosition <= start) {
                     int offset = start - textPosition;
                     int length;
@@ -994,12 +1338,9 @@ class TextDecorateCmd extends AbstractCommand<PieceTable> {
             return false;
         });
 
-        newPieces = PieceTable.normalize(additions);
-        oldPieces = removals;
-        if (newPieces.size() > 0 || oldPieces.size() > 0) {
-            pieceIndex = startPieceIndex[0];
-            pt.pieces.addAll(pieceIndex, newPieces);
-            pt.pieces.removeAll(oldPieces);
+        Collection<Piece> newPieces = PieceTable.normalize(additions);
+        if (newPieces.size() > 0 || removals.size() > 0) {
+            splice = PieceSplice.apply(pt, startPieceIndex[0], removals.size(), newPieces);
             pt.fire(new TextBuffer.DecorateEvent(start, end, decoration));
             execSuccess = true;
         }
@@ -1010,6 +1351,11 @@ class TextDecorateCmd extends AbstractCommand<PieceTable> {
         return start <= pieceEndPosition && (end >= pieceEndPosition || end >= textPosition);
     }
 
+    @Override
+    protected long getRetainedSize() {
+        return PieceTable.retainedSize(splice);
+    }
+
     @Override
     public String toString() {
         return "TextDecorateCmd[" + start +
@@ -1017,6 +1363,242 @@ class TextDecorateCmd extends AbstractCommand<PieceTable> {
     }
 }
 
+class ReplaceMatchesCmd extends AbstractCommand<PieceTable> {
+
+    private final int[] starts;
+    private final int[] ends;
+    private final String[] replacements;
+
+    private int lengthDelta;
+    private boolean execSuccess = false;
+    private PieceSplice splice;
+
+    /**
+     * Replaces ranges of text with the given replacements
+     * @param ranges the start and end positions of each range, sorted and not overlapping
+     * @param replacements the replacement of each range
+     */
+    ReplaceMatchesCmd(List<int[]> ranges, List<String> replacements) {
+        this.starts = ranges.stream().mapToInt(range -> range[0]).toArray();
+        this.ends = ranges.stream().mapToInt(range -> range[1]).toArray();
+        this.replacements = replacements.toArray(new String[0]);
+    }
+
+    @Override
+    protected void doUndo(PieceTable pt) {
+        if (execSuccess) {
+            splice.undo(pt);
+            pt.textLengthProperty.set(pt.getTextLength() - lengthDelta);
+            int end = ends[ends.length - 1];
+            pt.fire(new TextBuffer.TransactionEvent(true, starts[0], end + lengthDelta - starts[0], end - starts[0]));
+        }
+    }
+
+    @Override
+    protected void doRedo(PieceTable pt) {
+        if (starts.length == 0) {
+            return;
+        }
+        if (starts[0] < 0 || ends[ends.length - 1] > pt.getTextLength()) {
+            throw new IllegalArgumentException("Ranges are outside of text bounds [0, " + pt.getTextLength() + "]");
+        }
+        int textLength = pt.getTextLength();
+        int removedLength = 0;
+        int addedLength = 0;
+        final List<Piece> additions = new ArrayList<>();
+        int startPieceIndex = -1;
+        int removedCount = 0;
+        int textPosition = 0;
+        int m = 0;
+        for (int i = 0; i < pt.pieces.size() && m < starts.length; i++) {
+            Piece piece = pt.pieces.get(i);
+            int pieceEnd = textPosition + piece.length;
+            if (pieceEnd > starts[0]) {
+                if (startPieceIndex < 0) {
+                    startPieceIndex = i;
+                }
+                removedCount++;
+                int position = textPosition;
+                while (position < pieceEnd) {
+                    if (m < starts.length && position >= starts[m]) {
+                        if (position == starts[m]) {
+                            // the replacement takes the decorations of the first replaced piece
+                            Decoration decoration = piece.getDecoration() instanceof TextDecoration ?
+                                    piece.getDecoration() : pt.previousPieceDecoration(i);
+                            UnitBuffer unitBuffer = UnitBuffer.convertTextToUnits(replacements[m]);
+                            additions.addAll(pt.appendUnits(unitBuffer, decoration, piece.getParagraphDecoration()));
+                            addedLength += unitBuffer.length();
+                            removedLength += ends[m] - starts[m];
+                        }
+                        position = Math.min(pieceEnd, ends[m]);
+                        if (position == ends[m]) {
+                            m++;
+                        }
+                    } else {
+                        int partEnd = m < starts.length ? Math.min(pieceEnd, starts[m]) : pieceEnd;
+                        additions.add(position == textPosition && partEnd == pieceEnd ? piece :
+                                piece.copy(piece.start + position - textPosition, partEnd - position));
+                        position = partEnd;
+                    }
+                }
+            }
+            textPosition = pieceEnd;
+        }
+
+        if (removedCount > 0) {
+            splice = PieceSplice.apply(pt, startPieceIndex, removedCount, PieceTable.normalize(additions));
+            // the length is set once, for all the matches
+            lengthDelta = addedLength - removedLength;
+            pt.textLengthProperty.set(textLength + lengthDelta);
+            int end = ends[ends.length - 1];
+            pt.fire(new TextBuffer.TransactionEvent(false, starts[0], end - starts[0], end + lengthDelta - starts[0]));
+            execSuccess = true;
+        }
+    }
+
+    @Override
+    protected long getRetainedSize() {
+        // the ranges, and the replacements, which are usually the same instance
+        long size = PieceTable.retainedSize(splice) + 16L * starts.length;
+        for (int i = 0; i < replacements.length; i++) {
+            if (i == 0 || replacements[i] != replacements[i - 1]) {
+                size += 40L + 2L * replacements[i].length();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplaceMatchesCmd[" + starts.length + " matches]";
+    }
+}
+
+class TextDecorateAllCmd extends AbstractCommand<PieceTable> {
+
+    private final List<DecorationModel> decorationModels;
+    private int start;
+    private int end;
+
+    private boolean execSuccess = false;
+    private PieceSplice splice;
+
+    /**
+     * Decorates the text within the ranges of the given decoration models with their text
+     * decorations. Where ranges overlap, the decoration of the model that comes last wins.
+     * @param decorationModels the decoration models, in any order
+     */
+    TextDecorateAllCmd(List<DecorationModel> decorationModels) {
+        this.decorationModels = List.copyOf(decorationModels);
+    }
+
+    @Override
+    protected void doUndo(PieceTable pt) {
+        if (execSuccess) {
+            splice.undo(pt);
+            pt.fire(new TextBuffer.DecorateEvent(start, end, null));
+        }
+    }
+
+    @Override
+    protected void doRedo(PieceTable pt) {
+        // flatten the ranges into consecutive runs, keyed by their start position, with the
+        // decoration to apply, or null if the run is not decorated
+        int textLength = pt.getTextLength();
+        TreeMap<Integer, Decoration> runs = new TreeMap<>();
+        runs.put(0, null);
+        for (DecorationModel model : decorationModels) {
+            Decoration decoration = model.getDecoration();
+            if (!(decoration instanceof TextDecoration)) {
+                throw new IllegalArgumentException("Decoration type not supported: " + decoration);
+            }
+            int from = model.getStart();
+            if (!PieceTable.inRange(from, 0, textLength)) {
+                throw new IllegalArgumentException("Position " + from + " is outside of text bounds [0, " + textLength + ")");
+            }
+            //  Accept length larger than actual and adjust it to actual
+            int to = Math.min(from + model.getLength(), textLength);
+            if (to <= from) {
+                continue;
+            }
+            Decoration decorationAtEnd = runs.floorEntry(to).getValue();
+            runs.subMap(from, to).clear();
+            runs.put(from, decoration);
+            runs.putIfAbsent(to, decorationAtEnd);
+        }
+
+        int[] bounds = new int[runs.size() + 1];
+        Decoration[] decorations = new Decoration[runs.size()];
+        int r = 0;
+        start = -1;
+        for (Map.Entry<Integer, Decoration> run : runs.entrySet()) {
+            bounds[r] = run.getKey();
+            decorations[r++] = run.getValue();
+        }
+        bounds[r] = textLength;
+        for (int i = 0; i < decorations.length; i++) {
+            if (decorations[i] != null) {
+                start = start < 0 ? bounds[i] : start;
+                end = bounds[i + 1];
+            }
+        }
+        if (start < 0) {
+            return;
+        }
+
+        // split the pieces within [start, end) at the bounds of the runs, in a single pass
+        final List<Piece> additions = new ArrayList<>();
+        int startPieceIndex = -1;
+        int removedCount = 0;
+        int textPosition = 0;
+        r = 0;
+        for (int i = 0; i < pt.pieces.size() && textPosition < end; i++) {
+            Piece piece = pt.pieces.get(i);
+            int pieceEnd = textPosition + piece.length;
+            if (pieceEnd > start) {
+                if (startPieceIndex < 0) {
+                    startPieceIndex = i;
+                }
+                removedCount++;
+                int position = textPosition;
+                while (position < pieceEnd) {
+                    while (bounds[r + 1] <= position) {
+                        r++;
+                    }
+                    int partEnd = Math.min(pieceEnd, bounds[r + 1]);
+                    if (decorations[r] == null && position == textPosition && partEnd == pieceEnd) {
+                        additions.add(piece);
+                    } else if (decorations[r] == null) {
+                        additions.add(piece.copy(piece.start + position - textPosition, partEnd - position));
+                    } else {
+                        additions.add(piece.copy(piece.start + position - textPosition, partEnd - position, decorations[r]));
+                    }
+                    position = partEnd;
+                }
+            }
+            textPosition = pieceEnd;
+        }
+
+        if (removedCount > 0) {
+            splice = PieceSplice.apply(pt, startPieceIndex, removedCount, PieceTable.normalize(additions));
+            pt.fire(new TextBuffer.DecorateEvent(start, end, null));
+            execSuccess = true;
+        }
+    }
+
+    @Override
+    protected long getRetainedSize() {
+        // the splice, and the list of decoration models, which share their decorations
+        return PieceTable.retainedSize(splice) + 16L + 24L * decorationModels.size();
+    }
+
+    @Override
+    public String toString() {
+        return "TextDecorateAllCmd[" + decorationModels.size() + " models, " + start +
+                " x " + end + "]";
+    }
+}
+
 class ParagraphDecorateCmd extends AbstractCommand<PieceTable> {
 
     private int start;
@@ -1024,9 +1606,7 @@ class ParagraphDecorateCmd extends AbstractCommand<PieceTable> {
     private final ParagraphDecoration paragraphDecoration;
 
     private boolean execSuccess = false;
-    private int pieceIndex = -1;
-    private Collection<Piece> newPieces = new ArrayList<>();
-    private Collection<Piece> oldPieces = new ArrayList<>();
+    private PieceSplice splice;
 
     /**
      * Decorates the text within the given paragraph with the supplied decoration.
@@ -1043,12 +1623,9 @@ class ParagraphDecorateCmd extends AbstractCommand<PieceTable> {
     @Override
     protected void doUndo(PieceTable pt) {
         if (execSuccess) {
-            pt.pieces.addAll(pieceIndex, oldPieces);
-            pt.pieces.removeAll(newPieces);
-
-            oldPieces.forEach(piece -> {
-                pt.fire(new TextBuffer.DecorateEvent(piece.start, piece.start + piece.length, piece.decoration));
-            });
+            splice.undo(pt);
+            // the restored pieces can have different decorations
+            pt.fire(new TextBuffer.DecorateEvent(start, end, null));
         }
     }
 
@@ -1070,7 +1647,9 @@ class ParagraphDecorateCmd extends AbstractCommand<PieceTable> {
         pt.walkPieces((piece, pieceIndex, textPosition) -> {
             int pieceEndPosition = textPosition + piece.length + (start == pt.getTextLength() ? 0 : - 1);
             if (start <= pieceEndPosition && (end >= pieceEndPosition || end >= textPosition)) {
-                startPieceIndex[0] = pieceIndex;
+                if (removals.isEmpty()) {
+                    startPieceIndex[0] = pieceIndex;
+                }
                 if (start == pt.getTextLength()) {
                     int offset = start - textPosition;
                     if (offset > 0) {
@@ -1107,14 +1686,11 @@ class ParagraphDecorateCmd extends AbstractCommand<PieceTable> {
             return false;
         });
 
-        newPieces = additions.stream()
+        List<Piece> newPieces = additions.stream()
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        oldPieces = removals;
-        if (newPieces.size() > 0 || oldPieces.size() > 0) {
-            pieceIndex = startPieceIndex[0];
-            pt.pieces.addAll(pieceIndex, newPieces);
-            pt.pieces.removeAll(oldPieces);
+        if (newPieces.size() > 0 || removals.size() > 0) {
+            splice = PieceSplice.apply(pt, startPieceIndex[0], removals.size(), newPieces);
             pt.fire(new TextBuffer.DecorateEvent(start, end, paragraphDecoration));
             execSuccess = true;
         }
@@ -1125,6 +1701,11 @@ class ParagraphDecorateCmd extends AbstractCommand<PieceTable> {
         return start <= pieceEndPosition && (end >= pieceEndPosition || end >= textPosition);
     }
 
+    @Override
+    protected long getRetainedSize() {
+        return PieceTable.retainedSize(splice);
+    }
+
     @Override
     public String toString() {
         return "ParagraphDecorateCmd[" + start + " x " + end + "]";
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.util.Objects;
+
+/**
+ * A match of a {@link SearchQuery} in a {@link TextBuffer}.
+ * Its start and end are positions in the internal text of the text buffer, like the caret
+ * position or the selection, while its export start and end are the equivalent positions in
+ * the exportable text of the buffer, as returned by {@link TextBuffer#getText()}, where emojis
+ * take more than one character.
+ */
+public final class SearchMatch {
+
+    private final int start;
+    private final int end;
+    private final int exportStart;
+    private final int exportEnd;
+
+    SearchMatch(int start, int end, int exportStart, int exportEnd) {
+        this.start = start;
+        this.end = end;
+        this.exportStart = exportStart;
+        this.exportEnd = exportEnd;
+    }
+
+    /**
+     * Gets the start position of the match in the internal text
+     * @return the start position, inclusive
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the end position of the match in the internal text
+     * @return the end position, exclusive
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    public int getLength() {
+        return end - start;
+    }
+
+    /**
+     * Gets the start position of the match in the exportable text
+     * @return the start position, inclusive
+     */
+    public int getExportStart() {
+        return exportStart;
+    }
+
+    /**
+     * Gets the end position of the match in the exportable text
+     * @return the end position, exclusive
+     */
+    public int getExportEnd() {
+        return exportEnd;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SearchMatch that = (SearchMatch) o;
+        return start == that.start && end == that.end &&
+                exportStart == that.exportStart && exportEnd == that.exportEnd;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end, exportStart, exportEnd);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchMatch{" +
+                "start=" + start +
+                ", end=" + end +
+                ", exportStart=" + exportStart +
+                ", exportEnd=" + exportEnd +
+                '}';
+    }
+}
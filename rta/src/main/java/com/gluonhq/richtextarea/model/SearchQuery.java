@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * A query to find text in a {@link TextBuffer}, either a literal text or a regular expression.
+ * Queries are matched against the internal text of the text buffer, where each emoji or
+ * image is represented by a single anchor character that doesn't match regular text.
+ */
+public final class SearchQuery {
+
+    private final String text;
+    private final Pattern pattern;
+    private final boolean matchCase;
+
+    private SearchQuery(String text, Pattern pattern, boolean matchCase) {
+        this.text = text;
+        this.pattern = pattern;
+        this.matchCase = matchCase;
+    }
+
+    /**
+     * Creates a query that finds a literal text
+     * @param text the text to find
+     * @param matchCase true if the case of the text has to match, false to ignore it
+     * @return a literal query
+     * @throws IllegalArgumentException if the text is empty
+     */
+    public static SearchQuery literal(String text, boolean matchCase) {
+        if (Objects.requireNonNull(text).isEmpty()) {
+            throw new IllegalArgumentException("Search text can't be empty");
+        }
+        return new SearchQuery(text, null, matchCase);
+    }
+
+    /**
+     * Creates a query that finds the matches of a regular expression
+     * @param regex the regular expression
+     * @param matchCase true if the case of the text has to match, false to ignore it
+     * @return a regular expression query
+     * @throws java.util.regex.PatternSyntaxException if the regular expression is not valid
+     */
+    public static SearchQuery regex(String regex, boolean matchCase) {
+        return regex(Pattern.compile(Objects.requireNonNull(regex),
+                matchCase ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+    }
+
+    /**
+     * Creates a query that finds the matches of a compiled pattern. Its flags define whether
+     * the case of the text has to match.
+     * @param pattern the pattern
+     * @return a regular expression query
+     */
+    public static SearchQuery regex(Pattern pattern) {
+        return new SearchQuery(Objects.requireNonNull(pattern).pattern(), pattern,
+                (pattern.flags() & Pattern.CASE_INSENSITIVE) == 0);
+    }
+
+    /**
+     * Gets the literal text, or the regular expression, of this query
+     * @return the text of the query
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Gets the pattern of a regular expression query
+     * @return the pattern, or null if this is a literal query
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    public boolean isRegex() {
+        return pattern != null;
+    }
+
+    public boolean isMatchCase() {
+        return matchCase;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SearchQuery that = (SearchQuery) o;
+        return matchCase == that.matchCase && text.equals(that.text) &&
+                (pattern == null ? that.pattern == null : that.pattern != null && pattern.flags() == that.pattern.flags());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(text, pattern != null, matchCase);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchQuery{" +
+                (pattern != null ? "regex=" : "text=") + text +
+                ", matchCase=" + matchCase +
+                '}';
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * An incremental search over a {@link TextBuffer}, for find-as-you-type.
+ *
+ * The session keeps the positions of the matches of its query in the internal text of the
+ * buffer, and keeps them up to date without scanning the whole text again:
+ * <ul>
+ *     <li>when a literal query is extended, like when a character is typed in a search box,
+ *     the cached matches are narrowed, by checking the new query only at their positions;</li>
+ *     <li>when text is inserted or deleted, or a transaction is undone or redone, the matches
+ *     after the change are shifted, and only the range of text around the change that could hold
+ *     new or broken matches is scanned again. For regular expressions, that range is extended to
+ *     the paragraphs of the change, so new matches that span several paragraphs might not be found.</li>
+ * </ul>
+ * Any other query scans the whole text.
+ *
+ * Like {@link TextBuffer#findAll(SearchQuery)}, the matches don't overlap, and empty matches
+ * of regular expressions are skipped.
+ * The session listens to the text buffer until it is {@link #dispose() disposed}.
+ */
+public final class SearchSession {
+
+    private final TextBuffer textBuffer;
+    private final Consumer<TextBuffer.Event> textChangeListener = this::textChanged;
+    private final List<Consumer<SearchSession>> listeners = new ArrayList<>();
+
+    private SearchQuery query;
+
+    // sorted occurrences of the query, which can overlap for literal queries, so an extended
+    // query can be narrowed down from them
+    private int[] starts = new int[0];
+    private int[] ends = new int[0];
+    private int occurrenceCount;
+
+    // non-overlapping matches, resolved from the occurrences when they are requested
+    private int[] matchStarts;
+    private int[] matchEnds;
+    private int matchCount = -1;
+
+    /**
+     * Creates a search session, without query, bound to a text buffer
+     * @param textBuffer the text buffer to search
+     */
+    public SearchSession(TextBuffer textBuffer) {
+        this.textBuffer = Objects.requireNonNull(textBuffer);
+        textBuffer.addChangeListener(textChangeListener);
+    }
+
+    public SearchQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * Sets the query of the session, and updates its matches
+     * @param query the query to find, or null to clear the matches
+     */
+    public void setQuery(SearchQuery query) {
+        if (Objects.equals(this.query, query)) {
+            return;
+        }
+        SearchQuery previous = this.query;
+        this.query = query;
+        if (query == null) {
+            occurrenceCount = 0;
+        } else if (extendsLiteral(previous, query)) {
+            narrow();
+        } else {
+            scanAll();
+        }
+        matchesChanged();
+    }
+
+    /**
+     * Gets the number of matches of the query
+     * @return the number of matches
+     */
+    public int getMatchCount() {
+        resolveMatches();
+        return matchCount;
+    }
+
+    /**
+     * Gets the start position of a match in the internal text
+     * @param index the index of the match
+     * @return the start position, inclusive
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public int getMatchStart(int index) {
+        Objects.checkIndex(index, getMatchCount());
+        return matchStarts[index];
+    }
+
+    /**
+     * Gets the end position of a match in the internal text
+     * @param index the index of the match
+     * @return the end position, exclusive
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public int getMatchEnd(int index) {
+        Objects.checkIndex(index, getMatchCount());
+        return matchEnds[index];
+    }
+
+    /**
+     * Gets the index of the first match that starts at or after a given position, to
+     * navigate from the caret to the next match
+     * @param position the position within the internal text
+     * @return the index of the match, or -1 if there are no matches after the position
+     */
+    public int nextMatchIndex(int position) {
+        int count = getMatchCount();
+        int index = Arrays.binarySearch(matchStarts, 0, count, position);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < count ? index : -1;
+    }
+
+    /**
+     * Adds a listener that is notified every time the matches of the session change
+     * @param listener the listener
+     */
+    public void addMatchesListener(Consumer<SearchSession> listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeMatchesListener(Consumer<SearchSession> listener) {
+        listeners.remove(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Stops listening to the changes of the text buffer, and clears the matches
+     */
+    public void dispose() {
+        textBuffer.removeChangeListener(textChangeListener);
+        listeners.clear();
+        query = null;
+        occurrenceCount = 0;
+        matchCount = -1;
+    }
+
+    private void textChanged(TextBuffer.Event event) {
+        if (query == null) {
+            return;
+        }
+        if (event instanceof TextBuffer.InsertEvent) {
+            TextBuffer.InsertEvent insertEvent = (TextBuffer.InsertEvent) event;
+            update(insertEvent.getPosition(), 0, insertEvent.getText().length());
+        } else if (event instanceof TextBuffer.DeleteEvent) {
+            TextBuffer.DeleteEvent deleteEvent = (TextBuffer.DeleteEvent) event;
+            update(deleteEvent.getPosition(), deleteEvent.getLength(), 0);
+        } else if (event instanceof TextBuffer.TransactionEvent) {
+            TextBuffer.TransactionEvent transactionEvent = (TextBuffer.TransactionEvent) event;
+            if (transactionEvent.getRemovedLength() == 0 && transactionEvent.getInsertedLength() == 0) {
+                return;
+            }
+            update(transactionEvent.getPosition(), transactionEvent.getRemovedLength(), transactionEvent.getInsertedLength());
+        } else {
+            // decorations don't change the text
+            return;
+        }
+        matchesChanged();
+    }
+
+    private static boolean extendsLiteral(SearchQuery previous, SearchQuery query) {
+        return previous != null && !previous.isRegex() && !query.isRegex() &&
+                previous.isMatchCase() == query.isMatchCase() &&
+                query.getText().length() > previous.getText().length() &&
+                query.getText().regionMatches(!query.isMatchCase(), 0, previous.getText(), 0, previous.getText().length());
+    }
+
+    // each occurrence of the extended query is an occurrence of the previous one
+    private void narrow() {
+        TextSearch search = new TextSearch(textBuffer.getCharSequence(0, textBuffer.getTextLength()), query, 0);
+        int length = query.getText().length();
+        int count = 0;
+        for (int i = 0; i < occurrenceCount; i++) {
+            if (search.matchesAt(starts[i])) {
+                starts[count] = starts[i];
+                ends[count] = starts[i] + length;
+                count++;
+            }
+        }
+        occurrenceCount = count;
+    }
+
+    private void scanAll() {
+        occurrenceCount = 0;
+        scan(0, textBuffer.getTextLength(), 0);
+    }
+
+    /**
+     * Updates the occurrences after text was replaced
+     * @param position the position of the change
+     * @param removed the length of the removed text
+     * @param inserted the length of the inserted text
+     */
+    private void update(int position, int removed, int inserted) {
+        int delta = inserted - removed;
+        int textLength = textBuffer.getTextLength();
+        int windowStart, windowEnd;
+        if (query.isRegex()) {
+            windowStart = paragraphStart(position);
+            windowEnd = paragraphEnd(position + inserted, textLength);
+        } else {
+            int context = query.getText().length() - 1;
+            windowStart = Math.max(0, position - context);
+            windowEnd = Math.min(textLength, position + inserted + context);
+        }
+
+        // drops the occurrences that touched the removed text, or that are within the window
+        // once shifted, keeping the rest in order, and leaving room for the ones in the window
+        int insertIndex = -1;
+        int count = 0;
+        for (int i = 0; i < occurrenceCount; i++) {
+            int start = starts[i], end = ends[i];
+            if (start < position + removed && end > position) {
+                continue;
+            }
+            if (start >= position + removed) {
+                start += delta;
+                end += delta;
+            }
+            if (start >= windowStart && end <= windowEnd) {
+                continue;
+            }
+            if (query.isRegex() && start < windowEnd && end > windowStart) {
+                // a match of a regular expression that spans the paragraphs of the window
+                scanAll();
+                return;
+            }
+            if (insertIndex < 0 && start >= windowStart) {
+                insertIndex = count;
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+        occurrenceCount = count;
+        if (insertIndex < 0) {
+            insertIndex = count;
+        }
+        int[] tailStarts = Arrays.copyOfRange(starts, insertIndex, count);
+        int[] tailEnds = Arrays.copyOfRange(ends, insertIndex, count);
+        occurrenceCount = insertIndex;
+        scan(windowStart, windowEnd, windowStart);
+        for (int i = 0; i < tailStarts.length; i++) {
+            add(tailStarts[i], tailEnds[i]);
+        }
+    }
+
+    // appends the occurrences within a range of the text
+    private void scan(int start, int end, int offset) {
+        TextSearch search = new TextSearch(textBuffer.getCharSequence(start, end), query, 0);
+        boolean overlapping = !query.isRegex();
+        boolean found = search.find();
+        while (found) {
+            add(offset + search.start(), offset + search.end());
+            found = overlapping ? search.find(search.start() + 1) : search.find();
+        }
+    }
+
+    private void add(int start, int end) {
+        if (occurrenceCount == starts.length) {
+            int capacity = Math.max(16, occurrenceCount * 2);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        starts[occurrenceCount] = start;
+        ends[occurrenceCount] = end;
+        occurrenceCount++;
+    }
+
+    private int paragraphStart(int position) {
+        CharSequence text = textBuffer.getCharSequence(0, position);
+        int start = position;
+        while (start > 0 && text.charAt(start - 1) != '\n') {
+            start--;
+        }
+        return start;
+    }
+
+    private int paragraphEnd(int position, int textLength) {
+        CharSequence text = textBuffer.getCharSequence(position, textLength);
+        int end = 0;
+        while (end < text.length() && text.charAt(end) != '\n') {
+            end++;
+        }
+        return position + end;
+    }
+
+    private void resolveMatches() {
+        if (matchCount >= 0) {
+            return;
+        }
+        matchStarts = new int[occurrenceCount];
+        matchEnds = new int[occurrenceCount];
+        int count = 0;
+        int lastEnd = 0;
+        for (int i = 0; i < occurrenceCount; i++) {
+            if (starts[i] >= lastEnd) {
+                matchStarts[count] = starts[i];
+                matchEnds[count] = ends[i];
+                lastEnd = ends[i];
+                count++;
+            }
+        }
+        matchCount = count;
+    }
+
+    private void matchesChanged() {
+        matchCount = -1;
+        listeners.forEach(l -> l.accept(this));
+    }
+}
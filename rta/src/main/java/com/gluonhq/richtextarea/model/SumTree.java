@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+/**
+ * A balanced binary tree over a sequence of rows of non-negative integer values, with the same
+ * number of columns, that finds the sum of any prefix of a column, updates a single value, finds
+ * the row that holds a given cumulative position of a column, and inserts or removes rows, all in
+ * O(log n) expected time.
+ *
+ * Each node holds the sums of its subtree. The tree is kept balanced by merging subtrees at random,
+ * with a probability proportional to their sizes.
+ */
+final class SumTree {
+
+    private static final class Node {
+        private final int[] values;
+        private final int[] sums;
+        private int size;
+        private Node left, right;
+
+        private Node(int[] values) {
+            this.values = values.clone();
+            this.sums = values.clone();
+            this.size = 1;
+        }
+    }
+
+    private final int columns;
+    private Node root;
+    // xorshift state, so the shape of the tree is the same for the same operations
+    private int seed = 0x2545f491;
+
+    /**
+     * Builds a balanced tree with the given rows, in O(n)
+     * @param columns the number of columns of each row
+     * @param rows the rows
+     * @throws IllegalArgumentException if a row doesn't have the given number of columns
+     */
+    SumTree(int columns, int[][] rows) {
+        this.columns = columns;
+        this.root = build(rows, 0, rows.length);
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Gets a value
+     * @param index the index of the row
+     * @param column the column
+     * @return the value
+     */
+    int get(int index, int column) {
+        checkIndex(index, size());
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.values[column];
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Adds a delta to a value
+     * @param index the index of the row
+     * @param column the column
+     * @param delta the delta to add
+     */
+    void add(int index, int column, int delta) {
+        checkIndex(index, size());
+        Node node = root;
+        while (true) {
+            node.sums[column] += delta;
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                node.values[column] += delta;
+                return;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Gets the sum of the values of a column before an index
+     * @param column the column
+     * @param index the index, from 0 to size
+     * @return the sum of the values in [0, index)
+     */
+    int prefixSum(int column, int index) {
+        int sum = 0;
+        Node node = root;
+        while (node != null && index > 0) {
+            int leftSize = size(node.left);
+            if (index <= leftSize) {
+                node = node.left;
+            } else {
+                sum += sum(node.left, column) + node.values[column];
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the sum of the values of a column in a range
+     * @param column the column
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return the sum of the values in [from, to)
+     */
+    int sum(int column, int from, int to) {
+        return prefixSum(column, to) - prefixSum(column, from);
+    }
+
+    /**
+     * Finds the row that holds a position, when the values of a column are the lengths of
+     * consecutive ranges
+     * @param column the column
+     * @param position the position
+     * @return the index of the first row whose range ends after the position, or size if
+     * the position is after all of them
+     */
+    int indexOf(int column, int position) {
+        int index = 0;
+        int remaining = position;
+        Node node = root;
+        while (node != null) {
+            int leftSum = sum(node.left, column);
+            if (remaining < leftSum) {
+                node = node.left;
+            } else if (remaining < leftSum + node.values[column]) {
+                return index + size(node.left);
+            } else {
+                remaining -= leftSum + node.values[column];
+                index += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Inserts rows
+     * @param index the index of the first inserted row, from 0 to size
+     * @param rows the rows
+     * @throws IllegalArgumentException if a row doesn't have the number of columns of the tree
+     */
+    void insert(int index, int[][] rows) {
+        checkIndex(index, size() + 1);
+        Node[] parts = split(root, index);
+        root = merge(merge(parts[0], build(rows, 0, rows.length)), parts[1]);
+    }
+
+    /**
+     * Removes rows
+     * @param index the index of the first removed row
+     * @param count the number of rows to remove
+     */
+    void remove(int index, int count) {
+        checkIndex(index, size() + 1);
+        checkIndex(index + count, size() + 1);
+        Node[] parts = split(root, index);
+        root = merge(parts[0], split(parts[1], count)[1]);
+    }
+
+    private Node build(int[][] rows, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        if (rows[middle].length != columns) {
+            throw new IllegalArgumentException("Row has " + rows[middle].length + " columns instead of " + columns);
+        }
+        Node node = new Node(rows[middle]);
+        node.left = build(rows, from, middle);
+        node.right = build(rows, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    // splits a subtree into its first count rows and the rest
+    private Node[] split(Node node, int count) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (count <= size(node.left)) {
+            Node[] parts = split(node.left, count);
+            node.left = parts[1];
+            update(node);
+            parts[1] = node;
+            return parts;
+        }
+        Node[] parts = split(node.right, count - size(node.left) - 1);
+        node.right = parts[0];
+        update(node);
+        parts[0] = node;
+        return parts;
+    }
+
+    // merges two subtrees, with the rows of the first one before the rows of the second one
+    private Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (Integer.remainderUnsigned(nextRandom(), first.size + second.size) < first.size) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    private void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        for (int i = 0; i < columns; i++) {
+            node.sums[i] = node.values[i] + sum(node.left, i) + sum(node.right, i);
+        }
+    }
+
+    private int nextRandom() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int sum(Node node, int column) {
+        return node == null ? 0 : node.sums[column];
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Index " + index + " is not in range [0, " + size + ")");
+        }
+    }
+}
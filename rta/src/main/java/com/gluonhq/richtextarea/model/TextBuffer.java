@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -28,10 +28,13 @@
 package com.gluonhq.richtextarea.model;
 
 import com.gluonhq.richtextarea.Selection;
+import com.gluonhq.richtextarea.undo.Checkpoint;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 
+import java.io.IOException;
 import java.text.CharacterIterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -47,12 +50,35 @@ public interface TextBuffer {
     ReadOnlyIntegerProperty textLengthProperty();
     String getText();
     String getText(int start, int end);
+
+    /**
+     * Writes the exportable text between a starting point and an ending position to an {@link Appendable},
+     * and passes its decorations, merged into runs, to a consumer, while walking the text once. Neither the
+     * full text nor the full list of decorations need to be held in memory, which makes it suitable to export
+     * large documents to a stream.
+     * @param appendable the appendable that gets the text, or null if not needed
+     * @param start start position within text, inclusive
+     * @param end end position within text, exclusive
+     * @param decorationSink the consumer of the decoration runs, or null if not needed
+     * @throws IOException if the appendable fails
+     */
+    void writeTo(Appendable appendable, int start, int end, Consumer<DecorationModel> decorationSink) throws IOException;
     int getInternalPosition(int position);
     Selection getInternalSelection(Selection selection);
     List<DecorationModel> getDecorationModelList(int start, int end);
 
     CharacterIterator getCharacterIterator();
     char charAt(int pos);
+
+    /**
+     * Returns a read-only view of the internal text between a starting point and an ending position,
+     * that can be used for bulk or sequential access, like regular expression matching, without
+     * copying the text.
+     * @param start start position within text, inclusive
+     * @param end end position within text, exclusive
+     * @return a {@link CharSequence} with the internal text of the given range
+     */
+    CharSequence getCharSequence(int start, int end);
     List<Integer> getLineFeeds();
     void resetCharacterIterator();
 
@@ -68,9 +94,85 @@ public interface TextBuffer {
      */
     void decorate(int start, int end, Decoration decoration);
 
+    /**
+     * Adds the text decorations of a list of decoration models to the text in their ranges, at
+     * once, as a single change that is undone at once and fires a single {@link DecorateEvent}.
+     * The ranges can be in any order, and where they overlap, the decoration of the model that
+     * comes last in the list wins. Paragraph decorations of the models are not applied.
+     * @param decorationModels the decoration models with the ranges and the text decorations to apply
+     * @throws IllegalArgumentException if a model doesn't have a {@link TextDecoration}, or its
+     * start is outside of the text bounds
+     */
+    void decorateAll(List<DecorationModel> decorationModels);
+
+    /**
+     * Finds the first match of a query that starts at or after a given position, streaming
+     * over the text without copying it
+     * @param query the query to find
+     * @param from the position within the internal text to start from
+     * @return the match, or empty if there are no more matches
+     * @throws IllegalArgumentException if the position is outside of the text bounds
+     */
+    Optional<SearchMatch> find(SearchQuery query, int from);
+
+    /**
+     * Finds all the non-overlapping matches of a query, in order, streaming over the text
+     * without copying it. Empty matches of regular expressions are skipped.
+     * @param query the query to find
+     * @return the list of matches
+     */
+    List<SearchMatch> findAll(SearchQuery query);
+
+    /**
+     * Replaces all the matches of a query at once, as a single change that is undone at once
+     * and fires a single {@link TransactionEvent}. For regular expressions, the replacement can
+     * refer to captured groups, as in {@link java.util.regex.Matcher#appendReplacement(StringBuilder, String)}.
+     * @param query the query to find
+     * @param replacement the text that replaces each match
+     * @return the number of replaced matches
+     */
+    int replaceAll(SearchQuery query, String replacement);
+
     void undo();
     void redo();
 
+    /**
+     * Starts recording the changes done to this text buffer into a single transaction, instead
+     * of its undo history, until {@link #endTransaction()} is called.
+     * @throws IllegalStateException if a transaction is already in progress
+     */
+    void beginTransaction();
+
+    /**
+     * Ends the transaction in progress, and returns it, so its changes can be undone and redone
+     * at once by the caller.
+     * @return the transaction with the changes done since {@link #beginTransaction()} was called
+     * @throws IllegalStateException if there is no transaction in progress
+     */
+    Transaction endTransaction();
+
+    /**
+     * Takes a checkpoint of the current content of this text buffer, that can be restored
+     * at once, without undoing the changes done after it.
+     * A checkpoint is only valid as long as the changes done to the text buffer after it are
+     * kept in an undo history, so restoring it is equivalent to undoing them.
+     * @return a checkpoint of the text buffer
+     */
+    Checkpoint createCheckpoint();
+
+    /**
+     * Releases the decorations that were only kept to undo changes, after the undo history
+     * that held those changes has been trimmed or cleared
+     */
+    void compactDecorations();
+
+    /**
+     * Applies a batch of changes to this text buffer, like undoing or redoing several
+     * transactions, firing a single {@link TransactionEvent} once all of them are done
+     * @param changes the changes to apply
+     */
+    void runAsBatch(Runnable changes);
+
     void walkFragments(BiConsumer<Unit, Decoration> onFragment, int start, int end);
 
     void addChangeListener(Consumer<TextBuffer.Event> listener);
@@ -80,6 +182,37 @@ public interface TextBuffer {
     void setDecorationAtCaret(TextDecoration decoration);
     ParagraphDecoration getParagraphDecorationAtCaret(int caretPosition);
 
+    /**
+     * Returns a copy of the text buffer that is not affected by further changes, and
+     * that can be read from a background thread
+     * @return a snapshot of the text buffer
+     */
+    TextBuffer snapshot();
+
+    /**
+     * A batch of changes done to a text buffer, that are undone and redone atomically, firing
+     * a single {@link TransactionEvent}
+     */
+    interface Transaction {
+
+        void undo();
+        void redo();
+        boolean isEmpty();
+
+        /**
+         * Appends the changes of a transaction of the same text buffer that was ended right
+         * after this one, so both are undone and redone at once
+         * @param next the transaction that was ended after this one
+         */
+        void merge(Transaction next);
+
+        /**
+         * Gets an estimation of the number of bytes retained to undo and redo the changes
+         * @return the estimated retained size, in bytes
+         */
+        long getRetainedSize();
+    }
+
     interface Event {}
 
     class InsertEvent implements Event {
@@ -120,6 +253,53 @@ public interface TextBuffer {
         }
     }
 
+    /**
+     * An event fired once after a batch of changes, with the smallest range of the text that
+     * contains all of them: the text outside of it didn't change
+     */
+    class TransactionEvent implements Event {
+
+        private final boolean undo;
+        private final int position;
+        private final int removedLength;
+        private final int insertedLength;
+
+        TransactionEvent(boolean undo, int position, int removedLength, int insertedLength) {
+            this.undo = undo;
+            this.position = position;
+            this.removedLength = removedLength;
+            this.insertedLength = insertedLength;
+        }
+
+        public boolean isUndo() {
+            return undo;
+        }
+
+        /**
+         * Gets the position where the changed range starts
+         * @return the start of the range, in the text before and after the changes
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Gets the length of the range in the text before the changes
+         * @return the length of the text that was replaced
+         */
+        public int getRemovedLength() {
+            return removedLength;
+        }
+
+        /**
+         * Gets the length of the range in the text after the changes
+         * @return the length of the text that replaced the range, that is zero if nothing changed
+         */
+        public int getInsertedLength() {
+            return insertedLength;
+        }
+    }
+
     class DecorateEvent implements Event {
 
         private final int start;
@@ -140,6 +320,10 @@ public interface TextBuffer {
             return end;
         }
 
+        /**
+         * Gets the decoration that was applied
+         * @return the decoration, or null if several decorations were applied at once
+         */
         public Decoration getDecoration() {
             return decoration;
         }
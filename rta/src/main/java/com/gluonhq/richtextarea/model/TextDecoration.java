@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -31,10 +31,19 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Objects;
 
 import static com.gluonhq.richtextarea.RichTextAreaSkin.DEFAULT_FONT_SIZE;
 import static com.gluonhq.richtextarea.Tools.getFirstLetter;
+import static com.gluonhq.richtextarea.model.DocumentCodec.readEnum;
+import static com.gluonhq.richtextarea.model.DocumentCodec.readString;
+import static com.gluonhq.richtextarea.model.DocumentCodec.readVarInt;
+import static com.gluonhq.richtextarea.model.DocumentCodec.writeEnum;
+import static com.gluonhq.richtextarea.model.DocumentCodec.writeString;
+import static com.gluonhq.richtextarea.model.DocumentCodec.writeVarInt;
 
 /**
  * TextDecoration is a {@link Decoration} that can be applied to a fragment of text in order to generate
@@ -42,6 +51,9 @@ import static com.gluonhq.richtextarea.Tools.getFirstLetter;
  */
 public class TextDecoration implements Decoration {
 
+    // the serialized form of previous versions, that didn't declare it
+    private static final long serialVersionUID = -5253617454909240102L;
+
     private String foreground;
     private String background;
     private String fontFamily;
@@ -190,6 +202,42 @@ public class TextDecoration implements Decoration {
         return td;
     }
 
+    /*
+     * Writes the decoration for the binary format of the document, with a bit mask
+     * of the non-null attributes followed by their values
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int mask = (foreground != null ? 1 : 0) | (background != null ? 1 << 1 : 0) |
+                (fontFamily != null ? 1 << 2 : 0) | (fontPosture != null ? 1 << 3 : 0) |
+                (fontWeight != null ? 1 << 4 : 0) | (strikethrough != null ? 1 << 5 : 0) |
+                (underline != null ? 1 << 6 : 0) | (url != null ? 1 << 7 : 0);
+        writeVarInt(out, mask);
+        if (foreground != null) writeString(out, foreground);
+        if (background != null) writeString(out, background);
+        if (fontFamily != null) writeString(out, fontFamily);
+        out.writeDouble(fontSize);
+        if (fontPosture != null) writeEnum(out, fontPosture);
+        if (fontWeight != null) writeEnum(out, fontWeight);
+        if (strikethrough != null) out.writeBoolean(strikethrough);
+        if (underline != null) out.writeBoolean(underline);
+        if (url != null) writeString(out, url);
+    }
+
+    static TextDecoration readFrom(DataInput in) throws IOException {
+        int mask = readVarInt(in);
+        TextDecoration td = new TextDecoration();
+        if ((mask & 1) != 0) td.foreground = readString(in);
+        if ((mask & 1 << 1) != 0) td.background = readString(in);
+        if ((mask & 1 << 2) != 0) td.fontFamily = readString(in);
+        td.fontSize = in.readDouble();
+        if ((mask & 1 << 3) != 0) td.fontPosture = readEnum(in, FontPosture.values());
+        if ((mask & 1 << 4) != 0) td.fontWeight = readEnum(in, FontWeight.values());
+        if ((mask & 1 << 5) != 0) td.strikethrough = in.readBoolean();
+        if ((mask & 1 << 6) != 0) td.underline = in.readBoolean();
+        if ((mask & 1 << 7) != 0) td.url = readString(in);
+        return td;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
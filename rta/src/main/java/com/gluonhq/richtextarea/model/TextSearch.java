@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Matcher;
+
+/**
+ * Streams the matches of a {@link SearchQuery} over a snapshot of the pieces of a piece table,
+ * without copying its text: literal queries are matched with a Boyer-Moore-Horspool search,
+ * and regular expressions with a {@link Matcher}, both over the {@link PieceCharSequence} view,
+ * so matches can span several pieces.
+ * The positions in the exportable text are mapped while walking the pieces forward, as the
+ * matches are found in order.
+ */
+final class TextSearch {
+
+    private static final int SHIFT_TABLE_SIZE = 256;
+
+    private final PieceTable pt;
+    private final CharSequence text;
+    private final boolean matchCase;
+
+    // literal
+    private final char[] needle;
+    private final int[] shifts;
+    // regular expression
+    private final Matcher matcher;
+    private boolean firstFind = true;
+    private int appendPosition;
+
+    private int from;
+    private int start = -1;
+    private int end = -1;
+
+    // cursor that maps internal positions into exportable positions
+    private int pieceIndex;
+    private int piecePosition;
+    private int exportPosition;
+
+    TextSearch(PieceTable pt, SearchQuery query, int from) {
+        this(Objects.requireNonNull(pt), pt.getCharSequence(0, pt.getTextLength()), query, from);
+    }
+
+    /**
+     * Creates a search over a range of text, that only finds the positions of the matches,
+     * as there are no pieces to map them into exportable positions
+     * @param text the text
+     * @param query the query to find
+     * @param from the position within the text to start from
+     */
+    TextSearch(CharSequence text, SearchQuery query, int from) {
+        this(null, text, query, from);
+    }
+
+    private TextSearch(PieceTable pt, CharSequence text, SearchQuery query, int from) {
+        if (from < 0 || from > text.length()) {
+            throw new IllegalArgumentException("Position " + from + " is outside of text bounds [0, " + text.length() + "]");
+        }
+        this.pt = pt;
+        this.text = text;
+        this.matchCase = query.isMatchCase();
+        this.from = from;
+        if (query.isRegex()) {
+            needle = null;
+            shifts = null;
+            matcher = query.getPattern().matcher(text);
+        } else {
+            matcher = null;
+            needle = new char[query.getText().length()];
+            for (int i = 0; i < needle.length; i++) {
+                needle[i] = fold(query.getText().charAt(i));
+            }
+            // chars are hashed into the table by their lowest byte, keeping the smallest shift
+            shifts = new int[SHIFT_TABLE_SIZE];
+            Arrays.fill(shifts, needle.length);
+            for (int i = 0; i < needle.length - 1; i++) {
+                shifts[needle[i] % SHIFT_TABLE_SIZE] = needle.length - 1 - i;
+            }
+        }
+    }
+
+    /**
+     * Finds the next non-empty match, that doesn't overlap the previous one
+     * @return true if a match was found
+     */
+    boolean find() {
+        if (matcher != null) {
+            boolean found = firstFind ? matcher.find(from) : matcher.find();
+            firstFind = false;
+            while (found && matcher.end() == matcher.start()) {
+                found = matcher.find();
+            }
+            start = found ? matcher.start() : -1;
+            end = found ? matcher.end() : -1;
+        } else {
+            start = findLiteral(from);
+            end = start < 0 ? -1 : start + needle.length;
+        }
+        if (start >= 0) {
+            from = end;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the next non-empty match that starts at or after a given position, that can
+     * overlap the previous one
+     * @param from the position within the text to start from
+     * @return true if a match was found
+     */
+    boolean find(int from) {
+        this.from = from;
+        firstFind = true;
+        return find();
+    }
+
+    /**
+     * Checks whether a literal query matches the text at a given position
+     * @param position the position within the text
+     * @return true if the text from the position matches the literal query
+     */
+    boolean matchesAt(int position) {
+        if (needle == null || position < 0 || position + needle.length > text.length()) {
+            return false;
+        }
+        for (int j = 0; j < needle.length; j++) {
+            if (fold(text.charAt(position + j)) != needle[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return end;
+    }
+
+    /**
+     * Gets the current match, with its positions in the internal and exportable text
+     * @return the current match
+     */
+    SearchMatch getMatch() {
+        int exportStart = toExportPosition(start);
+        return new SearchMatch(start, end, exportStart, toExportPosition(end));
+    }
+
+    /**
+     * Gets the text that replaces the current match. For regular expressions, the replacement
+     * can refer to captured groups, as in {@link Matcher#appendReplacement(StringBuilder, String)}
+     * @param replacement the replacement
+     * @return the replacement for the current match
+     */
+    String getReplacement(String replacement) {
+        if (matcher == null || (replacement.indexOf('$') < 0 && replacement.indexOf('\\') < 0)) {
+            return replacement;
+        }
+        // the text between the previous replaced match and this one is appended first
+        StringBuilder sb = new StringBuilder();
+        int prefixLength = matcher.start() - appendPosition;
+        matcher.appendReplacement(sb, replacement);
+        appendPosition = matcher.end();
+        return sb.substring(prefixLength);
+    }
+
+    private int findLiteral(int from) {
+        int last = needle.length - 1;
+        int limit = text.length() - needle.length;
+        int i = from;
+        while (i <= limit) {
+            int j = last;
+            while (fold(text.charAt(i + j)) == needle[j]) {
+                if (j == 0) {
+                    return i;
+                }
+                j--;
+            }
+            i += shifts[fold(text.charAt(i + last)) % SHIFT_TABLE_SIZE];
+        }
+        return -1;
+    }
+
+    private char fold(char c) {
+        return matchCase ? c : Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // positions are expected in non-decreasing order
+    private int toExportPosition(int position) {
+        while (pieceIndex < pt.pieces.size()) {
+            Piece piece = pt.pieces.get(pieceIndex);
+            if (position < piecePosition + piece.length) {
+                break;
+            }
+            exportPosition += exportLength(piece);
+            piecePosition += piece.length;
+            pieceIndex++;
+        }
+        // non-text units take a single internal position, so they are never split
+        return exportPosition + position - piecePosition;
+    }
+
+    private int exportLength(Piece piece) {
+        if (piece.length == 1) {
+            char c = text.charAt(piecePosition);
+            if (c == TextBuffer.EMOJI_ANCHOR_TEXT.charAt(0) || c == TextBuffer.OBJECT_REPLACEMENT_CHARACTER_TEXT.charAt(0)) {
+                return piece.getUnit().getText().length();
+            }
+        }
+        return piece.length;
+    }
+}
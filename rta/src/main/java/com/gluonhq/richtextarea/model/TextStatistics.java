@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Word, character and paragraph counts of a {@link TextBuffer}, that are kept up to date as
+ * the text changes, without reading the whole text again.
+ *
+ * The lengths, words and characters of each paragraph are aggregated in a {@link SumTree}, with
+ * a row for each paragraph. Insert and delete events update the lengths of the paragraphs they
+ * touch, inserting or removing rows in place when line feeds are inserted or deleted, and mark
+ * them as dirty, so only those paragraphs are counted again, the next time any count is requested.
+ * The counts of a range of text, like the selection, are found with range queries over the
+ * trees, counting only the paragraphs at both ends of the range.
+ *
+ * Characters are counted in the internal text, so each emoji or image counts as a single
+ * character, and line feeds are not counted. Words are counted with a word
+ * {@link BreakIterator}, as the segments that start with a letter or a digit.
+ * The statistics listen to the text buffer until they are {@link #dispose() disposed}.
+ */
+public final class TextStatistics {
+
+    // columns of the rows of the paragraphs: lengths include the line feed that ends each
+    // paragraph, but the last one, and dirty paragraphs have a dirty value of 1
+    private static final int LENGTH = 0;
+    private static final int WORDS = 1;
+    private static final int CHARACTERS = 2;
+    private static final int DIRTY = 3;
+
+    private final TextBuffer textBuffer;
+    private final Consumer<TextBuffer.Event> textChangeListener = this::textChanged;
+    private final List<Consumer<TextStatistics>> listeners = new ArrayList<>();
+    private final BreakIterator wordIterator = BreakIterator.getWordInstance();
+
+    private SumTree paragraphs;
+
+    /**
+     * Creates the statistics of a text buffer, splitting its text into paragraphs
+     * @param textBuffer the text buffer
+     */
+    public TextStatistics(TextBuffer textBuffer) {
+        this.textBuffer = Objects.requireNonNull(textBuffer);
+        rebuild();
+        textBuffer.addChangeListener(textChangeListener);
+    }
+
+    public int getParagraphCount() {
+        return paragraphs.size();
+    }
+
+    public int getWordCount() {
+        flush();
+        return paragraphs.prefixSum(WORDS, paragraphs.size());
+    }
+
+    public int getCharacterCount() {
+        flush();
+        return paragraphs.prefixSum(CHARACTERS, paragraphs.size());
+    }
+
+    /**
+     * Gets the number of words in a range of the internal text. A word that is partially in
+     * the range is counted as a word.
+     * @param start the start position, inclusive
+     * @param end the end position, exclusive
+     * @return the number of words in the range
+     * @throws IllegalArgumentException if the range is outside of the text bounds
+     */
+    public int getWordCount(int start, int end) {
+        return count(start, end, true);
+    }
+
+    /**
+     * Gets the number of characters in a range of the internal text
+     * @param start the start position, inclusive
+     * @param end the end position, exclusive
+     * @return the number of characters in the range
+     * @throws IllegalArgumentException if the range is outside of the text bounds
+     */
+    public int getCharacterCount(int start, int end) {
+        return count(start, end, false);
+    }
+
+    /**
+     * Adds a listener that is notified every time the text changes, once the statistics
+     * are ready to be queried
+     * @param listener the listener
+     */
+    public void addStatisticsListener(Consumer<TextStatistics> listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeStatisticsListener(Consumer<TextStatistics> listener) {
+        listeners.remove(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Stops listening to the changes of the text buffer
+     */
+    public void dispose() {
+        textBuffer.removeChangeListener(textChangeListener);
+        listeners.clear();
+    }
+
+    private void textChanged(TextBuffer.Event event) {
+        if (event instanceof TextBuffer.InsertEvent) {
+            TextBuffer.InsertEvent insertEvent = (TextBuffer.InsertEvent) event;
+            insert(insertEvent.getPosition(), insertEvent.getText());
+        } else if (event instanceof TextBuffer.DeleteEvent) {
+            TextBuffer.DeleteEvent deleteEvent = (TextBuffer.DeleteEvent) event;
+            delete(deleteEvent.getPosition(), deleteEvent.getLength());
+        } else if (event instanceof TextBuffer.TransactionEvent) {
+            TextBuffer.TransactionEvent transactionEvent = (TextBuffer.TransactionEvent) event;
+            int position = transactionEvent.getPosition();
+            int insertedLength = transactionEvent.getInsertedLength();
+            if (transactionEvent.getRemovedLength() == 0 && insertedLength == 0) {
+                return;
+            }
+            // only the range of the transaction is replaced
+            if (transactionEvent.getRemovedLength() > 0) {
+                delete(position, transactionEvent.getRemovedLength());
+            }
+            insert(position, textBuffer.getCharSequence(position, position + insertedLength).toString());
+        } else {
+            // decorations don't change the text
+            return;
+        }
+        listeners.forEach(l -> l.accept(this));
+    }
+
+    private void insert(int position, String text) {
+        int index = paragraphAt(position);
+        int offset = position - paragraphs.prefixSum(LENGTH, index);
+        int lineFeed = text.indexOf('\n');
+        if (lineFeed < 0) {
+            paragraphs.add(index, LENGTH, text.length());
+            markDirty(index);
+            return;
+        }
+        // the paragraph is split at each line feed of the text
+        List<Integer> newLengths = new ArrayList<>();
+        newLengths.add(offset + lineFeed + 1);
+        int next = text.indexOf('\n', lineFeed + 1);
+        while (next >= 0) {
+            newLengths.add(next - lineFeed);
+            lineFeed = next;
+            next = text.indexOf('\n', lineFeed + 1);
+        }
+        newLengths.add(text.length() - lineFeed - 1 + paragraphs.get(index, LENGTH) - offset);
+        replace(index, 1, newLengths.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private void delete(int position, int length) {
+        int first = paragraphAt(position);
+        int last = paragraphAt(position + length);
+        if (first == last) {
+            paragraphs.add(first, LENGTH, -length);
+            markDirty(first);
+            return;
+        }
+        // the paragraphs are joined, keeping the text before and after the deleted range
+        int joinedLength = paragraphs.sum(LENGTH, first, last + 1) - length;
+        replace(first, last - first + 1, new int[] {joinedLength});
+    }
+
+    // replaces a range of paragraphs with new dirty ones, in place
+    private void replace(int index, int removedCount, int[] newLengths) {
+        paragraphs.remove(index, removedCount);
+        paragraphs.insert(index, createRows(newLengths, newLengths.length));
+    }
+
+    private void markDirty(int index) {
+        if (paragraphs.get(index, DIRTY) == 0) {
+            paragraphs.add(index, DIRTY, 1);
+        }
+    }
+
+    // splits the whole text into dirty paragraphs
+    private void rebuild() {
+        int textLength = textBuffer.getTextLength();
+        CharSequence text = textBuffer.getCharSequence(0, textLength);
+        int[] newLengths = new int[16];
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i <= textLength; i++) {
+            if (i == textLength || text.charAt(i) == '\n') {
+                if (count == newLengths.length) {
+                    newLengths = Arrays.copyOf(newLengths, count * 2);
+                }
+                newLengths[count++] = Math.min(i + 1, textLength) - start;
+                start = i + 1;
+            }
+        }
+        paragraphs = new SumTree(4, createRows(newLengths, count));
+    }
+
+    private static int[][] createRows(int[] lengths, int count) {
+        int[][] rows = new int[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new int[] {lengths[i], 0, 0, 1};
+        }
+        return rows;
+    }
+
+    // counts the dirty paragraphs again
+    private void flush() {
+        if (paragraphs.prefixSum(DIRTY, paragraphs.size()) == 0) {
+            return;
+        }
+        CharSequence text = textBuffer.getCharSequence(0, textBuffer.getTextLength());
+        // the first dirty paragraph is the one that holds the first dirty position
+        for (int i = paragraphs.indexOf(DIRTY, 0); i < paragraphs.size(); i = paragraphs.indexOf(DIRTY, 0)) {
+            int start = paragraphs.prefixSum(LENGTH, i);
+            String paragraph = text.subSequence(start, start + paragraphs.get(i, LENGTH)).toString();
+            paragraphs.add(i, WORDS, countWords(paragraph) - paragraphs.get(i, WORDS));
+            paragraphs.add(i, CHARACTERS, countCharacters(paragraph) - paragraphs.get(i, CHARACTERS));
+            paragraphs.add(i, DIRTY, -1);
+        }
+    }
+
+    private int count(int start, int end, boolean countWords) {
+        int textLength = textBuffer.getTextLength();
+        if (start < 0 || end > textLength || start > end) {
+            throw new IllegalArgumentException("Range [" + start + ", " + end + ") is not in range [0, " + textLength + "]");
+        }
+        flush();
+        if (start == end) {
+            return 0;
+        }
+        int first = paragraphAt(start);
+        int last = paragraphAt(end);
+        if (first == last) {
+            return countRange(start, end, countWords);
+        }
+        // the paragraphs between both ends are fully within the range
+        int column = countWords ? WORDS : CHARACTERS;
+        int lastStart = paragraphs.prefixSum(LENGTH, last);
+        return countRange(start, paragraphs.prefixSum(LENGTH, first + 1), countWords) +
+                paragraphs.sum(column, first + 1, last) +
+                countRange(lastStart, end, countWords);
+    }
+
+    private int countRange(int start, int end, boolean countWords) {
+        if (start == end) {
+            return 0;
+        }
+        String text = textBuffer.getCharSequence(start, end).toString();
+        return countWords ? countWords(text) : countCharacters(text);
+    }
+
+    private int countWords(String text) {
+        int count = 0;
+        wordIterator.setText(text);
+        int start = wordIterator.first();
+        for (int end = wordIterator.next(); end != BreakIterator.DONE; start = end, end = wordIterator.next()) {
+            if (Character.isLetterOrDigit(text.codePointAt(start))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countCharacters(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\n' && !Character.isLowSurrogate(c)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int paragraphAt(int position) {
+        return Math.min(paragraphs.indexOf(LENGTH, position), paragraphs.size() - 1);
+    }
+}
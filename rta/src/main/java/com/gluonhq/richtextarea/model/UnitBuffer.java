@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2023, Gluon
+ * Copyright (c) 2023, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -34,6 +34,7 @@ import com.gluonhq.emoji.util.TextUtils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.IntConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -60,6 +61,7 @@ public class UnitBuffer {
     private static final Pattern BLOCK_PATTERN = Pattern.compile(
             TextBuffer.ZERO_WIDTH_NO_BREAK_SPACE_TEXT + "([@#])([\\p{L}\\p{N}\\p{P}\\s]*)" + TextBuffer.ZERO_WIDTH_NO_BREAK_SPACE_TEXT,
             Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
+    private static final char BLOCK_MARKER = TextBuffer.ZERO_WIDTH_NO_BREAK_SPACE_TEXT.charAt(0);
 
     final List<Unit> unitList;
     volatile boolean dirty = true;
@@ -103,6 +105,42 @@ public class UnitBuffer {
         return this.internalText;
     }
 
+    /**
+     * Gets the internal text of the unit buffer between a starting point and an ending position
+     * @param start start position within the internal text, inclusive
+     * @param end end position within the internal text, exclusive
+     * @return a string with the internal text representation of the given range
+     */
+    public String getInternalText(int start, int end) {
+        return getInternalText().substring(start, end);
+    }
+
+    /**
+     * Gets a read-only view of the internal text of the unit buffer, for random or sequential
+     * access to its chars. Buffers that don't hold their text on the heap can return a view
+     * that doesn't copy it.
+     * @return a char sequence with the internal text representation
+     */
+    public CharSequence getInternalCharSequence() {
+        return getInternalText();
+    }
+
+    /**
+     * Finds all the indices of a given character within a range of the internal text
+     * @param c the character to find
+     * @param start start position within the internal text, inclusive
+     * @param end end position within the internal text, exclusive
+     * @param consumer the consumer of each index found
+     */
+    public void indicesOf(char c, int start, int end, IntConsumer consumer) {
+        CharSequence text = getInternalCharSequence();
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) {
+                consumer.accept(i);
+            }
+        }
+    }
+
     /**
      * Gets the internal length of the unit buffer. Useful for Piece operations
      * @return an integer value of the internal number of positions that the unit spans
@@ -232,24 +270,78 @@ public class UnitBuffer {
 
     /**
      * Utility method that parses an external text that might contain emoji unicode characters
-     * and returns a UnitBuffer
+     * and returns a UnitBuffer.
+     * The text is scanned once: runs of plain characters, that can't be part of an emoji or a
+     * block, are added as text units directly, and only the spans with other characters are
+     * parsed for emojis and blocks. Plain text results in a single TextUnit.
      * @param text a string that might contain emoji unicode characters
      * @return a UnitBuffer with a list of units.
      */
     public static UnitBuffer convertTextToUnits(String text) {
         List<Unit> units = new ArrayList<>();
-        TextUtils.convertToStringAndEmojiObjects(text).stream()
-                .map(o -> {
-                    if (o instanceof Emoji) {
-                        return List.of(new EmojiUnit((Emoji) o));
-                    } else {
-                        return createTextAndBlockUnits((String) o);
-                    }
-                })
-                .forEach(units::addAll);
+        Matcher blockMatcher = BLOCK_PATTERN.matcher(text);
+        int length = text.length();
+        int plainStart = 0;
+        int i = 0;
+        while (i < length) {
+            if (isPlainChar(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            // the span starts one char before, in case it is the base of a keycap sequence,
+            // and ends at the next plain char that is not inside a block
+            int spanStart = Math.max(plainStart, i - 1);
+            int spanEnd = i;
+            while (spanEnd < length && !isPlainChar(text.charAt(spanEnd))) {
+                if (text.charAt(spanEnd) == BLOCK_MARKER && blockMatcher.region(spanEnd, length).lookingAt()) {
+                    spanEnd = blockMatcher.end();
+                } else {
+                    spanEnd++;
+                }
+            }
+            if (spanStart > plainStart) {
+                addUnit(units, new TextUnit(text.substring(plainStart, spanStart)));
+            }
+            TextUtils.convertToStringAndEmojiObjects(text.substring(spanStart, spanEnd)).forEach(o -> {
+                if (o instanceof Emoji) {
+                    addUnit(units, new EmojiUnit((Emoji) o));
+                } else {
+                    createTextAndBlockUnits((String) o).forEach(unit -> addUnit(units, unit));
+                }
+            });
+            plainStart = spanEnd;
+            i = spanEnd;
+        }
+        if (plainStart < length) {
+            addUnit(units, new TextUnit(plainStart == 0 ? text : text.substring(plainStart)));
+        }
         return new UnitBuffer(units);
     }
 
+    /*
+     * Returns true if the char can't be part of an emoji or a block. This excludes surrogates,
+     * variation selectors, the block marker, the copyright and registered signs, and the
+     * symbol ranges (from General Punctuation to Enclosed CJK) that contain emojis.
+     */
+    private static boolean isPlainChar(char c) {
+        if (c < '\u2000') {
+            return c != '\u00a9' && c != '\u00ae';
+        }
+        return (c >= '\u3300' && c < '\ud800') ||
+                (c >= '\ue000' && c < '\ufe00') ||
+                (c > '\ufe0f' && c != BLOCK_MARKER);
+    }
+
+    // adjacent text units, coming from different spans, are merged
+    private static void addUnit(List<Unit> units, Unit unit) {
+        int last = units.size() - 1;
+        if (unit instanceof TextUnit && last >= 0 && units.get(last) instanceof TextUnit) {
+            units.set(last, new TextUnit(units.get(last).getText() + unit.getText()));
+        } else {
+            units.add(unit);
+        }
+    }
+
     private static List<Unit> createTextAndBlockUnits(String text) {
         ArrayList<Unit> units = new ArrayList<>();
         Matcher matcher = BLOCK_PATTERN.matcher(text);
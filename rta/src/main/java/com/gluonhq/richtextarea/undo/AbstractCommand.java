@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -37,6 +37,46 @@ public abstract class AbstractCommand<T> {
     protected void attachContext(T context) {}
     protected void detachContext(T context) {}
 
+    /**
+     * Gets an estimation of the number of bytes that this command retains in order to be undone
+     * and redone, that is used to limit the memory taken by the undo history.
+     * By default, this is zero, for commands that retain little memory.
+     * @return the estimated retained size, in bytes
+     */
+    protected long getRetainedSize() {
+        return 0;
+    }
+
+    /**
+     * Returns true if the given command, that was executed right after this one, can be
+     * merged into this command, so both are undone and redone at once.
+     * By default, commands can't be merged.
+     * @param next the command that was executed after this one
+     * @return true if the command can be merged into this one
+     */
+    protected boolean canMerge(AbstractCommand<T> next) {
+        return false;
+    }
+
+    /**
+     * Merges the given command, that was executed right after this one, into this command,
+     * which from now on undoes and redoes the changes of both. This is only called if
+     * {@link #canMerge(AbstractCommand)} returns true.
+     * @param next the command that was executed after this one
+     */
+    protected void merge(AbstractCommand<T> next) {
+        throw new UnsupportedOperationException("Command " + this + " can't be merged");
+    }
+
+    /**
+     * Undoes the changes of this command to the state of the context that is not held by the
+     * checkpoints of the {@link CommandManager}, see {@link CommandManager#setCheckpoints(int, java.util.function.Function)}.
+     * It is called instead of undoing this command, when a checkpoint taken before it is restored.
+     * By default, it does nothing.
+     * @param context the context
+     */
+    protected void rewind(T context) {}
+
     public final void execute(T context) {
         detachContext(context);
         storeContext(context);
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.undo;
+
+/**
+ * A journal that stores the oldest commands evicted from the undo stack of a {@link CommandManager},
+ * so they can be undone later on, in reverse order.
+ * @param <T> the type of the context of the commands
+ */
+public interface CommandJournal<T> {
+
+    /**
+     * Stores a command evicted from the bottom of the undo stack. Since older commands are evicted
+     * first, it is more recent than any other command in the journal.
+     * @param command the command to store
+     */
+    void push(AbstractCommand<T> command);
+
+    /**
+     * Removes and returns the most recent command in the journal
+     * @return the most recent command
+     * @throws java.util.NoSuchElementException if the journal is empty
+     */
+    AbstractCommand<T> pop();
+
+    /**
+     * Gets the number of commands in the journal
+     * @return the size of the journal
+     */
+    int size();
+
+    /**
+     * Removes all commands from the journal
+     */
+    void clear();
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -27,9 +27,16 @@
  */
 package com.gluonhq.richtextarea.undo;
 
+import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,6 +49,33 @@ public class CommandManager<T> {
     final T context;
     private final Runnable runnable;
 
+    private int maxCommands;
+    private long maxRetainedSize;
+    private long undoRetainedSize;
+    private long redoRetainedSize;
+    private CommandJournal<T> journal;
+    private int discardedCount;
+    private Runnable evictionListener;
+    private CompositeCommand<T> transaction;
+
+    private int checkpointInterval;
+    private Function<T, Checkpoint> checkpointFactory;
+    // checkpoints taken right after executing some of the commands
+    private final Map<AbstractCommand<T>, Checkpoint> checkpoints = new IdentityHashMap<>();
+    // checkpoint of the context before the command at the bottom of the undo stack
+    private Checkpoint baseCheckpoint;
+    private long checkpointRetainedSize;
+    // number of commands executed since the checkpoints were enabled or the stacks were cleared,
+    // which doesn't go down when the oldest commands are evicted, unlike the size of the undo stack
+    private long executedCount;
+
+    private Duration mergeTimeout = Duration.ZERO;
+    private long lastExecutionTime;
+    // the next command can be merged into the last one
+    private boolean mergeable;
+    // the last command will be merged into the previous one
+    private boolean pendingMerge;
+
     public CommandManager(T context) {
         this(context, null);
     }
@@ -51,36 +85,260 @@ public class CommandManager<T> {
         this.runnable = runnable;
     }
 
+    /**
+     * Sets the maximum time between the execution of two consecutive commands, so the
+     * second one can be merged into the first one, if the first one accepts it, see
+     * {@link AbstractCommand#canMerge(AbstractCommand)}. A zero duration, the default,
+     * disables merging.
+     * @param mergeTimeout the maximum time between mergeable commands
+     */
+    public void setMergeTimeout(Duration mergeTimeout) {
+        this.mergeTimeout = Objects.requireNonNull(mergeTimeout);
+    }
+
+    public Duration getMergeTimeout() {
+        return mergeTimeout;
+    }
+
+    /**
+     * Sets the maximum number of commands that are kept in memory, in both undo and redo stacks.
+     * When the limit is exceeded, the oldest commands are evicted: first those from the bottom of
+     * the undo stack, that are moved to the journal, if any, or else are discarded, and then those
+     * from the bottom of the redo stack. A value of zero, the default, means no limit.
+     * @param maxCommands the maximum number of commands in memory
+     */
+    public void setMaxCommands(int maxCommands) {
+        if (maxCommands < 0) {
+            throw new IllegalArgumentException("Max commands can't be negative");
+        }
+        this.maxCommands = maxCommands;
+        trim();
+    }
+
+    public int getMaxCommands() {
+        return maxCommands;
+    }
+
+    /**
+     * Sets the maximum number of bytes that the commands in memory can retain, based on the
+     * estimation given by {@link AbstractCommand#getRetainedSize()}. When the limit is exceeded,
+     * the oldest commands are evicted, like with {@link #setMaxCommands(int)}. The last command
+     * that was executed is always kept. A value of zero, the default, means no limit.
+     * @param maxRetainedSize the maximum number of bytes retained by the commands in memory
+     */
+    public void setMaxRetainedSize(long maxRetainedSize) {
+        if (maxRetainedSize < 0) {
+            throw new IllegalArgumentException("Max retained size can't be negative");
+        }
+        this.maxRetainedSize = maxRetainedSize;
+        trim();
+    }
+
+    public long getMaxRetainedSize() {
+        return maxRetainedSize;
+    }
+
+    /**
+     * Gets the estimated number of bytes retained by the commands and checkpoints in memory
+     * @return the retained size, in bytes
+     */
+    public long getRetainedSize() {
+        return undoRetainedSize + redoRetainedSize + checkpointRetainedSize;
+    }
+
+    /**
+     * Gets the number of commands that were evicted from the undo stack and discarded, because
+     * there was no journal, since the stacks were last cleared
+     * @return the number of discarded commands
+     */
+    public int getDiscardedCount() {
+        return discardedCount;
+    }
+
+    /**
+     * Sets a journal, where the commands that are evicted from the undo stack are stored, so
+     * they can still be undone: when the undo stack is empty, undo takes the last command from
+     * the journal. If null, the default, evicted commands are discarded.
+     * @param journal the journal for the evicted commands, or null
+     */
+    public void setJournal(CommandJournal<T> journal) {
+        this.journal = journal;
+    }
+
+    public CommandJournal<T> getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets a listener that is called after commands are evicted from the stacks, because
+     * the limits are exceeded, or after the stacks are cleared, so the context can release
+     * the resources that only those commands used.
+     * @param evictionListener the listener, or null
+     */
+    public void setEvictionListener(Runnable evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Enables taking a checkpoint of the context every given number of executed commands, so
+     * {@link #jumpTo(int)} can restore the nearest checkpoint, instead of undoing every command.
+     * @param interval the number of commands between checkpoints, or zero to disable them
+     * @param checkpointFactory the function that takes a checkpoint of the context
+     */
+    public void setCheckpoints(int interval, Function<T, Checkpoint> checkpointFactory) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval can't be negative");
+        }
+        this.checkpointInterval = interval;
+        this.checkpointFactory = interval > 0 ? Objects.requireNonNull(checkpointFactory) : null;
+        clearCheckpoints();
+        executedCount = 0;
+    }
+
+    /**
+     * Starts a transaction: until {@link #endTransaction()} is called, executed commands
+     * are not pushed into the undo stack, but recorded into a single composite command.
+     * @throws IllegalStateException if a transaction is already in progress
+     */
+    public void beginTransaction() {
+        if (transaction != null) {
+            throw new IllegalStateException("A transaction is already in progress");
+        }
+        transaction = new CompositeCommand<>();
+    }
+
+    /**
+     * Ends the transaction in progress, and returns the composite command with the commands
+     * executed during it, which is owned by the caller: it is not pushed into the undo stack.
+     * @return the commands executed during the transaction
+     * @throws IllegalStateException if there is no transaction in progress
+     */
+    public CompositeCommand<T> endTransaction() {
+        if (transaction == null) {
+            throw new IllegalStateException("There is no transaction in progress");
+        }
+        CompositeCommand<T> result = transaction;
+        transaction = null;
+        return result;
+    }
+
+    /**
+     * Executes a command and pushes it into the undo stack.
+     * If merging is enabled, and the command can be merged into the previous one, it is
+     * kept on top of the stack until the next command is executed or undo is called, and
+     * then it is merged, so {@link #undoLast()} can still undo it alone.
+     * During a transaction, the command is only recorded into it.
+     * @param cmd the command to execute
+     */
     public void execute(AbstractCommand<T> cmd) {
-        Objects.requireNonNull(cmd).execute(context);
-        undoStack.push(cmd);
+        Objects.requireNonNull(cmd);
+        if (transaction == null && checkpointInterval > 0 && undoStack.isEmpty() &&
+                (journal == null || journal.size() == 0)) {
+            setBaseCheckpoint(checkpointFactory.apply(context));
+            checkpointRetainedSize += baseCheckpoint.getRetainedSize();
+        }
+        cmd.execute(context);
+        if (transaction != null) {
+            transaction.add(cmd);
+            return;
+        }
+        long time = System.nanoTime();
+        mergePending();
+        boolean merge = mergeable && !mergeTimeout.isZero() && !undoStack.isEmpty() &&
+                time - lastExecutionTime <= mergeTimeout.toNanos() && undoStack.peek().canMerge(cmd);
+        pushUndo(cmd);
+        redoStack.forEach(this::removeCheckpoint);
         redoStack.clear();
+        redoRetainedSize = 0;
+        pendingMerge = merge;
+        mergeable = true;
+        lastExecutionTime = time;
+        executedCount++;
+        if (checkpointInterval > 0 && executedCount % checkpointInterval == 0) {
+            Checkpoint checkpoint = checkpointFactory.apply(context);
+            checkpoints.put(cmd, checkpoint);
+            checkpointRetainedSize += checkpoint.getRetainedSize();
+        }
+        trim();
         end();
         LOGGER.log(Level.FINE, () -> "Execute: " + this);
     }
 
     public void undo() {
-        if (!undoStack.isEmpty()) {
-            var cmd = undoStack.pop();
-            cmd.undo(context);
-            redoStack.push(cmd);
+        mergePending();
+        undoLast();
+    }
+
+    /**
+     * Undoes the last command that was executed, even if it was going to be merged
+     * into the previous one.
+     */
+    public void undoLast() {
+        mergeable = false;
+        if (undoCommand()) {
             end();
             LOGGER.log(Level.FINE, () -> "Undo: " + this);
         }
     }
 
     public void redo() {
-        if (!redoStack.isEmpty()) {
-            var cmd = redoStack.pop();
-            cmd.redo(context);
-            undoStack.push(cmd);
+        mergeable = false;
+        if (redoCommand()) {
             end();
             LOGGER.log(Level.FINE, "Redo: " + this);
         }
     }
 
+    /**
+     * Moves to the given point of the history, undoing or redoing commands, so that the given
+     * number of commands can be undone afterwards.
+     * When going back, the nearest checkpoint at or after that point, if any, is restored, and
+     * only the commands executed between the point and the checkpoint are undone.
+     * The runnable is called only once, at the end.
+     * @param historyIndex the number of commands that can be undone after the jump, from 0 to
+     *                     the sum of the sizes of the undo and redo stacks
+     */
+    public void jumpTo(int historyIndex) {
+        mergePending();
+        mergeable = false;
+        int current = getUndoStackSize();
+        if (historyIndex < 0 || historyIndex > current + redoStack.size()) {
+            throw new IllegalArgumentException("History index " + historyIndex + " is outside of [0, " +
+                    (current + redoStack.size()) + "]");
+        }
+        if (historyIndex == current) {
+            return;
+        }
+        if (historyIndex > current) {
+            for (int i = current; i < historyIndex; i++) {
+                redoCommand();
+            }
+        } else {
+            restoreCheckpoint(historyIndex, current);
+            while (getUndoStackSize() > historyIndex) {
+                undoCommand();
+            }
+        }
+        end();
+        LOGGER.log(Level.FINE, () -> "Jump to " + historyIndex + ": " + this);
+    }
+
+    /**
+     * Merges the last command, if it is pending, and prevents the next command from being
+     * merged into it, for instance when the document is saved.
+     */
+    public void endMerge() {
+        mergePending();
+        mergeable = false;
+    }
+
+    /**
+     * Gets the number of commands that can be undone, including those in the journal. A command
+     * that will be merged into the previous one is not counted.
+     * @return the size of the undo stack
+     */
     public int getUndoStackSize() {
-        return undoStack.size();
+        return undoStack.size() - (pendingMerge ? 1 : 0) + (journal == null ? 0 : journal.size());
     }
 
     public int getRedoStackSize() {
@@ -90,6 +348,160 @@ public class CommandManager<T> {
     public void clearStacks() {
         undoStack.clear();
         redoStack.clear();
+        undoRetainedSize = 0;
+        redoRetainedSize = 0;
+        discardedCount = 0;
+        if (journal != null) {
+            journal.clear();
+        }
+        clearCheckpoints();
+        executedCount = 0;
+        mergeable = false;
+        pendingMerge = false;
+        if (evictionListener != null) {
+            evictionListener.run();
+        }
+    }
+
+    private void mergePending() {
+        if (pendingMerge) {
+            pendingMerge = false;
+            var cmd = popUndo();
+            var previous = popUndo();
+            // the checkpoint taken after the previous command doesn't include the merged one
+            removeCheckpoint(cmd);
+            removeCheckpoint(previous);
+            previous.merge(cmd);
+            pushUndo(previous);
+        }
+    }
+
+    private boolean undoCommand() {
+        if (undoStack.isEmpty() && journal != null && journal.size() > 0) {
+            setBaseCheckpoint(null);
+            pushUndo(journal.pop());
+        }
+        if (undoStack.isEmpty()) {
+            return false;
+        }
+        pendingMerge = false;
+        var cmd = popUndo();
+        cmd.undo(context);
+        pushRedo(cmd);
+        return true;
+    }
+
+    private boolean redoCommand() {
+        if (redoStack.isEmpty()) {
+            return false;
+        }
+        var cmd = redoStack.pop();
+        redoRetainedSize -= cmd.getRetainedSize();
+        cmd.redo(context);
+        pushUndo(cmd);
+        return true;
+    }
+
+    // restores the nearest checkpoint at or after the given history index, if any, and moves
+    // the commands executed after it to the redo stack, rewinding them instead of undoing them
+    private void restoreCheckpoint(int historyIndex, int current) {
+        if (checkpointInterval == 0) {
+            return;
+        }
+        // commands in memory, from the bottom of the undo stack, after those in the journal
+        List<AbstractCommand<T>> commands = new ArrayList<>(undoStack.size());
+        for (Iterator<AbstractCommand<T>> iterator = undoStack.descendingIterator(); iterator.hasNext(); ) {
+            commands.add(iterator.next());
+        }
+        int offset = current - commands.size();
+        for (int index = Math.max(historyIndex, offset); index < current; index++) {
+            Checkpoint checkpoint = index == offset ?
+                    baseCheckpoint : checkpoints.get(commands.get(index - offset - 1));
+            if (checkpoint != null) {
+                // the first command after the checkpoint keeps the context before its execution
+                var next = commands.get(index - offset);
+                next.detachContext(context);
+                checkpoint.restore();
+                while (undoStack.size() > index - offset) {
+                    var cmd = popUndo();
+                    cmd.rewind(context);
+                    pushRedo(cmd);
+                }
+                next.restoreContext(context);
+                next.attachContext(context);
+                return;
+            }
+        }
+    }
+
+    private void removeCheckpoint(AbstractCommand<T> cmd) {
+        Checkpoint checkpoint = checkpoints.remove(cmd);
+        if (checkpoint != null) {
+            checkpointRetainedSize -= checkpoint.getRetainedSize();
+        }
+    }
+
+    // the new base checkpoint, if any, is expected to be accounted already
+    private void setBaseCheckpoint(Checkpoint checkpoint) {
+        if (baseCheckpoint != null) {
+            checkpointRetainedSize -= baseCheckpoint.getRetainedSize();
+        }
+        baseCheckpoint = checkpoint;
+    }
+
+    private void clearCheckpoints() {
+        checkpoints.clear();
+        checkpointRetainedSize = 0;
+        baseCheckpoint = null;
+    }
+
+    private void pushUndo(AbstractCommand<T> cmd) {
+        undoStack.push(cmd);
+        undoRetainedSize += cmd.getRetainedSize();
+    }
+
+    private AbstractCommand<T> popUndo() {
+        var cmd = undoStack.pop();
+        undoRetainedSize -= cmd.getRetainedSize();
+        return cmd;
+    }
+
+    private void pushRedo(AbstractCommand<T> cmd) {
+        redoStack.push(cmd);
+        redoRetainedSize += cmd.getRetainedSize();
+    }
+
+    // evicts the oldest commands, while the limits are exceeded, keeping the last command and
+    // the one it will be merged into
+    private void trim() {
+        int keep = pendingMerge ? 2 : 1;
+        boolean evicted = false;
+        while (exceedsLimits() && undoStack.size() > keep) {
+            var cmd = undoStack.removeLast();
+            undoRetainedSize -= cmd.getRetainedSize();
+            // the state after the evicted command is the state before the new bottom command
+            setBaseCheckpoint(checkpoints.remove(cmd));
+            if (journal != null) {
+                journal.push(cmd);
+            } else {
+                discardedCount++;
+            }
+            evicted = true;
+        }
+        while (exceedsLimits() && !redoStack.isEmpty()) {
+            var cmd = redoStack.removeLast();
+            redoRetainedSize -= cmd.getRetainedSize();
+            removeCheckpoint(cmd);
+            evicted = true;
+        }
+        if (evicted && evictionListener != null) {
+            evictionListener.run();
+        }
+    }
+
+    private boolean exceedsLimits() {
+        return (maxCommands > 0 && undoStack.size() + redoStack.size() > maxCommands) ||
+                (maxRetainedSize > 0 && getRetainedSize() > maxRetainedSize);
     }
 
     private void end() {
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.undo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A command that groups the commands executed during a transaction of a {@link CommandManager},
+ * so they are undone, in reverse order, and redone at once.
+ * @param <T> the type of the context of the commands
+ */
+public final class CompositeCommand<T> extends AbstractCommand<T> {
+
+    private final List<AbstractCommand<T>> commands = new ArrayList<>();
+
+    CompositeCommand() {}
+
+    void add(AbstractCommand<T> command) {
+        commands.add(command);
+    }
+
+    /**
+     * Appends the commands of a composite command that was executed right after this one
+     * @param next the composite command that was executed after this one
+     */
+    public void append(CompositeCommand<T> next) {
+        commands.addAll(next.commands);
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    @Override
+    protected void doUndo(T context) {
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            commands.get(i).undo(context);
+        }
+    }
+
+    @Override
+    protected void doRedo(T context) {
+        commands.forEach(command -> command.redo(context));
+    }
+
+    @Override
+    public long getRetainedSize() {
+        return commands.stream().mapToLong(AbstractCommand::getRetainedSize).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CompositeCommand" + commands;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.undo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A {@link CommandJournal} that keeps the evicted commands in a file, encoded with a {@link CommandCodec}.
+ * Only the offset of each record is kept in memory: records are appended as commands are evicted,
+ * and read back and truncated as they are popped. Any I/O error is thrown as an {@link UncheckedIOException}.
+ * @param <T> the type of the context of the commands
+ */
+public final class FileCommandJournal<T> implements CommandJournal<T>, Closeable {
+
+    private final CommandCodec<T> codec;
+    private final RandomAccessFile file;
+    private final Path path;
+    private final boolean temporary;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream output = new DataOutputStream(bytes);
+
+    // record i spans from offsets[i] to offsets[i + 1]
+    private long[] offsets = new long[16];
+    private int size;
+
+    /**
+     * Creates a journal backed by the given file, that is overwritten
+     * @param path the file for the journal
+     * @param codec the codec for the commands
+     * @throws IOException if the file can't be opened
+     */
+    public FileCommandJournal(Path path, CommandCodec<T> codec) throws IOException {
+        this(path, codec, false);
+    }
+
+    private FileCommandJournal(Path path, CommandCodec<T> codec, boolean temporary) throws IOException {
+        this.path = Objects.requireNonNull(path);
+        this.codec = Objects.requireNonNull(codec);
+        this.temporary = temporary;
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+        file.setLength(0);
+    }
+
+    /**
+     * Creates a journal backed by a temporary file, that is deleted when the journal is closed
+     * @param codec the codec for the commands
+     * @param <T> the type of the context of the commands
+     * @return a new journal
+     * @throws IOException if the temporary file can't be created
+     */
+    public static <T> FileCommandJournal<T> createTemp(CommandCodec<T> codec) throws IOException {
+        Path path = Files.createTempFile("rta-undo", ".journal");
+        path.toFile().deleteOnExit();
+        return new FileCommandJournal<>(path, codec, true);
+    }
+
+    @Override
+    public void push(AbstractCommand<T> command) {
+        try {
+            bytes.reset();
+            codec.write(command, output);
+            output.flush();
+            long start = size == 0 ? 0 : offsets[size];
+            file.seek(start);
+            file.write(bytes.toByteArray(), 0, bytes.size());
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[size] = start;
+            offsets[size + 1] = start + bytes.size();
+            size++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public AbstractCommand<T> pop() {
+        if (size == 0) {
+            throw new NoSuchElementException("Journal is empty");
+        }
+        size--;
+        try {
+            byte[] record = new byte[(int) (offsets[size + 1] - offsets[size])];
+            file.seek(offsets[size]);
+            file.readFully(record);
+            file.setLength(offsets[size]);
+            return codec.read(new DataInputStream(new ByteArrayInputStream(record)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        try {
+            file.setLength(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        size = 0;
+        file.close();
+        if (temporary) {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -28,18 +28,75 @@
 package com.gluonhq.richtextarea.viewmodel;
 
 import com.gluonhq.richtextarea.Selection;
+import com.gluonhq.richtextarea.model.TextBuffer;
 
 import java.util.Objects;
 
 
 /**
  * Abstract command add context store/restore operations
- * to already existing undo/redo framework
+ * to already existing undo/redo framework.
+ * The changes that the command does to the text buffer are recorded in a single
+ * transaction, owned by the command, that is undone at once.
  */
 abstract class AbstractEditCmd extends com.gluonhq.richtextarea.undo.AbstractCommand<RichTextAreaViewModel> {
 
-    private int caretPosition;
+    int caretPosition;
     Selection selection;
+    private TextBuffer.Transaction transaction;
+
+    /**
+     * Applies the changes of this command to the view model
+     * @param viewModel the view model
+     */
+    protected abstract void doEdit(RichTextAreaViewModel viewModel);
+
+    /**
+     * Restores the state of the view model, other than the text buffer, the caret and the
+     * selection, that was modified by {@link #doEdit(RichTextAreaViewModel)}.
+     * By default, it does nothing.
+     * @param viewModel the view model
+     */
+    protected void undoEdit(RichTextAreaViewModel viewModel) {}
+
+    @Override
+    protected final void doRedo(RichTextAreaViewModel viewModel) {
+        TextBuffer textBuffer = Objects.requireNonNull(viewModel).getTextBuffer();
+        textBuffer.beginTransaction();
+        try {
+            doEdit(viewModel);
+        } finally {
+            transaction = textBuffer.endTransaction();
+        }
+    }
+
+    @Override
+    protected final void doUndo(RichTextAreaViewModel viewModel) {
+        undoEdit(Objects.requireNonNull(viewModel));
+        if (transaction != null) {
+            transaction.undo();
+        }
+    }
+
+    // the checkpoints only hold the text buffer
+    @Override
+    protected void rewind(RichTextAreaViewModel viewModel) {
+        undoEdit(Objects.requireNonNull(viewModel));
+    }
+
+    @Override
+    protected long getRetainedSize() {
+        return transaction == null ? 0 : transaction.getRetainedSize();
+    }
+
+    boolean hasChanges() {
+        return transaction != null && !transaction.isEmpty();
+    }
+
+    // appends the changes of a command merged into this one
+    void mergeChanges(AbstractEditCmd next) {
+        transaction.merge(next.transaction);
+    }
 
 
     protected void storeContext( RichTextAreaViewModel viewModel ) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -31,11 +31,17 @@ import com.gluonhq.emoji.Emoji;
 import com.gluonhq.richtextarea.Selection;
 import com.gluonhq.richtextarea.model.Block;
 import com.gluonhq.richtextarea.model.Decoration;
+import com.gluonhq.richtextarea.model.DecorationModel;
 import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.SearchQuery;
 import com.gluonhq.richtextarea.model.TableDecoration;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.text.TextAlignment;
 
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public final class ActionCmdFactory {
 
     private final ActionCmd copy  = new ActionCmdCopy();
@@ -71,6 +77,10 @@ public final class ActionCmdFactory {
         return redo;
     }
 
+    public ActionCmd jumpTo(int historyIndex) {
+        return new ActionCmdJumpTo(historyIndex);
+    }
+
     public ActionCmd newDocument() {
         return newDocument;
     }
@@ -79,10 +89,26 @@ public final class ActionCmdFactory {
         return new ActionCmdOpen(document);
     }
 
+    public ActionCmd openAsync(Document document, CompletableFuture<Document> result) {
+        return new ActionCmdOpenAsync(document, result);
+    }
+
+    public ActionCmd openAsync(Path path, CompletableFuture<Document> result) {
+        return new ActionCmdOpenAsync(path, result);
+    }
+
+    public ActionCmd share(RichTextAreaViewModel source) {
+        return new ActionCmdShare(source);
+    }
+
     public ActionCmd save() {
         return save;
     }
 
+    public ActionCmd saveAsync(CompletableFuture<Document> result) {
+        return new ActionCmdSaveAsync(result);
+    }
+
     public ActionCmd selectAll() {
         return selectAll;
     }
@@ -178,10 +204,18 @@ public final class ActionCmdFactory {
         return new ActionCmdReplaceText(text);
     }
 
+    public ActionCmd replaceAll(SearchQuery query, String replacement) {
+        return new ActionCmdReplaceAll(query, replacement);
+    }
+
     public ActionCmd decorate(Decoration... decorations) {
         return new ActionCmdDecorate(decorations);
     }
 
+    public ActionCmd decorateAll(List<DecorationModel> decorationModels) {
+        return new ActionCmdDecorateAll(decorationModels);
+    }
+
     public ActionCmd caretMove(RichTextAreaViewModel.Direction direction, KeyEvent event) {
         return new ActionCmdCaretMove(direction, event);
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2023, 2024, Gluon
+ * Copyright (c) 2023, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -56,7 +56,7 @@ class ActionCmdInsertEmoji implements ActionCmd {
                     // (Otherwise, calling undo() would remove the emoji, but then, as this last unit would be
                     // present, there would be immediately a call to select and replace the content with the
                     // emoji once again, and as a result, undo() won't do anything, at least apparently for the user)
-                    viewModel.getCommandManager().undo();
+                    viewModel.getCommandManager().undoLast();
 
                     // Update selection accordingly, removing from the original selection the length of the
                     // removed last unit
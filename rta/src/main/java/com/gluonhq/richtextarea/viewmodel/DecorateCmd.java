@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -51,7 +51,7 @@ class DecorateCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         Objects.requireNonNull(viewModel);
         if (!selection.isDefined() && decorations.size() == 1 && decorations.get(0) instanceof TextDecoration) {
             // one single textDecoration, without selection, it is applied at caret only (to decorate next characters)
@@ -88,12 +88,10 @@ class DecorateCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        Objects.requireNonNull(viewModel);
+    protected void undoEdit(RichTextAreaViewModel viewModel) {
         if (prevDecoration != null && prevDecoration instanceof TextDecoration) {
             viewModel.setDecorationAtCaret(prevDecoration);
         }
-        decorations.forEach(decoration -> viewModel.undoDecoration());
     }
 
     @Override
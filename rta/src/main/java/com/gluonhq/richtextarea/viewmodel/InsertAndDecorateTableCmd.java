@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -43,7 +43,7 @@ class InsertAndDecorateTableCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         int caretPosition = viewModel.getCaretPosition();
         // 1. Insert
         if (!content.isEmpty()) {
@@ -59,18 +59,6 @@ class InsertAndDecorateTableCmd extends AbstractEditCmd {
         }
     }
 
-    @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        // 1. Decorate
-        if (decoration instanceof ParagraphDecoration) {
-            Objects.requireNonNull(viewModel).undoDecoration();
-        }
-        // 2. Insert
-        if (!content.isEmpty()) {
-            viewModel.undo();
-        }
-    }
-
     @Override
     public String toString() {
         return "InsertAndDecorateTableCmd[" + super.toString() + ", Insert: <" + (content != null ? content.replace("\n", "<n>") : "") + "]>"
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2023, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -31,9 +31,10 @@ import com.gluonhq.emoji.Emoji;
 import com.gluonhq.richtextarea.model.Block;
 import com.gluonhq.richtextarea.model.BlockUnit;
 import com.gluonhq.richtextarea.model.EmojiUnit;
+import com.gluonhq.richtextarea.model.TextUnit;
 import com.gluonhq.richtextarea.model.UnitBuffer;
+import com.gluonhq.richtextarea.undo.AbstractCommand;
 
-import java.util.Objects;
 
 class InsertCmd extends AbstractEditCmd {
 
@@ -52,15 +53,41 @@ class InsertCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo( RichTextAreaViewModel viewModel ) {
+    protected void doEdit( RichTextAreaViewModel viewModel ) {
         if (content != null) {
             viewModel.insert(content.getText());
         }
     }
 
+    /**
+     * Text typed right after the text of this command can be merged into it, unless it starts
+     * a new word, after a whitespace
+     */
     @Override
-    public void doUndo( RichTextAreaViewModel viewModel ) {
-        Objects.requireNonNull(viewModel).undo();
+    protected boolean canMerge(AbstractCommand<RichTextAreaViewModel> next) {
+        if (!(next instanceof InsertCmd)) {
+            return false;
+        }
+        InsertCmd cmd = (InsertCmd) next;
+        if (selection.isDefined() || cmd.selection.isDefined() || !isText(content) || !isText(cmd.content) ||
+                cmd.caretPosition != caretPosition + content.length()) {
+            return false;
+        }
+        String text = content.getText();
+        String nextText = cmd.content.getText();
+        return !text.isEmpty() && !nextText.isEmpty() &&
+                !(Character.isWhitespace(text.charAt(text.length() - 1)) && !Character.isWhitespace(nextText.charAt(0)));
+    }
+
+    @Override
+    protected void merge(AbstractCommand<RichTextAreaViewModel> next) {
+        InsertCmd cmd = (InsertCmd) next;
+        content.append(cmd.content.getUnitList());
+        mergeChanges(cmd);
+    }
+
+    private static boolean isText(UnitBuffer unitBuffer) {
+        return unitBuffer.getUnitList().stream().allMatch(TextUnit.class::isInstance);
     }
 
     @Override
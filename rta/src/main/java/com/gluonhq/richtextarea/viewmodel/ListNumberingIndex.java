@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.viewmodel;
+
+import com.gluonhq.richtextarea.model.Paragraph;
+import com.gluonhq.richtextarea.model.ParagraphDecoration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Index of the ordinals of the paragraphs of numbered lists, kept alongside the paragraph list.
+ *
+ * Each paragraph has a key: its indentation level if it is part of a numbered list, or
+ * {@link #NOT_NUMBERED} otherwise. A run is a sequence of consecutive paragraphs with the same
+ * key, so each indentation level of a list has its own counter, that restarts after any other
+ * paragraph. The ordinal of a paragraph is its position in its run.
+ * The index keeps the start of every run in a sorted set, so setting, adding or removing the
+ * key of a paragraph at the end of the list only updates the runs next to it, and finding the
+ * ordinal of a paragraph takes O(log n).
+ */
+final class ListNumberingIndex {
+
+    static final int NOT_NUMBERED = -1;
+
+    private int[] keys = new int[16];
+    private int size;
+    private final NavigableSet<Integer> runStarts = new TreeSet<>();
+    // range of paragraphs, inclusive, with ordinals that might have changed since it was last polled
+    private int changedFrom = Integer.MAX_VALUE;
+    private int changedTo = -1;
+
+    static int keyOf(Paragraph paragraph) {
+        ParagraphDecoration decoration = paragraph.getDecoration();
+        return decoration != null && decoration.getGraphicType() == ParagraphDecoration.GraphicType.NUMBERED_LIST ?
+                decoration.getIndentationLevel() : NOT_NUMBERED;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the ordinal of a paragraph in its run
+     * @param index the index of the paragraph
+     * @return the ordinal, from 1, or 0 if the paragraph is not part of a numbered list
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    int getOrdinal(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds [0, " + size + ")");
+        }
+        if (keys[index] == NOT_NUMBERED) {
+            return 0;
+        }
+        return index - runStarts.floor(index) + 1;
+    }
+
+    /**
+     * Sets the key of a paragraph
+     * @param index the index of the paragraph
+     * @param key the new key
+     */
+    void set(int index, int key) {
+        if (keys[index] == key) {
+            return;
+        }
+        keys[index] = key;
+        updateRunStart(index);
+        updateRunStart(index + 1);
+        // the paragraph, and the run that follows it, which it might have joined or split
+        markChanged(index, index + 1 < size ? getRunEnd(index + 1) - 1 : index);
+    }
+
+    /**
+     * Adds the key of a paragraph at the end of the list
+     * @param key the key
+     */
+    void add(int key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+        updateRunStart(size - 1);
+    }
+
+    /**
+     * Removes the keys of the paragraphs at the end of the list
+     * @param newSize the number of paragraphs that are kept
+     */
+    void truncate(int newSize) {
+        size = newSize;
+        runStarts.tailSet(newSize, true).clear();
+    }
+
+    /**
+     * Builds the index again with all the paragraphs
+     * @param paragraphs the paragraphs
+     */
+    void rebuild(List<Paragraph> paragraphs) {
+        truncate(0);
+        paragraphs.forEach(paragraph -> add(keyOf(paragraph)));
+        markChanged(0, size - 1);
+    }
+
+    /**
+     * Gets the range of paragraphs with ordinals that might have changed, because the key of a paragraph
+     * was set or the index was rebuilt, since this method was last called, and resets it
+     * @return the indices of the first and last paragraphs of the range, or null if there were no changes
+     */
+    int[] pollChangedRange() {
+        int from = changedFrom;
+        int to = Math.min(changedTo, size - 1);
+        changedFrom = Integer.MAX_VALUE;
+        changedTo = -1;
+        return from <= to ? new int[] {from, to} : null;
+    }
+
+    // index after the last paragraph of the run that contains the given paragraph
+    private int getRunEnd(int index) {
+        Integer next = runStarts.higher(index);
+        return next == null ? size : next;
+    }
+
+    private void markChanged(int from, int to) {
+        changedFrom = Math.min(changedFrom, from);
+        changedTo = Math.max(changedTo, to);
+    }
+
+    private void updateRunStart(int index) {
+        if (index >= size) {
+            return;
+        }
+        if (index == 0 || keys[index] != keys[index - 1]) {
+            runStarts.add(index);
+        } else {
+            runStarts.remove(index);
+        }
+    }
+}
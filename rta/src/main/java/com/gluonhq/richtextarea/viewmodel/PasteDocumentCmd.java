@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2024, Gluon
+ * Copyright (c) 2024, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -41,7 +41,7 @@ class PasteDocumentCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         Objects.requireNonNull(viewModel);
         // Go through all decorations: inserting unit and decorating it
         content.getDecorations().forEach(dm -> {
@@ -63,18 +63,6 @@ class PasteDocumentCmd extends AbstractEditCmd {
 
     }
 
-    @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        Objects.requireNonNull(viewModel);
-
-        content.getDecorations().forEach(dm -> {
-            // 1. remove unit
-            viewModel.undo();
-            // 2. delete decoration
-            viewModel.undoDecoration();
-        });
-    }
-
     @Override
     public String toString() {
         return "PasteDocumentCmd[" + super.toString() + ", " + content + "]";
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -45,7 +45,7 @@ class RemoveAndDecorateTableCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         // 1. Remove
         Objects.requireNonNull(viewModel).remove(caretOffset, length);
 
@@ -55,16 +55,6 @@ class RemoveAndDecorateTableCmd extends AbstractEditCmd {
         }
     }
 
-    @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        // 1. Decorate
-        if (decoration instanceof ParagraphDecoration) {
-            Objects.requireNonNull(viewModel).undoDecoration();
-        }
-        // 2. Remove
-        viewModel.undo();
-    }
-
     @Override
     public String toString() {
         return "RemoveAndDecorateTableCmd[" + super.toString() + ", Remove <" + caretOffset + ", " + length + "]> " +
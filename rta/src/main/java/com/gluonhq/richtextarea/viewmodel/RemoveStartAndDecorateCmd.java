@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2024, Gluon
+ * Copyright (c) 2024, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -45,7 +45,7 @@ class RemoveStartAndDecorateCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         Objects.requireNonNull(viewModel);
         prevDecoration = viewModel.getDecorationAtCaret();
         int prevCaret = viewModel.getCaretPosition();
@@ -67,17 +67,11 @@ class RemoveStartAndDecorateCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        // 1. reset decoration
+    protected void undoEdit(RichTextAreaViewModel viewModel) {
+        // reset decoration
         if (prevDecoration != null && prevDecoration instanceof TextDecoration) {
             viewModel.setDecorationAtCaret(prevDecoration);
         }
-
-        // 2. apply decoration
-        viewModel.undo();
-
-        // 3. remove single selection
-        viewModel.undo();
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -27,12 +27,14 @@
  */
 package com.gluonhq.richtextarea.viewmodel;
 
+import com.gluonhq.richtextarea.undo.AbstractCommand;
+
 import java.util.Objects;
 
 class RemoveTextCmd extends AbstractEditCmd {
 
-    private final int caretOffset;
-    private final int length;
+    private int caretOffset;
+    private int length;
 
     public RemoveTextCmd(int caretOffset) {
         this(caretOffset, 1);
@@ -44,15 +46,38 @@ class RemoveTextCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
-        Objects.requireNonNull(viewModel);
-        viewModel.remove(caretOffset, length);
+    protected void doEdit(RichTextAreaViewModel viewModel) {
+        Objects.requireNonNull(viewModel).remove(caretOffset, length);
+    }
+
+    /**
+     * A removal can be merged into this command if it is contiguous to it, before, like
+     * consecutive backspaces, or after, like consecutive deletes
+     */
+    @Override
+    protected boolean canMerge(AbstractCommand<RichTextAreaViewModel> next) {
+        if (!(next instanceof RemoveTextCmd)) {
+            return false;
+        }
+        RemoveTextCmd cmd = (RemoveTextCmd) next;
+        if (!hasChanges() || !cmd.hasChanges() || selection.isDefined() || cmd.selection.isDefined()) {
+            return false;
+        }
+        int position = caretPosition + caretOffset;
+        int nextPosition = cmd.caretPosition + cmd.caretOffset;
+        return nextPosition + cmd.length == position || nextPosition == position;
     }
 
     @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        Objects.requireNonNull(viewModel);
-        viewModel.undo();
+    protected void merge(AbstractCommand<RichTextAreaViewModel> next) {
+        RemoveTextCmd cmd = (RemoveTextCmd) next;
+        int nextPosition = cmd.caretPosition + cmd.caretOffset;
+        if (nextPosition < caretPosition + caretOffset) {
+            // removed before this command, from the caret position of this command
+            caretOffset = nextPosition - caretPosition;
+        }
+        length += cmd.length;
+        mergeChanges(cmd);
     }
 
     @Override
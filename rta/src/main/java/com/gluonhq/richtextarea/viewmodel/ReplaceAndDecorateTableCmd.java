@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -47,7 +47,7 @@ class ReplaceAndDecorateTableCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         // 1. Remove
         Objects.requireNonNull(viewModel);
         viewModel.remove(caretOffset, length);
@@ -67,20 +67,6 @@ class ReplaceAndDecorateTableCmd extends AbstractEditCmd {
         }
     }
 
-    @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        // 1. Decorate
-        if (decoration instanceof ParagraphDecoration) {
-            Objects.requireNonNull(viewModel).undoDecoration();
-        }
-        // 2. Insert
-        if (!content.isEmpty()) {
-            viewModel.undo();
-        }
-        // 3- Remove
-        viewModel.undo();
-    }
-
     @Override
     public String toString() {
         return "ReplaceAndDecorateTableCmd[" + super.toString() + ", Remove <" + caretOffset + ", " + length + "]> " +
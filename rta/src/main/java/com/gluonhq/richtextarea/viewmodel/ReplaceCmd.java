@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2023, Gluon
+ * Copyright (c) 2023, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -52,7 +52,7 @@ class ReplaceCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         // 1. delete selection
         Objects.requireNonNull(viewModel).remove(-1, 1);
 
@@ -62,15 +62,6 @@ class ReplaceCmd extends AbstractEditCmd {
         }
     }
 
-    @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        // 1. insert content
-        Objects.requireNonNull(viewModel).undo();
-
-        // 2. delete selection
-        viewModel.undo();
-    }
-
     @Override
     public String toString() {
         return "ReplaceCmd[" + super.toString() + ", " + content + "]";
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -30,42 +30,60 @@ package com.gluonhq.richtextarea.viewmodel;
 import com.gluonhq.richtextarea.Selection;
 import com.gluonhq.richtextarea.Tools;
 import com.gluonhq.richtextarea.model.Decoration;
+import com.gluonhq.richtextarea.model.DecorationModel;
 import com.gluonhq.richtextarea.model.Document;
 import com.gluonhq.richtextarea.model.ImageDecoration;
 import com.gluonhq.richtextarea.model.Paragraph;
 import com.gluonhq.richtextarea.model.ParagraphDecoration;
+import com.gluonhq.richtextarea.model.PieceTable;
+import com.gluonhq.richtextarea.model.SearchQuery;
 import com.gluonhq.richtextarea.model.TextBuffer;
 import com.gluonhq.richtextarea.model.TextDecoration;
+import com.gluonhq.richtextarea.model.TextStatistics;
 import com.gluonhq.richtextarea.model.Unit;
-import com.gluonhq.richtextarea.model.UnitBuffer;
 import com.gluonhq.richtextarea.undo.CommandManager;
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.ReadOnlyIntegerWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.scene.image.Image;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.text.BreakIterator;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -80,11 +98,32 @@ public class RichTextAreaViewModel {
     public enum Direction { FORWARD, BACK, UP, DOWN }
     public enum Remove { LETTER, WORD, LINE }
 
-    private final CommandManager<RichTextAreaViewModel> commandManager = new CommandManager<>(this, this::updateProperties);
+    // maximum time between consecutive typing or removal commands, to merge them into one undo step
+    private static final Duration UNDO_MERGE_TIMEOUT = Duration.ofSeconds(1);
+    // number of commands between checkpoints of the text buffer, to jump through the undo history
+    private static final int UNDO_CHECKPOINT_INTERVAL = 50;
+
+    // created with the first command, so that read-only view models don't hold an undo history
+    private CommandManager<RichTextAreaViewModel> commandManager;
     private BreakIterator wordIterator;
     private int undoStackSizeWhenSaved = 0;
+    private int discardedCount = 0;
+    // text buffer built in a background thread for a document that is being opened
+    private Document preparedDocument;
+    private TextBuffer preparedTextBuffer;
 
     private final ObservableList<Paragraph> paragraphList = FXCollections.observableArrayList();
+    private final ListNumberingIndex listNumberingIndex = new ListNumberingIndex();
+    // word, character and paragraph counts of the text buffer, updated incrementally
+    // once any of the statistics properties is used
+    private TextStatistics textStatistics;
+    private boolean statisticsEnabled;
+    // the text buffer can be shared with other view models, that change it as well
+    private TextBuffer observedTextBuffer;
+    private final Consumer<TextBuffer.Event> sharedChangeListener = this::sharedTextBufferChanged;
+    private boolean batchInProgress;
+    // the caret and the selection are being moved after a change done by another view model
+    private boolean sharedChangeInProgress;
     Paragraph lastParagraph;
     private final BiFunction<Double, Boolean, Integer> getNextRowPosition;
     private final Function<Boolean, Integer> getNextTableCellPosition;
@@ -96,10 +135,24 @@ public class RichTextAreaViewModel {
         @Override
         protected void invalidated() {
             // invalidate undo/redo stack
-            commandManager.clearStacks();
+            if (commandManager != null) {
+                commandManager.clearStacks();
+            }
             undoStackSizeWhenSaved = 0;
+            discardedCount = 0;
             undoStackSizeProperty.set(0);
             redoStackSizeProperty.set(0);
+            if (observedTextBuffer != null) {
+                observedTextBuffer.removeChangeListener(sharedChangeListener);
+            }
+            observedTextBuffer = get();
+            if (observedTextBuffer != null) {
+                observedTextBuffer.addChangeListener(sharedChangeListener);
+            }
+            // count the new text buffer
+            if (statisticsEnabled) {
+                createStatistics();
+            }
         }
     };
     public final ObjectProperty<TextBuffer> textBufferProperty() {
@@ -156,6 +209,7 @@ public class RichTextAreaViewModel {
             if (!get().isDefined()) {
                 setDecorationAtCaret(getTextBuffer().getDecorationAtCaret(getCaretPosition()));
             }
+            updateSelectionStatistics();
         }
     };
     public final ObjectProperty<Selection> selectionProperty() {
@@ -176,6 +230,61 @@ public class RichTextAreaViewModel {
        return getTextBuffer().getTextLength();
     }
 
+    // wordCountProperty
+    private final ReadOnlyIntegerWrapper wordCountProperty = new ReadOnlyIntegerWrapper(this, "wordCount");
+    public final ReadOnlyIntegerProperty wordCountProperty() {
+       enableStatistics();
+       return wordCountProperty.getReadOnlyProperty();
+    }
+    public final int getWordCount() {
+       enableStatistics();
+       return wordCountProperty.get();
+    }
+
+    // characterCountProperty
+    private final ReadOnlyIntegerWrapper characterCountProperty = new ReadOnlyIntegerWrapper(this, "characterCount");
+    public final ReadOnlyIntegerProperty characterCountProperty() {
+       enableStatistics();
+       return characterCountProperty.getReadOnlyProperty();
+    }
+    public final int getCharacterCount() {
+       enableStatistics();
+       return characterCountProperty.get();
+    }
+
+    // paragraphCountProperty
+    private final ReadOnlyIntegerWrapper paragraphCountProperty = new ReadOnlyIntegerWrapper(this, "paragraphCount");
+    public final ReadOnlyIntegerProperty paragraphCountProperty() {
+       enableStatistics();
+       return paragraphCountProperty.getReadOnlyProperty();
+    }
+    public final int getParagraphCount() {
+       enableStatistics();
+       return paragraphCountProperty.get();
+    }
+
+    // selectedWordCountProperty
+    private final ReadOnlyIntegerWrapper selectedWordCountProperty = new ReadOnlyIntegerWrapper(this, "selectedWordCount");
+    public final ReadOnlyIntegerProperty selectedWordCountProperty() {
+       enableStatistics();
+       return selectedWordCountProperty.getReadOnlyProperty();
+    }
+    public final int getSelectedWordCount() {
+       enableStatistics();
+       return selectedWordCountProperty.get();
+    }
+
+    // selectedCharacterCountProperty
+    private final ReadOnlyIntegerWrapper selectedCharacterCountProperty = new ReadOnlyIntegerWrapper(this, "selectedCharacterCount");
+    public final ReadOnlyIntegerProperty selectedCharacterCountProperty() {
+       enableStatistics();
+       return selectedCharacterCountProperty.getReadOnlyProperty();
+    }
+    public final int getSelectedCharacterCount() {
+       enableStatistics();
+       return selectedCharacterCountProperty.get();
+    }
+
     // undoStackSizeProperty
     private final ReadOnlyIntegerWrapper undoStackSizeProperty = new ReadOnlyIntegerWrapper(this, "undoStackSize") {
         @Override
@@ -298,6 +407,40 @@ public class RichTextAreaViewModel {
         autoSaveProperty.set(value);
     }
 
+    // undoLimitProperty
+    private final IntegerProperty undoLimitProperty = new SimpleIntegerProperty(this, "undoLimit") {
+        @Override
+        protected void invalidated() {
+            applyUndoLimits();
+        }
+    };
+    public final IntegerProperty undoLimitProperty() {
+       return undoLimitProperty;
+    }
+    public final int getUndoLimit() {
+       return undoLimitProperty.get();
+    }
+    public final void setUndoLimit(int value) {
+        undoLimitProperty.set(value);
+    }
+
+    // undoMemoryLimitProperty
+    private final LongProperty undoMemoryLimitProperty = new SimpleLongProperty(this, "undoMemoryLimit") {
+        @Override
+        protected void invalidated() {
+            applyUndoLimits();
+        }
+    };
+    public final LongProperty undoMemoryLimitProperty() {
+       return undoMemoryLimitProperty;
+    }
+    public final long getUndoMemoryLimit() {
+       return undoMemoryLimitProperty.get();
+    }
+    public final void setUndoMemoryLimit(long value) {
+        undoMemoryLimitProperty.set(value);
+    }
+
     // savedProperty
     final ReadOnlyBooleanWrapper savedProperty = new ReadOnlyBooleanWrapper(this, "saved", true);
     public final ReadOnlyBooleanProperty savedProperty() {
@@ -307,6 +450,15 @@ public class RichTextAreaViewModel {
        return savedProperty.get();
     }
 
+    // documentProgressProperty
+    private final ReadOnlyDoubleWrapper documentProgressProperty = new ReadOnlyDoubleWrapper(this, "documentProgress", 1);
+    public final ReadOnlyDoubleProperty documentProgressProperty() {
+       return documentProgressProperty.getReadOnlyProperty();
+    }
+    public final double getDocumentProgress() {
+       return documentProgressProperty.get();
+    }
+
     // attachedProperty
     private final ReadOnlyBooleanWrapper attachedProperty = new ReadOnlyBooleanWrapper(this, "attached", true);
     public final ReadOnlyBooleanProperty attachedProperty() {
@@ -324,12 +476,188 @@ public class RichTextAreaViewModel {
     public RichTextAreaViewModel(BiFunction<Double, Boolean, Integer> getNextRowPosition, Function<Boolean, Integer> getNextTableCellPosition) {
         this.getNextRowPosition = Objects.requireNonNull(getNextRowPosition);
         this.getNextTableCellPosition = Objects.requireNonNull(getNextTableCellPosition);
+        paragraphList.addListener(this::paragraphListChanged);
+    }
+
+    private void enableStatistics() {
+        if (!statisticsEnabled) {
+            statisticsEnabled = true;
+            createStatistics();
+        }
+    }
+
+    private void createStatistics() {
+        if (textStatistics != null) {
+            textStatistics.dispose();
+        }
+        textStatistics = textBufferProperty.get() != null ? new TextStatistics(textBufferProperty.get()) : null;
+        if (textStatistics != null) {
+            textStatistics.addStatisticsListener(s -> updateStatistics());
+        }
+        updateStatistics();
+    }
+
+    private void updateStatistics() {
+        wordCountProperty.set(textStatistics != null ? textStatistics.getWordCount() : 0);
+        characterCountProperty.set(textStatistics != null ? textStatistics.getCharacterCount() : 0);
+        paragraphCountProperty.set(textStatistics != null ? textStatistics.getParagraphCount() : 0);
+        updateSelectionStatistics();
+    }
+
+    private void updateSelectionStatistics() {
+        Selection selection = getSelection();
+        if (textStatistics == null || !selection.isDefined()) {
+            selectedWordCountProperty.set(0);
+            selectedCharacterCountProperty.set(0);
+            return;
+        }
+        // the selection is adjusted after the text changes
+        int end = Math.min(selection.getEnd(), getTextLength());
+        int start = Math.min(selection.getStart(), end);
+        selectedWordCountProperty.set(textStatistics.getWordCount(start, end));
+        selectedCharacterCountProperty.set(textStatistics.getCharacterCount(start, end));
+    }
+
+    private void applyUndoLimits() {
+        if (commandManager == null) {
+            // the limits are applied when the command manager is created
+            return;
+        }
+        // edit commands own the changes done to the text buffer, so its history is not used
+        commandManager.setMaxCommands(Math.max(0, getUndoLimit()));
+        commandManager.setMaxRetainedSize(Math.max(0, getUndoMemoryLimit()));
+        updateProperties();
     }
 
     public ObservableList<Paragraph> getParagraphList() {
         return paragraphList;
     }
 
+    /**
+     * Gets the ordinal of a paragraph of a numbered list, that is, its position among the
+     * consecutive paragraphs of the numbered list with its same indentation level, in O(log n)
+     * @param paragraph the paragraph
+     * @return the ordinal, from 1, 0 if the paragraph is not part of a numbered list, or -1
+     * if it is not in the paragraph list
+     */
+    public int getListOrdinal(Paragraph paragraph) {
+        int index = Collections.binarySearch(paragraphList, paragraph, Comparator.comparingInt(Paragraph::getStart));
+        if (index < 0 || !paragraph.equals(paragraphList.get(index))) {
+            return -1;
+        }
+        return listNumberingIndex.getOrdinal(index);
+    }
+
+    /**
+     * Gets the range of text of the paragraphs with list ordinals that might have changed since this
+     * method was last called, because a paragraph joined or left a numbered list, so they can be rendered
+     * again, even if they were not modified themselves
+     * @return the start and end positions of the text of those paragraphs, or null if there were no changes
+     */
+    public int[] pollChangedListOrdinals() {
+        int[] range = listNumberingIndex.pollChangedRange();
+        if (range == null) {
+            return null;
+        }
+        return new int[] {paragraphList.get(range[0]).getStart(), paragraphList.get(range[1]).getEnd()};
+    }
+
+    // the paragraph list is only changed by setting its paragraphs, or by adding or removing
+    // them at its end, so the numbered list index is updated incrementally
+    private void paragraphListChanged(ListChangeListener.Change<? extends Paragraph> change) {
+        while (change.next()) {
+            int from = change.getFrom();
+            if (change.wasReplaced() && change.getRemovedSize() == change.getAddedSize()) {
+                for (int i = from; i < change.getTo(); i++) {
+                    listNumberingIndex.set(i, ListNumberingIndex.keyOf(paragraphList.get(i)));
+                }
+            } else if (change.wasAdded() && !change.wasRemoved() && from == listNumberingIndex.size()) {
+                change.getAddedSubList().forEach(p -> listNumberingIndex.add(ListNumberingIndex.keyOf(p)));
+            } else if (change.wasRemoved() && !change.wasAdded() && from + change.getRemovedSize() == listNumberingIndex.size()) {
+                listNumberingIndex.truncate(from);
+            } else {
+                listNumberingIndex.rebuild(paragraphList);
+                return;
+            }
+        }
+    }
+
+    /*
+     * Handles the changes done to the text buffer by other view models that share it: the caret
+     * and the selection of this view model are moved along with the text, and its undo history
+     * is discarded, as its changes can't be undone over the changes done by the other view models
+     */
+    private void sharedTextBufferChanged(TextBuffer.Event event) {
+        if (isChangingText()) {
+            // the change was done by a command of this view model
+            return;
+        }
+        sharedChangeInProgress = true;
+        try {
+            followSharedChange(event);
+        } finally {
+            sharedChangeInProgress = false;
+        }
+    }
+
+    private void followSharedChange(TextBuffer.Event event) {
+        if (event instanceof TextBuffer.InsertEvent insertEvent) {
+            int position = insertEvent.getPosition();
+            int length = insertEvent.getText().length();
+            movePositions(p -> p > position ? p + length : p);
+        } else if (event instanceof TextBuffer.DeleteEvent deleteEvent) {
+            int position = deleteEvent.getPosition();
+            int length = deleteEvent.getLength();
+            movePositions(p -> p > position ? Math.max(position, p - length) : p);
+        } else if (event instanceof TextBuffer.TransactionEvent transactionEvent) {
+            // positions inside the replaced range collapse to its start, those after it are shifted
+            int position = transactionEvent.getPosition();
+            int removedLength = transactionEvent.getRemovedLength();
+            int delta = transactionEvent.getInsertedLength() - removedLength;
+            int textLength = getTextLength();
+            movePositions(p -> Math.min(textLength, p <= position ? p :
+                    p >= position + removedLength ? p + delta : position));
+        }
+        // the saved state can't be reached anymore by undoing or redoing changes
+        undoStackSizeWhenSaved = -1;
+        if (commandManager != null && (commandManager.getUndoStackSize() > 0 || commandManager.getRedoStackSize() > 0)) {
+            commandManager.clearStacks();
+            discardedCount = 0;
+            undoStackSizeProperty.set(0);
+            redoStackSizeProperty.set(0);
+        }
+        savedProperty.set(false);
+    }
+
+    /**
+     * Returns true while a command of this view model is changing the text buffer, so the changes that
+     * are notified in the meantime are its own, and not changes done by other view models that share it
+     * @return true if this view model is changing the text buffer
+     */
+    public final boolean isChangingText() {
+        return !attachedProperty.get() || batchInProgress;
+    }
+
+    /**
+     * Returns true while the caret and the selection of this view model are being moved along with
+     * a change done to the text buffer by another view model that shares it
+     * @return true if a change from another view model is being followed
+     */
+    public final boolean isSharedChangeInProgress() {
+        return sharedChangeInProgress;
+    }
+
+    private void movePositions(IntUnaryOperator mapper) {
+        Selection selection = getSelection();
+        if (selection.isDefined()) {
+            setSelection(new Selection(mapper.applyAsInt(selection.getStart()), mapper.applyAsInt(selection.getEnd())));
+        }
+        int caretPosition = getCaretPosition();
+        if (caretPosition >= 0) {
+            setCaretPosition(mapper.applyAsInt(caretPosition));
+        }
+    }
+
     public boolean isEmptyParagraph(Paragraph paragraph) {
         if (paragraph == null || paragraph.getEnd() - paragraph.getStart() < 1) {
             return true;
@@ -347,9 +675,45 @@ public class RichTextAreaViewModel {
     }
 
     CommandManager<RichTextAreaViewModel> getCommandManager() {
+        if (commandManager == null) {
+            commandManager = new CommandManager<>(this, this::updateProperties);
+            commandManager.setMergeTimeout(UNDO_MERGE_TIMEOUT);
+            commandManager.setCheckpoints(UNDO_CHECKPOINT_INTERVAL, vm -> vm.getTextBuffer().createCheckpoint());
+            commandManager.setEvictionListener(() -> {
+                // the decorations of the evicted commands are no longer needed by the text buffer
+                TextBuffer textBuffer = textBufferProperty.get();
+                if (textBuffer != null) {
+                    textBuffer.compactDecorations();
+                }
+            });
+            applyUndoLimits();
+        }
         return commandManager;
     }
 
+    boolean hasCommandManager() {
+        return commandManager != null;
+    }
+
+    boolean hasStatistics() {
+        return textStatistics != null;
+    }
+
+    /**
+     * Moves to the given point of the undo history, restoring the nearest checkpoint of the
+     * text buffer, if any, and undoing or redoing only the remaining commands, while the
+     * text buffer notifies a single change
+     * @param historyIndex the number of commands that can be undone after the jump
+     */
+    void jumpTo(int historyIndex) {
+        batchInProgress = true;
+        try {
+            getTextBuffer().runAsBatch(() -> getCommandManager().jumpTo(historyIndex));
+        } finally {
+            batchInProgress = false;
+        }
+    }
+
     void moveCaretPosition(final int charCount) {
         int pos = getCaretPosition() + charCount;
         if (pos >= 0 && pos <= getTextLength()) {
@@ -373,14 +737,16 @@ public class RichTextAreaViewModel {
     void insert(String text) {
         removeSelection();
         int caretPosition = getCaretPosition();
-        if (caretPosition >= getTextLength()) {
+        int textLength = getTextLength();
+        if (caretPosition >= textLength) {
             getTextBuffer().append(text);
             // text (with 0+ LF) appended to last paragraph or as new paragraphs
         } else {
             getTextBuffer().insert(text, caretPosition);
             // text (with 0+ LF) inserted to some paragraph or as new paragraphs
         }
-        moveCaretPosition(UnitBuffer.convertTextToUnits(text).getInternalText().length());
+        // the internal length of the inserted text, without parsing it again
+        moveCaretPosition(getTextLength() - textLength);
     }
 
     void remove(int caretOffset, int length) {
@@ -435,6 +801,24 @@ public class RichTextAreaViewModel {
         }
     }
 
+    void decorateAll(List<DecorationModel> decorationModels) {
+        Selection selection = getSelection();
+        int caretPosition = getCaretPosition();
+        clearSelection();
+        setCaretPosition(-1);
+        getTextBuffer().decorateAll(decorationModels);
+        setCaretPosition(caretPosition);
+        setSelection(selection);
+    }
+
+    void replaceAll(SearchQuery query, String replacement) {
+        int caretPosition = getCaretPosition();
+        clearSelection();
+        setCaretPosition(-1);
+        getTextBuffer().replaceAll(query, replacement);
+        setCaretPosition(Math.min(caretPosition, getTextLength()));
+    }
+
     /**
      * Deletes selection if exists and sets caret to the start position of the deleted selection
      */
@@ -462,7 +846,7 @@ public class RichTextAreaViewModel {
             }
             content.putString(text.replaceAll(TextBuffer.ZERO_WIDTH_NO_BREAK_SPACE_TEXT, ""));
             if (cutText) {
-                commandManager.execute(new RemoveTextCmd(0));
+                getCommandManager().execute(new RemoveTextCmd(0));
             }
             Clipboard.getSystemClipboard().setContent(content);
         }
@@ -486,13 +870,13 @@ public class RichTextAreaViewModel {
 
     void clipboardPaste() {
         if (clipboardHasDocument()) {
-            commandManager.execute(new PasteDocumentCmd((Document) Clipboard.getSystemClipboard().getContent(RTA_DATA_FORMAT)));
+            getCommandManager().execute(new PasteDocumentCmd((Document) Clipboard.getSystemClipboard().getContent(RTA_DATA_FORMAT)));
         } else if (clipboardHasImage()) {
             final Image image = Clipboard.getSystemClipboard().getImage();
             if (image != null) {
                 String url = image.getUrl() != null ? image.getUrl() : Clipboard.getSystemClipboard().getUrl();
                 if (url != null) {
-                    commandManager.execute(new DecorateCmd(new ImageDecoration(url)));
+                    getCommandManager().execute(new DecorateCmd(new ImageDecoration(url)));
                 }
             }
         } else if (clipboardHasUrl()) {
@@ -500,10 +884,10 @@ public class RichTextAreaViewModel {
             if (url != null) {
                 if (!getSelection().isDefined()) {
                     int caret = getCaretPosition();
-                    commandManager.execute(new InsertCmd(url));
+                    getCommandManager().execute(new InsertCmd(url));
                     setSelection(new Selection(caret, caret + url.length()));
                 }
-                commandManager.execute(new DecorateCmd(TextDecoration.builder().url(url).build()));
+                getCommandManager().execute(new DecorateCmd(TextDecoration.builder().url(url).build()));
             }
         } else {
             String text = null;
@@ -512,9 +896,9 @@ public class RichTextAreaViewModel {
             }
             if (text != null) {
                 if (getSelection().isDefined()) {
-                    commandManager.execute(new ReplaceCmd(text));
+                    getCommandManager().execute(new ReplaceCmd(text));
                 } else {
-                    commandManager.execute(new InsertCmd(text));
+                    getCommandManager().execute(new InsertCmd(text));
                 }
             }
         }
@@ -678,20 +1062,6 @@ public class RichTextAreaViewModel {
                 .collect(Collectors.toList());
     }
 
-    void undo() {
-        this.getTextBuffer().undo();
-    }
-
-    void undoDecoration() {
-        Selection selection = getSelection();
-        clearSelection();
-        int caretPosition = getCaretPosition();
-        setCaretPosition(-1);
-        undo();
-        setCaretPosition(caretPosition);
-        setSelection(selection);
-    }
-
     public void selectCurrentWord() {
         if (getTextLength() <= 0) {
             return;
@@ -713,13 +1083,13 @@ public class RichTextAreaViewModel {
     void removeWord() {
         int wordPos = previousWordPosition();
         int finalPos = getCaretPosition() - wordPos;
-        commandManager.execute(new RemoveTextCmd(-finalPos, finalPos));
+        getCommandManager().execute(new RemoveTextCmd(-finalPos, finalPos));
     }
 
     void removeLine() {
         int pos = getNextRowPosition.apply(0d, null);
         int finalPos = getCaretPosition() - pos;
-        commandManager.execute(new RemoveTextCmd(-finalPos, finalPos));
+        getCommandManager().execute(new RemoveTextCmd(-finalPos, finalPos));
     }
 
     private int previousWordPosition() {
@@ -801,17 +1171,68 @@ public class RichTextAreaViewModel {
     }
 
     private void updateProperties() {
+        int discarded = commandManager.getDiscardedCount() - discardedCount;
+        if (discarded > 0) {
+            // the oldest commands were discarded, so the saved state moves down the undo stack,
+            // or can't be reached anymore
+            discardedCount += discarded;
+            undoStackSizeWhenSaved = undoStackSizeWhenSaved >= discarded ? undoStackSizeWhenSaved - discarded : -1;
+            if (commandManager.getUndoStackSize() == getUndoStackSize()) {
+                // a new command was executed, but the size of the undo stack didn't change
+                if (isAutoSave()) {
+                    save();
+                } else {
+                    savedProperty.set(false);
+                }
+            }
+        }
         undoStackSizeProperty.set(commandManager.getUndoStackSize());
         redoStackSizeProperty.set(commandManager.getRedoStackSize());
     }
 
     private Document getCurrentDocument(Selection selection) {
+        return createDocument(getTextBuffer(), getCaretPosition(), selection);
+    }
+
+    private static Document createDocument(TextBuffer textBuffer, int caretPosition, Selection selection) {
         // text and indices should be based on the exportable text
-        int caretPosition = getCaretPosition() < 0 ? getTextLength() : getCaretPosition();
-        int caret = getTextBuffer().getText(0, caretPosition).length();
+        int position = caretPosition < 0 ? textBuffer.getTextLength() : caretPosition;
+        int caret = textBuffer.getText(0, position).length();
         int start = selection.isDefined() ? selection.getStart() : 0;
-        int end = selection.isDefined() ? selection.getEnd() : getTextLength();
-        return new Document(getTextBuffer().getText(start, end), getTextBuffer().getDecorationModelList(start, end), caret);
+        int end = selection.isDefined() ? selection.getEnd() : textBuffer.getTextLength();
+        return new Document(textBuffer.getText(start, end), textBuffer.getDecorationModelList(start, end), caret);
+    }
+
+    /*
+     * Creates the full document as createDocument, walking the text buffer once for the text
+     * and the decorations, and reports the progress of that walk
+     */
+    private static Document createDocument(TextBuffer textBuffer, int caretPosition, DoubleConsumer progress) {
+        int position = caretPosition < 0 ? textBuffer.getTextLength() : caretPosition;
+        int caret = textBuffer.getText(0, position).length();
+        ProgressAppendable text = new ProgressAppendable(textBuffer.getTextLength(), progress);
+        List<DecorationModel> decorations = new ArrayList<>();
+        try {
+            textBuffer.writeTo(text, 0, textBuffer.getTextLength(), decorations::add);
+        } catch (IOException e) {
+            // not thrown by StringBuilder
+            throw new UncheckedIOException(e);
+        }
+        return new Document(text.toString(), decorations, caret);
+    }
+
+    /**
+     * Creates the text buffer for a document that is being set up. If the document is being
+     * opened asynchronously, the text buffer that was already built in a background thread
+     * is returned.
+     * @param document the document that is being set up
+     * @return a text buffer for the document
+     */
+    public TextBuffer createTextBuffer(Document document) {
+        if (preparedTextBuffer != null && preparedDocument == document) {
+            return preparedTextBuffer;
+        }
+        return new PieceTable(document);
     }
 
     void newDocument() {
@@ -830,10 +1251,181 @@ public class RichTextAreaViewModel {
         });
     }
 
+    /*
+     * Shows the text buffer of another view model, instead of a copy of it, so the changes done
+     * by any of them are seen by all, while each one keeps its own caret, selection and undo
+     * history. As the text is not copied, an empty document is set.
+     */
+    void share(RichTextAreaViewModel source) {
+        Objects.requireNonNull(source);
+        if (source == this) {
+            throw new IllegalArgumentException("A view model can't share its own text buffer");
+        }
+        Document document = new Document();
+        preparedDocument = document;
+        preparedTextBuffer = source.getTextBuffer();
+        try {
+            // invalidate documentProperty
+            setDocument(null);
+            setDocument(document);
+        } finally {
+            preparedDocument = null;
+            preparedTextBuffer = null;
+        }
+    }
+
     void save() {
+        // the saved state is a boundary for undo
+        if (commandManager != null) {
+            commandManager.endMerge();
+        }
         Document currentDocument = getCurrentDocument(Selection.UNDEFINED);
         undoStackSizeWhenSaved = getUndoStackSize();
         savedProperty.set(true);
         setDocument(currentDocument);
     }
+
+    /*
+     * Builds the text buffer for the document in a background thread, and then
+     * sets the document on the JavaFX Application thread
+     */
+    CompletableFuture<Document> openAsync(Document document) {
+        Objects.requireNonNull(document);
+        return openAsync(document, progress -> new PieceTable(document, progress));
+    }
+
+    /*
+     * Maps a text file into a text buffer in a background thread, and then sets an empty
+     * document on the JavaFX Application thread, as the text of the file is not loaded.
+     * Mapping the file is a single step, so there is no progress reported until it is done.
+     */
+    CompletableFuture<Document> openAsync(Path path) {
+        Objects.requireNonNull(path);
+        return openAsync(new Document(), progress -> {
+            try {
+                return PieceTable.map(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private CompletableFuture<Document> openAsync(Document document, Function<DoubleConsumer, TextBuffer> textBufferFactory) {
+        documentProgressProperty.set(0);
+        DoubleConsumer progress = createProgressReporter();
+        return CompletableFuture.supplyAsync(() -> {
+                    TextBuffer textBuffer = textBufferFactory.apply(progress);
+                    Platform.runLater(() -> documentProgressProperty.set(0.5));
+                    return textBuffer;
+                })
+                .thenApplyAsync(textBuffer -> {
+                    preparedDocument = document;
+                    preparedTextBuffer = textBuffer;
+                    try {
+                        // invalidate documentProperty
+                        setDocument(null);
+                        setDocument(document);
+                    } finally {
+                        preparedDocument = null;
+                        preparedTextBuffer = null;
+                    }
+                    return document;
+                }, Platform::runLater)
+                .whenCompleteAsync((d, t) -> documentProgressProperty.set(1), Platform::runLater);
+    }
+
+    /*
+     * Takes a snapshot of the text buffer on the JavaFX Application thread, and builds
+     * the document from it in a background thread. The document is set only if the text
+     * buffer wasn't modified in the meantime, else the future still completes with the
+     * document of the snapshot.
+     */
+    CompletableFuture<Document> saveAsync() {
+        TextBuffer textBuffer = getTextBuffer();
+        TextBuffer snapshot = textBuffer.snapshot();
+        if (commandManager != null) {
+            commandManager.endMerge();
+        }
+        int caretPosition = getCaretPosition();
+        int undoStackSize = getUndoStackSize();
+        AtomicBoolean modified = new AtomicBoolean();
+        Consumer<TextBuffer.Event> listener = e -> modified.set(true);
+        textBuffer.addChangeListener(listener);
+        documentProgressProperty.set(0);
+        DoubleConsumer progress = createProgressReporter();
+        return CompletableFuture.supplyAsync(() -> {
+                    Document document = createDocument(snapshot, caretPosition, progress);
+                    Platform.runLater(() -> documentProgressProperty.set(0.5));
+                    return document;
+                })
+                .thenApplyAsync(document -> {
+                    if (!modified.get() && textBuffer == getTextBuffer()) {
+                        undoStackSizeWhenSaved = undoStackSize;
+                        savedProperty.set(true);
+                        setDocument(document);
+                    }
+                    return document;
+                }, Platform::runLater)
+                .whenCompleteAsync((d, t) -> {
+                    textBuffer.removeChangeListener(listener);
+                    documentProgressProperty.set(1);
+                }, Platform::runLater);
+    }
+
+    /*
+     * Creates a consumer of the progress of the work done in a background thread, between 0 and 1, that
+     * is reported as the first half of the document progress. Only whole percents are passed to the
+     * JavaFX Application thread, and the document progress never goes back.
+     */
+    private DoubleConsumer createProgressReporter() {
+        AtomicInteger percent = new AtomicInteger();
+        return value -> {
+            int p = (int) (Math.min(1, value) * 100);
+            if (percent.getAndAccumulate(p, Math::max) < p) {
+                Platform.runLater(() -> documentProgressProperty.set(Math.max(getDocumentProgress(), p / 200d)));
+            }
+        };
+    }
+
+    /*
+     * An appendable, backed by a StringBuilder, that reports the fraction of the expected length that was appended.
+     * The exportable text can be longer than the internal text, so the fraction is capped to 1.
+     */
+    private static final class ProgressAppendable implements Appendable {
+
+        private final StringBuilder sb = new StringBuilder();
+        private final int length;
+        private final DoubleConsumer progress;
+
+        ProgressAppendable(int length, DoubleConsumer progress) {
+            this.length = Math.max(1, length);
+            this.progress = progress;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            sb.append(csq);
+            progress.accept((double) sb.length() / length);
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            sb.append(csq, start, end);
+            progress.accept((double) sb.length() / length);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            sb.append(c);
+            progress.accept((double) sb.length() / length);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2023, Gluon
+ * Copyright (c) 2023, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -45,16 +45,14 @@ public class SelectAndDecorateCmd extends AbstractEditCmd {
     }
 
     @Override
-    protected void doUndo(RichTextAreaViewModel viewModel) {
-        Objects.requireNonNull(viewModel);
+    protected void undoEdit(RichTextAreaViewModel viewModel) {
         if (prevDecoration != null && prevDecoration instanceof TextDecoration) {
             viewModel.setDecorationAtCaret(prevDecoration);
         }
-        viewModel.undo();
     }
 
     @Override
-    protected void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         Objects.requireNonNull(viewModel);
         if (viewModel.isEditable()) {
             prevDecoration = viewModel.getDecorationAtCaret();
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2023, Gluon
+ * Copyright (c) 2023, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -57,7 +57,7 @@ class SelectAndReplaceCmd extends AbstractEditCmd {
     }
 
     @Override
-    public void doRedo(RichTextAreaViewModel viewModel) {
+    protected void doEdit(RichTextAreaViewModel viewModel) {
         Objects.requireNonNull(viewModel);
 
         // 1. select
@@ -74,15 +74,6 @@ class SelectAndReplaceCmd extends AbstractEditCmd {
         }
     }
 
-    @Override
-    public void doUndo(RichTextAreaViewModel viewModel) {
-        // 1. insert content
-        Objects.requireNonNull(viewModel).undo();
-
-        // 2. delete selection
-        viewModel.undo();
-    }
-
     @Override
     public String toString() {
         return "SelectAndReplaceCmd[" + super.toString() + ", " + content + ", " + selection + "]";
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.richtextarea.model.DecorationModel;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.ParagraphDecoration;
+import com.gluonhq.richtextarea.model.TableDecoration;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.text.TextAlignment;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentLayoutTests {
+
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog, and then it keeps running until the end of the line";
+
+    @BeforeAll
+    public static void startFx() {
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException e) {
+            // Platform already initialized
+        }
+    }
+
+    @Test
+    @DisplayName("Long paragraphs are broken into lines between words")
+    public void lineBreaks() {
+        assertEquals(1, layout(TEXT, presets().build(), 10000).getLineCount());
+
+        ParagraphLayout layout = layout(TEXT, presets().build(), 150);
+        assertTrue(layout.getLineCount() > 2);
+        assertEquals(0, layout.getLineStart(0));
+        for (int line = 1; line < layout.getLineCount(); line++) {
+            int lineStart = layout.getLineStart(line);
+            assertTrue(lineStart > layout.getLineStart(line - 1));
+            assertEquals(' ', TEXT.charAt(lineStart - 1));
+            assertTrue(layout.getLineTop(line) >= layout.getLineTop(line - 1) + layout.getLineHeight(line - 1));
+            assertEquals(line - 1, layout.getLineIndex(lineStart - 1));
+            assertEquals(line, layout.getLineIndex(lineStart));
+            assertEquals(layout.getLineTop(line), layout.getCaretBounds(lineStart).getMinY(), 0.01);
+            assertTrue(layout.getCaretBounds(lineStart - 1).getMinY() < layout.getLineTop(line));
+        }
+    }
+
+    @Test
+    @DisplayName("Lines break at the same positions with any alignment")
+    public void alignment() {
+        ParagraphLayout left = layout(TEXT, presets().build(), 150);
+        int lastLine = left.getLineCount() - 1;
+        for (TextAlignment alignment : List.of(TextAlignment.CENTER, TextAlignment.RIGHT)) {
+            ParagraphLayout aligned = layout(TEXT, presets().alignment(alignment).build(), 150);
+            assertEquals(left.getLineCount(), aligned.getLineCount());
+            for (int line = 0; line < left.getLineCount(); line++) {
+                assertEquals(left.getLineStart(line), aligned.getLineStart(line));
+                assertEquals(left.getLineTop(line), aligned.getLineTop(line), 0.01);
+            }
+            assertEquals(left.getHeight(), aligned.getHeight(), 0.01);
+            // the last line is shorter, so it is moved to the right
+            assertTrue(aligned.getCaretBounds(aligned.getLineStart(lastLine)).getMinX() >
+                    left.getCaretBounds(left.getLineStart(lastLine)).getMinX());
+        }
+    }
+
+    @Test
+    @DisplayName("Insets and indentation are added to the height and the caret bounds")
+    public void insetsAndIndentation() {
+        String text = "Short line";
+        ParagraphLayout plain = layout(text, presets().build(), 500);
+        assertEquals(1, plain.getLineCount());
+        assertEquals(0, plain.getIndent());
+        assertEquals(plain.getLineHeight(0) + ParagraphLayout.LAYER_EXTRA_HEIGHT + 2 * ParagraphLayout.TILE_PADDING,
+                plain.getHeight(), 0.01);
+        Bounds plainCaret = plain.getCaretBounds(2);
+
+        ParagraphLayout inset = layout(text, presets().insets(10, 5, 20, 30).build(), 500);
+        assertEquals(1, inset.getLineCount());
+        assertEquals(plain.getHeight() + 30, inset.getHeight(), 0.01);
+        assertEquals(plain.getLineTop(0) + 10, inset.getLineTop(0), 0.01);
+        Bounds insetCaret = inset.getCaretBounds(2);
+        assertEquals(plainCaret.getMinX() + 30, insetCaret.getMinX(), 0.01);
+        assertEquals(plainCaret.getMinY() + 10, insetCaret.getMinY(), 0.01);
+        assertEquals(plainCaret.getHeight(), insetCaret.getHeight(), 0.01);
+
+        ParagraphLayout indented = layout(text, presets().indentationLevel(2).build(), 500);
+        assertEquals(2 * ParagraphLayout.INDENT_PADDING, indented.getIndent());
+        assertEquals(plain.getHeight(), indented.getHeight(), 0.01);
+        assertEquals(plainCaret.getMinX() + 2 * ParagraphLayout.INDENT_PADDING, indented.getCaretBounds(2).getMinX(), 0.01);
+        ParagraphLayout numbered = layout(text, presets().graphicType(ParagraphDecoration.GraphicType.NUMBERED_LIST).build(), 500);
+        assertEquals(ParagraphLayout.INDENT_PADDING, numbered.getIndent());
+
+        // the insets and the indentation reduce the width of the text
+        ParagraphLayout wrapped = layout(TEXT, presets().build(), 300);
+        ParagraphLayout narrower = layout(TEXT, presets().insets(0, 50, 0, 50).indentationLevel(2).build(), 300);
+        assertTrue(narrower.getLineCount() > wrapped.getLineCount());
+    }
+
+    @Test
+    @DisplayName("Tables are measured as a grid of cells")
+    public void tables() {
+        ParagraphLayout plain = layout("a", presets().build(), 400);
+        String text = "a\u200bb\u200bc\u200bd";
+        ParagraphLayout table = layout(text, presets().tableDecoration(new TableDecoration(2, 2)).build(), 400);
+        assertEquals(1, table.getLineCount());
+        assertFalse(table.isSplittable());
+        assertEquals(0, table.getIndent());
+        // two rows, each as tall as a layer, and the extra pixel of the grid box
+        assertEquals(2 * (plain.getLineHeight(0) + ParagraphLayout.LAYER_EXTRA_HEIGHT) + 1 + 2 * ParagraphLayout.TILE_PADDING,
+                table.getHeight(), 0.01);
+
+        Bounds first = table.getCaretBounds(0);
+        Bounds second = table.getCaretBounds(2);
+        Bounds third = table.getCaretBounds(4);
+        assertEquals(first.getMinY(), second.getMinY(), 0.01);
+        assertEquals(first.getMinX() + 200, second.getMinX(), 0.01);
+        assertEquals(first.getMinX(), third.getMinX(), 0.01);
+        assertEquals(first.getMinY() + plain.getLineHeight(0) + ParagraphLayout.LAYER_EXTRA_HEIGHT, third.getMinY(), 0.01);
+
+        // the text of a cell wraps at the width of the cell
+        ParagraphLayout wrapped = layout(TEXT + "\u200bb", presets().tableDecoration(new TableDecoration(1, 2)).build(), 400);
+        assertTrue(wrapped.getHeight() > 3 * plain.getLineHeight(0));
+        assertTrue(wrapped.getCaretBounds(TEXT.length() - 1).getMaxX() <= ParagraphLayout.TABLE_CELL_WIDTH + ParagraphLayout.TILE_PADDING);
+    }
+
+    @Test
+    @DisplayName("The caret bounds of a document are relative to its top")
+    public void documentCaretBounds() {
+        DocumentLayout layout = new DocumentLayout(new Document("first\nsecond\n\nlast"), 500);
+        assertEquals(4, layout.getParagraphs().size());
+        double top = 0;
+        for (int i = 0; i < layout.getParagraphs().size(); i++) {
+            assertEquals(top, layout.getParagraphTop(i), 0.01);
+            top += layout.getParagraphs().get(i).getHeight();
+        }
+        assertEquals(top, layout.getHeight(), 0.01);
+
+        assertEquals(0, layout.getParagraphIndex(0));
+        assertEquals(0, layout.getParagraphIndex(5));
+        assertEquals(1, layout.getParagraphIndex(6));
+        assertEquals(2, layout.getParagraphIndex(13));
+        assertEquals(3, layout.getParagraphIndex(14));
+        assertEquals(3, layout.getParagraphIndex(18));
+        assertThrows(IllegalArgumentException.class, () -> layout.getParagraphIndex(-1));
+        assertThrows(IllegalArgumentException.class, () -> layout.getParagraphIndex(19));
+
+        Bounds caret = layout.getCaretBounds(8);
+        Bounds paragraphCaret = layout.getParagraphs().get(1).getCaretBounds(8);
+        assertEquals(layout.getParagraphTop(1) + paragraphCaret.getMinY(), caret.getMinY(), 0.01);
+        assertEquals(paragraphCaret.getMinX(), caret.getMinX(), 0.01);
+        assertEquals(0, caret.getWidth());
+        assertTrue(caret.getMinX() > layout.getCaretBounds(6).getMinX());
+        assertTrue(layout.getCaretBounds(14).getMinY() > layout.getCaretBounds(8).getMaxY());
+    }
+
+    @Test
+    @DisplayName("Documents are laid out in parallel, in order")
+    public void layoutAll() throws Exception {
+        List<Document> documents = IntStream.range(0, 8)
+                .mapToObj(i -> new Document((TEXT + "\n").repeat(i + 1)))
+                .toList();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<DocumentLayout> layouts = DocumentLayout.layoutAll(documents, 200, executor).get(10, TimeUnit.SECONDS);
+            assertEquals(documents.size(), layouts.size());
+            for (int i = 0; i < documents.size(); i++) {
+                DocumentLayout expected = new DocumentLayout(documents.get(i), 200);
+                assertEquals(i + 2, layouts.get(i).getParagraphs().size());
+                assertEquals(expected.getHeight(), layouts.get(i).getHeight(), 0.01);
+                assertEquals(expected.getParagraphs().get(0).getLineCount(), layouts.get(i).getParagraphs().get(0).getLineCount());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThrows(IllegalArgumentException.class, () -> DocumentLayout.layoutAll(documents, 0, Runnable::run));
+    }
+
+    private static ParagraphDecoration.Builder presets() {
+        return ParagraphDecoration.builder().presets();
+    }
+
+    private static ParagraphLayout layout(String text, ParagraphDecoration decoration, double wrapWidth) {
+        Document document = new Document(text, List.of(new DecorationModel(0, text.length(),
+                TextDecoration.builder().presets().build(), decoration)), 0);
+        return new DocumentLayout(document, wrapWidth).getParagraphs().get(0);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.richtextarea.model.DecorationModel;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.ImageDecoration;
+import com.gluonhq.richtextarea.model.ParagraphDecoration;
+import com.gluonhq.richtextarea.model.PieceTable;
+import com.gluonhq.richtextarea.model.TableDecoration;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.TextFlow;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentPaginatorTests {
+
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog, and then it keeps running until the end of the line";
+    // a 1x1 png image
+    private static final String IMAGE_URL = "data:image/png;base64," +
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=";
+    private static final double WIDTH = 200;
+
+    @BeforeAll
+    public static void startFx() {
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException e) {
+            // Platform already initialized
+        }
+    }
+
+    @Test
+    @DisplayName("A paragraph that doesn't fit in a page is split at the end of a line")
+    public void splitParagraph() {
+        PieceTable pt = new PieceTable(new Document(String.join(" ", TEXT, TEXT, TEXT)));
+        ParagraphLayout paragraph = layout(pt).getParagraphs().get(0);
+        assertTrue(paragraph.getLineCount() > 8);
+        // the first four lines and the top of the paragraph fit in a page
+        double pageHeight = paragraph.getLineTop(3) + paragraph.getLineHeight(3) + ParagraphLayout.TILE_PADDING;
+
+        DocumentPaginator paginator = paginator(pt, pageHeight);
+        assertEquals((paragraph.getLineCount() + 3) / 4, paginator.getPageCount());
+        for (int page = 0; page < paginator.getPageCount(); page++) {
+            assertEquals(paragraph.getLineStart(4 * page), paginator.getPageStart(page));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> paginator.getPageStart(paginator.getPageCount()));
+        assertThrows(IllegalArgumentException.class, () -> paginator(pt, 0));
+    }
+
+    @Test
+    @DisplayName("Tables and lines with images are moved to the next page as a whole")
+    public void moveTablesAndLines() {
+        String table = "One\u200bText\u200bname!\u200bend\n";
+        PieceTable pt = new PieceTable(document("Intro\n" + table + "After",
+                new DecorationModel(6, table.length(), TextDecoration.builder().presets().build(),
+                        ParagraphDecoration.builder().tableDecoration(new TableDecoration(1, 3)).build())));
+        DocumentLayout layout = layout(pt);
+        assertTrue(layout.getParagraphs().get(1).getDecoration().hasTableDecoration());
+        // the table doesn't fit below the first paragraph, but it fits in a page
+        double pageHeight = layout.getParagraphTop(2) - 1;
+        DocumentPaginator paginator = paginator(pt, pageHeight);
+        assertEquals(0, paginator.getPageStart(0));
+        assertEquals(6, paginator.getPageStart(1));
+
+        String text = TEXT + " \ufffc " + TEXT;
+        int imagePosition = TEXT.length() + 1;
+        pt = new PieceTable(document(text,
+                new DecorationModel(imagePosition, 1, new ImageDecoration(IMAGE_URL, 40, 60), null)));
+        ParagraphLayout paragraph = layout(pt).getParagraphs().get(0);
+        int imageLine = paragraph.getLineIndex(imagePosition);
+        assertTrue(imageLine > 1);
+        assertTrue(paragraph.getLineHeight(imageLine) >= 60);
+        // the page ends in the middle of the line with the image
+        pageHeight = paragraph.getLineTop(imageLine) + paragraph.getLineHeight(imageLine) / 2;
+        paginator = paginator(pt, pageHeight);
+        assertEquals(paragraph.getLineStart(imageLine), paginator.getPageStart(1));
+    }
+
+    @Test
+    @DisplayName("Tables taller than a page are clipped")
+    public void clipping() {
+        String table = "One\u200bText\u200bname!\u200bend\n";
+        PieceTable pt = new PieceTable(document("Intro\n" + table + "After",
+                new DecorationModel(6, table.length(), TextDecoration.builder().presets().build(),
+                        ParagraphDecoration.builder().tableDecoration(new TableDecoration(1, 3))
+                                .insets(100, 0, 100, 0).build())));
+        DocumentLayout layout = layout(pt);
+        double pageHeight = layout.getParagraphs().get(1).getHeight() / 2;
+        assertTrue(layout.getParagraphs().get(0).getHeight() < pageHeight);
+
+        DocumentPaginator paginator = paginator(pt, pageHeight);
+        assertEquals(3, paginator.getPageCount());
+        assertEquals(0, paginator.getPageStart(0));
+        assertEquals(6, paginator.getPageStart(1));
+        assertEquals(6 + table.length(), paginator.getPageStart(2));
+        Node page = paginator.renderPage(1);
+        Rectangle clip = assertInstanceOf(Rectangle.class, page.getClip());
+        assertEquals(WIDTH, clip.getWidth(), 0.01);
+        assertEquals(pageHeight, clip.getHeight(), 0.01);
+        // the table is rendered as a grid, with a text flow for each cell
+        Pane grid = assertInstanceOf(Pane.class, assertInstanceOf(Pane.class, page).getChildren().get(0));
+        assertEquals(3, grid.getChildren().size());
+        for (int i = 0; i < 3; i++) {
+            TextFlow cell = assertInstanceOf(TextFlow.class, grid.getChildren().get(i));
+            assertEquals(i * WIDTH / 3, cell.getLayoutX(), 0.01);
+            assertEquals(100, cell.getLayoutY(), 0.01);
+        }
+    }
+
+    @Test
+    @DisplayName("Edits compute again the pages from the modified paragraph")
+    public void invalidation() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            text.append("Paragraph ").append(i).append(" with some text\n");
+        }
+        PieceTable pt = new PieceTable(new Document(text.toString()));
+        double pageHeight = layout(pt).getParagraphTop(5) + 1;
+        DocumentPaginator paginator = paginator(pt, pageHeight);
+        assertEquals(7, paginator.getPageCount());
+        List<Integer> starts = getPageStarts(paginator);
+
+        int position = pt.getText().indexOf("Paragraph 20") + 10;
+        pt.insert(String.join(" ", TEXT, TEXT, TEXT), position);
+        List<Integer> inserted = getPageStarts(paginator);
+        assertEquals(getPageStarts(paginator(pt, pageHeight)), inserted);
+        assertEquals(starts.subList(0, 4), inserted.subList(0, 4));
+        assertTrue(inserted.size() > starts.size());
+
+        pt.delete(position, pt.getText().indexOf('\n', position) + 1 - position);
+        assertEquals(getPageStarts(paginator(pt, pageHeight)), getPageStarts(paginator));
+
+        int start = pt.getText().indexOf("Paragraph 3 ");
+        pt.decorate(start, start + 5, ParagraphDecoration.builder().presets().topInset(pageHeight / 2).build());
+        List<Integer> decorated = getPageStarts(paginator);
+        assertEquals(getPageStarts(paginator(pt, pageHeight)), decorated);
+        assertEquals(List.of(0, start), decorated.subList(0, 2));
+
+        // a disposed paginator doesn't follow the edits
+        paginator.dispose();
+        pt.insert("Title\n", 0);
+        assertEquals(decorated, getPageStarts(paginator));
+    }
+
+    private static List<Integer> getPageStarts(DocumentPaginator paginator) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < paginator.getPageCount(); i++) {
+            starts.add(paginator.getPageStart(i));
+        }
+        return starts;
+    }
+
+    private static Document document(String text, DecorationModel decorationModel) {
+        List<DecorationModel> decorations = new ArrayList<>();
+        TextDecoration textDecoration = TextDecoration.builder().presets().build();
+        ParagraphDecoration paragraphDecoration = ParagraphDecoration.builder().presets().build();
+        int start = decorationModel.getStart(), end = start + decorationModel.getLength();
+        if (start > 0) {
+            decorations.add(new DecorationModel(0, start, textDecoration, paragraphDecoration));
+        }
+        decorations.add(new DecorationModel(start, end - start, decorationModel.getDecoration(),
+                decorationModel.getParagraphDecoration() != null ? decorationModel.getParagraphDecoration() : paragraphDecoration));
+        if (end < text.length()) {
+            decorations.add(new DecorationModel(end, text.length() - end, textDecoration, paragraphDecoration));
+        }
+        return new Document(text, decorations, 0);
+    }
+
+    private static DocumentLayout layout(PieceTable pt) {
+        return new DocumentLayout(pt, WIDTH, DocumentLayout.createFragmentFactory(new ConcurrentHashMap<>(), WIDTH));
+    }
+
+    private static DocumentPaginator paginator(PieceTable pt, double pageHeight) {
+        return new DocumentPaginator(pt, WIDTH, pageHeight, DocumentLayout.createFragmentFactory(new ConcurrentHashMap<>(), WIDTH));
+    }
+}
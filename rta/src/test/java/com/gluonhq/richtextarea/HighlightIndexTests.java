@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Gluon
+ * Copyright (c) 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -25,36 +25,30 @@
  * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
-package com.gluonhq.richtextarea.model;
+package com.gluonhq.richtextarea;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-/**
- *
- * @author johan
- */
-public class AppendOnlyUnitBufferTests {
+import java.util.List;
+
+public class HighlightIndexTests {
 
     @Test
-    public void testCapacity() {
-        final AppendOnlyUnitBuffer additionBuffer = new AppendOnlyUnitBuffer();
-        int len = additionBuffer.unitLengths.length;
-        Assertions.assertTrue(len > 0);
-        int belowMax = (int)(len*.9);
-        for (int i = 0; i < belowMax; i++) {
-            TextUnit tu = new TextUnit("a");
-            additionBuffer.append(tu);
-        }
-        int len2 = additionBuffer.unitLengths.length;
-        Assertions.assertEquals(len, len2);
-        int aboveMax = (int)(len*1.1);
-        for (int i = belowMax; i < aboveMax; i++) {
-            TextUnit tu = new TextUnit("a");
-            additionBuffer.append(tu);
-        }
-        int len3 = additionBuffer.unitLengths.length;
-        Assertions.assertNotEquals(len, len3);
+    @DisplayName("Finds the highlights that overlap a range")
+    public void find() {
+        Highlight a = new Highlight(0, 50, "a");
+        Highlight b = new Highlight(5, 8, "b");
+        Highlight c = new Highlight(12, 20, "c");
+        Highlight d = new Highlight(30, 30, "d");
+        HighlightIndex index = new HighlightIndex(List.of(c, d, b, a));
+
+        Assertions.assertEquals(List.of(a, b), index.find(0, 10));
+        Assertions.assertEquals(List.of(a), index.find(8, 12));
+        Assertions.assertEquals(List.of(a, c), index.find(10, 40));
+        Assertions.assertEquals(List.of(), index.find(50, 60));
+        Assertions.assertEquals(List.of(), HighlightIndex.EMPTY.find(0, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Highlight(5, 4, "e"));
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Gluon
+ * Copyright (C) 2025, 2026 Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -16,6 +16,10 @@
  */
 package com.gluonhq.richtextarea;
 
+import com.gluonhq.richtextarea.model.Document;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +29,7 @@ import javafx.scene.Scene;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 /**
@@ -37,7 +42,11 @@ public class PerformanceTests {
 
     public static void main(String[] args) throws InterruptedException {
         PerformanceTests pt = new PerformanceTests();
-        pt.insertMany();
+        if (args.length > 0 && "viewers".equals(args[0])) {
+            pt.manyViewers();
+        } else {
+            pt.insertMany();
+        }
     }
 
     /**
@@ -147,4 +156,67 @@ public class PerformanceTests {
         Platform.exit();
     }
 
+    /**
+     * This test measures the memory retained by each rich text area, when many of them show
+     * the same document, with and without the editing state.
+     * The controls create their undo history, text statistics, search session, analysis
+     * pipeline, key bindings and context menu only when they are used, so both numbers
+     * should be close, and lower than before those were created lazily.
+     *
+     * Run this test with the argument "viewers" before and after a PR, to check for regression.
+     * @throws InterruptedException
+     */
+    public void manyViewers() throws InterruptedException {
+        final int VIEWER_CNT = 200; // how many controls to show
+        CountDownLatch cdl = new CountDownLatch(1);
+        Platform.startup(() -> {
+            this.stage = new Stage();
+            stage.setScene(new Scene(new StackPane(), 800, 600));
+            stage.show();
+            cdl.countDown();
+        });
+        cdl.await(1, TimeUnit.SECONDS);
+        Document document = new Document("Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n".repeat(20));
+        for (boolean editable : new boolean[] {false, true}) {
+            long before = usedMemory();
+            List<RichTextArea> viewers = new ArrayList<>();
+            CountDownLatch shown = new CountDownLatch(1);
+            Platform.runLater(() -> {
+                VBox box = new VBox();
+                for (int i = 0; i < VIEWER_CNT; i++) {
+                    RichTextArea rta = new RichTextArea();
+                    rta.setEditable(editable);
+                    rta.setDocument(document);
+                    rta.setPrefHeight(100);
+                    viewers.add(rta);
+                    box.getChildren().add(rta);
+                }
+                stage.getScene().setRoot(box);
+                box.applyCss();
+                box.layout();
+                shown.countDown();
+            });
+            shown.await(10, TimeUnit.SECONDS);
+            long after = usedMemory();
+            System.err.println((editable ? "Editable" : "Non editable") + " controls: average retained memory = " +
+                    (after - before) / VIEWER_CNT + " bytes");
+            CountDownLatch cleared = new CountDownLatch(1);
+            Platform.runLater(() -> {
+                stage.getScene().setRoot(new StackPane());
+                cleared.countDown();
+            });
+            cleared.await(1, TimeUnit.SECONDS);
+            viewers.clear();
+        }
+        Platform.exit();
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
 }
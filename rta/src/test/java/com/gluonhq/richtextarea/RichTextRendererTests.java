@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.emoji.EmojiSkinTone;
+import com.gluonhq.richtextarea.model.DecorationModel;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.ParagraphDecoration;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import javafx.scene.text.TextFlow;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RichTextRendererTests {
+
+    @BeforeAll
+    public static void startFx() {
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException e) {
+            // Platform already initialized
+        }
+    }
+
+    @Test
+    @DisplayName("Line feeds are rendered as separate text nodes, with the font of their text")
+    public void lineFeeds() {
+        String text = "one\ntwo\n\nthree";
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        Document document = new Document(text, List.of(new DecorationModel(0, text.length(), bold,
+                ParagraphDecoration.builder().presets().build())), 0);
+        TextFlow textFlow = new RichTextRenderer().render(document, 200);
+        assertEquals(List.of("one", "\n", "two", "\n", "\n", "three"), getTexts(textFlow));
+        Text first = (Text) textFlow.getChildren().get(0);
+        for (Node node : textFlow.getChildren()) {
+            assertEquals(first.getFont(), ((Text) node).getFont());
+        }
+    }
+
+    @Test
+    @DisplayName("A text flow is reused to render another document")
+    public void reuseTextFlow() {
+        RichTextRenderer renderer = new RichTextRenderer();
+        TextFlow textFlow = new TextFlow();
+        renderer.render(new Document("first\nsecond"), 200, textFlow);
+        assertEquals(List.of("first", "\n", "second"), getTexts(textFlow));
+        assertEquals(200, textFlow.getPrefWidth());
+
+        String text = "centered";
+        Document centered = new Document(text, List.of(new DecorationModel(0, text.length(),
+                TextDecoration.builder().presets().build(),
+                ParagraphDecoration.builder().presets().alignment(TextAlignment.CENTER).spacing(4).build())), 0);
+        renderer.render(centered, 150, textFlow);
+        assertEquals(List.of("centered"), getTexts(textFlow));
+        assertEquals(150, textFlow.getPrefWidth());
+        assertEquals(TextAlignment.CENTER, textFlow.getTextAlignment());
+        assertEquals(4, textFlow.getLineSpacing());
+
+        assertThrows(IllegalArgumentException.class, () -> renderer.render(centered, 0, textFlow));
+    }
+
+    @Test
+    @DisplayName("Snapshots are cached by document and width, least recently used first")
+    public void snapshots() throws Exception {
+        RichTextRenderer renderer = new RichTextRenderer();
+        Document document = new Document("Hello");
+        Image image = runOnFx(() -> renderer.snapshot(document, 100));
+        assertSame(image, runOnFx(() -> renderer.snapshot(document, 100)));
+        assertNotSame(image, runOnFx(() -> renderer.snapshot(document, 120)));
+        // documents are cached by identity
+        assertNotSame(image, runOnFx(() -> renderer.snapshot(new Document("Hello"), 100)));
+
+        // the document that is used again is kept, while the least recently used one is evicted
+        RichTextRenderer lru = new RichTextRenderer();
+        Document first = new Document("First"), second = new Document("Second");
+        Image firstImage = runOnFx(() -> lru.snapshot(first, 100));
+        Image secondImage = runOnFx(() -> lru.snapshot(second, 100));
+        runOnFx(() -> {
+            for (int i = 0; i < 254; i++) {
+                lru.snapshot(new Document("Text " + i), 100);
+            }
+            return null;
+        });
+        assertSame(firstImage, runOnFx(() -> lru.snapshot(first, 100)));
+        runOnFx(() -> lru.snapshot(new Document("One more"), 100));
+        assertSame(firstImage, runOnFx(() -> lru.snapshot(first, 100)));
+        assertNotSame(secondImage, runOnFx(() -> lru.snapshot(second, 100)));
+
+        renderer.setSkinTone(EmojiSkinTone.MEDIUM_SKIN_TONE);
+        assertNotSame(image, runOnFx(() -> renderer.snapshot(document, 100)));
+        Image cleared = runOnFx(() -> renderer.snapshot(document, 100));
+        renderer.clearCaches();
+        assertNotSame(cleared, runOnFx(() -> renderer.snapshot(document, 100)));
+    }
+
+    private static List<String> getTexts(TextFlow textFlow) {
+        return textFlow.getChildren().stream()
+                .map(node -> assertInstanceOf(Text.class, node).getText())
+                .toList();
+    }
+
+    private static <T> T runOnFx(Callable<T> callable) throws Exception {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea;
+
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.Paragraph;
+import com.gluonhq.richtextarea.model.PieceTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class TextAnalysisPipelineTests {
+
+    @Test
+    @DisplayName("Only the changed paragraphs are analyzed again")
+    public void analyzeChangedParagraphs() throws InterruptedException {
+        PieceTable pt = new PieceTable(new Document("teh one\nsecond teh\nthird"));
+        List<Paragraph> paragraphs = new ArrayList<>();
+        BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+        List<List<Highlight>> published = new ArrayList<>();
+        TextAnalysisPipeline pipeline = new TextAnalysisPipeline(pt, paragraphs, fxQueue::add, published::add);
+
+        List<String> analyzed = new CopyOnWriteArrayList<>();
+        TextAnalyzer analyzer = text -> {
+            analyzed.add(text);
+            List<Highlight> marks = new ArrayList<>();
+            for (int i = text.indexOf("teh"); i >= 0; i = text.indexOf("teh", i + 1)) {
+                marks.add(new Highlight(i, i + 3, "spelling", true));
+            }
+            return marks;
+        };
+        updateParagraphs(pt, paragraphs);
+        pipeline.setAnalyzers(List.of(analyzer));
+        drain(fxQueue);
+        Assertions.assertEquals(3, analyzed.size());
+        Assertions.assertEquals(List.of(0, 15), starts(published.get(published.size() - 1)));
+
+        // edits the second and third paragraphs, the first one keeps its marks
+        analyzed.clear();
+        pt.insert("x", 9);
+        pt.delete(20, 2);
+        updateParagraphs(pt, paragraphs);
+        drain(fxQueue);
+        Assertions.assertEquals(List.of("ird", "sxecond teh\n"), analyzed.stream().sorted().collect(Collectors.toList()));
+        Assertions.assertEquals(List.of(0, 16), starts(published.get(published.size() - 1)));
+
+        // going back to a previous text hits the cache
+        analyzed.clear();
+        pt.undo();
+        pt.undo();
+        updateParagraphs(pt, paragraphs);
+        drain(fxQueue);
+        Assertions.assertEquals(List.of(), analyzed);
+        Assertions.assertEquals(List.of(0, 15), starts(published.get(published.size() - 1)));
+        Assertions.assertTrue(published.get(published.size() - 1).get(0).isUnderline());
+
+        pipeline.setAnalyzers(List.of());
+        drain(fxQueue);
+        Assertions.assertEquals(List.of(), published.get(published.size() - 1));
+        pipeline.dispose();
+    }
+
+    @Test
+    @DisplayName("Only the dirty paragraphs are read, with the given executor")
+    public void readDirtyParagraphs() throws InterruptedException {
+        PieceTable pt = new PieceTable(new Document("paragraph\n".repeat(1000) + "end"));
+        AtomicInteger reads = new AtomicInteger();
+        List<Paragraph> paragraphs = new ArrayList<>();
+        List<Paragraph> countedParagraphs = new AbstractList<>() {
+            @Override
+            public Paragraph get(int index) {
+                reads.incrementAndGet();
+                return paragraphs.get(index);
+            }
+
+            @Override
+            public int size() {
+                return paragraphs.size();
+            }
+        };
+        BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+        List<List<Highlight>> published = new ArrayList<>();
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        try {
+            AtomicInteger tasks = new AtomicInteger();
+            TextAnalysisPipeline pipeline = new TextAnalysisPipeline(pt, countedParagraphs, fxQueue::add, task -> {
+                tasks.incrementAndGet();
+                workers.execute(task);
+            }, published::add);
+            TextAnalyzer analyzer = text -> text.startsWith("x") ? List.of(new Highlight(0, 1, "mark", false)) : List.of();
+            updateParagraphs(pt, paragraphs);
+            pipeline.setAnalyzers(List.of(analyzer));
+            drain(fxQueue);
+            Assertions.assertEquals(paragraphs.size(), tasks.get());
+
+            tasks.set(0);
+            reads.set(0);
+            pt.insert("x", 5000);
+            updateParagraphs(pt, paragraphs);
+            drain(fxQueue);
+            Assertions.assertEquals(1, tasks.get());
+            Assertions.assertEquals(List.of(5000), starts(published.get(published.size() - 1)));
+            Assertions.assertTrue(reads.get() < 50);
+
+            pipeline.dispose();
+            Assertions.assertFalse(workers.isShutdown());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // runs the tasks posted to the application thread, until the workers are done
+    private static void drain(BlockingQueue<Runnable> fxQueue) throws InterruptedException {
+        Runnable task;
+        while ((task = fxQueue.poll(200, TimeUnit.MILLISECONDS)) != null) {
+            task.run();
+        }
+    }
+
+    private static void updateParagraphs(PieceTable pt, List<Paragraph> paragraphs) {
+        pt.resetCharacterIterator();
+        paragraphs.clear();
+        int start = 0;
+        for (int lineFeed : pt.getLineFeeds()) {
+            paragraphs.add(new Paragraph(start, lineFeed + 1, null));
+            start = lineFeed + 1;
+        }
+        paragraphs.add(new Paragraph(start, pt.getTextLength(), null));
+    }
+
+    private static List<Integer> starts(List<Highlight> highlights) {
+        return highlights.stream().map(Highlight::getStart).sorted().collect(Collectors.toList());
+    }
+}
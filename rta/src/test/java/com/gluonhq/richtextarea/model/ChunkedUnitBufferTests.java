@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChunkedUnitBufferTests {
+
+    @Test
+    public void appendAcrossChunks() {
+        ChunkedUnitBuffer buffer = new ChunkedUnitBuffer();
+        UnitBuffer expected = new UnitBuffer();
+        ImageUnit image = new ImageUnit("image.png");
+        for (int i = 0; i < 3 * ChunkedUnitBuffer.CHUNK_SIZE / 10; i++) {
+            Unit unit = i % 100 == 0 ? image : new TextUnit("unit " + i + "\n");
+            buffer.append(unit);
+            expected.append(unit);
+        }
+        Assertions.assertEquals(expected.length(), buffer.length());
+        Assertions.assertEquals(expected.getInternalText(), buffer.getInternalText());
+        Assertions.assertEquals(expected.getText(), buffer.getText());
+        Assertions.assertEquals(expected.getUnitList().toString(), buffer.getUnitList().toString());
+
+        int boundary = ChunkedUnitBuffer.CHUNK_SIZE;
+        Assertions.assertEquals(expected.getInternalText(boundary - 5, boundary + 5), buffer.getInternalText(boundary - 5, boundary + 5));
+        CharSequence sequence = buffer.getInternalCharSequence();
+        Assertions.assertEquals(expected.getInternalText().charAt(boundary), sequence.charAt(boundary));
+        Assertions.assertEquals(expected.getInternalText(boundary - 5, boundary + 5), sequence.subSequence(boundary - 5, boundary + 5).toString());
+
+        Assertions.assertSame(image, buffer.getUnitWithRange(0, 1));
+        Assertions.assertEquals("TU{'unit 1<n>'}", buffer.getUnitWithRange(1, 2).toString());
+        Assertions.assertEquals(expected.getUnitWithRange(boundary, boundary + 1).toString(), buffer.getUnitWithRange(boundary, boundary + 1).toString());
+
+        List<Integer> indices = new ArrayList<>();
+        buffer.indicesOf('\n', 0, 20, indices::add);
+        Assertions.assertEquals(List.of(7, 14), indices);
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> buffer.insert(new TextUnit("a"), 0));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> buffer.remove(0, 1));
+    }
+
+    @Test
+    public void capacity() {
+        // the lengths of the units grow past their initial capacity, one unit at a time
+        ChunkedUnitBuffer buffer = new ChunkedUnitBuffer();
+        for (int i = 0; i < 5000; i++) {
+            buffer.append(new TextUnit(i % 2 == 0 ? "a" : "bc"));
+        }
+        Assertions.assertEquals(7500, buffer.length());
+        Assertions.assertEquals(5000, buffer.getUnitList().size());
+        Assertions.assertEquals("TU{'a'}", buffer.getUnitWithRange(4497, 4498).toString());
+        Assertions.assertEquals("TU{'bc'}", buffer.getUnitWithRange(7499, 7500).toString());
+    }
+
+    @Test
+    public void copy() {
+        ChunkedUnitBuffer buffer = new ChunkedUnitBuffer();
+        String text = "a".repeat(ChunkedUnitBuffer.CHUNK_SIZE + 10);
+        buffer.append(new TextUnit(text));
+        ChunkedUnitBuffer copy = new ChunkedUnitBuffer(buffer);
+        buffer.append(new TextUnit("source"));
+        copy.append(new TextUnit("copy"));
+        Assertions.assertEquals(text + "source", buffer.getInternalText());
+        Assertions.assertEquals(text + "copy", copy.getInternalText());
+        Assertions.assertEquals(2, copy.getUnitList().size());
+    }
+}
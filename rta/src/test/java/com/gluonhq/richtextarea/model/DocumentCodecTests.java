@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+public class DocumentCodecTests {
+
+    @Test
+    @DisplayName("Codec: round trip of text and decorations")
+    public void roundTrip() throws IOException {
+        String text = "Bold \ud83d\ude00 \u00e9t\u00e9 \ufeff@name\ufeff!\n\u2022 Image\ufffc\nTable\u200bcell\n";
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        TextDecoration partial = TextDecoration.builder().fontPosture(FontPosture.ITALIC).underline(true).url("https://gluonhq.com").build();
+        ImageDecoration image = new ImageDecoration("image.png", 32, -1, null);
+        ParagraphDecoration presets = ParagraphDecoration.builder().presets().build();
+        ParagraphDecoration list = ParagraphDecoration.builder().presets().graphicType(ParagraphDecoration.GraphicType.BULLETED_LIST).build();
+        TextAlignment[][] cellAlignment = {{TextAlignment.LEFT, TextAlignment.RIGHT}};
+        ParagraphDecoration table = ParagraphDecoration.builder().tableDecoration(new TableDecoration(1, 2, cellAlignment)).build();
+        Document document = new Document(text, List.of(
+                new DecorationModel(0, 5, bold, presets),
+                new DecorationModel(5, 12, partial, presets),
+                new DecorationModel(17, 11, null, list),
+                new DecorationModel(28, 1, image, list),
+                new DecorationModel(29, 12, bold, table),
+                new DecorationModel(41, 0, partial, null)), 7);
+
+        Document copy = roundTrip(document);
+        Assertions.assertEquals(document, copy);
+        Assertions.assertEquals(7, copy.getCaretPosition());
+        Assertions.assertSame(copy.getDecorations().get(0).getDecoration(), copy.getDecorations().get(4).getDecoration());
+        Assertions.assertSame(copy.getDecorations().get(0).getParagraphDecoration(), copy.getDecorations().get(1).getParagraphDecoration());
+        Assertions.assertNull(copy.getDecorations().get(2).getDecoration());
+        Assertions.assertNull(copy.getDecorations().get(5).getParagraphDecoration());
+    }
+
+    @Test
+    @DisplayName("Codec: empty and malformed text")
+    public void text() throws IOException {
+        Assertions.assertEquals(new Document(), roundTrip(new Document()));
+        Document document = new Document("lone \ud83d surrogates \ude00", null, 0);
+        Document copy = roundTrip(document);
+        Assertions.assertEquals(document.getText(), copy.getText());
+        Assertions.assertNull(copy.getDecorations());
+
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 20_000) {
+            sb.append("\ud83d\ude00 text ");
+        }
+        document = new Document(sb.toString());
+        Assertions.assertEquals(document, roundTrip(document));
+    }
+
+    @Test
+    @DisplayName("Codec: documents in one stream")
+    public void stream() throws IOException {
+        Document first = new Document("first");
+        Document second = new Document("second", 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DocumentCodec.write(first, out);
+        DocumentCodec.write(second, out);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        Assertions.assertEquals(first, DocumentCodec.read(in));
+        Assertions.assertEquals(second, DocumentCodec.read(in));
+        Assertions.assertEquals(0, in.available());
+    }
+
+    @Test
+    @DisplayName("Codec: invalid input")
+    public void invalidInput() throws IOException {
+        Assertions.assertThrows(IOException.class, () -> DocumentCodec.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5})));
+        Assertions.assertThrows(IOException.class, () -> DocumentCodec.read(new ByteArrayInputStream(new byte[] {'R', 'T', 'A', 'D', 99})));
+        byte[] bytes = encode(new Document("some text"));
+        byte[] truncated = new byte[bytes.length - 4];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        Assertions.assertThrows(IOException.class, () -> DocumentCodec.read(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    @DisplayName("Codec: corrupted counts")
+    public void corruptedCounts() {
+        // magic, version, caret position and empty text
+        byte[] header = {'R', 'T', 'A', 'D', 1, 0, 0};
+        byte[] maxCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        byte[] negativeCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        // a run with no decoration and a new paragraph decoration that has only a table decoration
+        byte[] tableRun = {2, 0, 0, 0, 1, 2, (byte) 0x80, 0x01, 0, 1, 1};
+        // a run with a new text decoration that has only a foreground color
+        byte[] foregroundRun = {2, 0, 0, 1, 0, 1};
+
+        assertReadFails(header, negativeCount);
+        assertReadFails(header, maxCount);
+        assertReadFails(header, tableRun, negativeCount);
+        assertReadFails(header, tableRun, maxCount);
+        assertReadFails(header, tableRun, new byte[] {1}, maxCount);
+        assertReadFails(header, foregroundRun, negativeCount);
+        assertReadFails(header, foregroundRun, maxCount);
+    }
+
+    @Test
+    @DisplayName("Codec: decorations serialized by previous versions")
+    public void previousSerializedForm() throws IOException, ClassNotFoundException {
+        // serialized with the decorations of the previous release, that didn't declare a serialVersionUID
+        String textDecoration = "rO0ABXNyAC1jb20uZ2x1b25ocS5yaWNodGV4dGFyZWEubW9kZWwuVGV4dERlY29yYXRpb263F2bCdlfM2gIACUQACGZvbnRTaXplTAAKYmFja2dyb3VuZHQAEkxqYXZhL2xhbmcvU3RyaW5nO0wACmZvbnRGYW1pbHlxAH4AAUwAC2ZvbnRQb3N0dXJldAAfTGphdmFmeC9zY2VuZS90ZXh0L0ZvbnRQb3N0dXJlO0wACmZvbnRXZWlnaHR0AB5MamF2YWZ4L3NjZW5lL3RleHQvRm9udFdlaWdodDtMAApmb3JlZ3JvdW5kcQB+AAFMAA1zdHJpa2V0aHJvdWdodAATTGphdmEvbGFuZy9Cb29sZWFuO0wACXVuZGVybGluZXEAfgAETAADdXJscQB+AAF4cEAsAAAAAAAAdAALdHJhbnNwYXJlbnR0AAZTeXN0ZW1+cgAdamF2YWZ4LnNjZW5lLnRleHQuRm9udFBvc3R1cmUAAAAAAAAAABIAAHhyAA5qYXZhLmxhbmcuRW51bQAAAAAAAAAAEgAAeHB0AAdSRUdVTEFSfnIAHGphdmFmeC5zY2VuZS50ZXh0LkZvbnRXZWlnaHQAAAAAAAAAABIAAHhxAH4ACXQABEJPTER0AAVibGFja3NyABFqYXZhLmxhbmcuQm9vbGVhbs0gcoDVnPruAgABWgAFdmFsdWV4cABxAH4AEXQAE2h0dHBzOi8vZ2x1b25ocS5jb20=";
+        String paragraphDecoration = "rO0ABXNyADJjb20uZ2x1b25ocS5yaWNodGV4dGFyZWEubW9kZWwuUGFyYWdyYXBoRGVjb3JhdGlvbstQMNNMh4p1AgAJSQAQaW5kZW50YXRpb25MZXZlbEwACWFsaWdubWVudHQAIUxqYXZhZngvc2NlbmUvdGV4dC9UZXh0QWxpZ25tZW50O0wAC2JvdHRvbUluc2V0dAASTGphdmEvbGFuZy9Eb3VibGU7TAALZ3JhcGhpY1R5cGV0AEBMY29tL2dsdW9uaHEvcmljaHRleHRhcmVhL21vZGVsL1BhcmFncmFwaERlY29yYXRpb24kR3JhcGhpY1R5cGU7TAAJbGVmdEluc2V0cQB+AAJMAApyaWdodEluc2V0cQB+AAJMAAdzcGFjaW5ncQB+AAJMAA90YWJsZURlY29yYXRpb250ADBMY29tL2dsdW9uaHEvcmljaHRleHRhcmVhL21vZGVsL1RhYmxlRGVjb3JhdGlvbjtMAAh0b3BJbnNldHEAfgACeHAAAAABfnIAH2phdmFmeC5zY2VuZS50ZXh0LlRleHRBbGlnbm1lbnQAAAAAAAAAABIAAHhyAA5qYXZhLmxhbmcuRW51bQAAAAAAAAAAEgAAeHB0AAZDRU5URVJzcgAQamF2YS5sYW5nLkRvdWJsZYCzwkopa/sEAgABRAAFdmFsdWV4cgAQamF2YS5sYW5nLk51bWJlcoaslR0LlOCLAgAAeHAAAAAAAAAAAH5yAD5jb20uZ2x1b25ocS5yaWNodGV4dGFyZWEubW9kZWwuUGFyYWdyYXBoRGVjb3JhdGlvbiRHcmFwaGljVHlwZQAAAAAAAAAAEgAAeHEAfgAHdAANTlVNQkVSRURfTElTVHNxAH4ACgAAAAAAAAAAc3EAfgAKAAAAAAAAAABzcQB+AAoAAAAAAAAAAHNyAC5jb20uZ2x1b25ocS5yaWNodGV4dGFyZWEubW9kZWwuVGFibGVEZWNvcmF0aW9uA3RauLFbamsCAANJAAdjb2x1bW5zSQAEcm93c1sADWNlbGxBbGlnbm1lbnR0ACNbW0xqYXZhZngvc2NlbmUvdGV4dC9UZXh0QWxpZ25tZW50O3hwAAAAAAAAAAB1cgAjW1tMamF2YWZ4LnNjZW5lLnRleHQuVGV4dEFsaWdubWVudDutmwAi9zJU5gIAAHhwAAAAAHNxAH4ACgAAAAAAAAAA";
+        Assertions.assertEquals(
+                TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).url("https://gluonhq.com").build(),
+                deserialize(textDecoration));
+        Assertions.assertEquals(
+                ParagraphDecoration.builder().presets().alignment(TextAlignment.CENTER)
+                        .graphicType(ParagraphDecoration.GraphicType.NUMBERED_LIST).build(),
+                deserialize(paragraphDecoration));
+    }
+
+    @Test
+    @DisplayName("Codec: size compared to serialized form")
+    public void serializedSize() throws IOException {
+        TextDecoration[] decorations = {
+                TextDecoration.builder().presets().build(),
+                TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build(),
+                TextDecoration.builder().presets().foreground("red").build()};
+        ParagraphDecoration paragraphDecoration = ParagraphDecoration.builder().presets().build();
+        String run = "Some words in a run, ";
+        StringBuilder sb = new StringBuilder();
+        List<DecorationModel> decorationModels = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            decorationModels.add(new DecorationModel(sb.length(), run.length(), decorations[i % 3], paragraphDecoration));
+            sb.append(run);
+        }
+        Document document = new Document(sb.toString(), decorationModels, 0);
+
+        byte[] encoded = encode(document);
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(document);
+        }
+        Assertions.assertEquals(document, DocumentCodec.read(new ByteArrayInputStream(encoded)));
+        // both contain the text (21000 bytes), the codec takes ~4 bytes per run
+        int textSize = sb.length();
+        Assertions.assertTrue(encoded.length - textSize < 5 * decorationModels.size(), "Encoded size: " + encoded.length);
+        Assertions.assertTrue(encoded.length - textSize < (serialized.size() - textSize) / 4,
+                "Encoded size: " + encoded.length + ", serialized size: " + serialized.size());
+    }
+
+    private static void assertReadFails(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        Assertions.assertThrows(IOException.class, () -> DocumentCodec.read(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    private static Object deserialize(String base64) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(base64)))) {
+            return in.readObject();
+        }
+    }
+
+    private static byte[] encode(Document document) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DocumentCodec.write(document, out);
+        return out.toByteArray();
+    }
+
+    private static Document roundTrip(Document document) throws IOException {
+        return DocumentCodec.read(new ByteArrayInputStream(encode(document)));
+    }
+}
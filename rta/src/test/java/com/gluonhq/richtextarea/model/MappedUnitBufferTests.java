@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MappedUnitBufferTests {
+
+    @Test
+    public void mapText() throws IOException {
+        String text = createText();
+        MappedUnitBuffer buffer = MappedUnitBuffer.map(createFile(text.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertTrue(buffer.getUnitList().size() > 1);
+        Assertions.assertEquals(text.length(), buffer.length());
+        Assertions.assertEquals(text, buffer.getInternalText());
+        Assertions.assertEquals(text, buffer.getText());
+        int boundary = buffer.getUnitList().get(0).length();
+        Assertions.assertEquals(text.substring(boundary - 10, boundary + 10), buffer.getInternalText(boundary - 10, boundary + 10));
+        Assertions.assertEquals(text.charAt(boundary), buffer.getInternalCharSequence().charAt(boundary));
+        Assertions.assertSame(buffer.getUnitList().get(1), buffer.getUnitWithRange(boundary, boundary + 1));
+
+        List<Integer> lineFeeds = new ArrayList<>();
+        buffer.indicesOf('\n', 0, buffer.length(), lineFeeds::add);
+        Assertions.assertEquals(indicesOf(text, '\n'), lineFeeds);
+        Assertions.assertEquals(lineFeeds.size(), buffer.getLineFeedCount());
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> buffer.insert(new TextUnit("a"), 0));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> buffer.remove(0, 1));
+    }
+
+    @Test
+    public void mapWithByteOrderMark() throws IOException {
+        byte[] bytes = "\ufeffHello\nWorld".getBytes(StandardCharsets.UTF_8);
+        MappedUnitBuffer buffer = MappedUnitBuffer.map(createFile(bytes));
+        Assertions.assertEquals("Hello\nWorld", buffer.getInternalText());
+        Assertions.assertEquals(1, buffer.getLineFeedCount());
+    }
+
+    @Test
+    public void mapEmptyFile() throws IOException {
+        PieceTable pt = PieceTable.map(createFile(new byte[0]));
+        Assertions.assertEquals(0, pt.getTextLength());
+        pt.append("Hello");
+        Assertions.assertEquals("Hello", pt.getText());
+    }
+
+    @Test
+    public void editMappedPieceTable() throws IOException {
+        String text = createText();
+        PieceTable pt = PieceTable.map(createFile(text.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(text.length(), pt.getTextLength());
+        Assertions.assertEquals(text, pt.getText());
+        Assertions.assertEquals(indicesOf(text, '\n'), pt.getLineFeeds());
+
+        int position = pt.originalText.getUnitList().get(0).length() - 2;
+        pt.insert("new\ntext", position);
+        pt.delete(5, 3);
+        String expected = text.substring(0, 5) + text.substring(8, position) + "new\ntext" + text.substring(position);
+        Assertions.assertEquals(expected, pt.getText());
+        pt.resetCharacterIterator();
+        Assertions.assertEquals(indicesOf(expected, '\n'), pt.getLineFeeds());
+
+        StringBuilder sb = new StringBuilder();
+        pt.walkFragments((u, d) -> sb.append(u.getText()), position - 10, position + 20);
+        Assertions.assertEquals(expected.substring(position - 10, position + 20), sb.toString());
+
+        pt.undo();
+        pt.undo();
+        Assertions.assertEquals(text, pt.getText());
+    }
+
+    private static String createText() {
+        // multi-byte chars and surrogate pairs around the chunk boundaries
+        StringBuilder sb = new StringBuilder();
+        int line = 0;
+        while (sb.length() < 3 * MappedUnitBuffer.CHUNK_SIZE) {
+            sb.append("Line ").append(line++).append(": caf\u00e9 \u20ac \ud83d\ude00 text\n");
+        }
+        return sb.toString();
+    }
+
+    private static List<Integer> indicesOf(String text, char c) {
+        return IntStream.range(0, text.length()).filter(i -> text.charAt(i) == c).boxed().collect(Collectors.toList());
+    }
+
+    private static Path createFile(byte[] bytes) throws IOException {
+        Path path = Files.createTempFile("mapped", ".txt");
+        path.toFile().deleteOnExit();
+        return Files.write(path, bytes);
+    }
+}
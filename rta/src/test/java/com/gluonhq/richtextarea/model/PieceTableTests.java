@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, 2024, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -34,7 +34,14 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.text.CharacterIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class PieceTableTests {
 
@@ -519,4 +526,344 @@ public class PieceTableTests {
                 .anyMatch(piece -> ((TextDecoration) piece.getDecoration()).getFontSize() == defaultFontSize));
     }
 
+    @Test
+    @DisplayName("Character iterator walks text over several pieces")
+    public void characterIteratorWalk() {
+        PieceTable pt = new PieceTable(FACE_MODEL);
+        pt.insert("Bigger ", 9); // 'Original Bigger Text'
+        pt.append("\nEnd");     // 'Original Bigger Text\nEnd'
+        pt.resetCharacterIterator();
+        String text = pt.getText();
+        CharacterIterator iterator = pt.getCharacterIterator();
+        StringBuilder forward = new StringBuilder();
+        for (char c = iterator.first(); c != CharacterIterator.DONE; c = iterator.next()) {
+            forward.append(c);
+        }
+        Assertions.assertEquals(text, forward.toString());
+        StringBuilder backward = new StringBuilder();
+        for (char c = iterator.last(); c != CharacterIterator.DONE; c = iterator.previous()) {
+            backward.append(c);
+        }
+        Assertions.assertEquals(text, backward.reverse().toString());
+        Assertions.assertEquals('B', iterator.setIndex(9));
+        Assertions.assertEquals('E', iterator.setIndex(21));
+        Assertions.assertEquals('O', iterator.setIndex(0));
+        Assertions.assertEquals(List.of(20), pt.getLineFeeds());
+    }
+
+    @Test
+    @DisplayName("Char sequence view of a range of text")
+    public void charSequenceView() {
+        PieceTable pt = new PieceTable(FACE_MODEL);
+        pt.insert("Bigger ", 9); // 'Original Bigger Text'
+        pt.decorate(0, 8, TextDecoration.builder().fontWeight(FontWeight.BOLD).build());
+        CharSequence sequence = pt.getCharSequence(0, pt.getTextLength());
+        Assertions.assertEquals(pt.getText(), sequence.toString());
+        Assertions.assertEquals("nal Bigger Te", pt.getCharSequence(5, 18).toString());
+        Assertions.assertEquals("Bigger", sequence.subSequence(9, 15).toString());
+
+        Matcher matcher = Pattern.compile("B\\w+").matcher(sequence);
+        Assertions.assertTrue(matcher.find());
+        Assertions.assertEquals(9, matcher.start());
+        Assertions.assertEquals(15, matcher.end());
+
+        // the view is a snapshot
+        pt.delete(0, 9);
+        Assertions.assertEquals("Original Bigger Text", sequence.toString());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> pt.getCharSequence(0, 100));
+    }
+
+    @Test
+    @DisplayName("Load document with many decorations")
+    public void loadManyDecorations() {
+        String run = "word \ud83d\ude00 ";
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        List<DecorationModel> decorations = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            decorations.add(new DecorationModel(sb.length(), run.length(), i % 2 == 0 ? bold : null, null));
+            sb.append(run);
+        }
+        PieceTable pt = new PieceTable(new Document(sb.toString(), decorations, 0));
+        Assertions.assertEquals(sb.toString(), pt.getText());
+        Assertions.assertEquals(7000, pt.getTextLength());
+        Assertions.assertEquals(3000, pt.pieces.size());
+        Assertions.assertEquals(pt.getTextLength(), pt.originalText.length());
+        Assertions.assertEquals("EU{1F600}", pt.pieces.get(2998).getUnit().toString());
+        Assertions.assertEquals(bold, pt.pieces.get(2996).getDecoration());
+        Assertions.assertNotEquals(bold, pt.pieces.get(2997).getDecoration());
+    }
+
+    @Test
+    @DisplayName("Snapshot is not affected by further changes")
+    public void snapshot() {
+        PieceTable pt = new PieceTable(FACE_MODEL);
+        pt.append("\nSecond");
+        pt.decorate(0, 8, TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build());
+        PieceTable snapshot = pt.snapshot();
+        pt.insert("Third\n", 14);
+        pt.delete(0, 9);
+        Assertions.assertEquals("Original Text\nSecond", snapshot.getText());
+        Assertions.assertEquals(20, snapshot.getTextLength());
+        Assertions.assertEquals(List.of(13), snapshot.getLineFeeds());
+        Assertions.assertEquals(FontWeight.BOLD, ((TextDecoration) snapshot.getDecorationAtCaret(1)).getFontWeight());
+        Assertions.assertEquals("Text\nThird\nSecond", pt.getText());
+        snapshot.append("!");
+        Assertions.assertEquals("Text\nThird\nSecond", pt.getText());
+    }
+
+    @Test
+    @DisplayName("Write text and decorations")
+    public void writeTo() throws IOException {
+        PieceTable pt = new PieceTable(FACE_MODEL);
+        pt.append(" \ud83d\ude00 end");
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        pt.decorate(9, 13, bold);
+        StringBuilder sb = new StringBuilder();
+        List<DecorationModel> runs = new ArrayList<>();
+        pt.writeTo(sb, 0, pt.getTextLength(), runs::add);
+        Assertions.assertEquals("Original Text \ud83d\ude00 end", sb.toString());
+        Assertions.assertEquals(pt.getText(), sb.toString());
+        Assertions.assertEquals(3, runs.size());
+        Assertions.assertEquals(9, runs.get(1).getStart());
+        Assertions.assertEquals(4, runs.get(1).getLength());
+        Assertions.assertEquals(bold, runs.get(1).getDecoration());
+        Assertions.assertEquals(13, runs.get(2).getStart());
+        Assertions.assertEquals(7, runs.get(2).getLength());
+        Assertions.assertEquals(pt.getDecorationModelList(0, pt.getTextLength()), runs);
+
+        sb.setLength(0);
+        runs.clear();
+        pt.writeTo(sb, 10, 15, runs::add);
+        Assertions.assertEquals("ext \ud83d\ude00", sb.toString());
+        Assertions.assertEquals(2, runs.size());
+        Assertions.assertEquals(3, runs.get(1).getStart());
+        Assertions.assertEquals(3, runs.get(1).getLength());
+    }
+
+    @Test
+    @DisplayName("Transaction is undone and redone at once, with a single event")
+    public void transaction() {
+        PieceTable pt = new PieceTable(FACE_MODEL);
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        pt.beginTransaction();
+        pt.insert("Bigger ", 9);
+        pt.delete(0, 9);
+        pt.append(" here");
+        pt.decorate(0, 6, bold);
+        TextBuffer.Transaction transaction = pt.endTransaction();
+        Assertions.assertEquals("Bigger Text here", pt.getText());
+        Assertions.assertFalse(transaction.isEmpty());
+        Assertions.assertTrue(transaction.getRetainedSize() > 0);
+        Assertions.assertThrows(IllegalStateException.class, pt::endTransaction);
+
+        // the changes are not part of the undo history of the piece table
+        pt.undo();
+        Assertions.assertEquals("Bigger Text here", pt.getText());
+
+        List<TextBuffer.Event> events = new ArrayList<>();
+        pt.addChangeListener(events::add);
+        transaction.undo();
+        Assertions.assertEquals(FACE_MODEL.getText(), pt.getText());
+        Assertions.assertEquals(FACE_MODEL.getText().length(), pt.getTextLength());
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertTrue(((TextBuffer.TransactionEvent) events.get(0)).isUndo());
+
+        transaction.redo();
+        Assertions.assertEquals("Bigger Text here", pt.getText());
+        Assertions.assertEquals(bold, pt.getDecorationAtCaret(3));
+        Assertions.assertEquals(2, events.size());
+    }
+
+    @Test
+    @DisplayName("Decoration dictionary is compacted, and the kept transactions can still be undone")
+    public void compactDecorations() {
+        PieceTable pt = new PieceTable(new Document("Hello world"));
+        List<TextBuffer.Transaction> transactions = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            pt.beginTransaction();
+            pt.decorate(0, 5, TextDecoration.builder().presets().fontSize(i).build());
+            transactions.add(pt.endTransaction());
+        }
+        Assertions.assertTrue(pt.decorationDictionary.size() >= 100);
+
+        // the oldest transactions are evicted from the undo history
+        List<TextBuffer.Transaction> kept = new ArrayList<>(transactions.subList(95, 100));
+        transactions.clear();
+        pt.compactDecorations();
+        Assertions.assertTrue(pt.decorationDictionary.size() < 5);
+        // the dictionary is not compacted again until it doubles its size
+        pt.compactDecorations();
+        Assertions.assertTrue(pt.decorationDictionary.size() < 5);
+
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            kept.get(i).undo();
+        }
+        Assertions.assertEquals(95.0, ((TextDecoration) pt.getDecorationAtCaret(2)).getFontSize());
+        Assertions.assertEquals("Hello world", pt.getText());
+        kept.forEach(TextBuffer.Transaction::redo);
+        Assertions.assertEquals(100.0, ((TextDecoration) pt.getDecorationAtCaret(2)).getFontSize());
+
+        // new changes use the compacted dictionary
+        pt.beginTransaction();
+        pt.decorate(0, 5, TextDecoration.builder().presets().fontSize(101).build());
+        TextBuffer.Transaction last = pt.endTransaction();
+        last.undo();
+        Assertions.assertEquals(100.0, ((TextDecoration) pt.getDecorationAtCaret(2)).getFontSize());
+    }
+
+    @Test
+    @DisplayName("Transaction events carry the range of their changes")
+    public void transactionEventRange() {
+        PieceTable pt = new PieceTable(new Document("Hello world\nsecond line"));
+        pt.beginTransaction();
+        pt.insert("big ", 6);
+        pt.delete(0, 1);
+        TextBuffer.Transaction transaction = pt.endTransaction();
+        pt.beginTransaction();
+        pt.insert("x", 20);
+        TextBuffer.Transaction typing = pt.endTransaction();
+        Assertions.assertEquals("ello big world\nseconxd line", pt.getText());
+
+        List<TextBuffer.Event> events = new ArrayList<>();
+        pt.addChangeListener(events::add);
+        typing.undo();
+        assertTransactionEvent(events.get(0), true, 20, 1, 0);
+        // "ello big " is replaced with "Hello "
+        transaction.undo();
+        assertTransactionEvent(events.get(1), true, 0, 9, 6);
+        transaction.redo();
+        assertTransactionEvent(events.get(2), false, 0, 6, 9);
+
+        // nested batches merge the ranges of their changes
+        pt.runAsBatch(() -> {
+            transaction.undo();
+            pt.insert("!", pt.getTextLength());
+        });
+        Assertions.assertEquals("Hello world\nsecond line!", pt.getText());
+        assertTransactionEvent(events.get(3), false, 0, 26, 24);
+
+        pt.replaceAll(SearchQuery.literal("o", true), "00");
+        Assertions.assertEquals("Hell00 w00rld\nsec00nd line!", pt.getText());
+        assertTransactionEvent(events.get(4), false, 4, 12, 15);
+        pt.undo();
+        assertTransactionEvent(events.get(5), true, 4, 15, 12);
+
+        pt.decorate(2, 4, TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build());
+        pt.runAsBatch(pt::undo);
+        assertTransactionEvent(events.get(7), false, 2, 2, 2);
+        pt.runAsBatch(() -> {});
+        assertTransactionEvent(events.get(8), false, 0, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Replacing all the matches sets the text length once")
+    public void replaceAllTextLength() {
+        PieceTable pt = new PieceTable(new Document("one two one three one"));
+        List<Number> lengths = new ArrayList<>();
+        pt.textLengthProperty().addListener((obs, ov, nv) -> lengths.add(nv));
+        Assertions.assertEquals(3, pt.replaceAll(SearchQuery.literal("one", true), "1"));
+        Assertions.assertEquals("1 two 1 three 1", pt.getText());
+        Assertions.assertEquals(List.of(15), lengths);
+        pt.undo();
+        Assertions.assertEquals(List.of(15, 21), lengths);
+
+        Assertions.assertEquals(0, pt.replaceAll(SearchQuery.literal("four", true), "4"));
+        Assertions.assertEquals(List.of(15, 21), lengths);
+    }
+
+    private static void assertTransactionEvent(TextBuffer.Event event, boolean undo, int position, int removedLength, int insertedLength) {
+        TextBuffer.TransactionEvent transactionEvent = (TextBuffer.TransactionEvent) event;
+        Assertions.assertEquals(undo, transactionEvent.isUndo());
+        Assertions.assertEquals(position, transactionEvent.getPosition());
+        Assertions.assertEquals(removedLength, transactionEvent.getRemovedLength());
+        Assertions.assertEquals(insertedLength, transactionEvent.getInsertedLength());
+    }
+
+    @Test
+    @DisplayName("Undo records restore pieces and decorations")
+    public void undoMixedEdits() {
+        PieceTable pt = new PieceTable(FACE_MODEL);
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        ParagraphDecoration indented = ParagraphDecoration.builder().presets().indentationLevel(1).build();
+        List<DecorationModel> decorations = pt.getDecorationModelList(0, pt.getTextLength());
+        pt.insert("Bigger ", 9);
+        pt.decorate(0, 20, bold);
+        pt.delete(3, 8);
+        pt.append(" and\nmore");
+        pt.decorate(0, pt.getTextLength(), indented);
+        pt.decorate(2, 6, TextDecoration.builder().presets().build());
+        pt.insert("x", 1);
+        String text = pt.getText();
+        List<DecorationModel> editedDecorations = pt.getDecorationModelList(0, pt.getTextLength());
+        for (int i = 0; i < 7; i++) {
+            pt.undo();
+        }
+        Assertions.assertEquals(FACE_MODEL.getText(), pt.getText());
+        Assertions.assertEquals(decorations, pt.getDecorationModelList(0, pt.getTextLength()));
+        for (int i = 0; i < 7; i++) {
+            pt.redo();
+        }
+        Assertions.assertEquals(text, pt.getText());
+        Assertions.assertEquals(editedDecorations, pt.getDecorationModelList(0, pt.getTextLength()));
+    }
+
+    @Test
+    @DisplayName("Decorate all: applies ranges in a single command, like consecutive decorations")
+    public void decorateAll() {
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        TextDecoration red = TextDecoration.builder().presets().foreground("red").build();
+        TextDecoration mono = TextDecoration.builder().presets().fontFamily("Monospaced").build();
+        List<DecorationModel> models = List.of(
+                new DecorationModel(10, 6, red, null),
+                new DecorationModel(0, 4, bold, null),
+                new DecorationModel(2, 12, mono, null),
+                new DecorationModel(17, 100, bold, null));
+
+        PieceTable expected = new PieceTable(FACE_MODEL);
+        expected.insert("Bigger ", 9);
+        models.forEach(m -> expected.decorate(m.getStart(), m.getStart() + m.getLength(), m.getDecoration()));
+
+        PieceTable pt = new PieceTable(FACE_MODEL);
+        pt.insert("Bigger ", 9);
+        List<DecorationModel> decorations = pt.getDecorationModelList(0, pt.getTextLength());
+        AtomicInteger events = new AtomicInteger();
+        pt.addChangeListener(e -> events.incrementAndGet());
+        pt.decorateAll(models);
+        Assertions.assertEquals(1, events.get());
+        Assertions.assertEquals(expected.getText(), pt.getText());
+        Assertions.assertEquals(expected.getDecorationModelList(0, expected.getTextLength()),
+                pt.getDecorationModelList(0, pt.getTextLength()));
+
+        pt.undo();
+        Assertions.assertEquals(decorations, pt.getDecorationModelList(0, pt.getTextLength()));
+        pt.redo();
+        Assertions.assertEquals(expected.getDecorationModelList(0, expected.getTextLength()),
+                pt.getDecorationModelList(0, pt.getTextLength()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> pt.decorateAll(List.of(new DecorationModel(0, 2, ParagraphDecoration.builder().presets().build(), null))));
+    }
+
+    @Test
+    @DisplayName("Converting a document reports the progress of its decorations")
+    public void conversionProgress() {
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        StringBuilder text = new StringBuilder();
+        List<DecorationModel> decorations = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String word = "word" + i + " ";
+            decorations.add(new DecorationModel(text.length(), word.length(), bold, null));
+            text.append(word);
+        }
+        List<Double> progress = new ArrayList<>();
+        PieceTable pt = new PieceTable(new Document(text.toString(), decorations, 0), value -> {
+            synchronized (progress) {
+                progress.add(value);
+            }
+        });
+        Assertions.assertEquals(text.toString(), pt.getText());
+        Assertions.assertEquals(300, progress.size());
+        Assertions.assertTrue(progress.stream().allMatch(p -> p > 0 && p <= 1));
+        Assertions.assertEquals(1.0, progress.stream().mapToDouble(Double::doubleValue).max().orElse(0));
+    }
 }
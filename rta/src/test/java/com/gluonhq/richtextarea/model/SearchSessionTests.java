@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SearchSessionTests {
+
+    @Test
+    @DisplayName("Extending a literal query narrows the matches")
+    public void narrowQuery() {
+        PieceTable pt = new PieceTable(new Document("aaab aab Aab"));
+        SearchSession session = new SearchSession(pt);
+        AtomicInteger changes = new AtomicInteger();
+        session.addMatchesListener(s -> changes.incrementAndGet());
+        session.setQuery(SearchQuery.literal("a", false));
+        assertMatches(pt, session);
+        session.setQuery(SearchQuery.literal("aa", false));
+        assertMatches(pt, session);
+        // the match of "aab" at 1 overlaps the match of "aa" at 0
+        session.setQuery(SearchQuery.literal("aab", false));
+        Assertions.assertEquals(List.of(1, 5, 9), starts(session));
+        assertMatches(pt, session);
+        session.setQuery(SearchQuery.literal("aab", false));
+        Assertions.assertEquals(3, changes.get());
+        session.setQuery(null);
+        Assertions.assertEquals(0, session.getMatchCount());
+    }
+
+    @Test
+    @DisplayName("Matches are updated when text is inserted or deleted")
+    public void updateMatches() {
+        PieceTable pt = new PieceTable(new Document("one two one three one"));
+        SearchSession session = new SearchSession(pt);
+        session.setQuery(SearchQuery.literal("one", true));
+        Assertions.assertEquals(List.of(0, 8, 18), starts(session));
+        pt.insert("x", 9);
+        Assertions.assertEquals(List.of(0, 19), starts(session));
+        pt.delete(9, 1);
+        Assertions.assertEquals(List.of(0, 8, 18), starts(session));
+        pt.insert("one", 4);
+        Assertions.assertEquals(List.of(0, 4, 11, 21), starts(session));
+        pt.delete(0, 5);
+        assertMatches(pt, session);
+        pt.undo();
+        assertMatches(pt, session);
+        Assertions.assertEquals(2, session.nextMatchIndex(5));
+        Assertions.assertEquals(-1, session.nextMatchIndex(22));
+    }
+
+    @Test
+    @DisplayName("Matches are the same as a full search after random edits")
+    public void randomEdits() {
+        String[] fragments = {"ab", "a", "b", "ba", "\n", "abab", "c"};
+        List<SearchQuery> queries = List.of(SearchQuery.literal("ab", true), SearchQuery.literal("aba", true),
+                SearchQuery.regex("a+b", true), SearchQuery.regex("(ab)+", true));
+        Random random = new Random(42);
+        for (SearchQuery query : queries) {
+            PieceTable pt = new PieceTable(new Document("abab\nbaab"));
+            SearchSession session = new SearchSession(pt);
+            session.setQuery(query);
+            for (int i = 0; i < 200; i++) {
+                int length = pt.getTextLength();
+                if (length > 0 && random.nextInt(3) == 0) {
+                    int position = random.nextInt(length);
+                    pt.delete(position, 1 + random.nextInt(Math.min(3, length - position)));
+                } else {
+                    pt.insert(fragments[random.nextInt(fragments.length)], random.nextInt(length + 1));
+                }
+                assertMatches(pt, session);
+            }
+            session.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("Matches are the same as a full search after undoing and redoing transactions")
+    public void transactions() {
+        String[] fragments = {"ab", "a", "b", "\n", "abab", "c"};
+        List<SearchQuery> queries = List.of(SearchQuery.literal("ab", true), SearchQuery.regex("a+b", true));
+        Random random = new Random(5);
+        for (SearchQuery query : queries) {
+            PieceTable pt = new PieceTable(new Document("abab\nbaab\nab"));
+            SearchSession session = new SearchSession(pt);
+            session.setQuery(query);
+            Deque<TextBuffer.Transaction> transactions = new ArrayDeque<>();
+            for (int i = 0; i < 150; i++) {
+                if (!transactions.isEmpty() && random.nextInt(3) == 0) {
+                    TextBuffer.Transaction transaction = transactions.pop();
+                    transaction.undo();
+                    if (random.nextBoolean()) {
+                        transaction.redo();
+                        transactions.push(transaction);
+                    }
+                } else {
+                    pt.beginTransaction();
+                    for (int j = random.nextInt(3); j >= 0; j--) {
+                        int length = pt.getTextLength();
+                        if (length > 0 && random.nextBoolean()) {
+                            int position = random.nextInt(length);
+                            pt.delete(position, 1 + random.nextInt(Math.min(3, length - position)));
+                        } else {
+                            pt.insert(fragments[random.nextInt(fragments.length)], random.nextInt(length + 1));
+                        }
+                    }
+                    transactions.push(pt.endTransaction());
+                }
+                assertMatches(pt, session);
+            }
+            session.dispose();
+        }
+    }
+
+    private static void assertMatches(PieceTable pt, SearchSession session) {
+        List<Integer> expected = new ArrayList<>();
+        for (SearchMatch match : pt.findAll(session.getQuery())) {
+            expected.add(match.getStart());
+            expected.add(match.getEnd());
+        }
+        List<Integer> actual = new ArrayList<>();
+        for (int i = 0; i < session.getMatchCount(); i++) {
+            actual.add(session.getMatchStart(i));
+            actual.add(session.getMatchEnd(i));
+        }
+        Assertions.assertEquals(expected, actual, pt.getText());
+    }
+
+    private static List<Integer> starts(SearchSession session) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < session.getMatchCount(); i++) {
+            starts.add(session.getMatchStart(i));
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import javafx.scene.text.FontWeight;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class TextSearchTests {
+
+    @Test
+    @DisplayName("Literal search finds matches across pieces")
+    public void findLiteral() {
+        PieceTable pt = new PieceTable(new Document("one two one three"));
+        pt.insert("ONE ", 8);
+        pt.append(" o");
+        pt.append("ne");
+        // "one two ONE one three one"
+        List<Integer> starts = pt.findAll(SearchQuery.literal("one", true)).stream()
+                .map(SearchMatch::getStart).collect(Collectors.toList());
+        Assertions.assertEquals(List.of(0, 12, 22), starts);
+        starts = pt.findAll(SearchQuery.literal("one", false)).stream()
+                .map(SearchMatch::getStart).collect(Collectors.toList());
+        Assertions.assertEquals(List.of(0, 8, 12, 22), starts);
+        Assertions.assertEquals(12, pt.find(SearchQuery.literal("one", true), 1).orElseThrow().getStart());
+        Assertions.assertTrue(pt.find(SearchQuery.literal("one", true), 23).isEmpty());
+        Assertions.assertEquals(List.of(), pt.findAll(SearchQuery.literal("four", false)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> pt.find(SearchQuery.literal("one", true), 100));
+    }
+
+    @Test
+    @DisplayName("Literal search doesn't overlap matches")
+    public void findLiteralNonOverlapping() {
+        PieceTable pt = new PieceTable(new Document("aaaaa"));
+        Assertions.assertEquals(2, pt.findAll(SearchQuery.literal("aa", true)).size());
+    }
+
+    @Test
+    @DisplayName("Regular expression search skips empty matches")
+    public void findRegex() {
+        PieceTable pt = new PieceTable(new Document("id=12, value=345"));
+        List<SearchMatch> matches = pt.findAll(SearchQuery.regex("\\d*", true));
+        Assertions.assertEquals(2, matches.size());
+        Assertions.assertEquals(3, matches.get(0).getStart());
+        Assertions.assertEquals(5, matches.get(0).getEnd());
+        Assertions.assertEquals(1, pt.findAll(SearchQuery.regex(Pattern.compile("VALUE", Pattern.CASE_INSENSITIVE))).size());
+    }
+
+    @Test
+    @DisplayName("Matches after an emoji have their exportable positions")
+    public void exportPositions() {
+        PieceTable pt = new PieceTable(new Document("Emoji: \ud83d\ude00! and more"));
+        SearchMatch match = pt.find(SearchQuery.literal("more", true), 0).orElseThrow();
+        String text = pt.getText();
+        Assertions.assertEquals(text.indexOf("more"), match.getExportStart());
+        Assertions.assertEquals(text.indexOf("more") + 4, match.getExportEnd());
+        Assertions.assertEquals("more", pt.getText(match.getStart(), match.getEnd()));
+    }
+
+    @Test
+    @DisplayName("Replace all is a single command that keeps decorations")
+    public void replaceAll() {
+        PieceTable pt = new PieceTable(new Document("one two one three"));
+        TextDecoration bold = TextDecoration.builder().presets().fontWeight(FontWeight.BOLD).build();
+        pt.decorate(8, 11, bold);
+        pt.append(" one");
+        String text = pt.getText();
+        AtomicInteger events = new AtomicInteger();
+        pt.addChangeListener(e -> events.incrementAndGet());
+
+        Assertions.assertEquals(3, pt.replaceAll(SearchQuery.literal("one", true), "1"));
+        Assertions.assertEquals("1 two 1 three 1", pt.getText());
+        Assertions.assertEquals(pt.getText().length(), pt.getTextLength());
+        Assertions.assertEquals(1, events.get());
+        Assertions.assertEquals(bold, pt.getDecorationAtCaret(7));
+
+        pt.undo();
+        Assertions.assertEquals(text, pt.getText());
+        Assertions.assertEquals(text.length(), pt.getTextLength());
+        pt.redo();
+        Assertions.assertEquals("1 two 1 three 1", pt.getText());
+
+        Assertions.assertEquals(2, pt.replaceAll(SearchQuery.regex("(t)(\\w+)", true), "$2$1"));
+        Assertions.assertEquals("1 wot 1 hreet 1", pt.getText());
+        Assertions.assertEquals(0, pt.replaceAll(SearchQuery.literal("none", true), ""));
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class TextStatisticsTests {
+
+    private static final Pattern WORD = Pattern.compile("[A-Za-z0-9]+");
+
+    @Test
+    @DisplayName("Sum tree sums prefixes, finds positions, and inserts and removes rows")
+    public void sumTree() {
+        SumTree tree = new SumTree(2, new int[][] {{3, 1}, {0, 0}, {5, 1}, {2, 0}});
+        Assertions.assertEquals(4, tree.size());
+        Assertions.assertEquals(10, tree.prefixSum(0, 4));
+        Assertions.assertEquals(5, tree.sum(0, 1, 3));
+        Assertions.assertEquals(0, tree.indexOf(0, 2));
+        Assertions.assertEquals(2, tree.indexOf(0, 3));
+        Assertions.assertEquals(3, tree.indexOf(0, 9));
+        Assertions.assertEquals(4, tree.indexOf(0, 10));
+        Assertions.assertEquals(2, tree.indexOf(1, 1));
+        tree.add(1, 0, 4);
+        Assertions.assertEquals(1, tree.indexOf(0, 3));
+        Assertions.assertEquals(14, tree.prefixSum(0, 4));
+        Assertions.assertEquals(4, tree.get(1, 0));
+
+        tree.insert(1, new int[][] {{7, 1}, {1, 0}});
+        Assertions.assertEquals(6, tree.size());
+        Assertions.assertEquals(22, tree.prefixSum(0, 6));
+        Assertions.assertEquals(1, tree.indexOf(0, 3));
+        Assertions.assertEquals(4, tree.indexOf(1, 2));
+        tree.remove(0, 3);
+        Assertions.assertEquals(3, tree.size());
+        Assertions.assertEquals(4, tree.get(0, 0));
+        Assertions.assertEquals(11, tree.prefixSum(0, 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tree.remove(2, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tree.insert(0, new int[][] {{1}}));
+
+        // random operations, checked against a list, with a second column of ones
+        tree.add(0, 1, 1);
+        tree.add(2, 1, 1);
+        Random random = new Random(7);
+        List<Integer> values = new ArrayList<>(List.of(4, 5, 2));
+        for (int i = 0; i < 2000; i++) {
+            int index = random.nextInt(values.size() + 1);
+            if (random.nextBoolean() || values.isEmpty()) {
+                int value = random.nextInt(10);
+                values.add(index, value);
+                tree.insert(index, new int[][] {{value, 1}});
+            } else if (index < values.size()) {
+                int count = random.nextInt(Math.min(3, values.size() - index)) + 1;
+                values.subList(index, index + count).clear();
+                tree.remove(index, count);
+            }
+            Assertions.assertEquals(values.size(), tree.size());
+            int position = random.nextInt(values.size() * 10 + 1);
+            int expected = 0;
+            for (int sum = 0; expected < values.size() && sum + values.get(expected) <= position; expected++) {
+                sum += values.get(expected);
+            }
+            Assertions.assertEquals(expected, tree.indexOf(0, position));
+            int prefix = random.nextInt(values.size() + 1);
+            Assertions.assertEquals(values.subList(0, prefix).stream().mapToInt(Integer::intValue).sum(), tree.prefixSum(0, prefix));
+            Assertions.assertEquals(prefix, tree.prefixSum(1, prefix));
+        }
+    }
+
+    @Test
+    @DisplayName("Counts are updated when paragraphs are edited, split and joined")
+    public void updateCounts() {
+        PieceTable pt = new PieceTable(new Document("one two\nthree\n"));
+        TextStatistics statistics = new TextStatistics(pt);
+        AtomicInteger changes = new AtomicInteger();
+        statistics.addStatisticsListener(s -> changes.incrementAndGet());
+        Assertions.assertEquals(3, statistics.getParagraphCount());
+        Assertions.assertEquals(3, statistics.getWordCount());
+        Assertions.assertEquals(12, statistics.getCharacterCount());
+
+        pt.insert(" four\nfive", 13);
+        // "one two\nthree four\nfive\n"
+        Assertions.assertEquals(4, statistics.getParagraphCount());
+        Assertions.assertEquals(5, statistics.getWordCount());
+        Assertions.assertEquals(2, statistics.getWordCount(4, 14));
+        Assertions.assertEquals(9, statistics.getCharacterCount(4, 14));
+
+        pt.delete(6, 8);
+        // "one twfour\nfive\n"
+        Assertions.assertEquals(3, statistics.getParagraphCount());
+        Assertions.assertEquals(3, statistics.getWordCount());
+        Assertions.assertEquals(14, statistics.getCharacterCount());
+        Assertions.assertEquals(2, changes.get());
+        statistics.dispose();
+    }
+
+    @Test
+    @DisplayName("Counts are the same as counting the whole text after random edits")
+    public void randomEdits() {
+        String[] fragments = {"a", "bc ", " ", "\n", "de\nf", "\n\n", "gh i"};
+        Random random = new Random(7);
+        PieceTable pt = new PieceTable(new Document("ab cd\nef"));
+        TextStatistics statistics = new TextStatistics(pt);
+        for (int i = 0; i < 300; i++) {
+            int length = pt.getTextLength();
+            if (length > 0 && random.nextInt(3) == 0) {
+                int position = random.nextInt(length);
+                pt.delete(position, 1 + random.nextInt(Math.min(4, length - position)));
+            } else {
+                pt.insert(fragments[random.nextInt(fragments.length)], random.nextInt(length + 1));
+            }
+            if (i % 50 == 0) {
+                pt.undo();
+            }
+            String text = pt.getCharSequence(0, pt.getTextLength()).toString();
+            Assertions.assertEquals(text.split("\n", -1).length, statistics.getParagraphCount(), text);
+            Assertions.assertEquals(countWords(text), statistics.getWordCount(), text);
+            Assertions.assertEquals(text.replace("\n", "").length(), statistics.getCharacterCount(), text);
+            int start = random.nextInt(text.length() + 1);
+            int end = start + random.nextInt(text.length() - start + 1);
+            Assertions.assertEquals(text.substring(start, end).replace("\n", "").length(),
+                    statistics.getCharacterCount(start, end), text);
+        }
+    }
+
+    @Test
+    @DisplayName("Counts are the same as counting the whole text after undoing and redoing transactions")
+    public void transactions() {
+        String[] fragments = {"a", "bc ", " ", "\n", "de\nf", "gh i"};
+        Random random = new Random(11);
+        PieceTable pt = new PieceTable(new Document("ab cd\nef gh\nij"));
+        TextStatistics statistics = new TextStatistics(pt);
+        Deque<TextBuffer.Transaction> transactions = new ArrayDeque<>();
+        for (int i = 0; i < 200; i++) {
+            if (!transactions.isEmpty() && random.nextInt(3) == 0) {
+                TextBuffer.Transaction transaction = transactions.pop();
+                transaction.undo();
+                if (random.nextBoolean()) {
+                    transaction.redo();
+                    transactions.push(transaction);
+                }
+            } else {
+                pt.beginTransaction();
+                for (int j = random.nextInt(3); j >= 0; j--) {
+                    int length = pt.getTextLength();
+                    if (length > 0 && random.nextBoolean()) {
+                        int position = random.nextInt(length);
+                        pt.delete(position, 1 + random.nextInt(Math.min(4, length - position)));
+                    } else {
+                        pt.insert(fragments[random.nextInt(fragments.length)], random.nextInt(length + 1));
+                    }
+                }
+                transactions.push(pt.endTransaction());
+            }
+            String text = pt.getCharSequence(0, pt.getTextLength()).toString();
+            Assertions.assertEquals(text.split("\n", -1).length, statistics.getParagraphCount(), text);
+            Assertions.assertEquals(countWords(text), statistics.getWordCount(), text);
+            Assertions.assertEquals(text.replace("\n", "").length(), statistics.getCharacterCount(), text);
+        }
+        statistics.dispose();
+    }
+
+    private static int countWords(String text) {
+        int count = 0;
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
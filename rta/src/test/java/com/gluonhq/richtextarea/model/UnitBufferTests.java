@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2023, Gluon
+ * Copyright (c) 2023, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -254,4 +254,26 @@ public class UnitBufferTests {
         Assertions.assertEquals("[TU{'O'}, TU{'!'}]", originalText.getUnitList().toString());
         Assertions.assertEquals(2, originalText.length());
     }
+
+    @Test
+    @DisplayName("Unit: convert text to units")
+    public void convertTextToUnits() {
+        UnitBuffer buffer = UnitBuffer.convertTextToUnits("Plain text, caf\u00e9 \u65e5\u672c 123\n");
+        Assertions.assertEquals("[TU{'Plain text, caf\u00e9 \u65e5\u672c 123<n>'}]", buffer.getUnitList().toString());
+        Assertions.assertEquals(24, buffer.length());
+
+        buffer = UnitBuffer.convertTextToUnits("");
+        Assertions.assertTrue(buffer.isEmpty());
+
+        buffer = UnitBuffer.convertTextToUnits(FACE_MODEL.getText());
+        Assertions.assertEquals("[TU{'One '}, EU{1F600}, TU{' Text '}, BU{'@name'}, TU{'!'}]", buffer.getUnitList().toString());
+
+        buffer = UnitBuffer.convertTextToUnits("\ufeff!x\ufeff@a b\ufeff end \ud83d\ude00\ud83d\ude00");
+        Assertions.assertEquals("[TU{'\ufeff!x'}, BU{'@a b'}, TU{' end '}, EU{1F600}, EU{1F600}]", buffer.getUnitList().toString());
+        Assertions.assertEquals(11, buffer.length());
+
+        buffer = UnitBuffer.convertTextToUnits("\ufeff@a b\ufeff and \ufeff#c\ufeff, \ud83d\ude00 \ufeffX\ufeff@d\ufeff");
+        Assertions.assertEquals("[BU{'@a b'}, TU{' and '}, BU{'#c'}, TU{', '}, EU{1F600}, TU{' \ufeffX'}, BU{'@d'}]", buffer.getUnitList().toString());
+        Assertions.assertEquals(14, buffer.length());
+    }
 }
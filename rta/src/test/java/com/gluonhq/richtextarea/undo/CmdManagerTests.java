@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2022, Gluon
+ * Copyright (c) 2022, 2026, Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -31,6 +31,10 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class CmdManagerTests {
@@ -184,6 +188,298 @@ public class CmdManagerTests {
         commander.redo();
         Assertions.assertEquals(3, aInteger.get());
     }
+
+    @Test
+    @DisplayName("consecutive commands are merged within the merge timeout")
+    public void mergeCommands() {
+        StringBuilder text = new StringBuilder("Text");
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        commander.setMergeTimeout(Duration.ofMinutes(1));
+        commander.execute(new AppendCommand("-a"));
+        commander.execute(new AppendCommand("b"));
+        commander.execute(new AppendCommand("c"));
+        Assertions.assertEquals(1, commander.getUndoStackSize());
+        Assertions.assertEquals("Text-abc", text.toString());
+
+        commander.undo();
+        Assertions.assertEquals(0, commander.getUndoStackSize());
+        Assertions.assertEquals(1, commander.getRedoStackSize());
+        Assertions.assertEquals("Text", text.toString());
+
+        commander.redo();
+        Assertions.assertEquals("Text-abc", text.toString());
+
+        // no merge after undo or redo
+        commander.execute(new AppendCommand("d"));
+        Assertions.assertEquals(2, commander.getUndoStackSize());
+    }
+
+    @Test
+    @DisplayName("commands are not merged if merge is disabled or rejected")
+    public void noMergeCommands() {
+        StringBuilder text = new StringBuilder("Text");
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        commander.execute(new AppendCommand("-a"));
+        commander.execute(new AppendCommand("b"));
+        Assertions.assertEquals(2, commander.getUndoStackSize());
+
+        commander.setMergeTimeout(Duration.ofMinutes(1));
+        commander.execute(new AppendCommand(" "));
+        commander.execute(new AppendCommand("c"));
+        Assertions.assertEquals(3, commander.getUndoStackSize());
+
+        commander.endMerge();
+        commander.execute(new AppendCommand("d"));
+        Assertions.assertEquals(4, commander.getUndoStackSize());
+        Assertions.assertEquals("Text-ab cd", text.toString());
+    }
+
+    @Test
+    @DisplayName("undo last only undoes the last command, even if it was going to be merged")
+    public void undoLast() {
+        StringBuilder text = new StringBuilder("Text");
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        commander.setMergeTimeout(Duration.ofMinutes(1));
+        commander.execute(new AppendCommand("-a"));
+        commander.execute(new AppendCommand("b"));
+        commander.undoLast();
+        Assertions.assertEquals("Text-a", text.toString());
+        Assertions.assertEquals(1, commander.getUndoStackSize());
+        commander.undo();
+        Assertions.assertEquals("Text", text.toString());
+    }
+
+    @Test
+    @DisplayName("Commands executed during a transaction are recorded into a single command")
+    public void transaction() {
+        StringBuilder text = new StringBuilder("Text");
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        commander.beginTransaction();
+        commander.execute(new AppendCommand(" a"));
+        commander.execute(new AppendCommand(" b"));
+        Assertions.assertThrows(IllegalStateException.class, commander::beginTransaction);
+        CompositeCommand<StringBuilder> command = commander.endTransaction();
+        Assertions.assertEquals("Text a b", text.toString());
+        Assertions.assertEquals(0, commander.getUndoStackSize());
+        Assertions.assertEquals(8, command.getRetainedSize());
+
+        command.undo(text);
+        Assertions.assertEquals("Text", text.toString());
+        command.redo(text);
+        Assertions.assertEquals("Text a b", text.toString());
+        Assertions.assertThrows(IllegalStateException.class, commander::endTransaction);
+    }
+
+    @Test
+    @DisplayName("Oldest commands are discarded when the limit of commands is exceeded")
+    public void maxCommands() {
+        StringBuilder text = new StringBuilder("Text");
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        commander.setMaxCommands(2);
+        commander.execute(new AppendCommand(" a"));
+        commander.execute(new AppendCommand(" b"));
+        commander.execute(new AppendCommand(" c"));
+        Assertions.assertEquals(2, commander.getUndoStackSize());
+        Assertions.assertEquals(1, commander.getDiscardedCount());
+        commander.undo();
+        commander.undo();
+        commander.undo();
+        Assertions.assertEquals("Text a", text.toString());
+        Assertions.assertEquals(2, commander.getRedoStackSize());
+
+        commander.setMaxCommands(1);
+        Assertions.assertEquals(1, commander.getRedoStackSize());
+        commander.redo();
+        commander.redo();
+        Assertions.assertEquals("Text a b", text.toString());
+    }
+
+    @Test
+    @DisplayName("Oldest commands are discarded when the retained size limit is exceeded")
+    public void maxRetainedSize() {
+        StringBuilder text = new StringBuilder("Text");
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        commander.setMaxRetainedSize(10);
+        commander.execute(new AppendCommand(" ab"));
+        commander.execute(new AppendCommand(" cd"));
+        Assertions.assertEquals(1, commander.getUndoStackSize());
+        Assertions.assertEquals(6, commander.getRetainedSize());
+        commander.execute(new AppendCommand(" a long text"));
+        Assertions.assertEquals(1, commander.getUndoStackSize());
+        Assertions.assertEquals(24, commander.getRetainedSize());
+        commander.undo();
+        commander.undo();
+        Assertions.assertEquals("Text ab cd", text.toString());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> commander.setMaxRetainedSize(-1));
+    }
+
+    @Test
+    @DisplayName("Evicted commands are stored in the journal and can be undone")
+    public void journal() throws Exception {
+        StringBuilder text = new StringBuilder("Text");
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        try (FileCommandJournal<StringBuilder> journal = FileCommandJournal.createTemp(new AppendCommandCodec())) {
+            commander.setJournal(journal);
+            commander.setMaxCommands(1);
+            commander.execute(new AppendCommand(" a"));
+            commander.execute(new AppendCommand(" b"));
+            commander.execute(new AppendCommand(" c"));
+            Assertions.assertEquals(2, journal.size());
+            Assertions.assertEquals(3, commander.getUndoStackSize());
+            Assertions.assertEquals(0, commander.getDiscardedCount());
+
+            commander.undo();
+            commander.undo();
+            Assertions.assertEquals("Text a", text.toString());
+            Assertions.assertEquals(1, journal.size());
+            commander.execute(new AppendCommand(" d"));
+            Assertions.assertEquals(1, journal.size());
+            Assertions.assertEquals(0, commander.getRedoStackSize());
+            commander.undo();
+            commander.undo();
+            Assertions.assertEquals("Text", text.toString());
+            Assertions.assertEquals(0, commander.getUndoStackSize());
+
+            commander.clearStacks();
+            Assertions.assertEquals(0, journal.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Jumping through the history restores the nearest checkpoint and undoes the remaining commands")
+    public void jumpTo() {
+        StringBuilder text = new StringBuilder("Text");
+        AtomicInteger ends = new AtomicInteger();
+        AtomicInteger undos = new AtomicInteger();
+        AtomicInteger restores = new AtomicInteger();
+        CommandManager<StringBuilder> commander = new CommandManager<>(text, ends::incrementAndGet);
+        commander.setCheckpoints(2, sb -> {
+            String snapshot = sb.toString();
+            return new Checkpoint() {
+                @Override
+                public void restore() {
+                    restores.incrementAndGet();
+                    sb.replace(0, sb.length(), snapshot);
+                }
+
+                @Override
+                public long getRetainedSize() {
+                    return 2L * snapshot.length();
+                }
+            };
+        });
+        for (String s : new String[] {" a", " b", " c", " d", " e"}) {
+            commander.execute(new AppendCommand(s) {
+                @Override
+                protected void doUndo(StringBuilder context) {
+                    undos.incrementAndGet();
+                    super.doUndo(context);
+                }
+            });
+        }
+        Assertions.assertEquals(8 + 16 + 24 + 20, commander.getRetainedSize());
+
+        ends.set(0);
+        commander.jumpTo(1);
+        Assertions.assertEquals("Text a", text.toString());
+        Assertions.assertEquals(1, restores.get());
+        Assertions.assertEquals(1, undos.get());
+        Assertions.assertEquals(1, ends.get());
+        Assertions.assertEquals(1, commander.getUndoStackSize());
+        Assertions.assertEquals(4, commander.getRedoStackSize());
+
+        commander.jumpTo(5);
+        Assertions.assertEquals("Text a b c d e", text.toString());
+        commander.jumpTo(0);
+        Assertions.assertEquals("Text", text.toString());
+        Assertions.assertEquals(2, restores.get());
+        Assertions.assertEquals(1, undos.get());
+        commander.redo();
+        Assertions.assertEquals("Text a", text.toString());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> commander.jumpTo(6));
+    }
+
+    @Test
+    @DisplayName("Checkpoints are still taken once the limit of commands is exceeded, and rewind the commands they skip")
+    public void checkpointsBeyondLimit() {
+        StringBuilder text = new StringBuilder();
+        AtomicInteger undos = new AtomicInteger();
+        AtomicInteger rewinds = new AtomicInteger();
+        AtomicInteger restores = new AtomicInteger();
+        AtomicInteger checkpoints = new AtomicInteger();
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        commander.setMaxCommands(10);
+        commander.setCheckpoints(4, sb -> {
+            checkpoints.incrementAndGet();
+            String snapshot = sb.toString();
+            return new Checkpoint() {
+                @Override
+                public void restore() {
+                    restores.incrementAndGet();
+                    sb.replace(0, sb.length(), snapshot);
+                }
+
+                @Override
+                public long getRetainedSize() {
+                    return 0;
+                }
+            };
+        });
+        for (int i = 1; i <= 30; i++) {
+            commander.execute(new AppendCommand(i + " ") {
+                @Override
+                protected void doUndo(StringBuilder context) {
+                    undos.incrementAndGet();
+                    super.doUndo(context);
+                }
+
+                @Override
+                protected void rewind(StringBuilder context) {
+                    rewinds.incrementAndGet();
+                }
+            });
+        }
+        // the base checkpoint, and one every 4 commands
+        Assertions.assertEquals(1 + 7, checkpoints.get());
+        Assertions.assertEquals(10, commander.getUndoStackSize());
+        Assertions.assertEquals(20, commander.getDiscardedCount());
+
+        // commands 21 to 30 are in memory: the checkpoint after command 24 is the nearest one
+        commander.jumpTo(1);
+        Assertions.assertTrue(text.toString().endsWith("20 21 "));
+        Assertions.assertEquals(1, restores.get());
+        Assertions.assertEquals(3, undos.get());
+        Assertions.assertEquals(6, rewinds.get());
+        Assertions.assertEquals(9, commander.getRedoStackSize());
+
+        // the checkpoint after the last evicted command is the base checkpoint
+        commander.jumpTo(10);
+        commander.jumpTo(0);
+        Assertions.assertTrue(text.toString().endsWith("19 20 "));
+        Assertions.assertEquals(2, restores.get());
+        Assertions.assertEquals(3, undos.get());
+        Assertions.assertEquals(16, rewinds.get());
+    }
+
+    @Test
+    @DisplayName("Eviction listener is called when commands are evicted or the stacks are cleared")
+    public void evictionListener() {
+        StringBuilder text = new StringBuilder("Text");
+        CommandManager<StringBuilder> commander = new CommandManager<>(text);
+        AtomicInteger evictions = new AtomicInteger();
+        commander.setEvictionListener(evictions::incrementAndGet);
+        commander.setMaxCommands(2);
+        commander.execute(new AppendCommand(" a"));
+        commander.execute(new AppendCommand(" b"));
+        Assertions.assertEquals(0, evictions.get());
+        commander.execute(new AppendCommand(" c"));
+        Assertions.assertEquals(1, evictions.get());
+        commander.undo();
+        commander.undo();
+        Assertions.assertEquals(1, evictions.get());
+        commander.clearStacks();
+        Assertions.assertEquals(2, evictions.get());
+    }
 }
 
 class TestCommand extends AbstractCommand<StringBuilder> {
@@ -204,3 +500,57 @@ class TestCommand extends AbstractCommand<StringBuilder> {
         context.append("-redo");
     }
 }
+
+// appends text, and merges appended text unless it follows a whitespace
+class AppendCommand extends AbstractCommand<StringBuilder> {
+
+    String text;
+    int pos;
+
+    AppendCommand(String text) {
+        this.text = text;
+    }
+
+    @Override
+    protected void doUndo(StringBuilder context) {
+        context.delete(pos, pos + text.length());
+    }
+
+    @Override
+    protected void doRedo(StringBuilder context) {
+        pos = context.length();
+        context.append(text);
+    }
+
+    @Override
+    protected long getRetainedSize() {
+        return 2L * text.length();
+    }
+
+    @Override
+    protected boolean canMerge(AbstractCommand<StringBuilder> next) {
+        return next instanceof AppendCommand && !text.endsWith(" ");
+    }
+
+    @Override
+    protected void merge(AbstractCommand<StringBuilder> next) {
+        text += ((AppendCommand) next).text;
+    }
+}
+
+class AppendCommandCodec implements CommandCodec<StringBuilder> {
+
+    @Override
+    public void write(AbstractCommand<StringBuilder> command, DataOutput output) throws IOException {
+        AppendCommand appendCommand = (AppendCommand) command;
+        output.writeUTF(appendCommand.text);
+        output.writeInt(appendCommand.pos);
+    }
+
+    @Override
+    public AbstractCommand<StringBuilder> read(DataInput input) throws IOException {
+        AppendCommand appendCommand = new AppendCommand(input.readUTF());
+        appendCommand.pos = input.readInt();
+        return appendCommand;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.viewmodel;
+
+import com.gluonhq.richtextarea.model.DecorationModel;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.ParagraphDecoration;
+import com.gluonhq.richtextarea.model.PieceTable;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import javafx.application.Platform;
+import javafx.scene.text.FontWeight;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncDocumentTests {
+
+    @BeforeAll
+    public static void startFx() {
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException e) {
+            // Platform already initialized
+        }
+    }
+
+    @Test
+    @DisplayName("Opening a document completes with it, and reports the progress of the conversion")
+    public void openDocument() throws Exception {
+        Document document = createDocument(300);
+        RichTextAreaViewModel viewModel = createViewModel();
+        List<Double> progress = new CopyOnWriteArrayList<>();
+        CompletableFuture<Document> future = runOnFx(() -> {
+            viewModel.documentProgressProperty().addListener((obs, ov, nv) -> progress.add(nv.doubleValue()));
+            return viewModel.openAsync(document);
+        });
+
+        assertSame(document, future.get(10, TimeUnit.SECONDS));
+        assertSame(document, viewModel.getDocument());
+        assertEquals(document.getText(), viewModel.getTextBuffer().getText());
+        assertEquals(1.0, viewModel.getDocumentProgress());
+
+        // the progress goes from 0 to 1, through the conversion of the decorations in the first half
+        assertEquals(0.0, (double) progress.get(0));
+        assertEquals(1.0, (double) progress.get(progress.size() - 1));
+        assertTrue(progress.stream().anyMatch(p -> p > 0 && p < 0.5), "progress: " + progress);
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) > progress.get(i - 1), "progress: " + progress);
+        }
+    }
+
+    @Test
+    @DisplayName("Opening a missing file completes exceptionally, and finishes the progress")
+    public void openMissingFile() throws Exception {
+        RichTextAreaViewModel viewModel = createViewModel();
+        Document document = viewModel.getDocument();
+        CompletableFuture<Document> future = runOnFx(() -> viewModel.openAsync(Path.of("missing", "file.txt")));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(UncheckedIOException.class, exception.getCause());
+        assertTrue(future.isCompletedExceptionally());
+        assertSame(document, viewModel.getDocument());
+        assertEquals(1.0, viewModel.getDocumentProgress());
+    }
+
+    @Test
+    @DisplayName("Saving completes with the document, and sets it if the text was not modified")
+    public void saveDocument() throws Exception {
+        Document document = createDocument(300);
+        RichTextAreaViewModel viewModel = createViewModel();
+        viewModel.setTextBuffer(new PieceTable(document));
+        List<Double> progress = new CopyOnWriteArrayList<>();
+        CompletableFuture<Document> future = runOnFx(() -> {
+            viewModel.documentProgressProperty().addListener((obs, ov, nv) -> progress.add(nv.doubleValue()));
+            viewModel.setCaretPosition(5);
+            return viewModel.saveAsync();
+        });
+
+        Document saved = future.get(10, TimeUnit.SECONDS);
+        assertEquals(document.getText(), saved.getText());
+        assertEquals(viewModel.getTextBuffer().getDecorationModelList(0, document.getText().length()), saved.getDecorations());
+        assertEquals(5, saved.getCaretPosition());
+        assertSame(saved, viewModel.getDocument());
+        assertTrue(viewModel.isSaved());
+        assertEquals(1.0, viewModel.getDocumentProgress());
+        assertTrue(progress.stream().anyMatch(p -> p > 0 && p < 0.5), "progress: " + progress);
+
+        // the text is modified while saving: the future completes with the snapshot, but the document is not set
+        CompletableFuture<Document> modified = runOnFx(() -> {
+            CompletableFuture<Document> result = viewModel.saveAsync();
+            viewModel.getTextBuffer().insert("Hello ", 0);
+            return result;
+        });
+        Document snapshot = modified.get(10, TimeUnit.SECONDS);
+        assertEquals(document.getText(), snapshot.getText());
+        assertNotSame(snapshot, viewModel.getDocument());
+        assertSame(saved, viewModel.getDocument());
+        assertEquals(1.0, viewModel.getDocumentProgress());
+    }
+
+    /*
+     * Creates a view model that sets up the text buffer of its document, as the skin does
+     */
+    private static RichTextAreaViewModel createViewModel() {
+        RichTextAreaViewModel viewModel = new RichTextAreaViewModel((x, down) -> -1, down -> -1);
+        viewModel.documentProperty().addListener((obs, ov, nv) -> {
+            if (nv != null) {
+                viewModel.setTextBuffer(viewModel.createTextBuffer(nv));
+            }
+        });
+        viewModel.setDocument(new Document());
+        return viewModel;
+    }
+
+    private static Document createDocument(int words) {
+        StringBuilder text = new StringBuilder();
+        List<DecorationModel> decorations = new ArrayList<>();
+        ParagraphDecoration paragraphDecoration = ParagraphDecoration.builder().presets().build();
+        for (int i = 0; i < words; i++) {
+            String word = "word" + i + " ";
+            TextDecoration decoration = TextDecoration.builder().presets().fontWeight(i % 2 == 0 ? FontWeight.BOLD : FontWeight.NORMAL).build();
+            decorations.add(new DecorationModel(text.length(), word.length(), decoration, paragraphDecoration));
+            text.append(word);
+        }
+        return new Document(text.toString(), decorations, 0);
+    }
+
+    private static <T> T runOnFx(Callable<T> callable) throws Exception {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
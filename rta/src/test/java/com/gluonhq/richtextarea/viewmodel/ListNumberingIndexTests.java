@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.viewmodel;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ListNumberingIndexTests {
+
+    @Test
+    @DisplayName("Ordinals restart after a different indentation level or a non numbered paragraph")
+    public void ordinals() {
+        ListNumberingIndex index = new ListNumberingIndex();
+        int[] keys = {0, 0, 1, 1, 0, ListNumberingIndex.NOT_NUMBERED, 0, 0};
+        for (int key : keys) {
+            index.add(key);
+        }
+        int[] expected = {1, 2, 1, 2, 1, 0, 1, 2};
+        for (int i = 0; i < keys.length; i++) {
+            Assertions.assertEquals(expected[i], index.getOrdinal(i), "Paragraph " + i);
+        }
+
+        // joins both runs
+        Assertions.assertNull(index.pollChangedRange());
+        index.set(5, 0);
+        Assertions.assertEquals(2, index.getOrdinal(5));
+        Assertions.assertEquals(4, index.getOrdinal(7));
+        Assertions.assertArrayEquals(new int[] {5, 7}, index.pollChangedRange());
+        Assertions.assertNull(index.pollChangedRange());
+        index.set(5, 0);
+        Assertions.assertNull(index.pollChangedRange());
+
+        index.truncate(3);
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertEquals(1, index.getOrdinal(2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> index.getOrdinal(3));
+    }
+
+    @Test
+    @DisplayName("Ordinals match a full scan after random changes")
+    public void randomChanges() {
+        Random random = new Random(45);
+        ListNumberingIndex index = new ListNumberingIndex();
+        List<Integer> keys = new ArrayList<>();
+        List<Integer> ordinals = new ArrayList<>();
+        for (int n = 0; n < 2000; n++) {
+            int key = random.nextInt(4) - 1;
+            int operation = random.nextInt(10);
+            if (operation < 5 && !keys.isEmpty()) {
+                int i = random.nextInt(keys.size());
+                keys.set(i, key);
+                index.set(i, key);
+            } else if (operation < 9) {
+                keys.add(key);
+                index.add(key);
+            } else {
+                int newSize = random.nextInt(keys.size() + 1);
+                keys.subList(newSize, keys.size()).clear();
+                index.truncate(newSize);
+            }
+            int[] changed = index.pollChangedRange();
+            int ordinal = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                int k = keys.get(i);
+                ordinal = k == ListNumberingIndex.NOT_NUMBERED ? 0 :
+                        i > 0 && keys.get(i - 1) == k ? ordinal + 1 : 1;
+                Assertions.assertEquals(ordinal, index.getOrdinal(i), "Paragraph " + i + " after change " + n);
+                // existing paragraphs with a new ordinal are in the changed range
+                if (i < ordinals.size() && ordinals.get(i) != ordinal) {
+                    Assertions.assertTrue(changed != null && changed[0] <= i && i <= changed[1],
+                            "Paragraph " + i + " after change " + n);
+                }
+            }
+            ordinals.clear();
+            for (int i = 0; i < keys.size(); i++) {
+                ordinals.add(index.getOrdinal(i));
+            }
+        }
+    }
+}
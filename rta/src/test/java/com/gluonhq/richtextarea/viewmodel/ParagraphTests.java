@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Gluon
+ * Copyright (C) 2025, 2026 Gluon
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU General Public License as published by
@@ -16,9 +16,13 @@
  */
 package com.gluonhq.richtextarea.viewmodel;
 
+import com.gluonhq.richtextarea.model.DecorationModel;
 import com.gluonhq.richtextarea.model.Document;
 import com.gluonhq.richtextarea.model.Paragraph;
+import com.gluonhq.richtextarea.model.ParagraphDecoration;
 import com.gluonhq.richtextarea.model.PieceTable;
+import com.gluonhq.richtextarea.model.TextDecoration;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -167,6 +171,30 @@ public class ParagraphTests {
         assertEquals(2, ai.get(), "paragraph 2 and 3 should be changed, but we noticed "+ai.get()+" changes");
     }
 
+    @Test
+    public void testChangedListOrdinals() {
+        RichTextAreaViewModel viewModel = new RichTextAreaViewModel(this::getNextRowPosition, this::getNextTableCellPosition);
+        ParagraphDecoration numbered = ParagraphDecoration.builder().presets()
+                .graphicType(ParagraphDecoration.GraphicType.NUMBERED_LIST).build();
+        String text = "one\ntwo\nthree\nfour\nend";
+        List<DecorationModel> decorations = List.of(
+                new DecorationModel(0, 19, TextDecoration.builder().presets().build(), numbered),
+                new DecorationModel(19, 3, TextDecoration.builder().presets().build(), ParagraphDecoration.builder().presets().build()));
+        PieceTable pieceTable = new PieceTable(new Document(text, decorations, 0));
+        viewModel.setTextBuffer(pieceTable);
+        viewModel.updateParagraphList();
+        viewModel.pollChangedListOrdinals();
+        assertEquals(4, viewModel.getListOrdinal(viewModel.getParagraphList().get(3)));
+        assertNull(viewModel.pollChangedListOrdinals());
+
+        // the second paragraph leaves the list: the following items of the list are numbered again
+        pieceTable.decorate(4, 7, ParagraphDecoration.builder().presets().build());
+        viewModel.updateParagraphList();
+        assertEquals(2, viewModel.getListOrdinal(viewModel.getParagraphList().get(3)));
+        assertArrayEquals(new int[] {4, 19}, viewModel.pollChangedListOrdinals());
+        assertNull(viewModel.pollChangedListOrdinals());
+    }
+
     private void appendAndUpdate(PieceTable pieceTable, RichTextAreaViewModel viewModel, String text) {
         pieceTable.append(text);
         pieceTable.resetCharacterIterator();
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.viewmodel;
+
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.PieceTable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadOnlyViewModelTests {
+
+    @Test
+    public void testEditingStateIsCreatedWhenUsed() {
+        PieceTable pieceTable = new PieceTable(new Document("Hello world\nsecond line"));
+        RichTextAreaViewModel viewModel = new RichTextAreaViewModel((x, down) -> -1, down -> -1);
+        viewModel.setTextBuffer(pieceTable);
+        viewModel.updateParagraphList();
+        viewModel.setCaretPosition(5);
+        assertEquals(2, viewModel.getParagraphList().size());
+        assertFalse(viewModel.hasCommandManager());
+        assertFalse(viewModel.hasStatistics());
+        assertEquals(0, viewModel.getUndoStackSize());
+
+        // the statistics count the text buffer once they are used
+        assertEquals(4, viewModel.getWordCount());
+        assertTrue(viewModel.hasStatistics());
+        assertFalse(viewModel.hasCommandManager());
+
+        // the undo history is created with the first command, with the current limits
+        viewModel.setUndoLimit(1);
+        viewModel.getCommandManager().execute(new InsertCmd(","));
+        viewModel.setCaretPosition(0);
+        viewModel.getCommandManager().execute(new InsertCmd("Oh "));
+        assertTrue(viewModel.hasCommandManager());
+        assertEquals("Oh Hello, world\nsecond line", pieceTable.getText());
+        assertEquals(1, viewModel.getUndoStackSize());
+        assertEquals(5, viewModel.getWordCount());
+
+        // a new text buffer is counted as well
+        viewModel.setTextBuffer(new PieceTable(new Document("one two")));
+        assertEquals(2, viewModel.getWordCount());
+        assertEquals(0, viewModel.getUndoStackSize());
+    }
+}
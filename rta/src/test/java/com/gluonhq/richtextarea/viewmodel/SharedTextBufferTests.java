@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026, Gluon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL GLUON BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.gluonhq.richtextarea.viewmodel;
+
+import com.gluonhq.richtextarea.Selection;
+import com.gluonhq.richtextarea.model.Document;
+import com.gluonhq.richtextarea.model.PieceTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class SharedTextBufferTests {
+
+    @Test
+    public void testCaretAndSelectionFollowChangesOfOtherViewModels() {
+        PieceTable pieceTable = new PieceTable(new Document("Hello world"));
+        RichTextAreaViewModel first = createViewModel(pieceTable);
+        RichTextAreaViewModel second = createViewModel(pieceTable);
+        first.setCaretPosition(0);
+        second.setCaretPosition(6);
+        second.setSelection(new Selection(6, 11));
+
+        first.getCommandManager().execute(new InsertCmd("big "));
+        assertEquals("big Hello world", pieceTable.getText());
+        // the caret of the view model that inserts the text is moved only once
+        assertEquals(4, first.getCaretPosition());
+        assertEquals(1, first.getUndoStackSize());
+        assertEquals(10, second.getCaretPosition());
+        assertEquals(new Selection(10, 15), second.getSelection());
+
+        second.clearSelection();
+        second.getCommandManager().execute(new InsertCmd("new "));
+        assertEquals("big Hello new world", pieceTable.getText());
+        assertEquals(14, second.getCaretPosition());
+        assertEquals(1, second.getUndoStackSize());
+        assertEquals(4, first.getCaretPosition());
+        // changes of the first view model can't be undone over the changes of the second one
+        assertEquals(0, first.getUndoStackSize());
+
+        pieceTable.delete(2, 10);
+        assertEquals("biw world", pieceTable.getText());
+        assertEquals(2, first.getCaretPosition());
+        assertEquals(4, second.getCaretPosition());
+    }
+
+    @Test
+    public void testCaretAndSelectionFollowUndoOfOtherViewModels() {
+        PieceTable pieceTable = new PieceTable(new Document("Hello world"));
+        RichTextAreaViewModel first = createViewModel(pieceTable);
+        RichTextAreaViewModel second = createViewModel(pieceTable);
+        first.setCaretPosition(11);
+        first.setSelection(new Selection(6, 11));
+        second.setCaretPosition(5);
+
+        second.getCommandManager().execute(new InsertCmd(" big"));
+        assertEquals("Hello big world", pieceTable.getText());
+        assertEquals(15, first.getCaretPosition());
+        assertEquals(new Selection(10, 15), first.getSelection());
+
+        // undoing the insertion moves the positions after it back, instead of clamping them
+        second.getCommandManager().undo();
+        assertEquals("Hello world", pieceTable.getText());
+        assertEquals(5, second.getCaretPosition());
+        assertEquals(11, first.getCaretPosition());
+        assertEquals(new Selection(6, 11), first.getSelection());
+
+        second.getCommandManager().redo();
+        assertEquals("Hello big world", pieceTable.getText());
+        assertEquals(15, first.getCaretPosition());
+
+        // positions inside the text removed by undoing collapse to its start
+        first.clearSelection();
+        first.setCaretPosition(7);
+        second.getCommandManager().undo();
+        assertEquals("Hello world", pieceTable.getText());
+        assertEquals(5, first.getCaretPosition());
+    }
+
+    @Test
+    public void testOwnChangesAreToldApartFromSharedChanges() {
+        PieceTable pieceTable = new PieceTable(new Document("Hello world"));
+        RichTextAreaViewModel first = createViewModel(pieceTable);
+        RichTextAreaViewModel second = createViewModel(pieceTable);
+        List<Boolean> changing = new ArrayList<>();
+        // notified after the view models, like a skin
+        pieceTable.addChangeListener(e -> {
+            changing.add(first.isChangingText());
+            changing.add(second.isChangingText());
+        });
+        List<Boolean> following = new ArrayList<>();
+        second.caretPositionProperty().addListener((obs, ov, nv) -> following.add(second.isSharedChangeInProgress()));
+        first.setCaretPosition(0);
+        second.setCaretPosition(6);
+        following.clear();
+
+        first.getCommandManager().execute(new InsertCmd("big "));
+        assertEquals(List.of(true, false), changing);
+        // the caret of the second view model follows the change done by the first one
+        assertEquals(List.of(true), following);
+        assertFalse(second.isSharedChangeInProgress());
+
+        changing.clear();
+        following.clear();
+        second.getCommandManager().execute(new InsertCmd("new "));
+        assertEquals(List.of(false, true), changing);
+        assertFalse(following.isEmpty());
+        assertFalse(following.contains(true));
+    }
+
+    private RichTextAreaViewModel createViewModel(PieceTable pieceTable) {
+        RichTextAreaViewModel viewModel = new RichTextAreaViewModel((x, down) -> -1, down -> -1);
+        viewModel.setTextBuffer(pieceTable);
+        viewModel.updateParagraphList();
+        return viewModel;
+    }
+}